@@ -1,7 +1,6 @@
 /* See LICENSE for licensing and NOTICE for copyright. */
 package org.passay;
 
-import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -9,9 +8,18 @@ import java.util.Map;
  *
  * @author  Middleware Services
  */
-public abstract class AbstractCharacterRule implements CharacterRule
+public abstract class AbstractCharacterRule
+  implements CharacterRule, CacheableRule
 {
 
+  /** Names of the rule result detail parameters. */
+  private static final String[] PARAMETER_NAMES = {
+    "minimumRequired",
+    "matchingCharacterCount",
+    "validCharacters",
+    "matchingCharacters",
+  };
+
   /** Number of characters to require. Default value is 1. */
   protected int numCharacters = 1;
 
@@ -53,6 +61,13 @@ public abstract class AbstractCharacterRule implements CharacterRule
   protected abstract String getErrorCode();
 
 
+  @Override
+  public boolean isCacheable()
+  {
+    return true;
+  }
+
+
   @Override
   public RuleResult validate(final PasswordData passwordData)
   {
@@ -84,12 +99,13 @@ public abstract class AbstractCharacterRule implements CharacterRule
     final String password,
     final String matchingChars)
   {
-    final Map<String, Object> m = new LinkedHashMap<>();
-    m.put("minimumRequired", numCharacters);
-    m.put("matchingCharacterCount", matchingChars.length());
-    m.put("validCharacters", getValidCharacters());
-    m.put("matchingCharacters", matchingChars);
-    return m;
+    return
+      new ParameterMap(
+        PARAMETER_NAMES,
+        numCharacters,
+        matchingChars.length(),
+        getValidCharacters(),
+        matchingChars);
   }
 
 
@@ -1,7 +1,6 @@
 /* See LICENSE for licensing and NOTICE for copyright. */
 package org.passay;
 
-import java.util.LinkedHashMap;
 import java.util.Map;
 import org.passay.dictionary.Dictionary;
 
@@ -10,7 +9,7 @@ import org.passay.dictionary.Dictionary;
  *
  * @author  Middleware Services
  */
-public abstract class AbstractDictionaryRule implements Rule
+public abstract class AbstractDictionaryRule implements CacheableRule
 {
 
   /** Error code for matching dictionary word. */
@@ -19,6 +18,9 @@ public abstract class AbstractDictionaryRule implements Rule
   /** Error code for matching reversed dictionary word. */
   public static final String ERROR_CODE_REVERSED = "ILLEGAL_WORD_REVERSED";
 
+  /** Names of the rule result detail parameters. */
+  private static final String[] PARAMETER_NAMES = {"matchingWord"};
+
   /** Dictionary of words. */
   protected Dictionary dictionary;
 
@@ -72,6 +74,13 @@ public abstract class AbstractDictionaryRule implements Rule
   }
 
 
+  @Override
+  public boolean isCacheable()
+  {
+    return true;
+  }
+
+
   @Override
   public RuleResult validate(final PasswordData passwordData)
   {
@@ -111,9 +120,7 @@ public abstract class AbstractDictionaryRule implements Rule
   protected Map<String, Object> createRuleResultDetailParameters(
     final String word)
   {
-    final Map<String, Object> m = new LinkedHashMap<>();
-    m.put("matchingWord", word);
-    return m;
+    return new ParameterMap(PARAMETER_NAMES, word);
   }
 
 
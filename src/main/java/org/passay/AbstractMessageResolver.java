@@ -3,8 +3,8 @@ package org.passay;
 
 /**
  * Provides a baseline implementation of {@link #resolve(RuleResultDetail)}
- * which uses {@link String#format(String, Object...)} to resolve messages. When
- * no message is found for a particular key, the key and the {@link
+ * which uses a {@link MessageTemplate} to resolve messages. When no message is
+ * found for a particular key, the key and the {@link
  * RuleResultDetail#getParameters()} are used to construct a message.
  *
  * @author  Middleware Services
@@ -23,20 +23,59 @@ public abstract class AbstractMessageResolver implements MessageResolver
   protected abstract String getMessage(final String key);
 
 
+  /**
+   * Returns the message template for the supplied key. The default
+   * implementation compiles the message returned by {@link
+   * #getMessage(String)}; implementations should override this method to cache
+   * compiled templates.
+   *
+   * @param  key  which corresponds to a message
+   *
+   * @return  message template or null if no message exists for the key
+   */
+  protected MessageTemplate getTemplate(final String key)
+  {
+    final String message = getMessage(key);
+    return message != null ? new MessageTemplate(message) : null;
+  }
+
+
   @Override
   public String resolve(final RuleResultDetail detail)
+  {
+    return format(detail, getTemplate(detail.getErrorCode()));
+  }
+
+
+  /**
+   * Formats the message for the supplied detail with the supplied template.
+   *
+   * @param  detail  rule result detail
+   * @param  template  for the detail error code or null if no message exists
+   *
+   * @return  message for the detail
+   */
+  protected String format(
+    final RuleResultDetail detail,
+    final MessageTemplate template)
   {
     final String key = detail.getErrorCode();
-    final String message = getMessage(key);
-    String format;
-    if (message != null) {
-      format = String.format(message, detail.getValues());
-    } else {
-      if (!detail.getParameters().isEmpty()) {
-        format = String.format("%s:%s", key, detail.getParameters());
-      } else {
-        format = String.format("%s", key);
+    final String format;
+    if (template != null) {
+      format = template.format(detail.values());
+    } else if (detail.names().length > 0) {
+      final String[] names = detail.names();
+      final Object[] values = detail.values();
+      final StringBuilder sb = new StringBuilder(key).append(":{");
+      for (int i = 0; i < names.length; i++) {
+        if (i > 0) {
+          sb.append(", ");
+        }
+        sb.append(names[i]).append('=').append(values[i]);
       }
+      format = sb.append('}').toString();
+    } else {
+      format = key;
     }
     return format;
   }
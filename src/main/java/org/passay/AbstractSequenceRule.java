@@ -2,15 +2,13 @@
 package org.passay;
 
 import java.util.Arrays;
-import java.util.LinkedHashMap;
-import java.util.Map;
 
 /**
  * Provide common implementation for keyboard sequence rules.
  *
  * @author  Middleware Services
  */
-public abstract class AbstractSequenceRule implements Rule
+public abstract class AbstractSequenceRule implements CacheableRule
 {
 
   /** Error code for sequence validation failures. */
@@ -22,6 +20,9 @@ public abstract class AbstractSequenceRule implements Rule
   /** Minimum length of keyboard sequence, value is {@value}. */
   public static final int MINIMUM_SEQUENCE_LENGTH = 3;
 
+  /** Names of the rule result detail parameters. */
+  private static final String[] PARAMETER_NAMES = {"sequence"};
+
   /** Number of characters in sequence to match. */
   protected int sequenceLength = DEFAULT_SEQUENCE_LENGTH;
 
@@ -32,44 +33,25 @@ public abstract class AbstractSequenceRule implements Rule
   protected boolean reportAllFailures = true;
 
 
+  @Override
+  public boolean isCacheable()
+  {
+    return true;
+  }
+
+
   @Override
   public RuleResult validate(final PasswordData passwordData)
   {
     final RuleResult result = new RuleResult(true);
     final String password = passwordData.getPassword();
     final int max = password.length() - sequenceLength + 1;
-    Sequence sequence;
-    int position;
-    char c;
+    final String[] matches = new String[2];
     for (int i = 0; i < getSequenceCount(); i++) {
       for (int j = 0; j < max; j++) {
-        sequence = newSequence(getSequence(i), password.charAt(j));
-        if (sequence != null) {
-          position = j;
-          while (sequence.forward()) {
-            c = password.charAt(++position);
-            if (c == sequence.currentLower() || c == sequence.currentUpper()) {
-              sequence.addMatchCharacter(c);
-            } else {
-              break;
-            }
-          }
-          if (sequence.matchCount() == sequenceLength) {
-            recordFailure(result, sequence.matchString());
-          }
-          sequence.reset();
-          position = j;
-          while (sequence.backward()) {
-            c = password.charAt(++position);
-            if (c == sequence.currentLower() || c == sequence.currentUpper()) {
-              sequence.addMatchCharacter(c);
-            } else {
-              break;
-            }
-          }
-          if (sequence.matchCount() == sequenceLength) {
-            recordFailure(result, sequence.matchString());
-          }
+        final int count = findSequences(i, password, j, matches);
+        for (int k = 0; k < count; k++) {
+          recordFailure(result, matches[k]);
         }
       }
     }
@@ -77,6 +59,61 @@ public abstract class AbstractSequenceRule implements Rule
   }
 
 
+  /**
+   * Finds the sequences of {@link #sequenceLength} characters that start at
+   * the supplied position of the password, searching forward and then
+   * backward through a character sequence. The password must contain at least
+   * {@link #sequenceLength} characters from the position.
+   *
+   * @param  n  index of the character sequence.
+   * @param  password  to search.
+   * @param  position  of the first character of the sequence.
+   * @param  matches  array of length two that receives the matched strings.
+   *
+   * @return  number of matches stored in the array.
+   */
+  int findSequences(
+    final int n,
+    final CharSequence password,
+    final int position,
+    final String[] matches)
+  {
+    int count = 0;
+    final Sequence sequence = newSequence(
+      getSequence(n),
+      password.charAt(position));
+    if (sequence != null) {
+      int i = position;
+      char c;
+      while (sequence.forward()) {
+        c = password.charAt(++i);
+        if (c == sequence.currentLower() || c == sequence.currentUpper()) {
+          sequence.addMatchCharacter(c);
+        } else {
+          break;
+        }
+      }
+      if (sequence.matchCount() == sequenceLength) {
+        matches[count++] = sequence.matchString();
+      }
+      sequence.reset();
+      i = position;
+      while (sequence.backward()) {
+        c = password.charAt(++i);
+        if (c == sequence.currentLower() || c == sequence.currentUpper()) {
+          sequence.addMatchCharacter(c);
+        } else {
+          break;
+        }
+      }
+      if (sequence.matchCount() == sequenceLength) {
+        matches[count++] = sequence.matchString();
+      }
+    }
+    return count;
+  }
+
+
   @Override
   public String toString()
   {
@@ -154,13 +191,15 @@ public abstract class AbstractSequenceRule implements Rule
    * @param  result  rule result holding failure details.
    * @param  match  illegal string matched in the password that caused failure.
    */
-  private void recordFailure(final RuleResult result, final String match)
+  void recordFailure(final RuleResult result, final String match)
   {
     if (reportAllFailures || result.getDetails().size() == 0) {
-      final Map<String, Object> m = new LinkedHashMap<>();
-      m.put("sequence", match);
       result.setValid(false);
-      result.getDetails().add(new RuleResultDetail(ERROR_CODE, m));
+      result.getDetails().add(
+        new RuleResultDetail(
+          ERROR_CODE,
+          PARAMETER_NAMES,
+          new Object[] {match}));
     }
   }
 
@@ -2,7 +2,6 @@
 package org.passay;
 
 import java.util.Arrays;
-import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -11,12 +10,15 @@ import java.util.Map;
  *
  * @author  Middleware Services
  */
-public class AllowedCharacterRule implements Rule
+public class AllowedCharacterRule implements CacheableRule
 {
 
   /** Error code for allowed character failures. */
   public static final String ERROR_CODE = "ALLOWED_CHAR";
 
+  /** Names of the rule result detail parameters. */
+  private static final String[] PARAMETER_NAMES = {"illegalCharacter"};
+
   /** Stores the characters that are allowed. */
   private final char[] allowedChar;
 
@@ -33,6 +35,24 @@ public class AllowedCharacterRule implements Rule
   }
 
 
+  /**
+   * Returns the allowed characters.
+   *
+   * @return  allowed characters
+   */
+  public char[] getAllowedCharacters()
+  {
+    return allowedChar;
+  }
+
+
+  @Override
+  public boolean isCacheable()
+  {
+    return true;
+  }
+
+
   @Override
   public RuleResult validate(final PasswordData passwordData)
   {
@@ -61,9 +81,7 @@ public class AllowedCharacterRule implements Rule
    */
   protected Map<String, Object> createRuleResultDetailParameters(final char c)
   {
-    final Map<String, Object> m = new LinkedHashMap<>();
-    m.put("illegalCharacter", c);
-    return m;
+    return new ParameterMap(PARAMETER_NAMES, c);
   }
 
 
@@ -1,10 +1,9 @@
 /* See LICENSE for licensing and NOTICE for copyright. */
 package org.passay;
 
-import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import org.passay.regex.DfaPattern;
 
 /**
  * Rule for determining if a password matches an allowed regular expression.
@@ -12,15 +11,21 @@ import java.util.regex.Pattern;
  *
  * @author  Middleware Services
  */
-public class AllowedRegexRule implements Rule
+public class AllowedRegexRule implements CacheableRule
 {
 
   /** Error code for regex validation failures. */
   public static final String ERROR_CODE = "ALLOWED_MATCH";
 
+  /** Names of the rule result detail parameters. */
+  private static final String[] PARAMETER_NAMES = {"pattern"};
+
   /** Regex pattern. */
   protected final Pattern pattern;
 
+  /** DFA pattern to match with, or null to match with {@link #pattern}. */
+  protected final DfaPattern dfaPattern;
+
 
   /**
    * Creates a new allowed regex rule.
@@ -28,8 +33,32 @@ public class AllowedRegexRule implements Rule
    * @param  regex  regular expression
    */
   public AllowedRegexRule(final String regex)
+  {
+    this(regex, false);
+  }
+
+
+  /**
+   * Creates a new allowed regex rule. A DFA pattern matches in time linear in
+   * the length of the password, so it is immune to the catastrophic
+   * backtracking of expressions such as <code>(a+)+</code>, but it does not
+   * support backreferences, lookaround and other constructs; see {@link
+   * DfaPattern}.
+   *
+   * @param  regex  regular expression
+   * @param  dfa  whether to match with a {@link DfaPattern}
+   */
+  public AllowedRegexRule(final String regex, final boolean dfa)
   {
     pattern = Pattern.compile(regex);
+    dfaPattern = dfa ? DfaPattern.compile(regex) : null;
+  }
+
+
+  @Override
+  public boolean isCacheable()
+  {
+    return true;
   }
 
 
@@ -37,8 +66,7 @@ public class AllowedRegexRule implements Rule
   public RuleResult validate(final PasswordData passwordData)
   {
     final RuleResult result = new RuleResult(true);
-    final Matcher m = pattern.matcher(passwordData.getPassword());
-    if (!m.find()) {
+    if (!find(passwordData.getPassword())) {
       result.setValid(false);
       result.getDetails().add(
         new RuleResultDetail(ERROR_CODE, createRuleResultDetailParameters()));
@@ -47,6 +75,25 @@ public class AllowedRegexRule implements Rule
   }
 
 
+  /**
+   * Returns whether the pattern matches any part of the supplied password.
+   *
+   * @param  password  to search
+   *
+   * @return  whether the pattern matches
+   */
+  protected boolean find(final String password)
+  {
+    final boolean found;
+    if (dfaPattern != null) {
+      found = dfaPattern.find(password);
+    } else {
+      found = pattern.matcher(password).find();
+    }
+    return found;
+  }
+
+
   /**
    * Creates the parameter data for the rule result detail.
    *
@@ -54,9 +101,7 @@ public class AllowedRegexRule implements Rule
    */
   protected Map<String, Object> createRuleResultDetailParameters()
   {
-    final Map<String, Object> m = new LinkedHashMap<>();
-    m.put("pattern", pattern);
-    return m;
+    return new ParameterMap(PARAMETER_NAMES, pattern);
   }
 
 
@@ -65,9 +110,10 @@ public class AllowedRegexRule implements Rule
   {
     return
       String.format(
-        "%s@%h::pattern=%s",
+        "%s@%h::pattern=%s,dfa=%s",
         getClass().getName(),
         hashCode(),
-        pattern);
+        pattern,
+        dfaPattern != null);
   }
 }
@@ -0,0 +1,320 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Password validator that validates expensive rules on an executor so that
+ * callers such as event loop threads are not blocked by slow hashes or disk
+ * reads. Rules wrapped in an {@link AsyncRule} are submitted to the executor
+ * and all other rules are validated on the calling thread while the expensive
+ * rules run. The returned future completes, and the optional {@link
+ * ValidationCallback} is invoked, once all rules have been validated; the
+ * result merges the rule results in rule order, exactly as {@link
+ * #validate(PasswordData)} does.
+ *
+ * @author  Middleware Services
+ */
+public class AsyncPasswordValidator extends PasswordValidator
+{
+
+  /** Executor that validates expensive rules. */
+  private final Executor executor;
+
+
+  /**
+   * Creates a new async password validator with a {@link
+   * PropertiesMessageResolver}.
+   *
+   * @param  rules  to validate
+   * @param  e  executor that validates expensive rules
+   */
+  public AsyncPasswordValidator(final List<Rule> rules, final Executor e)
+  {
+    this(new PropertiesMessageResolver(), rules, e);
+  }
+
+
+  /**
+   * Creates a new async password validator.
+   *
+   * @param  resolver  message resolver.
+   * @param  rules  to validate
+   * @param  e  executor that validates expensive rules
+   */
+  public AsyncPasswordValidator(
+    final MessageResolver resolver,
+    final List<Rule> rules,
+    final Executor e)
+  {
+    super(resolver, rules);
+    if (e == null) {
+      throw new NullPointerException("Executor cannot be null");
+    }
+    executor = e;
+  }
+
+
+  /**
+   * Returns the executor that validates expensive rules.
+   *
+   * @return  executor
+   */
+  public Executor getExecutor()
+  {
+    return executor;
+  }
+
+
+  /**
+   * Validates the supplied password data, validating expensive rules on the
+   * executor of this validator.
+   *
+   * @param  passwordData  to validate
+   *
+   * @return  future rule result
+   */
+  public Future<RuleResult> validateAsync(final PasswordData passwordData)
+  {
+    return validateWithCallback(passwordData, null);
+  }
+
+
+  /**
+   * Validates the supplied password data, validating expensive rules on the
+   * executor of this validator, and notifies the supplied callback of the
+   * outcome. If all rules are inexpensive the returned future is already
+   * complete.
+   *
+   * @param  passwordData  to validate
+   * @param  callback  to notify of the outcome or null
+   *
+   * @return  future rule result
+   */
+  public Future<RuleResult> validateWithCallback(
+    final PasswordData passwordData,
+    final ValidationCallback callback)
+  {
+    final List<Rule> rules = getRules();
+    final Rule[] ruleArray = rules.toArray(new Rule[rules.size()]);
+    final RuleResult[] results = new RuleResult[ruleArray.length];
+    int offloaded = 0;
+    for (Rule rule : ruleArray) {
+      if (isOffloaded(rule)) {
+        offloaded++;
+      }
+    }
+
+    // the calling thread holds one pending count until the inline rules ran
+    final ValidationTask task = new ValidationTask(
+      results,
+      offloaded + 1,
+      callback);
+    for (int i = 0; i < ruleArray.length && !task.isDone(); i++) {
+      if (isOffloaded(ruleArray[i])) {
+        try {
+          executor.execute(
+            new RuleTask(task, ruleArray[i], passwordData, results, i));
+        } catch (RuntimeException e) {
+          task.fail(e);
+        }
+      }
+    }
+    try {
+      for (int i = 0; i < ruleArray.length && !task.isDone(); i++) {
+        if (!isOffloaded(ruleArray[i])) {
+          results[i] = validateRule(ruleArray[i], passwordData);
+        }
+      }
+      task.ruleCompleted();
+    } catch (RuntimeException e) {
+      task.fail(e);
+    }
+    return task;
+  }
+
+
+  /**
+   * Returns whether the supplied rule is validated on the executor. By default
+   * rules wrapped in an {@link AsyncRule} are validated on the executor.
+   *
+   * @param  rule  to check
+   *
+   * @return  whether the rule is expensive
+   */
+  protected boolean isOffloaded(final Rule rule)
+  {
+    return rule instanceof AsyncRule;
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return
+      String.format(
+        "%s@%h::passwordRules=%s,messageResolver=%s,executor=%s",
+        getClass().getName(),
+        hashCode(),
+        getRules(),
+        getMessageResolver(),
+        executor);
+  }
+
+
+  /** Validates a single expensive rule on the executor. */
+  private final class RuleTask implements Runnable
+  {
+
+    /** Validation the rule belongs to. */
+    private final ValidationTask task;
+
+    /** Rule to validate. */
+    private final Rule rule;
+
+    /** Password data to validate. */
+    private final PasswordData passwordData;
+
+    /** Results of all rules. */
+    private final RuleResult[] results;
+
+    /** Index of the rule. */
+    private final int index;
+
+
+    /**
+     * Creates a new rule task.
+     *
+     * @param  t  validation the rule belongs to
+     * @param  r  rule to validate
+     * @param  pd  password data to validate
+     * @param  rr  results of all rules
+     * @param  i  index of the rule
+     */
+    RuleTask(
+      final ValidationTask t,
+      final Rule r,
+      final PasswordData pd,
+      final RuleResult[] rr,
+      final int i)
+    {
+      task = t;
+      rule = r;
+      passwordData = pd;
+      results = rr;
+      index = i;
+    }
+
+
+    @Override
+    public void run()
+    {
+      if (task.isDone()) {
+        return;
+      }
+      try {
+        results[index] = validateRule(rule, passwordData);
+        task.ruleCompleted();
+      } catch (RuntimeException | Error e) {
+        task.fail(e);
+      }
+    }
+  }
+
+
+  /**
+   * Future result of a validation. The thread that completes the last pending
+   * rule merges the results.
+   */
+  private static final class ValidationTask extends FutureTask<RuleResult>
+  {
+
+    /** Number of rule groups that have not completed. */
+    private final AtomicInteger pending;
+
+    /** Callback to notify or null. */
+    private final ValidationCallback callback;
+
+
+    /**
+     * Creates a new validation task.
+     *
+     * @param  results  of all rules, filled in as rules complete
+     * @param  count  number of rule groups that must complete
+     * @param  cb  callback to notify or null
+     */
+    ValidationTask(
+      final RuleResult[] results,
+      final int count,
+      final ValidationCallback cb)
+    {
+      super(
+        new Callable<RuleResult>() {
+          @Override
+          public RuleResult call()
+          {
+            final RuleResult result = new RuleResult(true);
+            for (RuleResult rr : results) {
+              if (!rr.isValid()) {
+                result.setValid(false);
+                result.getDetails().addAll(rr.getDetails());
+              }
+            }
+            return result;
+          }
+        });
+      pending = new AtomicInteger(count);
+      callback = cb;
+    }
+
+
+    /**
+     * Records the completion of a rule group and merges the results if it was
+     * the last one.
+     */
+    void ruleCompleted()
+    {
+      if (pending.decrementAndGet() == 0) {
+        run();
+      }
+    }
+
+
+    /**
+     * Completes this task with the supplied exception.
+     *
+     * @param  cause  of the failure
+     */
+    void fail(final Throwable cause)
+    {
+      setException(cause);
+    }
+
+
+    @Override
+    protected void done()
+    {
+      if (callback == null) {
+        return;
+      }
+      if (isCancelled()) {
+        callback.failed(new CancellationException());
+      } else {
+        try {
+          callback.completed(get());
+        } catch (ExecutionException e) {
+          callback.failed(e.getCause());
+        } catch (InterruptedException e) {
+          callback.failed(e);
+        }
+      }
+    }
+  }
+}
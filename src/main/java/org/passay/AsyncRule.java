@@ -0,0 +1,68 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+/**
+ * Marks a rule as expensive, e.g. a rule that computes slow hashes or reads a
+ * dictionary from disk, so that {@link AsyncPasswordValidator} validates it
+ * on its executor rather than on the calling thread. Validating this rule
+ * directly validates the wrapped rule.
+ *
+ * @author  Middleware Services
+ */
+public class AsyncRule implements CacheableRule
+{
+
+  /** Rule to validate asynchronously. */
+  private final Rule rule;
+
+
+  /**
+   * Creates a new async rule.
+   *
+   * @param  r  rule to validate asynchronously
+   */
+  public AsyncRule(final Rule r)
+  {
+    if (r == null) {
+      throw new NullPointerException("Rule cannot be null");
+    }
+    rule = r;
+  }
+
+
+  /**
+   * Returns the wrapped rule.
+   *
+   * @return  rule to validate asynchronously
+   */
+  public Rule getRule()
+  {
+    return rule;
+  }
+
+
+  @Override
+  public boolean isCacheable()
+  {
+    return PasswordUtils.isCacheable(rule);
+  }
+
+
+  @Override
+  public RuleResult validate(final PasswordData passwordData)
+  {
+    return rule.validate(passwordData);
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return
+      String.format(
+        "%s@%h::rule=%s",
+        getClass().getName(),
+        hashCode(),
+        rule);
+  }
+}
@@ -0,0 +1,129 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import org.passay.dictionary.HashRangeSource;
+
+/**
+ * Rule for determining if a password appears in a set of breached passwords.
+ * The password is hashed with SHA-1 and the hash is split into a range prefix
+ * and a suffix which are searched for in a {@link HashRangeSource}, so the
+ * breached password set never needs to contain cleartext words. See {@link
+ * DictionaryRule} for checking cleartext word lists.
+ *
+ * @author  Middleware Services
+ */
+public class BreachedPasswordRule implements Rule
+{
+
+  /** Error code for breached password. */
+  public static final String ERROR_CODE = "BREACHED_PASSWORD";
+
+  /** Hex characters. */
+  private static final char[] HEX_CHARS = "0123456789ABCDEF".toCharArray();
+
+  /** Bits in a hex character. */
+  private static final int HEX_BITS = 4;
+
+  /** Mask for the low hex character of a byte. */
+  private static final int HEX_MASK = 0x0F;
+
+  /** Source of breached password hashes. */
+  private final HashRangeSource hashSource;
+
+  /** Character set to use for password bytes. */
+  private Charset charset = StandardCharsets.UTF_8;
+
+
+  /**
+   * Creates a new breached password rule.
+   *
+   * @param  source  of breached password hashes
+   */
+  public BreachedPasswordRule(final HashRangeSource source)
+  {
+    if (source == null) {
+      throw new NullPointerException("Hash range source cannot be null");
+    }
+    hashSource = source;
+  }
+
+
+  /**
+   * Returns the source of breached password hashes.
+   *
+   * @return  hash range source
+   */
+  public HashRangeSource getHashSource()
+  {
+    return hashSource;
+  }
+
+
+  /**
+   * Sets the character set to use for password bytes.
+   *
+   * @param  set  to use for password bytes
+   */
+  public void setCharset(final Charset set)
+  {
+    if (set == null) {
+      throw new NullPointerException("Character set cannot be null");
+    }
+    charset = set;
+  }
+
+
+  @Override
+  public RuleResult validate(final PasswordData passwordData)
+  {
+    final String hash = hash(passwordData.getPassword());
+    if (hashSource.search(
+        hash.substring(0, HashRangeSource.PREFIX_LENGTH),
+        hash.substring(HashRangeSource.PREFIX_LENGTH))) {
+      return new RuleResult(false, new RuleResultDetail(ERROR_CODE, null));
+    }
+    return new RuleResult(true);
+  }
+
+
+  /**
+   * Returns the upper case hex encoded SHA-1 hash of the supplied password.
+   *
+   * @param  password  to hash
+   *
+   * @return  hex encoded hash
+   */
+  protected String hash(final String password)
+  {
+    final MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-1");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-1 is not supported", e);
+    }
+    final byte[] bytes = digest.digest(password.getBytes(charset));
+    final char[] hex = new char[bytes.length * 2];
+    for (int i = 0; i < bytes.length; i++) {
+      hex[i * 2] = HEX_CHARS[(bytes[i] >>> HEX_BITS) & HEX_MASK];
+      hex[i * 2 + 1] = HEX_CHARS[bytes[i] & HEX_MASK];
+    }
+    return new String(hex);
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return
+      String.format(
+        "%s@%h::hashSource=%s,charset=%s",
+        getClass().getName(),
+        hashCode(),
+        hashSource,
+        charset);
+  }
+}
@@ -0,0 +1,269 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Generates large numbers of passwords of a fixed length that meet the
+ * criteria of a set of character rules. Unlike {@link PasswordGenerator}, the
+ * character pools are computed once when the generator is created, each
+ * thread draws from its own {@link SecureRandom}, and passwords are written to
+ * character arrays that callers can clear once a password has been used.
+ *
+ * <p>Each password contains the number of characters required by each rule,
+ * drawn from the characters of that rule, and is filled up with characters
+ * drawn from the distinct characters of all rules. The characters are then
+ * shuffled. Instances are safe for use by multiple threads.</p>
+ *
+ * @author  Middleware Services
+ */
+public class BulkPasswordGenerator
+{
+
+  /** Number of passwords below which a bulk task is not split. */
+  private static final int SPLIT_THRESHOLD = 1024;
+
+  /** Length of generated passwords. */
+  private final int length;
+
+  /** Characters of each rule. */
+  private final char[][] pools;
+
+  /** Number of characters required from each pool. */
+  private final int[] counts;
+
+  /** Distinct characters of all rules. */
+  private final char[] allChars;
+
+  /** Size of the largest character pool. */
+  private final int maxPoolSize;
+
+  /** Source of random data for each thread. */
+  private final ThreadLocal<Random> random = new ThreadLocal<Random>() {
+    @Override
+    protected Random initialValue()
+    {
+      return newRandom();
+    }
+  };
+
+
+  /**
+   * Creates a new bulk password generator.
+   *
+   * @param  len  length of generated passwords
+   * @param  rules  character rules that generated passwords must meet
+   */
+  public BulkPasswordGenerator(final int len, final List<CharacterRule> rules)
+  {
+    if (len <= 0) {
+      throw new IllegalArgumentException("length must be greater than 0");
+    }
+    if (rules == null || rules.isEmpty()) {
+      throw new IllegalArgumentException("rules cannot be empty");
+    }
+
+    pools = new char[rules.size()][];
+    counts = new int[rules.size()];
+    final StringBuilder all = new StringBuilder();
+    int required = 0;
+    for (int i = 0; i < pools.length; i++) {
+      final CharacterRule rule = rules.get(i);
+      pools[i] = rule.getValidCharacters().toCharArray();
+      counts[i] = rule.getNumberOfCharacters();
+      required += counts[i];
+      for (char c : pools[i]) {
+        if (all.indexOf(String.valueOf(c)) == -1) {
+          all.append(c);
+        }
+      }
+    }
+    if (required > len) {
+      throw new IllegalArgumentException(
+        "length must be at least the number of required characters, " +
+        required);
+    }
+    length = len;
+    allChars = all.toString().toCharArray();
+    maxPoolSize = Math.max(allChars.length, length);
+  }
+
+
+  /**
+   * Returns the length of generated passwords.
+   *
+   * @return  password length
+   */
+  public int getLength()
+  {
+    return length;
+  }
+
+
+  /**
+   * Generates a password.
+   *
+   * @return  generated password
+   */
+  public char[] generate()
+  {
+    final char[] password = new char[length];
+    generate(password);
+    return password;
+  }
+
+
+  /**
+   * Generates a password into the supplied array, which allows callers to
+   * reuse and clear a single array.
+   *
+   * @param  password  array of the generator length to fill
+   */
+  public void generate(final char[] password)
+  {
+    if (password.length != length) {
+      throw new IllegalArgumentException(
+        "password array must have length " + length);
+    }
+
+    // one index per character and one per shuffled position
+    final RandomIndexSource indices = new RandomIndexSource(
+      random.get(),
+      2 * length,
+      maxPoolSize);
+    try {
+      int pos = 0;
+      for (int i = 0; i < pools.length; i++) {
+        final char[] pool = pools[i];
+        for (int j = 0; j < counts[i]; j++) {
+          password[pos++] = pool[indices.nextIndex(pool.length)];
+        }
+      }
+      while (pos < length) {
+        password[pos++] = allChars[indices.nextIndex(allChars.length)];
+      }
+      indices.shuffle(password, 0, length);
+    } finally {
+      indices.clear();
+    }
+  }
+
+
+  /**
+   * Generates the supplied number of passwords using all available
+   * processors.
+   *
+   * @param  count  number of passwords to generate
+   *
+   * @return  generated passwords
+   */
+  public char[][] generate(final int count)
+  {
+    final ForkJoinPool pool = new ForkJoinPool();
+    try {
+      return generate(count, pool);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+
+  /**
+   * Generates the supplied number of passwords using the supplied pool.
+   *
+   * @param  count  number of passwords to generate
+   * @param  pool  to generate passwords with
+   *
+   * @return  generated passwords
+   */
+  public char[][] generate(final int count, final ForkJoinPool pool)
+  {
+    if (count < 0) {
+      throw new IllegalArgumentException("count cannot be negative");
+    }
+
+    final char[][] passwords = new char[count][];
+    pool.invoke(new GenerateTask(passwords, 0, count));
+    return passwords;
+  }
+
+
+  /**
+   * Creates the source of random data for a thread. This implementation
+   * returns a new {@link SecureRandom}.
+   *
+   * @return  source of random data
+   */
+  protected Random newRandom()
+  {
+    return new SecureRandom();
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return
+      String.format(
+        "%s@%h::length=%s,counts=%s,allChars=%s",
+        getClass().getName(),
+        hashCode(),
+        length,
+        Arrays.toString(counts),
+        allChars.length);
+  }
+
+
+  /** Generates a range of passwords, splitting large ranges. */
+  private final class GenerateTask extends RecursiveAction
+  {
+
+    /** For serialization. */
+    private static final long serialVersionUID = 4302198574213850174L;
+
+    /** Array receiving the passwords. */
+    private final char[][] passwords;
+
+    /** First index of the range. */
+    private final int start;
+
+    /** Index after the range. */
+    private final int end;
+
+
+    /**
+     * Creates a new generate task.
+     *
+     * @param  p  array receiving the passwords
+     * @param  s  first index of the range
+     * @param  e  index after the range
+     */
+    GenerateTask(final char[][] p, final int s, final int e)
+    {
+      passwords = p;
+      start = s;
+      end = e;
+    }
+
+
+    @Override
+    protected void compute()
+    {
+      if (end - start <= SPLIT_THRESHOLD) {
+        for (int i = start; i < end; i++) {
+          passwords[i] = generate();
+        }
+      } else {
+        final int middle = (start + end) >>> 1;
+        invokeAll(
+          new GenerateTask(passwords, start, middle),
+          new GenerateTask(passwords, middle, end));
+      }
+    }
+  }
+}
@@ -0,0 +1,24 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+/**
+ * Rule that declares whether its results may be cached by {@link
+ * CachingPasswordValidator}. A rule is cacheable if its result depends only on
+ * the password, username and references of the password data and on
+ * configuration that does not change while results are cached, such as a
+ * dictionary that is not modified. Rules that do not implement this interface
+ * are never cached.
+ *
+ * @author  Middleware Services
+ */
+public interface CacheableRule extends Rule
+{
+
+
+  /**
+   * Returns whether results of this rule may be cached.
+   *
+   * @return  whether the result only depends on the password data
+   */
+  boolean isCacheable();
+}
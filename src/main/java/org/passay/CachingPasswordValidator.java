@@ -0,0 +1,464 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Password validator that caches rule results, so that validating the same
+ * password data repeatedly within a short time, e.g. on a retried or double
+ * submitted request, does not run the rules again. Only results of rules that
+ * are {@link CacheableRule cacheable} are cached; all other rules are
+ * validated on every invocation and their results are merged in rule order.
+ *
+ * <p>Entries are keyed by an HMAC-SHA256 of the password, username and
+ * references computed with a random key generated for each validator, so the
+ * cache never holds passwords or values that can be compared with hashes
+ * computed elsewhere. The cache holds a bounded number of entries, evicting
+ * the least recently used entry when full, and entries expire after a fixed
+ * time to live. Rules must not be added, removed or reconfigured while results
+ * are cached; invoke {@link #clear()} after doing so.</p>
+ *
+ * @author  Middleware Services
+ */
+public class CachingPasswordValidator extends PasswordValidator
+{
+
+  /** Default maximum number of cached entries, value is {@value}. */
+  public static final int DEFAULT_MAXIMUM_SIZE = 1000;
+
+  /** Default time to live of cached entries in seconds, value is {@value}. */
+  public static final long DEFAULT_TIME_TO_LIVE = 60;
+
+  /** Algorithm of the keyed hash. */
+  private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+  /** Size of the hash key in bytes. */
+  private static final int KEY_SIZE = 32;
+
+  /** Initial capacity of the cache. */
+  private static final int INITIAL_CAPACITY = 16;
+
+  /** Load factor of the cache. */
+  private static final float LOAD_FACTOR = 0.75f;
+
+  /** Bits in a byte. */
+  private static final int BYTE_BITS = 8;
+
+  /** Mask of the bits in a byte. */
+  private static final int BYTE_MASK = 0xFF;
+
+  /** Bytes in an int. */
+  private static final int INT_BYTES = 4;
+
+  /** Maximum number of cached entries. */
+  private final int maximumSize;
+
+  /** Time to live of cached entries in nanoseconds. */
+  private final long timeToLive;
+
+  /** Cached rule results, in access order. */
+  private final Map<Key, CacheEntry> cache;
+
+  /** Key of the keyed hash. */
+  private final SecretKeySpec hashKey;
+
+  /** Keyed hash for each thread. */
+  private final ThreadLocal<Mac> mac = new ThreadLocal<Mac>() {
+    @Override
+    protected Mac initialValue()
+    {
+      try {
+        final Mac m = Mac.getInstance(HMAC_ALGORITHM);
+        m.init(hashKey);
+        return m;
+      } catch (GeneralSecurityException e) {
+        throw new IllegalStateException(
+          HMAC_ALGORITHM + " is not supported",
+          e);
+      }
+    }
+  };
+
+  /** Number of validations answered from the cache. */
+  private final AtomicLong hitCount = new AtomicLong();
+
+  /** Number of validations that ran all rules. */
+  private final AtomicLong missCount = new AtomicLong();
+
+
+  /**
+   * Creates a new caching password validator with a {@link
+   * PropertiesMessageResolver} and the default size and time to live.
+   *
+   * @param  rules  to validate
+   */
+  public CachingPasswordValidator(final List<Rule> rules)
+  {
+    this(new PropertiesMessageResolver(), rules);
+  }
+
+
+  /**
+   * Creates a new caching password validator with the default size and time
+   * to live.
+   *
+   * @param  resolver  message resolver.
+   * @param  rules  to validate
+   */
+  public CachingPasswordValidator(
+    final MessageResolver resolver,
+    final List<Rule> rules)
+  {
+    this(
+      resolver,
+      rules,
+      DEFAULT_MAXIMUM_SIZE,
+      DEFAULT_TIME_TO_LIVE,
+      TimeUnit.SECONDS);
+  }
+
+
+  /**
+   * Creates a new caching password validator.
+   *
+   * @param  resolver  message resolver.
+   * @param  rules  to validate
+   * @param  size  maximum number of cached entries
+   * @param  ttl  time to live of cached entries
+   * @param  unit  of the time to live
+   */
+  public CachingPasswordValidator(
+    final MessageResolver resolver,
+    final List<Rule> rules,
+    final int size,
+    final long ttl,
+    final TimeUnit unit)
+  {
+    super(resolver, rules);
+    if (size <= 0) {
+      throw new IllegalArgumentException("size must be greater than zero");
+    }
+    if (ttl <= 0) {
+      throw new IllegalArgumentException("ttl must be greater than zero");
+    }
+    maximumSize = size;
+    timeToLive = unit.toNanos(ttl);
+    cache = new LinkedHashMap<Key, CacheEntry>(
+      INITIAL_CAPACITY,
+      LOAD_FACTOR,
+      true) {
+      @Override
+      protected boolean removeEldestEntry(
+        final Map.Entry<Key, CacheEntry> eldest)
+      {
+        return size() > maximumSize;
+      }
+    };
+
+    final byte[] key = new byte[KEY_SIZE];
+    new SecureRandom().nextBytes(key);
+    hashKey = new SecretKeySpec(key, HMAC_ALGORITHM);
+  }
+
+
+  /**
+   * Returns the maximum number of cached entries.
+   *
+   * @return  maximum size
+   */
+  public int getMaximumSize()
+  {
+    return maximumSize;
+  }
+
+
+  /**
+   * Returns the time to live of cached entries.
+   *
+   * @param  unit  of the returned time
+   *
+   * @return  time to live
+   */
+  public long getTimeToLive(final TimeUnit unit)
+  {
+    return unit.convert(timeToLive, TimeUnit.NANOSECONDS);
+  }
+
+
+  /**
+   * Returns the number of validations that used cached results.
+   *
+   * @return  cache hits
+   */
+  public long getHitCount()
+  {
+    return hitCount.get();
+  }
+
+
+  /**
+   * Returns the number of validations that had no cached results and ran all
+   * rules.
+   *
+   * @return  cache misses
+   */
+  public long getMissCount()
+  {
+    return missCount.get();
+  }
+
+
+  /**
+   * Returns the number of cached entries, including expired entries that have
+   * not been removed yet.
+   *
+   * @return  number of entries
+   */
+  public int size()
+  {
+    synchronized (cache) {
+      return cache.size();
+    }
+  }
+
+
+  /** Removes all cached entries. */
+  public void clear()
+  {
+    synchronized (cache) {
+      cache.clear();
+    }
+  }
+
+
+  @Override
+  public RuleResult validate(final PasswordData passwordData)
+  {
+    final List<Rule> rules = getRules();
+    boolean anyCacheable = false;
+    for (Rule rule : rules) {
+      anyCacheable |= PasswordUtils.isCacheable(rule);
+    }
+    if (!anyCacheable) {
+      return super.validate(passwordData);
+    }
+
+    final Key key = createKey(passwordData);
+    RuleResult[] cached = get(key);
+    if (cached != null && cached.length != rules.size()) {
+      cached = null;
+    }
+    if (cached != null) {
+      hitCount.incrementAndGet();
+    } else {
+      missCount.incrementAndGet();
+    }
+
+    final RuleResult[] results = new RuleResult[rules.size()];
+    final RuleResult result = new RuleResult(true);
+    for (int i = 0; i < results.length; i++) {
+      final Rule rule = rules.get(i);
+      final RuleResult rr;
+      if (cached != null && cached[i] != null) {
+        rr = cached[i];
+      } else {
+        rr = validateRule(rule, passwordData);
+        if (cached == null && PasswordUtils.isCacheable(rule)) {
+          results[i] = rr;
+        }
+      }
+      if (!rr.isValid()) {
+        result.setValid(false);
+        result.getDetails().addAll(rr.getDetails());
+      }
+    }
+    if (cached == null) {
+      put(key, results);
+    }
+    return result;
+  }
+
+
+  /**
+   * Returns the cached results for the supplied key.
+   *
+   * @param  key  of the results
+   *
+   * @return  results of the cacheable rules or null if none are cached
+   */
+  private RuleResult[] get(final Key key)
+  {
+    RuleResult[] results = null;
+    synchronized (cache) {
+      final CacheEntry entry = cache.get(key);
+      if (entry != null) {
+        if (System.nanoTime() - entry.expiration < 0) {
+          results = entry.results;
+        } else {
+          cache.remove(key);
+        }
+      }
+    }
+    return results;
+  }
+
+
+  /**
+   * Caches the supplied results.
+   *
+   * @param  key  of the results
+   * @param  results  of the cacheable rules
+   */
+  private void put(final Key key, final RuleResult[] results)
+  {
+    final CacheEntry entry = new CacheEntry(
+      results,
+      System.nanoTime() + timeToLive);
+    synchronized (cache) {
+      cache.put(key, entry);
+    }
+  }
+
+
+  /**
+   * Computes the cache key of the supplied password data.
+   *
+   * @param  passwordData  to compute the key of
+   *
+   * @return  cache key
+   */
+  private Key createKey(final PasswordData passwordData)
+  {
+    final Mac m = mac.get();
+    update(m, passwordData.getPassword());
+    update(m, passwordData.getUsername());
+    for (PasswordData.Reference reference : passwordData
+        .getPasswordReferences()) {
+      update(m, reference.getClass().getName());
+      if (reference instanceof PasswordData.AbstractReference) {
+        update(m, ((PasswordData.AbstractReference) reference).getLabel());
+      }
+      update(m, reference.getPassword());
+    }
+    return new Key(m.doFinal());
+  }
+
+
+  /**
+   * Adds a string to a keyed hash, preceded by its length so that
+   * concatenated strings are unambiguous.
+   *
+   * @param  m  keyed hash to update
+   * @param  s  string to add or null
+   */
+  private static void update(final Mac m, final String s)
+  {
+    final int length = s != null ? s.length() : -1;
+    final byte[] bytes = new byte[INT_BYTES + Math.max(length, 0) * 2];
+    for (int i = 0; i < INT_BYTES; i++) {
+      bytes[i] = (byte) (length >>> (BYTE_BITS * (INT_BYTES - 1 - i)));
+    }
+    for (int i = 0; i < length; i++) {
+      final char c = s.charAt(i);
+      bytes[INT_BYTES + 2 * i] = (byte) (c >>> BYTE_BITS);
+      bytes[INT_BYTES + 2 * i + 1] = (byte) c;
+    }
+    m.update(bytes);
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return
+      String.format(
+        "%s@%h::passwordRules=%s,messageResolver=%s,maximumSize=%s," +
+        "timeToLive=%s,hitCount=%s,missCount=%s",
+        getClass().getName(),
+        hashCode(),
+        getRules(),
+        getMessageResolver(),
+        maximumSize,
+        timeToLive,
+        hitCount,
+        missCount);
+  }
+
+
+  /** Keyed hash of password data. */
+  private static final class Key
+  {
+
+    /** Hash bytes. */
+    private final byte[] hash;
+
+    /** Hash code derived from the hash bytes. */
+    private final int hashCode;
+
+
+    /**
+     * Creates a new key.
+     *
+     * @param  bytes  hash bytes
+     */
+    Key(final byte[] bytes)
+    {
+      hash = bytes;
+      int h = 0;
+      for (int i = 0; i < INT_BYTES; i++) {
+        h = (h << BYTE_BITS) | (bytes[i] & BYTE_MASK);
+      }
+      hashCode = h;
+    }
+
+
+    @Override
+    public boolean equals(final Object o)
+    {
+      return
+        o instanceof Key &&
+          MessageDigest.isEqual(hash, ((Key) o).hash);
+    }
+
+
+    @Override
+    public int hashCode()
+    {
+      return hashCode;
+    }
+  }
+
+
+  /** Cached rule results. */
+  private static final class CacheEntry
+  {
+
+    /** Results of the cacheable rules, null for other rules. */
+    private final RuleResult[] results;
+
+    /** Value of {@link System#nanoTime()} at which the entry expires. */
+    private final long expiration;
+
+
+    /**
+     * Creates a new entry.
+     *
+     * @param  rr  results of the cacheable rules
+     * @param  expires  value of {@link System#nanoTime()} at expiration
+     */
+    CacheEntry(final RuleResult[] rr, final long expires)
+    {
+      results = rr;
+      expiration = expires;
+    }
+  }
+}
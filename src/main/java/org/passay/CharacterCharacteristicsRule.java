@@ -2,7 +2,6 @@
 package org.passay;
 
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -13,12 +12,17 @@ import java.util.Map;
  *
  * @author  Middleware Services
  */
-public class CharacterCharacteristicsRule implements Rule
+public class CharacterCharacteristicsRule implements CacheableRule
 {
 
   /** Error code for insufficient number of characteristics. */
   public static final String ERROR_CODE = "INSUFFICIENT_CHARACTERISTICS";
 
+  /** Names of the rule result detail parameters. */
+  private static final String[] PARAMETER_NAMES = {
+    "successCount", "minimumRequired", "ruleCount",
+  };
+
   /** Rules to apply when checking a password. */
   private List<CharacterRule> rules = new ArrayList<>();
 
@@ -104,6 +108,24 @@ public class CharacterCharacteristicsRule implements Rule
   }
 
 
+  /**
+   * Returns whether results of this rule may be cached, which is the case if
+   * all of its rules are cacheable.
+   *
+   * @return  whether all rules are cacheable
+   */
+  @Override
+  public boolean isCacheable()
+  {
+    for (Rule rule : rules) {
+      if (!PasswordUtils.isCacheable(rule)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+
   @Override
   public RuleResult validate(final PasswordData passwordData)
   {
@@ -145,11 +167,12 @@ public class CharacterCharacteristicsRule implements Rule
   protected Map<String, Object> createRuleResultDetailParameters(
     final int success)
   {
-    final Map<String, Object> m = new LinkedHashMap<>();
-    m.put("successCount", success);
-    m.put("minimumRequired", numCharacteristics);
-    m.put("ruleCount", rules.size());
-    return m;
+    return
+      new ParameterMap(
+        PARAMETER_NAMES,
+        success,
+        numCharacteristics,
+        rules.size());
   }
 
 
@@ -0,0 +1,709 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Creates passwords that pass all the rules of a password validator. Rather
+ * than generating passwords and discarding those the validator rejects, the
+ * generator applies the rules that can be decided one character at a time
+ * while the password is built:
+ *
+ * <ul>
+ *   <li>{@link CharacterRule} and the rules of a {@link
+ *     CharacterCharacteristicsRule} select the characters that are
+ *     required</li>
+ *   <li>{@link AllowedCharacterRule}, {@link IllegalCharacterRule} and {@link
+ *     WhitespaceRule} remove characters from the character pools</li>
+ *   <li>{@link AbstractSequenceRule}, {@link RepeatCharacterRegexRule} and
+ *     {@link RepeatCharacterRule} reject any character that would complete a
+ *     sequence or a run of repeated characters</li>
+ * </ul>
+ *
+ * <p>Built-in rules of these types, and length rules that the password length
+ * satisfies, hold by construction and are not validated again. Every
+ * password is checked against the remaining rules of the validator, such as
+ * dictionary and history rules, before it is returned; a password they reject
+ * is discarded and a new one is built. For typical policies nearly every
+ * password passes the first time. Rules must not be reconfigured while the
+ * generator is in use. Instances are safe for use by multiple threads if the
+ * rules and the source of random data are.</p>
+ *
+ * @author  Middleware Services
+ */
+public class ConstrainedPasswordGenerator
+{
+
+  /** Default number of passwords to build before giving up. */
+  public static final int DEFAULT_MAX_ATTEMPTS = 100;
+
+  /** Random characters to try before scanning the whole pool. */
+  private static final int RANDOM_TRIES = 8;
+
+  /** Pool index of positions filled from all characters. */
+  private static final int ALL_POOL = -1;
+
+  /** Number of characters indexed by a sequence table. */
+  private static final int ASCII_SIZE = 128;
+
+  /** Validator that passwords must pass. */
+  private final PasswordValidator validator;
+
+  /** Length of generated passwords. */
+  private final int length;
+
+  /** Allowed characters of each character rule. */
+  private final char[][] pools;
+
+  /** Number of characters required from each pool. */
+  private final int[] counts;
+
+  /** Distinct allowed characters of all character rules. */
+  private final char[] allChars;
+
+  /** Character sequences of the sequence rules applied while building. */
+  private final SequenceTable[] sequenceTables;
+
+  /** Largest number of characters of a pool. */
+  private final int maxPoolSize;
+
+  /** Shortest run of repeated characters that is rejected or zero. */
+  private final int repeatLength;
+
+  /** Rules of the validator that do not hold by construction. */
+  private final Rule[] checkedRules;
+
+  /** Source of random data. */
+  private final Random random;
+
+  /** Number of passwords to build before giving up. */
+  private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+
+
+  /**
+   * Creates a new constrained password generator that draws characters from
+   * the character rules of the validator.
+   *
+   * @param  pv  validator that passwords must pass
+   * @param  len  length of generated passwords
+   */
+  public ConstrainedPasswordGenerator(
+    final PasswordValidator pv,
+    final int len)
+  {
+    this(pv, len, getCharacterRules(pv.getRules()));
+  }
+
+
+  /**
+   * Creates a new constrained password generator.
+   *
+   * @param  pv  validator that passwords must pass
+   * @param  len  length of generated passwords
+   * @param  rules  character rules to draw characters from
+   */
+  public ConstrainedPasswordGenerator(
+    final PasswordValidator pv,
+    final int len,
+    final List<CharacterRule> rules)
+  {
+    this(pv, len, rules, new SecureRandom());
+  }
+
+
+  /**
+   * Creates a new constrained password generator.
+   *
+   * @param  pv  validator that passwords must pass
+   * @param  len  length of generated passwords
+   * @param  rules  character rules to draw characters from
+   * @param  r  source of random data
+   */
+  public ConstrainedPasswordGenerator(
+    final PasswordValidator pv,
+    final int len,
+    final List<CharacterRule> rules,
+    final Random r)
+  {
+    if (len <= 0) {
+      throw new IllegalArgumentException("length must be greater than 0");
+    }
+    if (rules == null || rules.isEmpty()) {
+      throw new IllegalArgumentException("character rules cannot be empty");
+    }
+
+    final List<SequenceTable> sequences = new ArrayList<>();
+    String allowed = null;
+    final StringBuilder illegal = new StringBuilder();
+    int repeat = 0;
+    for (Rule rule : pv.getRules()) {
+      if (rule instanceof AbstractSequenceRule) {
+        final AbstractSequenceRule sr = (AbstractSequenceRule) rule;
+        for (int i = 0; i < sr.getSequenceCount(); i++) {
+          sequences.add(
+            new SequenceTable(
+              sr.getSequence(i),
+              sr.sequenceLength,
+              sr.wrapSequence));
+        }
+      } else if (rule instanceof RepeatCharacterRegexRule) {
+        final int sl = ((RepeatCharacterRegexRule) rule).getSequenceLength();
+        repeat = repeat == 0 ? sl : Math.min(repeat, sl);
+      } else if (rule instanceof RepeatCharacterRule) {
+        final int sl = ((RepeatCharacterRule) rule).getSequenceLength();
+        repeat = repeat == 0 ? sl : Math.min(repeat, sl);
+      } else if (rule instanceof AllowedCharacterRule) {
+        final String chars = new String(
+          ((AllowedCharacterRule) rule).getAllowedCharacters());
+        allowed = allowed == null ? chars : retain(allowed, chars);
+      } else if (rule instanceof IllegalCharacterRule) {
+        illegal.append(((IllegalCharacterRule) rule).getIllegalCharacters());
+      } else if (rule instanceof WhitespaceRule) {
+        illegal.append(WhitespaceRule.CHARS);
+      }
+    }
+
+    pools = new char[rules.size()][];
+    counts = new int[rules.size()];
+    final StringBuilder all = new StringBuilder();
+    int required = 0;
+    int maxPool = 0;
+    for (int i = 0; i < pools.length; i++) {
+      final CharacterRule rule = rules.get(i);
+      final StringBuilder pool = new StringBuilder();
+      for (char c : rule.getValidCharacters().toCharArray()) {
+        if (
+          illegal.indexOf(String.valueOf(c)) == -1 &&
+            (allowed == null || allowed.indexOf(c) != -1) &&
+            pool.indexOf(String.valueOf(c)) == -1) {
+          pool.append(c);
+          if (all.indexOf(String.valueOf(c)) == -1) {
+            all.append(c);
+          }
+        }
+      }
+      counts[i] = rule.getNumberOfCharacters();
+      if (counts[i] > 0 && pool.length() == 0) {
+        throw new IllegalArgumentException(
+          "validator does not allow any character of " + rule);
+      }
+      pools[i] = pool.toString().toCharArray();
+      required += counts[i];
+      maxPool = Math.max(maxPool, pools[i].length);
+    }
+    if (required > len) {
+      throw new IllegalArgumentException(
+        "length must be at least the number of required characters, " +
+        required);
+    }
+    if (all.length() == 0) {
+      throw new IllegalArgumentException(
+        "validator does not allow any character");
+    }
+
+    validator = pv;
+    length = len;
+    allChars = all.toString().toCharArray();
+    maxPoolSize = Math.max(maxPool, allChars.length);
+    sequenceTables = sequences.toArray(new SequenceTable[sequences.size()]);
+    repeatLength = repeat;
+    final List<Rule> checked = new ArrayList<>();
+    for (Rule rule : pv.getRules()) {
+      if (!isEnforced(rule, rules)) {
+        checked.add(rule);
+      }
+    }
+    checkedRules = checked.toArray(new Rule[checked.size()]);
+    random = r;
+  }
+
+
+  /**
+   * Returns the length of generated passwords.
+   *
+   * @return  password length
+   */
+  public int getLength()
+  {
+    return length;
+  }
+
+
+  /**
+   * Returns the number of passwords that are built before giving up.
+   *
+   * @return  maximum number of attempts
+   */
+  public int getMaxAttempts()
+  {
+    return maxAttempts;
+  }
+
+
+  /**
+   * Sets the number of passwords that are built before giving up.
+   *
+   * @param  n  maximum number of attempts
+   */
+  public void setMaxAttempts(final int n)
+  {
+    if (n <= 0) {
+      throw new IllegalArgumentException("attempts must be greater than 0");
+    }
+    maxAttempts = n;
+  }
+
+
+  /**
+   * Generates a password that passes the validator.
+   *
+   * @return  generated password
+   *
+   * @throws  IllegalStateException  if no password passed the validator within
+   * the maximum number of attempts
+   */
+  public String generatePassword()
+  {
+    return generatePassword(new PasswordData());
+  }
+
+
+  /**
+   * Generates a password that passes the validator. The username and
+   * references of the supplied password data are used by rules that require
+   * them; its password is replaced by the generated password.
+   *
+   * @param  data  username and references of the password
+   *
+   * @return  generated password
+   *
+   * @throws  IllegalStateException  if no password passed the validator within
+   * the maximum number of attempts
+   */
+  public String generatePassword(final PasswordData data)
+  {
+    final char[] password = new char[length];
+    final int[] plan = new int[length];
+    // one index per shuffled position and one per character
+    final RandomIndexSource indices = new RandomIndexSource(
+      random,
+      2 * length,
+      Math.max(length, maxPoolSize));
+    try {
+      for (int i = 0; i < maxAttempts; i++) {
+        if (build(password, plan, indices)) {
+          data.setPassword(new String(password));
+          if (isValid(data)) {
+            return data.getPassword();
+          }
+        }
+      }
+    } finally {
+      indices.clear();
+      Arrays.fill(password, (char) 0);
+    }
+    throw new IllegalStateException(
+      "No valid password generated in " + maxAttempts + " attempts");
+  }
+
+
+  /**
+   * Returns whether the supplied password data passes the rules that do not
+   * hold by construction.
+   *
+   * @param  data  to validate
+   *
+   * @return  whether all checked rules passed
+   */
+  private boolean isValid(final PasswordData data)
+  {
+    for (Rule rule : checkedRules) {
+      if (!rule.validate(data).isValid()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+
+  /**
+   * Builds a password that meets the rules applied while building.
+   *
+   * @param  password  array to fill
+   * @param  plan  array receiving the pool of each position
+   * @param  indices  source of random indices
+   *
+   * @return  whether every position could be filled
+   */
+  private boolean build(
+    final char[] password,
+    final int[] plan,
+    final RandomIndexSource indices)
+  {
+    int pos = 0;
+    for (int i = 0; i < counts.length; i++) {
+      for (int j = 0; j < counts[i]; j++) {
+        plan[pos++] = i;
+      }
+    }
+    Arrays.fill(plan, pos, length, ALL_POOL);
+    for (int i = length - 1; i > 0; i--) {
+      final int j = indices.nextIndex(i + 1);
+      final int p = plan[i];
+      plan[i] = plan[j];
+      plan[j] = p;
+    }
+
+    for (int i = 0; i < length; i++) {
+      final char[] pool = plan[i] == ALL_POOL ? allChars : pools[plan[i]];
+      if (!fill(password, i, pool, indices)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+
+  /**
+   * Selects a character of the supplied pool for a position of the password.
+   * Random characters are tried first; if none of them fits, the pool is
+   * scanned from a random offset.
+   *
+   * @param  password  being built
+   * @param  position  to fill
+   * @param  pool  characters to choose from
+   * @param  indices  source of random indices
+   *
+   * @return  whether a character was found
+   */
+  // CheckStyle:ReturnCount OFF
+  private boolean fill(
+    final char[] password,
+    final int position,
+    final char[] pool,
+    final RandomIndexSource indices)
+  {
+    for (int i = 0; i < RANDOM_TRIES; i++) {
+      password[position] = pool[indices.nextIndex(pool.length)];
+      if (isAllowed(password, position)) {
+        return true;
+      }
+    }
+
+    final int offset = indices.nextIndex(pool.length);
+    for (int i = 0; i < pool.length; i++) {
+      password[position] = pool[(offset + i) % pool.length];
+      if (isAllowed(password, position)) {
+        return true;
+      }
+    }
+    return false;
+  }
+  // CheckStyle:ReturnCount ON
+
+
+  /**
+   * Returns whether the character at the supplied position completes a run of
+   * repeated characters or a sequence. The characters before the position are
+   * known to contain neither.
+   *
+   * @param  password  being built
+   * @param  position  of the last character
+   *
+   * @return  whether the character may be used
+   */
+  // CheckStyle:ReturnCount OFF
+  private boolean isAllowed(final char[] password, final int position)
+  {
+    if (repeatLength > 0 && position + 1 >= repeatLength) {
+      int run = 1;
+      while (
+        run < repeatLength &&
+          password[position - run] == password[position]) {
+        run++;
+      }
+      if (run == repeatLength) {
+        return false;
+      }
+    }
+
+    for (SequenceTable table : sequenceTables) {
+      final int start = position - table.length + 1;
+      if (start >= 0 && table.matches(password, start)) {
+        return false;
+      }
+    }
+    return true;
+  }
+  // CheckStyle:ReturnCount ON
+
+
+  /**
+   * Returns whether the supplied rule holds for every password built from the
+   * supplied character rules.
+   *
+   * @param  rule  of the validator
+   * @param  rules  character rules passwords are built from
+   *
+   * @return  whether the rule need not be validated
+   */
+  // CheckStyle:ReturnCount OFF
+  private boolean isEnforced(final Rule rule, final List<CharacterRule> rules)
+  {
+    final Class<?> type = rule.getClass();
+    if (type == CharacterCharacteristicsRule.class) {
+      final List<CharacterRule> children =
+        ((CharacterCharacteristicsRule) rule).getRules();
+      for (CharacterRule child : children) {
+        if (!isEnforced(child, rules)) {
+          return false;
+        }
+      }
+      return !children.isEmpty();
+    }
+    if (type == RepeatCharacterRule.class) {
+      return ((RepeatCharacterRule) rule).getMaxBlockLength() == 1;
+    }
+    if (type == LengthRule.class) {
+      final LengthRule lr = (LengthRule) rule;
+      return lr.getMinimumLength() <= length && lr.getMaximumLength() >= length;
+    }
+    return
+      type == AlphabeticalSequenceRule.class ||
+      type == NumericalSequenceRule.class ||
+      type == QwertySequenceRule.class ||
+      type == RepeatCharacterRegexRule.class ||
+      type == AllowedCharacterRule.class ||
+      type == IllegalCharacterRule.class ||
+      type == WhitespaceRule.class ||
+      (isBuiltInCharacterRule(type) && containsRule(rules, rule));
+  }
+  // CheckStyle:ReturnCount ON
+
+
+  /**
+   * Returns whether the supplied type is a built-in character rule, which
+   * counts the characters of its valid characters.
+   *
+   * @param  type  of rule
+   *
+   * @return  whether the type is a built-in character rule
+   */
+  private static boolean isBuiltInCharacterRule(final Class<?> type)
+  {
+    return
+      type == AlphabeticalCharacterRule.class ||
+      type == DigitCharacterRule.class ||
+      type == LowercaseCharacterRule.class ||
+      type == SpecialCharacterRule.class ||
+      type == UppercaseCharacterRule.class;
+  }
+
+
+  /**
+   * Returns whether the supplied list contains the supplied rule instance.
+   *
+   * @param  rules  to search
+   * @param  rule  to find
+   *
+   * @return  whether the rule is in the list
+   */
+  private static boolean containsRule(
+    final List<CharacterRule> rules,
+    final Rule rule)
+  {
+    for (CharacterRule r : rules) {
+      if (r == rule) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+
+  /**
+   * Returns the character rules of the supplied rules, including the rules of
+   * any character characteristics rule.
+   *
+   * @param  rules  to search
+   *
+   * @return  character rules
+   */
+  private static List<CharacterRule> getCharacterRules(final List<Rule> rules)
+  {
+    final List<CharacterRule> characterRules = new ArrayList<>();
+    for (Rule rule : rules) {
+      if (rule instanceof CharacterRule) {
+        characterRules.add((CharacterRule) rule);
+      } else if (rule instanceof CharacterCharacteristicsRule) {
+        characterRules.addAll(((CharacterCharacteristicsRule) rule).getRules());
+      }
+    }
+    return characterRules;
+  }
+
+
+  /**
+   * Returns the characters of the first string that also occur in the second.
+   *
+   * @param  s  characters to filter
+   * @param  chars  characters to retain
+   *
+   * @return  retained characters
+   */
+  private static String retain(final String s, final String chars)
+  {
+    final StringBuilder sb = new StringBuilder(s.length());
+    for (char c : s.toCharArray()) {
+      if (chars.indexOf(c) != -1) {
+        sb.append(c);
+      }
+    }
+    return sb.toString();
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return
+      String.format(
+        "%s@%h::validator=%s,length=%s,counts=%s,maxAttempts=%s",
+        getClass().getName(),
+        hashCode(),
+        validator,
+        length,
+        Arrays.toString(counts),
+        maxAttempts);
+  }
+
+
+  /**
+   * Character sequence of a sequence rule with the position of each ASCII
+   * character, which finds the same sequences as {@link
+   * AbstractSequenceRule#validate(PasswordData)} without allocating.
+   */
+  private static final class SequenceTable
+  {
+
+    /** First character of each upper/lowercase pair. */
+    private final char[] first;
+
+    /** Second character of each upper/lowercase pair. */
+    private final char[] second;
+
+    /** First position of each ASCII character or -1. */
+    private final int[] positions = new int[ASCII_SIZE];
+
+    /** Number of characters of a sequence. */
+    private final int length;
+
+    /** Whether sequences wrap around the end of the characters. */
+    private final boolean wrap;
+
+
+    /**
+     * Creates a new sequence table.
+     *
+     * @param  chars  sequence of upper/lowercase character pairs
+     * @param  len  number of characters of a sequence
+     * @param  w  whether sequences wrap
+     */
+    SequenceTable(final char[][] chars, final int len, final boolean w)
+    {
+      first = new char[chars.length];
+      second = new char[chars.length];
+      Arrays.fill(positions, -1);
+      for (int i = chars.length - 1; i >= 0; i--) {
+        first[i] = chars[i][0];
+        second[i] = chars[i][1];
+        if (second[i] < ASCII_SIZE) {
+          positions[second[i]] = i;
+        }
+        if (first[i] < ASCII_SIZE) {
+          positions[first[i]] = i;
+        }
+      }
+      length = len;
+      wrap = w;
+    }
+
+
+    /**
+     * Returns whether the characters of the password that start at the
+     * supplied position run forward or backward through the sequence.
+     *
+     * @param  password  to search
+     * @param  start  position of the first character
+     *
+     * @return  whether a sequence was found
+     */
+    boolean matches(final char[] password, final int start)
+    {
+      final int index = indexOf(password[start]);
+      return
+        index >= 0 &&
+          (matches(password, start, index, 1) ||
+            matches(password, start, index, -1));
+    }
+
+
+    /**
+     * Returns whether the characters of the password that start at the
+     * supplied position follow the sequence in the supplied direction.
+     *
+     * @param  password  to search
+     * @param  start  position of the first character
+     * @param  index  of the first character in the sequence
+     * @param  direction  1 to search forward, -1 to search backward
+     *
+     * @return  whether a sequence was found
+     */
+    private boolean matches(
+      final char[] password,
+      final int start,
+      final int index,
+      final int direction)
+    {
+      boolean match = true;
+      for (int i = 1; i < length && match; i++) {
+        int p = index + i * direction;
+        if (p < 0 || p >= first.length) {
+          p = p < 0 ? p + first.length : p - first.length;
+          match = wrap;
+        }
+        if (match) {
+          final char c = password[start + i];
+          match = c == first[p] || c == second[p];
+        }
+      }
+      return match;
+    }
+
+
+    /**
+     * Returns the first position of the supplied character in the sequence.
+     *
+     * @param  c  character to find
+     *
+     * @return  position of the character or -1
+     */
+    private int indexOf(final char c)
+    {
+      if (c < ASCII_SIZE) {
+        return positions[c];
+      }
+      int index = -1;
+      for (int i = 0; i < first.length && index < 0; i++) {
+        if (c == first[i] || c == second[i]) {
+          index = i;
+        }
+      }
+      return index;
+    }
+  }
+}
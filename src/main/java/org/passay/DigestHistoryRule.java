@@ -2,7 +2,8 @@
 package org.passay;
 
 import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
 import org.cryptacular.bean.EncodingHashBean;
 
 /**
@@ -16,11 +17,8 @@ import org.cryptacular.bean.EncodingHashBean;
 public class DigestHistoryRule extends HistoryRule
 {
 
-  /** Hash bean to use for comparing hashed passwords. */
-  private final EncodingHashBean hashBean;
-
-  /** Character set to use for undigested passwords. */
-  private Charset charset = StandardCharsets.UTF_8;
+  /** Matcher to use for comparing hashed passwords. */
+  private final DigestReferenceMatcher digestMatcher;
 
 
   /**
@@ -31,7 +29,7 @@ public class DigestHistoryRule extends HistoryRule
    */
   public DigestHistoryRule(final EncodingHashBean bean)
   {
-    hashBean = bean;
+    digestMatcher = new DigestReferenceMatcher(bean);
   }
 
 
@@ -42,10 +40,31 @@ public class DigestHistoryRule extends HistoryRule
    */
   public void setCharset(final Charset set)
   {
-    if (set == null) {
-      throw new NullPointerException("Character set cannot be null");
-    }
-    charset = set;
+    digestMatcher.setCharset(set);
+  }
+
+
+  /**
+   * Sets whether password references may contain a salt. See {@link
+   * DigestReferenceMatcher#setSaltedReferences(boolean)}.
+   *
+   * @param  b  whether password references may contain a salt
+   */
+  public void setSaltedReferences(final boolean b)
+  {
+    digestMatcher.setSaltedReferences(b);
+  }
+
+
+  /**
+   * Sets the executor used to compare salted password references in parallel.
+   * See {@link DigestReferenceMatcher#setExecutor(ExecutorService)}.
+   *
+   * @param  service  to compare salted password references with
+   */
+  public void setExecutor(final ExecutorService service)
+  {
+    digestMatcher.setExecutor(service);
   }
 
 
@@ -62,7 +81,49 @@ public class DigestHistoryRule extends HistoryRule
     final String undigested,
     final PasswordData.Reference reference)
   {
-    return
-      hashBean.compare(reference.getPassword(), undigested.getBytes(charset));
+    return digestMatcher.matches(undigested, reference);
+  }
+
+
+  /**
+   * Returns the number of historical digests that a password matches. Unsalted
+   * references indexed by a {@link ReferenceList} are counted by looking up the
+   * digest ignoring case; references whose encoding differs from the digest
+   * only in case are compared with the hash bean, as {@link
+   * DigestReferenceMatcher} does.
+   *
+   * @param  password  candidate clear text password
+   * @param  references  historical reference digested passwords
+   *
+   * @return  number of matching references
+   */
+  @Override
+  protected int countMatches(
+    final String password,
+    final List<PasswordData.HistoricalReference> references)
+  {
+    int count = 0;
+    if (!digestMatcher.isSaltedReferences() &&
+        references instanceof ReferenceList.TypedView) {
+      final ReferenceList.TypedView<?> view =
+        (ReferenceList.TypedView<?>) references;
+      final String digest = digestMatcher.digest(password);
+      for (String reference : view.getPasswordsIgnoreCase(digest)) {
+        if (digest.equals(reference) ||
+            digestMatcher.getHashBean().compare(
+              reference,
+              password.getBytes(digestMatcher.getCharset()))) {
+          count += view.count(reference);
+        }
+      }
+      return count;
+    }
+
+    for (boolean b : digestMatcher.matches(password, references)) {
+      if (b) {
+        count++;
+      }
+    }
+    return count;
   }
 }
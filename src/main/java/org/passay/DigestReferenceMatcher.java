@@ -0,0 +1,415 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import org.cryptacular.bean.EncodingHashBean;
+
+/**
+ * Compares a clear text password against many digested password references.
+ * The password is encoded to bytes once per comparison and each distinct
+ * reference digest is compared once. When references are known to be unsalted
+ * the password digest is computed a single time and compared to every
+ * reference directly. Salted references require a digest computation per
+ * reference; those comparisons may optionally be dispatched to an executor,
+ * which is worthwhile for intentionally slow hash algorithms. When only a
+ * single match is needed, see {@link #firstMatch(String, List)}, outstanding
+ * comparisons are cancelled as soon as a match is found.
+ *
+ * @author  Middleware Services
+ */
+public class DigestReferenceMatcher
+{
+
+  /** Hash bean to use for comparing hashed passwords. */
+  private final EncodingHashBean hashBean;
+
+  /** Character set to use for undigested passwords. */
+  private Charset charset = StandardCharsets.UTF_8;
+
+  /** Whether references may contain a salt. */
+  private boolean saltedReferences = true;
+
+  /** Executor for comparing salted references in parallel. */
+  private ExecutorService executor;
+
+
+  /**
+   * Creates a new digest reference matcher.
+   *
+   * @param  bean  encoding hash bean
+   */
+  public DigestReferenceMatcher(final EncodingHashBean bean)
+  {
+    if (bean == null) {
+      throw new NullPointerException("Hash bean cannot be null");
+    }
+    hashBean = bean;
+  }
+
+
+  /**
+   * Returns the hash bean used for comparing hashed passwords.
+   *
+   * @return  encoding hash bean
+   */
+  public EncodingHashBean getHashBean()
+  {
+    return hashBean;
+  }
+
+
+  /**
+   * Sets the character set to use for undigested passwords.
+   *
+   * @param  set  to use for undigested passwords
+   */
+  public void setCharset(final Charset set)
+  {
+    if (set == null) {
+      throw new NullPointerException("Character set cannot be null");
+    }
+    charset = set;
+  }
+
+
+  /**
+   * Returns the character set to use for undigested passwords.
+   *
+   * @return  character set
+   */
+  public Charset getCharset()
+  {
+    return charset;
+  }
+
+
+  /**
+   * Sets whether references may contain a salt. When false, references must be
+   * encoded exactly as {@link EncodingHashBean#hash(Object...)} encodes them
+   * and the password digest is computed only once. Default value is true.
+   *
+   * @param  b  whether references may contain a salt
+   */
+  public void setSaltedReferences(final boolean b)
+  {
+    saltedReferences = b;
+  }
+
+
+  /**
+   * Returns whether references may contain a salt.
+   *
+   * @return  whether references may contain a salt
+   */
+  public boolean isSaltedReferences()
+  {
+    return saltedReferences;
+  }
+
+
+  /**
+   * Sets the executor used to compare salted references in parallel. When
+   * null, the default, references are compared in the calling thread. Since
+   * one task is submitted per distinct reference, the executor should have a
+   * bounded number of threads, e.g. {@link
+   * java.util.concurrent.Executors#newFixedThreadPool(int)}.
+   *
+   * @param  service  to compare salted references with
+   */
+  public void setExecutor(final ExecutorService service)
+  {
+    executor = service;
+  }
+
+
+  /**
+   * Returns the executor used to compare salted references in parallel.
+   *
+   * @return  executor service or null
+   */
+  public ExecutorService getExecutor()
+  {
+    return executor;
+  }
+
+
+  /**
+   * Returns the digest of the supplied password as encoded by the hash bean.
+   *
+   * @param  password  clear text password
+   *
+   * @return  encoded password digest
+   */
+  public String digest(final String password)
+  {
+    return hashBean.hash(password.getBytes(charset));
+  }
+
+
+  /**
+   * Determines whether a clear text password matches a digested reference.
+   *
+   * @param  password  candidate clear text password
+   * @param  reference  reference digested password
+   *
+   * @return  true if passwords match, false otherwise
+   */
+  public boolean matches(
+    final String password,
+    final PasswordData.Reference reference)
+  {
+    return
+      hashBean.compare(reference.getPassword(), password.getBytes(charset));
+  }
+
+
+  /**
+   * Determines whether a clear text password matches each of the supplied
+   * digested references.
+   *
+   * @param  password  candidate clear text password
+   * @param  references  reference digested passwords
+   *
+   * @return  array with the match result of each reference in list order
+   */
+  public boolean[] matches(
+    final String password,
+    final List<? extends PasswordData.Reference> references)
+  {
+    final Map<String, Boolean> results = compare(password, references);
+    final boolean[] matches = new boolean[references.size()];
+    for (int i = 0; i < matches.length; i++) {
+      matches[i] = results.get(references.get(i).getPassword());
+    }
+    return matches;
+  }
+
+
+  /**
+   * Returns the index of a digested reference that a clear text password
+   * matches. Comparison stops at the first match found; when salted references
+   * are compared in parallel any outstanding comparisons are cancelled, and the
+   * index returned is that of the first match to complete rather than the
+   * lowest matching index.
+   *
+   * @param  password  candidate clear text password
+   * @param  references  reference digested passwords
+   *
+   * @return  index of a matching reference or -1 if none match
+   */
+  public int firstMatch(
+    final String password,
+    final List<? extends PasswordData.Reference> references)
+  {
+    final byte[] bytes = password.getBytes(charset);
+    int index = -1;
+    if (!saltedReferences) {
+      final String digest = hashBean.hash(bytes);
+      for (int i = 0; i < references.size() && index < 0; i++) {
+        final String k = references.get(i).getPassword();
+        if (digest.equals(k) ||
+            digest.equalsIgnoreCase(k) && hashBean.compare(k, bytes)) {
+          index = i;
+        }
+      }
+    } else if (executor != null && references.size() > 1) {
+      index = indexOf(firstMatchInParallel(bytes, references), references);
+    } else {
+      for (int i = 0; i < references.size() && index < 0; i++) {
+        if (hashBean.compare(references.get(i).getPassword(), bytes)) {
+          index = i;
+        }
+      }
+    }
+    return index;
+  }
+
+
+  /**
+   * Compares a clear text password with each distinct reference digest.
+   *
+   * @param  password  candidate clear text password
+   * @param  references  reference digested passwords
+   *
+   * @return  map of reference digest to match result
+   */
+  protected Map<String, Boolean> compare(
+    final String password,
+    final List<? extends PasswordData.Reference> references)
+  {
+    final byte[] bytes = password.getBytes(charset);
+    final Map<String, Boolean> results = new LinkedHashMap<>();
+    for (PasswordData.Reference reference : references) {
+      results.put(reference.getPassword(), null);
+    }
+    if (results.isEmpty()) {
+      return results;
+    }
+    if (!saltedReferences) {
+      final String digest = hashBean.hash(bytes);
+      for (Map.Entry<String, Boolean> e : results.entrySet()) {
+        e.setValue(
+          digest.equals(e.getKey()) ||
+          digest.equalsIgnoreCase(e.getKey()) &&
+            hashBean.compare(e.getKey(), bytes));
+      }
+    } else if (executor != null && results.size() > 1) {
+      compareInParallel(bytes, results);
+    } else {
+      for (Map.Entry<String, Boolean> e : results.entrySet()) {
+        e.setValue(hashBean.compare(e.getKey(), bytes));
+      }
+    }
+    return results;
+  }
+
+
+  /**
+   * Compares password bytes with each reference digest using the executor.
+   *
+   * @param  bytes  encoded clear text password
+   * @param  results  map of reference digest to match result to populate
+   */
+  private void compareInParallel(
+    final byte[] bytes,
+    final Map<String, Boolean> results)
+  {
+    final List<Callable<Boolean>> tasks = new ArrayList<>(results.size());
+    for (String digest : results.keySet()) {
+      tasks.add(newCompareTask(digest, bytes));
+    }
+    try {
+      final List<Future<Boolean>> futures = executor.invokeAll(tasks);
+      int i = 0;
+      for (Map.Entry<String, Boolean> e : results.entrySet()) {
+        e.setValue(futures.get(i++).get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Digest comparison interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Digest comparison failed", e.getCause());
+    }
+  }
+
+
+  /**
+   * Compares password bytes with each distinct reference digest using the
+   * executor and returns the first matching digest to complete. Remaining
+   * comparisons are cancelled once a match is found.
+   *
+   * @param  bytes  encoded clear text password
+   * @param  references  reference digested passwords
+   *
+   * @return  matching reference digest or null
+   */
+  private String firstMatchInParallel(
+    final byte[] bytes,
+    final List<? extends PasswordData.Reference> references)
+  {
+    final CompletionService<Boolean> service =
+      new ExecutorCompletionService<>(executor);
+    final Map<Future<Boolean>, String> futures = new LinkedHashMap<>();
+    final Set<String> digests = new HashSet<>();
+    String match = null;
+    try {
+      for (PasswordData.Reference reference : references) {
+        if (digests.add(reference.getPassword())) {
+          futures.put(
+            service.submit(newCompareTask(reference.getPassword(), bytes)),
+            reference.getPassword());
+        }
+      }
+      for (int i = 0; i < futures.size() && match == null; i++) {
+        final Future<Boolean> future = service.take();
+        if (future.get()) {
+          match = futures.get(future);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Digest comparison interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Digest comparison failed", e.getCause());
+    } finally {
+      for (Future<Boolean> future : futures.keySet()) {
+        future.cancel(true);
+      }
+    }
+    return match;
+  }
+
+
+  /**
+   * Returns the index of the first reference with the supplied digest.
+   *
+   * @param  digest  reference digest or null
+   * @param  references  reference digested passwords
+   *
+   * @return  index of the reference or -1
+   */
+  private static int indexOf(
+    final String digest,
+    final List<? extends PasswordData.Reference> references)
+  {
+    if (digest != null) {
+      for (int i = 0; i < references.size(); i++) {
+        if (digest.equals(references.get(i).getPassword())) {
+          return i;
+        }
+      }
+    }
+    return -1;
+  }
+
+
+  /**
+   * Creates a task that compares password bytes with a reference digest.
+   *
+   * @param  digest  reference digest
+   * @param  bytes  encoded clear text password
+   *
+   * @return  comparison task
+   */
+  protected Callable<Boolean> newCompareTask(
+    final String digest,
+    final byte[] bytes)
+  {
+    return
+      new Callable<Boolean>() {
+        @Override
+        public Boolean call()
+        {
+          return hashBean.compare(digest, bytes);
+        }
+      };
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return
+      String.format(
+        "%s@%h::hashBean=%s,charset=%s,saltedReferences=%s,executor=%s",
+        getClass().getName(),
+        hashCode(),
+        hashBean,
+        charset,
+        saltedReferences,
+        executor);
+  }
+}
@@ -2,7 +2,8 @@
 package org.passay;
 
 import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
 import org.cryptacular.bean.EncodingHashBean;
 
 /**
@@ -17,11 +18,8 @@ import org.cryptacular.bean.EncodingHashBean;
 public class DigestSourceRule extends SourceRule
 {
 
-  /** Hash bean to use for comparing hashed passwords. */
-  private final EncodingHashBean hashBean;
-
-  /** Character set to use for undigested passwords. */
-  private Charset charset = StandardCharsets.UTF_8;
+  /** Matcher to use for comparing hashed passwords. */
+  private final DigestReferenceMatcher digestMatcher;
 
 
   /**
@@ -32,7 +30,22 @@ public class DigestSourceRule extends SourceRule
    */
   public DigestSourceRule(final EncodingHashBean bean)
   {
-    hashBean = bean;
+    digestMatcher = new DigestReferenceMatcher(bean);
+  }
+
+
+  /**
+   * Creates new digest source rule which operates on password references with
+   * the supplied label. When only the first match is reported, parallel
+   * comparisons are cancelled as soon as a match is found.
+   *
+   * @param  bean  encoding hash bean
+   * @param  b  whether to report all source matches or just the first
+   */
+  public DigestSourceRule(final EncodingHashBean bean, final boolean b)
+  {
+    super(b);
+    digestMatcher = new DigestReferenceMatcher(bean);
   }
 
 
@@ -43,10 +56,31 @@ public class DigestSourceRule extends SourceRule
    */
   public void setCharset(final Charset set)
   {
-    if (set == null) {
-      throw new NullPointerException("Character set cannot be null");
-    }
-    charset = set;
+    digestMatcher.setCharset(set);
+  }
+
+
+  /**
+   * Sets whether password references may contain a salt. See {@link
+   * DigestReferenceMatcher#setSaltedReferences(boolean)}.
+   *
+   * @param  b  whether password references may contain a salt
+   */
+  public void setSaltedReferences(final boolean b)
+  {
+    digestMatcher.setSaltedReferences(b);
+  }
+
+
+  /**
+   * Sets the executor used to compare salted password references in parallel.
+   * See {@link DigestReferenceMatcher#setExecutor(ExecutorService)}.
+   *
+   * @param  service  to compare salted password references with
+   */
+  public void setExecutor(final ExecutorService service)
+  {
+    digestMatcher.setExecutor(service);
   }
 
 
@@ -63,7 +97,24 @@ public class DigestSourceRule extends SourceRule
     final String undigested,
     final PasswordData.Reference reference)
   {
-    return
-      hashBean.compare(reference.getPassword(), undigested.getBytes(charset));
+    return digestMatcher.matches(undigested, reference);
+  }
+
+
+  @Override
+  protected boolean[] findMatches(
+    final String password,
+    final List<PasswordData.SourceReference> references)
+  {
+    return digestMatcher.matches(password, references);
+  }
+
+
+  @Override
+  protected int findFirstMatch(
+    final String password,
+    final List<PasswordData.SourceReference> references)
+  {
+    return digestMatcher.firstMatch(password, references);
   }
 }
@@ -1,7 +1,6 @@
 /* See LICENSE for licensing and NOTICE for copyright. */
 package org.passay;
 
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -13,12 +12,22 @@ import java.util.Map;
  *
  * @author  Middleware Services
  */
-public class HistoryRule implements Rule
+public class HistoryRule implements CacheableRule
 {
 
   /** Error code for history violation. */
   public static final String ERROR_CODE = "HISTORY_VIOLATION";
 
+  /** Names of the rule result detail parameters. */
+  private static final String[] PARAMETER_NAMES = {"historySize"};
+
+
+  @Override
+  public boolean isCacheable()
+  {
+    return true;
+  }
+
 
   @Override
   public RuleResult validate(final PasswordData passwordData)
@@ -32,17 +41,45 @@ public class HistoryRule implements Rule
       return result;
     }
 
-    final String cleartext = passwordData.getPassword();
+    final int count = countMatches(passwordData.getPassword(), references);
+    for (int i = 0; i < count; i++) {
+      result.setValid(false);
+      result.getDetails().add(
+        new RuleResultDetail(
+          ERROR_CODE,
+          createRuleResultDetailParameters(size)));
+    }
+    return result;
+  }
+
+
+  /**
+   * Returns the number of historical passwords that a password matches. The
+   * default implementation invokes {@link #matches(String,
+   * PasswordData.Reference)} for each reference, unless the references are
+   * indexed by a {@link ReferenceList} and {@link #isEqualityMatch()} is true,
+   * in which case the count is looked up directly.
+   *
+   * @param  password  candidate password
+   * @param  references  historical reference passwords
+   *
+   * @return  number of matching references
+   */
+  protected int countMatches(
+    final String password,
+    final List<PasswordData.HistoricalReference> references)
+  {
+    if (isEqualityMatch() && references instanceof ReferenceList.TypedView) {
+      return ((ReferenceList.TypedView<?>) references).count(password);
+    }
+
+    int count = 0;
     for (PasswordData.HistoricalReference reference : references) {
-      if (matches(cleartext, reference)) {
-        result.setValid(false);
-        result.getDetails().add(
-          new RuleResultDetail(
-            ERROR_CODE,
-            createRuleResultDetailParameters(size)));
+      if (matches(password, reference)) {
+        count++;
       }
     }
-    return result;
+    return count;
   }
 
 
@@ -62,6 +99,22 @@ public class HistoryRule implements Rule
   }
 
 
+  /**
+   * Returns whether {@link #matches(String, PasswordData.Reference)} is plain
+   * equality, which allows {@link #countMatches(String, List)} to look up the
+   * count in a {@link ReferenceList}. The default implementation returns true
+   * only for this class, so that a subclass overriding matching is always
+   * consulted; subclasses that keep equality matching may override this method
+   * to return true.
+   *
+   * @return  whether passwords match references by equality
+   */
+  protected boolean isEqualityMatch()
+  {
+    return getClass() == HistoryRule.class;
+  }
+
+
   /**
    * Creates the parameter data for the rule result detail.
    *
@@ -71,8 +124,6 @@ public class HistoryRule implements Rule
    */
   protected Map<String, Object> createRuleResultDetailParameters(final int size)
   {
-    final Map<String, Object> m = new LinkedHashMap<>();
-    m.put("historySize", size);
-    return m;
+    return new ParameterMap(PARAMETER_NAMES, size);
   }
 }
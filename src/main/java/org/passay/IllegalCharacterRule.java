@@ -2,7 +2,6 @@
 package org.passay;
 
 import java.util.Arrays;
-import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -11,12 +10,15 @@ import java.util.Map;
  *
  * @author  Middleware Services
  */
-public class IllegalCharacterRule implements Rule
+public class IllegalCharacterRule implements CacheableRule
 {
 
   /** Error code for illegal character failures. */
   public static final String ERROR_CODE = "ILLEGAL_CHAR";
 
+  /** Names of the rule result detail parameters. */
+  private static final String[] PARAMETER_NAMES = {"illegalCharacter"};
+
   /** Stores the characters that are not allowed. */
   private final char[] illegalChar;
 
@@ -32,6 +34,24 @@ public class IllegalCharacterRule implements Rule
   }
 
 
+  /**
+   * Returns the illegal characters.
+   *
+   * @return  illegal characters
+   */
+  public char[] getIllegalCharacters()
+  {
+    return illegalChar;
+  }
+
+
+  @Override
+  public boolean isCacheable()
+  {
+    return true;
+  }
+
+
   @Override
   public RuleResult validate(final PasswordData passwordData)
   {
@@ -59,9 +79,7 @@ public class IllegalCharacterRule implements Rule
    */
   protected Map<String, Object> createRuleResultDetailParameters(final char c)
   {
-    final Map<String, Object> m = new LinkedHashMap<>();
-    m.put("illegalCharacter", c);
-    return m;
+    return new ParameterMap(PARAMETER_NAMES, c);
   }
 
 
@@ -1,10 +1,11 @@
 /* See LICENSE for licensing and NOTICE for copyright. */
 package org.passay;
 
-import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.regex.MatchResult;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import org.passay.regex.DfaPattern;
 
 /**
  * Rule for determining if a password matches an illegal regular expression.
@@ -12,15 +13,21 @@ import java.util.regex.Pattern;
  *
  * @author  Middleware Services
  */
-public class IllegalRegexRule implements Rule
+public class IllegalRegexRule implements CacheableRule
 {
 
   /** Error code for regex validation failures. */
   public static final String ERROR_CODE = "ILLEGAL_MATCH";
 
+  /** Names of the rule result detail parameters. */
+  private static final String[] PARAMETER_NAMES = {"match", "pattern"};
+
   /** Regex pattern. */
   protected final Pattern pattern;
 
+  /** DFA pattern to match with, or null to match with {@link #pattern}. */
+  protected final DfaPattern dfaPattern;
+
 
   /**
    * Creates a new illegal regex rule.
@@ -28,8 +35,32 @@ public class IllegalRegexRule implements Rule
    * @param  regex  regular expression
    */
   public IllegalRegexRule(final String regex)
+  {
+    this(regex, false);
+  }
+
+
+  /**
+   * Creates a new illegal regex rule. A DFA pattern matches in time linear in
+   * the length of the password, so it is immune to the catastrophic
+   * backtracking of expressions such as <code>(a+)+</code>, but it does not
+   * support backreferences, lookaround and other constructs; see {@link
+   * DfaPattern}.
+   *
+   * @param  regex  regular expression
+   * @param  dfa  whether to match with a {@link DfaPattern}
+   */
+  public IllegalRegexRule(final String regex, final boolean dfa)
   {
     pattern = Pattern.compile(regex);
+    dfaPattern = dfa ? DfaPattern.compile(regex) : null;
+  }
+
+
+  @Override
+  public boolean isCacheable()
+  {
+    return true;
   }
 
 
@@ -37,18 +68,43 @@ public class IllegalRegexRule implements Rule
   public RuleResult validate(final PasswordData passwordData)
   {
     final RuleResult result = new RuleResult(true);
-    final Matcher m = pattern.matcher(passwordData.getPassword());
-    if (m.find()) {
+    final String match = findMatch(passwordData.getPassword());
+    if (match != null) {
       result.setValid(false);
       result.getDetails().add(
         new RuleResultDetail(
           ERROR_CODE,
-          createRuleResultDetailParameters(m.group())));
+          createRuleResultDetailParameters(match)));
     }
     return result;
   }
 
 
+  /**
+   * Returns the first match of the pattern in the supplied password.
+   *
+   * @param  password  to search
+   *
+   * @return  matched text or null if the pattern does not match
+   */
+  protected String findMatch(final String password)
+  {
+    String match = null;
+    if (dfaPattern != null) {
+      final MatchResult m = dfaPattern.findMatch(password);
+      if (m != null) {
+        match = m.group();
+      }
+    } else {
+      final Matcher m = pattern.matcher(password);
+      if (m.find()) {
+        match = m.group();
+      }
+    }
+    return match;
+  }
+
+
   /**
    * Creates the parameter data for the rule result detail.
    *
@@ -59,10 +115,7 @@ public class IllegalRegexRule implements Rule
   protected Map<String, Object> createRuleResultDetailParameters(
     final String match)
   {
-    final Map<String, Object> m = new LinkedHashMap<>();
-    m.put("match", match);
-    m.put("pattern", pattern);
-    return m;
+    return new ParameterMap(PARAMETER_NAMES, match, pattern);
   }
 
 
@@ -71,9 +124,10 @@ public class IllegalRegexRule implements Rule
   {
     return
       String.format(
-        "%s@%h::pattern=%s",
+        "%s@%h::pattern=%s,dfa=%s",
         getClass().getName(),
         hashCode(),
-        pattern);
+        pattern,
+        dfaPattern != null);
   }
 }
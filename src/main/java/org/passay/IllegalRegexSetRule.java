@@ -0,0 +1,128 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.MatchResult;
+import org.passay.regex.DfaPatternSet;
+
+/**
+ * Rule for determining if a password matches any of several illegal regular
+ * expressions. The expressions are compiled together into a single {@link
+ * DfaPatternSet}, so the password is scanned once however many expressions
+ * there are, instead of once per {@link IllegalRegexRule}. Passwords which
+ * match an expression fail validation with the same details as {@link
+ * IllegalRegexRule}. The expressions must be supported by {@link
+ * org.passay.regex.DfaPattern}.
+ *
+ * @author  Middleware Services
+ */
+public class IllegalRegexSetRule implements CacheableRule
+{
+
+  /** Error code for regex validation failures. */
+  public static final String ERROR_CODE = IllegalRegexRule.ERROR_CODE;
+
+  /** Names of the rule result detail parameters. */
+  private static final String[] PARAMETER_NAMES = {"match", "pattern"};
+
+  /** Regex patterns. */
+  protected final DfaPatternSet patterns;
+
+  /** Whether to report all matching patterns or just the first. */
+  protected boolean reportAllFailures = true;
+
+
+  /**
+   * Creates a new illegal regex set rule.
+   *
+   * @param  regexes  regular expressions
+   */
+  public IllegalRegexSetRule(final String... regexes)
+  {
+    this(Arrays.asList(regexes));
+  }
+
+
+  /**
+   * Creates a new illegal regex set rule.
+   *
+   * @param  regexes  regular expressions
+   */
+  public IllegalRegexSetRule(final List<String> regexes)
+  {
+    this(regexes, true);
+  }
+
+
+  /**
+   * Creates a new illegal regex set rule.
+   *
+   * @param  regexes  regular expressions
+   * @param  b  whether to report all matching patterns or just the first
+   */
+  public IllegalRegexSetRule(final List<String> regexes, final boolean b)
+  {
+    patterns = DfaPatternSet.compile(regexes);
+    reportAllFailures = b;
+  }
+
+
+  @Override
+  public boolean isCacheable()
+  {
+    return true;
+  }
+
+
+  @Override
+  public RuleResult validate(final PasswordData passwordData)
+  {
+    final RuleResult result = new RuleResult(true);
+    final String password = passwordData.getPassword();
+    for (int index : patterns.find(password)) {
+      final MatchResult m = patterns.findMatch(password, index);
+      result.setValid(false);
+      result.getDetails().add(
+        new RuleResultDetail(
+          ERROR_CODE,
+          createRuleResultDetailParameters(
+            m.group(),
+            patterns.patterns().get(index))));
+      if (!reportAllFailures) {
+        break;
+      }
+    }
+    return result;
+  }
+
+
+  /**
+   * Creates the parameter data for the rule result detail.
+   *
+   * @param  match  matching regex
+   * @param  pattern  regular expression that matched
+   *
+   * @return  map of parameter name to value
+   */
+  protected Map<String, Object> createRuleResultDetailParameters(
+    final String match,
+    final String pattern)
+  {
+    return new ParameterMap(PARAMETER_NAMES, match, pattern);
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return
+      String.format(
+        "%s@%h::patterns=%s,reportAllFailures=%s",
+        getClass().getName(),
+        hashCode(),
+        patterns,
+        reportAllFailures);
+  }
+}
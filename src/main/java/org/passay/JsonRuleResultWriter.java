@@ -0,0 +1,408 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Writes rule results as JSON directly to an {@link Appendable} or {@link
+ * OutputStream}. A result is written as an object with a <code>valid</code>
+ * flag and a <code>details</code> array; each detail contains its error
+ * <code>code</code>, its <code>parameters</code> and, if a message resolver is
+ * configured, the resolved <code>message</code>. For example:
+ *
+ * <pre>
+   {"valid":false,"details":[{"code":"TOO_SHORT",
+     "parameters":{"minimumLength":8,"maximumLength":16},
+     "message":"Password must be at least 8 characters in length."}]}
+ * </pre>
+ *
+ * <p>Integral parameters are written without converting them to strings, and
+ * messages from a {@link PropertiesMessageResolver} or {@link
+ * ResourceBundleMessageResolver} are rendered from their {@link
+ * MessageTemplate} straight into the output, so no intermediate message
+ * strings are created. Messages from any other resolver, including subclasses
+ * of those two, are obtained from its <code>resolve</code> methods.</p>
+ *
+ * @author  Middleware Services
+ */
+public class JsonRuleResultWriter
+{
+
+  /** Hex characters. */
+  private static final char[] HEX_CHARS = "0123456789abcdef".toCharArray();
+
+  /** Radix of integral parameters. */
+  private static final int DECIMAL_RADIX = 10;
+
+  /** Maximum number of characters in a long, including the sign. */
+  private static final int MAX_LONG_CHARS = 20;
+
+  /** Characters below this value must be escaped. */
+  private static final char MIN_UNESCAPED_CHAR = 0x20;
+
+  /** Bits in a hex character. */
+  private static final int HEX_BITS = 4;
+
+  /** Mask for a hex character. */
+  private static final int HEX_MASK = 0x0F;
+
+  /** Message resolver or null to omit messages. */
+  private final MessageResolver messageResolver;
+
+
+  /** Creates a new JSON rule result writer that omits messages. */
+  public JsonRuleResultWriter()
+  {
+    this(null);
+  }
+
+
+  /**
+   * Creates a new JSON rule result writer.
+   *
+   * @param  resolver  to resolve detail messages with or null to omit messages
+   */
+  public JsonRuleResultWriter(final MessageResolver resolver)
+  {
+    messageResolver = resolver;
+  }
+
+
+  /**
+   * Returns the message resolver.
+   *
+   * @return  message resolver or null
+   */
+  public MessageResolver getMessageResolver()
+  {
+    return messageResolver;
+  }
+
+
+  /**
+   * Writes the supplied rule result to the supplied appendable.
+   *
+   * @param  result  to write
+   * @param  out  to write to
+   *
+   * @throws  IOException  if the appendable throws
+   */
+  public void write(final RuleResult result, final Appendable out)
+    throws IOException
+  {
+    write(result, null, out);
+  }
+
+
+  /**
+   * Writes the supplied rule result to the supplied appendable with messages
+   * in the supplied locale. The locale is ignored unless the message resolver
+   * is a {@link LocalizedMessageResolver}.
+   *
+   * @param  result  to write
+   * @param  locale  of messages or null for the resolver default
+   * @param  out  to write to
+   *
+   * @throws  IOException  if the appendable throws
+   */
+  public void write(
+    final RuleResult result,
+    final Locale locale,
+    final Appendable out)
+    throws IOException
+  {
+    out.append("{\"valid\":").append(result.isValid() ? "true" : "false");
+    out.append(",\"details\":[");
+    boolean first = true;
+    for (RuleResultDetail detail : result.getDetails()) {
+      if (!first) {
+        out.append(',');
+      }
+      writeDetail(detail, locale, out);
+      first = false;
+    }
+    out.append("]}");
+  }
+
+
+  /**
+   * Writes the supplied rule result to the supplied stream as UTF-8. The
+   * stream is flushed but not closed. This method is not an overload of
+   * <code>write</code> since a {@link java.io.PrintStream} is also an {@link
+   * Appendable}.
+   *
+   * @param  result  to write
+   * @param  locale  of messages or null for the resolver default
+   * @param  out  to write to
+   *
+   * @throws  IOException  if the stream throws
+   */
+  public void writeUtf8(
+    final RuleResult result,
+    final Locale locale,
+    final OutputStream out)
+    throws IOException
+  {
+    final Writer writer = new BufferedWriter(
+      new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    write(result, locale, writer);
+    writer.flush();
+  }
+
+
+  /**
+   * Writes a single rule result detail.
+   *
+   * @param  detail  to write
+   * @param  locale  of messages or null for the resolver default
+   * @param  out  to write to
+   *
+   * @throws  IOException  if the appendable throws
+   */
+  protected void writeDetail(
+    final RuleResultDetail detail,
+    final Locale locale,
+    final Appendable out)
+    throws IOException
+  {
+    final Appendable escaped = new Escaper(out);
+    out.append("{\"code\":\"");
+    escaped.append(detail.getErrorCode());
+    out.append("\",\"parameters\":{");
+    final String[] names = detail.names();
+    final Object[] values = detail.values();
+    for (int i = 0; i < names.length; i++) {
+      if (i > 0) {
+        out.append(',');
+      }
+      out.append('"');
+      escaped.append(names[i]);
+      out.append("\":");
+      writeValue(values[i], out, escaped);
+    }
+    out.append('}');
+    if (messageResolver != null) {
+      out.append(",\"message\":\"");
+      writeMessage(detail, locale, escaped);
+      out.append('"');
+    }
+    out.append('}');
+  }
+
+
+  /**
+   * Writes a parameter value.
+   *
+   * @param  value  to write
+   * @param  out  to write to
+   * @param  escaped  appendable that escapes string content written to out
+   *
+   * @throws  IOException  if the appendable throws
+   */
+  private static void writeValue(
+    final Object value,
+    final Appendable out,
+    final Appendable escaped)
+    throws IOException
+  {
+    if (value == null) {
+      out.append("null");
+    } else if (
+      value instanceof Integer ||
+        value instanceof Long ||
+        value instanceof Short ||
+        value instanceof Byte) {
+      writeLong(((Number) value).longValue(), out);
+    } else if (value instanceof Boolean) {
+      out.append((Boolean) value ? "true" : "false");
+    } else if (value instanceof CharSequence) {
+      out.append('"');
+      escaped.append((CharSequence) value);
+      out.append('"');
+    } else if (value instanceof Character) {
+      out.append('"');
+      escaped.append((Character) value);
+      out.append('"');
+    } else if (
+      value instanceof Number &&
+        !Double.isNaN(((Number) value).doubleValue()) &&
+        !Double.isInfinite(((Number) value).doubleValue())) {
+      out.append(value.toString());
+    } else {
+      out.append('"');
+      escaped.append(String.valueOf(value));
+      out.append('"');
+    }
+  }
+
+
+  /**
+   * Writes a long in decimal without creating a string.
+   *
+   * @param  value  to write
+   * @param  out  to write to
+   *
+   * @throws  IOException  if the appendable throws
+   */
+  private static void writeLong(final long value, final Appendable out)
+    throws IOException
+  {
+    final char[] buffer = new char[MAX_LONG_CHARS];
+    int pos = buffer.length;
+    long n = value > 0 ? -value : value;
+    do {
+      buffer[--pos] = (char) ('0' - n % DECIMAL_RADIX);
+      n /= DECIMAL_RADIX;
+    } while (n != 0);
+    if (value < 0) {
+      buffer[--pos] = '-';
+    }
+    for (int i = pos; i < buffer.length; i++) {
+      out.append(buffer[i]);
+    }
+  }
+
+
+  /**
+   * Writes the resolved message of a detail.
+   *
+   * @param  detail  to resolve the message of
+   * @param  locale  of the message or null for the resolver default
+   * @param  escaped  appendable that escapes string content
+   *
+   * @throws  IOException  if the appendable throws
+   */
+  private void writeMessage(
+    final RuleResultDetail detail,
+    final Locale locale,
+    final Appendable escaped)
+    throws IOException
+  {
+    // subclasses may override resolve, so only the library resolvers are
+    // rendered from their templates
+    final Class<?> type = messageResolver.getClass();
+    MessageTemplate template = null;
+    if (type == ResourceBundleMessageResolver.class && locale != null) {
+      template = ((ResourceBundleMessageResolver) messageResolver).getTemplate(
+        detail.getErrorCode(),
+        locale);
+    } else if (
+      type == ResourceBundleMessageResolver.class ||
+        type == PropertiesMessageResolver.class) {
+      template = ((AbstractMessageResolver) messageResolver).getTemplate(
+        detail.getErrorCode());
+    }
+
+    if (template != null) {
+      template.appendTo(escaped, detail.values());
+    } else if (
+      locale != null && messageResolver instanceof LocalizedMessageResolver) {
+      escaped.append(
+        ((LocalizedMessageResolver) messageResolver).resolve(detail, locale));
+    } else {
+      escaped.append(messageResolver.resolve(detail));
+    }
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return
+      String.format(
+        "%s@%h::messageResolver=%s",
+        getClass().getName(),
+        hashCode(),
+        messageResolver);
+  }
+
+
+  /** Appendable that escapes JSON string content written to another. */
+  private static class Escaper implements Appendable
+  {
+
+    /** Appendable to write escaped content to. */
+    private final Appendable out;
+
+
+    /**
+     * Creates a new escaper.
+     *
+     * @param  a  appendable to write escaped content to
+     */
+    Escaper(final Appendable a)
+    {
+      out = a;
+    }
+
+
+    @Override
+    public Appendable append(final CharSequence csq)
+      throws IOException
+    {
+      final CharSequence s = csq != null ? csq : "null";
+      return append(s, 0, s.length());
+    }
+
+
+    @Override
+    public Appendable append(
+      final CharSequence csq,
+      final int start,
+      final int end)
+      throws IOException
+    {
+      final CharSequence s = csq != null ? csq : "null";
+      for (int i = start; i < end; i++) {
+        append(s.charAt(i));
+      }
+      return this;
+    }
+
+
+    @Override
+    public Appendable append(final char c)
+      throws IOException
+    {
+      switch (c) {
+
+      case '"':
+        out.append("\\\"");
+        break;
+
+      case '\\':
+        out.append("\\\\");
+        break;
+
+      case '\n':
+        out.append("\\n");
+        break;
+
+      case '\r':
+        out.append("\\r");
+        break;
+
+      case '\t':
+        out.append("\\t");
+        break;
+
+      default:
+        if (c < MIN_UNESCAPED_CHAR) {
+          out.append("\\u00")
+            .append(HEX_CHARS[(c >>> HEX_BITS) & HEX_MASK])
+            .append(HEX_CHARS[c & HEX_MASK]);
+        } else {
+          out.append(c);
+        }
+        break;
+      }
+      return this;
+    }
+  }
+}
@@ -1,7 +1,6 @@
 /* See LICENSE for licensing and NOTICE for copyright. */
 package org.passay;
 
-import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -11,7 +10,7 @@ import java.util.Map;
  *
  * @author  Middleware Services
  */
-public class LengthRule implements Rule
+public class LengthRule implements CacheableRule
 {
 
   /** Error code for password too short. */
@@ -20,6 +19,11 @@ public class LengthRule implements Rule
   /** Error code for password too long. */
   public static final String ERROR_CODE_MAX = "TOO_LONG";
 
+  /** Names of the rule result detail parameters. */
+  private static final String[] PARAMETER_NAMES = {
+    "minimumLength", "maximumLength",
+  };
+
   /** Stores the minimum length of a password. */
   private int minimumLength;
 
@@ -104,6 +108,13 @@ public class LengthRule implements Rule
   }
 
 
+  @Override
+  public boolean isCacheable()
+  {
+    return true;
+  }
+
+
   @Override
   public RuleResult validate(final PasswordData passwordData)
   {
@@ -136,10 +147,7 @@ public class LengthRule implements Rule
    */
   protected Map<String, Object> createRuleResultDetailParameters()
   {
-    final Map<String, Object> m = new LinkedHashMap<>();
-    m.put("minimumLength", minimumLength);
-    m.put("maximumLength", maximumLength);
-    return m;
+    return new ParameterMap(PARAMETER_NAMES, minimumLength, maximumLength);
   }
 
 
@@ -0,0 +1,26 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.util.Locale;
+
+/**
+ * Message resolver that can resolve messages in more than one locale.
+ *
+ * @author  Middleware Services
+ */
+public interface LocalizedMessageResolver extends MessageResolver
+{
+
+
+  /**
+   * Resolves the message for the supplied rule result detail in the supplied
+   * locale.
+   *
+   * @param  detail  rule result detail
+   * @param  locale  of the message or null for the default locale of the
+   * resolver
+   *
+   * @return  message for the detail error code
+   */
+  String resolve(RuleResultDetail detail, Locale locale);
+}
@@ -0,0 +1,236 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Formattable;
+import java.util.List;
+import java.util.MissingFormatArgumentException;
+
+/**
+ * Message format that is parsed once and rendered many times. Formats follow
+ * the syntax of {@link String#format(String, Object...)}; the specifiers used
+ * by message properties, <code>%s</code>, <code>%n$s</code>, <code>%%</code>
+ * and <code>%n</code>, are compiled into a list of literal and argument
+ * segments which are rendered without reparsing the format. Formats that
+ * contain any other specifier are rendered with {@link String#format(String,
+ * Object...)}.
+ *
+ * <p>Instances are immutable and safe for use by multiple threads.</p>
+ *
+ * @author  Middleware Services
+ */
+public final class MessageTemplate
+{
+
+  /** Largest buffer capacity that is retained for reuse. */
+  private static final int MAX_BUFFER_CAPACITY = 1024;
+
+  /** Reusable buffer for rendering messages. */
+  private static final ThreadLocal<StringBuilder> BUFFER = new ThreadLocal<>();
+
+  /** Format string. */
+  private final String format;
+
+  /** Literal segments, the literal at i precedes the argument at i. */
+  private final String[] literals;
+
+  /** Zero based argument index segments. */
+  private final int[] arguments;
+
+
+  /**
+   * Creates a new message template.
+   *
+   * @param  s  format string
+   */
+  public MessageTemplate(final String s)
+  {
+    if (s == null) {
+      throw new NullPointerException("Format cannot be null");
+    }
+    format = s;
+
+    final List<String> l = new ArrayList<>();
+    final List<Integer> a = new ArrayList<>();
+    if (parse(s, l, a)) {
+      literals = l.toArray(new String[l.size()]);
+      arguments = new int[a.size()];
+      for (int i = 0; i < arguments.length; i++) {
+        arguments[i] = a.get(i);
+      }
+    } else {
+      literals = null;
+      arguments = null;
+    }
+  }
+
+
+  /**
+   * Returns the format string.
+   *
+   * @return  format string
+   */
+  public String getFormat()
+  {
+    return format;
+  }
+
+
+  /**
+   * Returns whether this template was compiled into segments. Templates that
+   * are not compiled are rendered with {@link String#format(String,
+   * Object...)}.
+   *
+   * @return  whether this template is compiled
+   */
+  public boolean isCompiled()
+  {
+    return literals != null;
+  }
+
+
+  /**
+   * Renders this template with the supplied arguments.
+   *
+   * @param  args  format arguments
+   *
+   * @return  formatted message
+   *
+   * @throws  java.util.IllegalFormatException  if an argument is missing
+   */
+  public String format(final Object... args)
+  {
+    StringBuilder sb = BUFFER.get();
+    if (sb == null) {
+      sb = new StringBuilder();
+    } else {
+      BUFFER.remove();
+    }
+    try {
+      appendTo(sb, args);
+      return sb.toString();
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not append to buffer", e);
+    } finally {
+      if (sb.capacity() <= MAX_BUFFER_CAPACITY) {
+        sb.setLength(0);
+        BUFFER.set(sb);
+      }
+    }
+  }
+
+
+  /**
+   * Renders this template with the supplied arguments to the supplied
+   * appendable.
+   *
+   * @param  out  to append the message to
+   * @param  args  format arguments
+   *
+   * @throws  IOException  if the appendable throws
+   * @throws  java.util.IllegalFormatException  if an argument is missing
+   */
+  public void appendTo(final Appendable out, final Object... args)
+    throws IOException
+  {
+    if (literals == null) {
+      out.append(String.format(format, args));
+    } else {
+      for (int i = 0; i < arguments.length; i++) {
+        out.append(literals[i]);
+        if (args == null || arguments[i] >= args.length) {
+          throw new MissingFormatArgumentException(
+            String.format("%%%s$s", arguments[i] + 1));
+        }
+
+        final Object arg = args[arguments[i]];
+        if (arg instanceof Formattable) {
+          out.append(String.format("%s", arg));
+        } else {
+          out.append(String.valueOf(arg));
+        }
+      }
+      out.append(literals[arguments.length]);
+    }
+  }
+
+
+  /**
+   * Parses a format string into literal and argument segments.
+   *
+   * @param  s  format string
+   * @param  l  list to add literal segments to
+   * @param  a  list to add argument indexes to
+   *
+   * @return  whether the format could be compiled
+   */
+  private static boolean parse(
+    final String s,
+    final List<String> l,
+    final List<Integer> a)
+  {
+    final StringBuilder literal = new StringBuilder();
+    int ordinary = 0;
+    boolean valid = true;
+    int i = 0;
+    while (valid && i < s.length()) {
+      final char c = s.charAt(i++);
+      if (c != '%') {
+        literal.append(c);
+        continue;
+      }
+
+      int j = i;
+      while (j < s.length() && s.charAt(j) >= '0' && s.charAt(j) <= '9') {
+        j++;
+      }
+      if (i == s.length()) {
+        valid = false;
+      } else if (j == i) {
+        final char conversion = s.charAt(i++);
+        if (conversion == '%') {
+          literal.append('%');
+        } else if (conversion == 'n') {
+          literal.append(System.lineSeparator());
+        } else if (conversion == 's') {
+          l.add(literal.toString());
+          literal.setLength(0);
+          a.add(ordinary++);
+        } else {
+          valid = false;
+        }
+      } else if (
+        s.charAt(i) != '0' &&
+          j + 1 < s.length() &&
+          s.charAt(j) == '$' &&
+          s.charAt(j + 1) == 's') {
+        try {
+          a.add(Integer.parseInt(s.substring(i, j)) - 1);
+          l.add(literal.toString());
+          literal.setLength(0);
+          i = j + 2;
+        } catch (NumberFormatException e) {
+          valid = false;
+        }
+      } else {
+        valid = false;
+      }
+    }
+    l.add(literal.toString());
+    return valid;
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return
+      String.format(
+        "%s@%h::format=%s,compiled=%s",
+        getClass().getName(),
+        hashCode(),
+        format,
+        isCompiled());
+  }
+}
@@ -0,0 +1,159 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.util.AbstractMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Map of rule result detail parameters backed by an array of names that is
+ * shared by all details of a rule and an array of values. A {@link
+ * RuleResultDetail} created from an unmodified parameter map adopts both
+ * arrays instead of copying the map, so rules pay for no hash map per failure
+ * while their parameter methods keep returning maps that subclasses may
+ * override or extend. The map is copied to a {@link LinkedHashMap} the first
+ * time it is modified or its entries are iterated.
+ *
+ * @author  Middleware Services
+ */
+final class ParameterMap extends AbstractMap<String, Object>
+{
+
+  /** Parameter names, shared between maps. */
+  private final String[] names;
+
+  /** Parameter values in the same order as the names. */
+  private final Object[] values;
+
+  /** Modifiable copy of the parameters, created on demand. */
+  private Map<String, Object> copy;
+
+
+  /**
+   * Creates a new parameter map. The names are not copied and must not be
+   * modified.
+   *
+   * @param  n  parameter names
+   * @param  v  parameter values in the same order as the names
+   */
+  ParameterMap(final String[] n, final Object... v)
+  {
+    if (n.length != v.length) {
+      throw new IllegalArgumentException(
+        "Parameter names and values must have the same length.");
+    }
+    names = n;
+    values = v;
+  }
+
+
+  /**
+   * Returns whether this map is unmodified, so that its arrays hold its
+   * parameters.
+   *
+   * @return  whether the names and values arrays hold the parameters
+   */
+  boolean isShared()
+  {
+    return copy == null;
+  }
+
+
+  /**
+   * Returns the parameter names. The returned array must not be modified.
+   *
+   * @return  parameter names
+   */
+  String[] parameterNames()
+  {
+    return names;
+  }
+
+
+  /**
+   * Returns the parameter values. The returned array must not be modified.
+   *
+   * @return  parameter values
+   */
+  Object[] parameterValues()
+  {
+    return values;
+  }
+
+
+  @Override
+  public int size()
+  {
+    return copy != null ? copy.size() : names.length;
+  }
+
+
+  @Override
+  public boolean containsKey(final Object key)
+  {
+    return copy != null ? copy.containsKey(key) : indexOf(key) >= 0;
+  }
+
+
+  @Override
+  public Object get(final Object key)
+  {
+    if (copy != null) {
+      return copy.get(key);
+    }
+
+    final int i = indexOf(key);
+    return i >= 0 ? values[i] : null;
+  }
+
+
+  @Override
+  public Object put(final String key, final Object value)
+  {
+    return modifiable().put(key, value);
+  }
+
+
+  @Override
+  public Set<Map.Entry<String, Object>> entrySet()
+  {
+    return modifiable().entrySet();
+  }
+
+
+  /**
+   * Returns the index of the supplied parameter name.
+   *
+   * @param  key  parameter name
+   *
+   * @return  index of the name or -1
+   */
+  private int indexOf(final Object key)
+  {
+    int index = -1;
+    for (int i = 0; i < names.length && index < 0; i++) {
+      if (names[i].equals(key)) {
+        index = i;
+      }
+    }
+    return index;
+  }
+
+
+  /**
+   * Returns the modifiable copy of the parameters, creating it if necessary.
+   *
+   * @return  modifiable parameters
+   */
+  private Map<String, Object> modifiable()
+  {
+    if (copy == null) {
+      copy = new LinkedHashMap<>(names.length * 2);
+      for (int i = 0; i < names.length; i++) {
+        copy.put(names[i], values[i]);
+      }
+    }
+    return copy;
+  }
+}
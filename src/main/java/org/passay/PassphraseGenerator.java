@@ -0,0 +1,491 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.security.SecureRandom;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import org.passay.dictionary.WordList;
+
+/**
+ * Creates passphrases of words chosen uniformly at random from a word list,
+ * in the manner of diceware. Words are read with {@link WordList#get(int)},
+ * so each word costs a single lookup; a {@link
+ * org.passay.dictionary.FileWordList} should cache the positions of all its
+ * lines to make that lookup constant time. Words can be capitalized and
+ * random digits inserted, and {@link #getEntropyBits()} reports the strength
+ * of the passphrases, assuming the words of the list are distinct and remain
+ * distinct when capitalized.
+ *
+ * <p>Each thread draws from its own {@link SecureRandom}. Once configured,
+ * instances are safe for use by multiple threads if the word list is.</p>
+ *
+ * @author  Middleware Services
+ */
+public class PassphraseGenerator
+{
+
+  /** Default number of words. */
+  public static final int DEFAULT_WORD_COUNT = 6;
+
+  /** Default word separator. */
+  public static final String DEFAULT_SEPARATOR = " ";
+
+  /** Number of passphrases below which a bulk task is not split. */
+  private static final int SPLIT_THRESHOLD = 1024;
+
+  /** Number of decimal digits. */
+  private static final int DIGITS = 10;
+
+  /** Words to choose from. */
+  private final WordList wordList;
+
+  /** Source of random data for each thread. */
+  private final ThreadLocal<Random> random = new ThreadLocal<Random>() {
+    @Override
+    protected Random initialValue()
+    {
+      return newRandom();
+    }
+  };
+
+  /** Number of words. */
+  private int wordCount = DEFAULT_WORD_COUNT;
+
+  /** Word separator. */
+  private String separator = DEFAULT_SEPARATOR;
+
+  /** Capitalization of words. */
+  private Capitalization capitalization = Capitalization.NONE;
+
+  /** Number of random digits. */
+  private int digitCount;
+
+  /** Placement of the random digits. */
+  private DigitPlacement digitPlacement = DigitPlacement.END;
+
+  /** Number of words changed by capitalization or -1 if not yet counted. */
+  private volatile int capitalizableWords = -1;
+
+
+  /**
+   * Creates a new passphrase generator.
+   *
+   * @param  words  to choose from
+   */
+  public PassphraseGenerator(final WordList words)
+  {
+    if (words == null || words.size() == 0) {
+      throw new IllegalArgumentException("word list cannot be empty");
+    }
+    wordList = words;
+  }
+
+
+  /**
+   * Returns the word list.
+   *
+   * @return  words to choose from
+   */
+  public WordList getWordList()
+  {
+    return wordList;
+  }
+
+
+  /**
+   * Returns the number of words.
+   *
+   * @return  number of words
+   */
+  public int getWordCount()
+  {
+    return wordCount;
+  }
+
+
+  /**
+   * Sets the number of words.
+   *
+   * @param  n  number of words
+   */
+  public void setWordCount(final int n)
+  {
+    if (n <= 0) {
+      throw new IllegalArgumentException("word count must be greater than 0");
+    }
+    wordCount = n;
+  }
+
+
+  /**
+   * Returns the word separator.
+   *
+   * @return  separator
+   */
+  public String getSeparator()
+  {
+    return separator;
+  }
+
+
+  /**
+   * Sets the word separator.
+   *
+   * @param  s  separator, may be empty
+   */
+  public void setSeparator(final String s)
+  {
+    if (s == null) {
+      throw new NullPointerException("Separator cannot be null");
+    }
+    separator = s;
+  }
+
+
+  /**
+   * Returns the capitalization of words.
+   *
+   * @return  capitalization
+   */
+  public Capitalization getCapitalization()
+  {
+    return capitalization;
+  }
+
+
+  /**
+   * Sets the capitalization of words.
+   *
+   * @param  c  capitalization
+   */
+  public void setCapitalization(final Capitalization c)
+  {
+    if (c == null) {
+      throw new NullPointerException("Capitalization cannot be null");
+    }
+    capitalization = c;
+  }
+
+
+  /**
+   * Returns the number of random digits.
+   *
+   * @return  number of digits
+   */
+  public int getDigitCount()
+  {
+    return digitCount;
+  }
+
+
+  /**
+   * Sets the number of random digits.
+   *
+   * @param  n  number of digits
+   */
+  public void setDigitCount(final int n)
+  {
+    if (n < 0) {
+      throw new IllegalArgumentException("digit count cannot be negative");
+    }
+    digitCount = n;
+  }
+
+
+  /**
+   * Returns the placement of the random digits.
+   *
+   * @return  digit placement
+   */
+  public DigitPlacement getDigitPlacement()
+  {
+    return digitPlacement;
+  }
+
+
+  /**
+   * Sets the placement of the random digits.
+   *
+   * @param  p  digit placement
+   */
+  public void setDigitPlacement(final DigitPlacement p)
+  {
+    if (p == null) {
+      throw new NullPointerException("Digit placement cannot be null");
+    }
+    digitPlacement = p;
+  }
+
+
+  /**
+   * Returns the number of bits of entropy of the generated passphrases. With
+   * random capitalization, a word only adds a bit if capitalization changes
+   * its first character, so each word adds the fraction of words of the list
+   * that capitalization changes. The words of the list are read once to count
+   * them.
+   *
+   * @return  entropy bits
+   */
+  public double getEntropyBits()
+  {
+    double bits = wordCount * log2(wordList.size());
+    if (capitalization == Capitalization.RANDOM) {
+      bits += wordCount * (double) countCapitalizableWords() / wordList.size();
+    }
+    if (digitCount > 0) {
+      bits += digitCount * log2(DIGITS);
+      if (digitPlacement == DigitPlacement.RANDOM_WORD) {
+        bits += log2(wordCount);
+      }
+    }
+    return bits;
+  }
+
+
+  /**
+   * Generates a passphrase.
+   *
+   * @return  generated passphrase
+   */
+  public String generate()
+  {
+    // one index per word, capital, digit and digit position
+    final RandomIndexSource indices = new RandomIndexSource(
+      random.get(),
+      2 * wordCount + digitCount + 1,
+      Math.max(wordList.size(), wordCount));
+    try {
+      final int digitWord =
+        digitPlacement == DigitPlacement.RANDOM_WORD ?
+          indices.nextIndex(wordCount) : wordCount - 1;
+      final StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < wordCount; i++) {
+        if (i > 0) {
+          sb.append(separator);
+        }
+
+        final String word = wordList.get(indices.nextIndex(wordList.size()));
+        final boolean capitalize;
+        switch (capitalization) {
+
+        case FIRST_WORD:
+          capitalize = i == 0;
+          break;
+
+        case EACH_WORD:
+          capitalize = true;
+          break;
+
+        case RANDOM:
+          capitalize = indices.nextIndex(2) == 1;
+          break;
+
+        default:
+          capitalize = false;
+          break;
+        }
+        if (capitalize && word.length() > 0) {
+          sb.append(Character.toUpperCase(word.charAt(0)));
+          sb.append(word, 1, word.length());
+        } else {
+          sb.append(word);
+        }
+
+        if (i == digitWord) {
+          for (int j = 0; j < digitCount; j++) {
+            sb.append((char) ('0' + indices.nextIndex(DIGITS)));
+          }
+        }
+      }
+      return sb.toString();
+    } finally {
+      indices.clear();
+    }
+  }
+
+
+  /**
+   * Generates the supplied number of passphrases using all available
+   * processors.
+   *
+   * @param  count  number of passphrases to generate
+   *
+   * @return  generated passphrases
+   */
+  public String[] generate(final int count)
+  {
+    final ForkJoinPool pool = new ForkJoinPool();
+    try {
+      return generate(count, pool);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+
+  /**
+   * Generates the supplied number of passphrases using the supplied pool.
+   *
+   * @param  count  number of passphrases to generate
+   * @param  pool  to generate passphrases with
+   *
+   * @return  generated passphrases
+   */
+  public String[] generate(final int count, final ForkJoinPool pool)
+  {
+    if (count < 0) {
+      throw new IllegalArgumentException("count cannot be negative");
+    }
+
+    final String[] passphrases = new String[count];
+    pool.invoke(new GenerateTask(passphrases, 0, count));
+    return passphrases;
+  }
+
+
+  /**
+   * Creates the source of random data for a thread. This implementation
+   * returns a new {@link SecureRandom}.
+   *
+   * @return  source of random data
+   */
+  protected Random newRandom()
+  {
+    return new SecureRandom();
+  }
+
+
+  /**
+   * Returns the number of words of the list whose first character is changed
+   * by capitalization. The words are counted on the first call.
+   *
+   * @return  number of capitalizable words
+   */
+  private int countCapitalizableWords()
+  {
+    int count = capitalizableWords;
+    if (count < 0) {
+      count = 0;
+      for (int i = 0; i < wordList.size(); i++) {
+        final String word = wordList.get(i);
+        if (word.length() > 0 &&
+            Character.toUpperCase(word.charAt(0)) != word.charAt(0)) {
+          count++;
+        }
+      }
+      capitalizableWords = count;
+    }
+    return count;
+  }
+
+
+  /**
+   * Returns the base 2 logarithm of the supplied value.
+   *
+   * @param  value  positive value
+   *
+   * @return  base 2 logarithm
+   */
+  private static double log2(final double value)
+  {
+    return Math.log(value) / Math.log(2);
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return
+      String.format(
+        "%s@%h::wordList=%s,wordCount=%s,separator=%s,capitalization=%s," +
+        "digitCount=%s,digitPlacement=%s",
+        getClass().getName(),
+        hashCode(),
+        wordList,
+        wordCount,
+        separator,
+        capitalization,
+        digitCount,
+        digitPlacement);
+  }
+
+
+  /** Capitalization of the words of a passphrase. */
+  public enum Capitalization
+  {
+
+    /** Words are not changed. */
+    NONE,
+
+    /** The first letter of the first word is capitalized. */
+    FIRST_WORD,
+
+    /** The first letter of each word is capitalized. */
+    EACH_WORD,
+
+    /** The first letter of each word is capitalized with a chance of 1/2. */
+    RANDOM
+  }
+
+
+  /** Placement of the random digits of a passphrase. */
+  public enum DigitPlacement
+  {
+
+    /** Digits follow the last word. */
+    END,
+
+    /** Digits follow a word chosen at random. */
+    RANDOM_WORD
+  }
+
+
+  /** Generates a range of passphrases, splitting large ranges. */
+  private final class GenerateTask extends RecursiveAction
+  {
+
+    /** For serialization. */
+    private static final long serialVersionUID = -2715310873092469735L;
+
+    /** Array receiving the passphrases. */
+    private final String[] passphrases;
+
+    /** First index of the range. */
+    private final int start;
+
+    /** Index after the range. */
+    private final int end;
+
+
+    /**
+     * Creates a new generate task.
+     *
+     * @param  p  array receiving the passphrases
+     * @param  s  first index of the range
+     * @param  e  index after the range
+     */
+    GenerateTask(final String[] p, final int s, final int e)
+    {
+      passphrases = p;
+      start = s;
+      end = e;
+    }
+
+
+    @Override
+    protected void compute()
+    {
+      if (end - start <= SPLIT_THRESHOLD) {
+        for (int i = start; i < end; i++) {
+          passphrases[i] = generate();
+        }
+      } else {
+        final int middle = (start + end) >>> 1;
+        invokeAll(
+          new GenerateTask(passphrases, start, middle),
+          new GenerateTask(passphrases, middle, end));
+      }
+    }
+  }
+}
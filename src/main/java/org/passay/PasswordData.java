@@ -1,8 +1,6 @@
 /* See LICENSE for licensing and NOTICE for copyright. */
 package org.passay;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -21,7 +19,7 @@ public class PasswordData
   private String username;
 
   /** Password references. */
-  private List<Reference> passwordReferences = new ArrayList<>();
+  private ReferenceList passwordReferences = new ReferenceList();
 
 
   /** Default constructor. */
@@ -90,7 +88,8 @@ public class PasswordData
 
 
   /**
-   * Returns the password references.
+   * Returns the password references. Changes made to the returned list are
+   * reflected in this password data.
    *
    * @return  password references
    */
@@ -102,36 +101,39 @@ public class PasswordData
 
   /**
    * Returns the password references that match the supplied reference type.
+   * References are partitioned by type as they are added, so the returned list
+   * is a cached view that is only rebuilt after the references are modified.
    *
    * @param  <T>  type of password reference
    * @param  type  of reference to match
    *
    * @return  unmodifiable list of password references
    */
-  @SuppressWarnings("unchecked")
   public <T extends Reference> List<T> getPasswordReferences(
     final Class<T> type)
   {
-    final List<T> l = new ArrayList<>();
-    if (passwordReferences != null) {
-      for (Reference r : passwordReferences) {
-        if (type.isInstance(r)) {
-          l.add((T) r);
-        }
-      }
-    }
-    return Collections.unmodifiableList(l);
+    return passwordReferences.getReferences(type);
   }
 
 
   /**
-   * Sets the password references.
+   * Sets the password references. References are copied into a {@link
+   * ReferenceList} unless the supplied list is already one, in which case it
+   * is used directly. Subsequent changes to a copied list are not reflected in
+   * this password data; modify the list returned by {@link
+   * #getPasswordReferences()} instead.
    *
    * @param  l  password references
    */
   public void setPasswordReferences(final List<Reference> l)
   {
-    passwordReferences = l;
+    if (l instanceof ReferenceList) {
+      passwordReferences = (ReferenceList) l;
+    } else if (l != null) {
+      passwordReferences = new ReferenceList(l);
+    } else {
+      passwordReferences = new ReferenceList();
+    }
   }
 
 
@@ -4,6 +4,7 @@ package org.passay;
 import java.io.IOException;
 import java.nio.CharBuffer;
 import java.security.SecureRandom;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 
@@ -43,7 +44,10 @@ public class PasswordGenerator
   /**
    * Generates a password of the supplied length which meets the requirements of
    * the supplied character rules. For length to be evaluated it must be greater
-   * than the number of characters defined in the character rule.
+   * than the number of characters defined in the character rule. The
+   * characters are selected with {@link #fillRandomCharacters(CharSequence,
+   * int, Appendable)} and shuffled with {@link #randomize(CharBuffer)}, each of
+   * which draws the random bytes it needs with one call to the random.
    *
    * @param  length  of password to generate
    * @param  rules  to generate compliant password from
@@ -61,19 +65,76 @@ public class PasswordGenerator
     final StringBuilder allChars = new StringBuilder();
 
     final CharBuffer buffer = CharBuffer.allocate(length);
-    if (rules != null) {
-      for (CharacterRule rule : rules) {
-        fillRandomCharacters(
-          rule.getValidCharacters(),
-          rule.getNumberOfCharacters(),
-          buffer);
-        allChars.append(rule.getValidCharacters());
+    try {
+      if (rules != null) {
+        for (CharacterRule rule : rules) {
+          fillRandomCharacters(
+            rule.getValidCharacters(),
+            rule.getNumberOfCharacters(),
+            buffer);
+          allChars.append(rule.getValidCharacters());
+        }
       }
+      fillRandomCharacters(allChars, length - buffer.position(), buffer);
+      buffer.flip();
+      randomize(buffer);
+      return buffer.toString();
+    } finally {
+      Arrays.fill(buffer.array(), (char) 0);
+    }
+  }
+
+
+  /**
+   * Generates a password of the supplied length which meets the requirements of
+   * the supplied character rules, taking all random indices from the supplied
+   * source. A single source may be used for a batch of passwords, so that its
+   * random bytes are drawn for many passwords at once; {@link
+   * RandomIndexSource#clear()} it once the batch is complete. The characters
+   * are selected with {@link #fillRandomCharacters(CharSequence, int,
+   * Appendable, RandomIndexSource)} and shuffled with {@link
+   * #randomize(CharBuffer, RandomIndexSource)}.
+   *
+   * @param  length  of password to generate
+   * @param  rules  to generate compliant password from
+   * @param  indices  source of random indices
+   *
+   * @return  generated password
+   */
+  public String generatePassword(
+    final int length,
+    final List<CharacterRule> rules,
+    final RandomIndexSource indices)
+  {
+    if (length <= 0) {
+      throw new IllegalArgumentException("length must be greater than 0");
+    }
+
+    final StringBuilder allChars = new StringBuilder();
+
+    final CharBuffer buffer = CharBuffer.allocate(length);
+    try {
+      if (rules != null) {
+        for (CharacterRule rule : rules) {
+          fillRandomCharacters(
+            rule.getValidCharacters(),
+            rule.getNumberOfCharacters(),
+            buffer,
+            indices);
+          allChars.append(rule.getValidCharacters());
+        }
+      }
+      fillRandomCharacters(
+        allChars,
+        length - buffer.position(),
+        buffer,
+        indices);
+      buffer.flip();
+      randomize(buffer, indices);
+      return buffer.toString();
+    } finally {
+      Arrays.fill(buffer.array(), (char) 0);
     }
-    fillRandomCharacters(allChars, length - buffer.position(), buffer);
-    buffer.flip();
-    randomize(buffer);
-    return buffer.toString();
   }
 
 
@@ -88,10 +149,36 @@ public class PasswordGenerator
     final CharSequence source,
     final int count,
     final Appendable target)
+  {
+    final RandomIndexSource indices = new RandomIndexSource(
+      random,
+      count,
+      source.length());
+    try {
+      fillRandomCharacters(source, count, target, indices);
+    } finally {
+      indices.clear();
+    }
+  }
+
+
+  /**
+   * Fills the supplied target with count random characters from source.
+   *
+   * @param  source  of random characters.
+   * @param  count  number of random characters.
+   * @param  target  character sequence that will hold characters.
+   * @param  indices  source of random indices.
+   */
+  protected void fillRandomCharacters(
+    final CharSequence source,
+    final int count,
+    final Appendable target,
+    final RandomIndexSource indices)
   {
     for (int i = 0; i < count; i++) {
       try {
-        target.append(source.charAt(random.nextInt(source.length())));
+        target.append(source.charAt(indices.nextIndex(source.length())));
       } catch (IOException e) {
         throw new RuntimeException("Error appending characters.", e);
       }
@@ -105,11 +192,34 @@ public class PasswordGenerator
    * @param  buffer  character buffer whose contents will be randomized.
    */
   protected void randomize(final CharBuffer buffer)
+  {
+    final RandomIndexSource indices = new RandomIndexSource(
+      random,
+      buffer.length(),
+      buffer.length());
+    try {
+      randomize(buffer, indices);
+    } finally {
+      indices.clear();
+    }
+  }
+
+
+  /**
+   * Randomizes the contents of the given buffer using the Fisher-Yates
+   * algorithm, so that every ordering is equally likely.
+   *
+   * @param  buffer  character buffer whose contents will be randomized.
+   * @param  indices  source of random indices.
+   */
+  protected void randomize(
+    final CharBuffer buffer,
+    final RandomIndexSource indices)
   {
     char c;
     int n;
-    for (int i = buffer.position(); i < buffer.limit(); i++) {
-      n = random.nextInt(buffer.length());
+    for (int i = buffer.limit() - 1; i > buffer.position(); i--) {
+      n = buffer.position() + indices.nextIndex(i - buffer.position() + 1);
       c = buffer.get(n);
       buffer.put(n, buffer.get(i));
       buffer.put(i, c);
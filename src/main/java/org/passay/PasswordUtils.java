@@ -36,4 +36,19 @@ public final class PasswordUtils
     }
     return sb.toString();
   }
+
+
+  /**
+   * Returns whether the supplied rule is a {@link CacheableRule} whose results
+   * may be cached.
+   *
+   * @param  rule  to check
+   *
+   * @return  whether results of the rule may be cached
+   */
+  public static boolean isCacheable(final Rule rule)
+  {
+    return
+      rule instanceof CacheableRule && ((CacheableRule) rule).isCacheable();
+  }
 }
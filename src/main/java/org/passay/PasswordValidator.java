@@ -3,6 +3,11 @@ package org.passay;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 /**
  * The central component for evaluating multiple password rules against a
@@ -11,7 +16,7 @@ import java.util.List;
  * @author  Middleware Services
  */
 
-public class PasswordValidator implements Rule
+public class PasswordValidator implements CacheableRule
 {
 
   /** Password rules. */
@@ -20,6 +25,9 @@ public class PasswordValidator implements Rule
   /** Message resolver. */
   private final MessageResolver messageResolver;
 
+  /** Listener notified of each rule validation. */
+  private ValidationListener validationListener;
+
 
   /**
    * Creates a new password validator with a {@link
@@ -48,6 +56,69 @@ public class PasswordValidator implements Rule
   }
 
 
+  /**
+   * Returns the rules of this validator.
+   *
+   * @return  password rules
+   */
+  public List<Rule> getRules()
+  {
+    return passwordRules;
+  }
+
+
+  /**
+   * Returns the message resolver of this validator.
+   *
+   * @return  message resolver
+   */
+  public MessageResolver getMessageResolver()
+  {
+    return messageResolver;
+  }
+
+
+  /**
+   * Returns the listener notified of each rule validation.
+   *
+   * @return  validation listener or null
+   */
+  public ValidationListener getValidationListener()
+  {
+    return validationListener;
+  }
+
+
+  /**
+   * Sets the listener notified of each rule validation. When a listener is
+   * set, the duration of each rule validation is measured.
+   *
+   * @param  listener  validation listener or null to disable notification
+   */
+  public void setValidationListener(final ValidationListener listener)
+  {
+    validationListener = listener;
+  }
+
+
+  /**
+   * Returns whether results of this rule may be cached, which is the case if
+   * all of its rules are cacheable.
+   *
+   * @return  whether all rules are cacheable
+   */
+  @Override
+  public boolean isCacheable()
+  {
+    for (Rule rule : passwordRules) {
+      if (!PasswordUtils.isCacheable(rule)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+
   /**
    * Validates the supplied password data against the rules in this validator.
    *
@@ -58,6 +129,11 @@ public class PasswordValidator implements Rule
   @Override
   public RuleResult validate(final PasswordData passwordData)
   {
+    final ValidationListener listener = validationListener;
+    if (listener != null) {
+      return validateAndNotify(passwordData, listener);
+    }
+
     final RuleResult result = new RuleResult(true);
     for (Rule rule : passwordRules) {
       final RuleResult rr = rule.validate(passwordData);
@@ -70,6 +146,96 @@ public class PasswordValidator implements Rule
   }
 
 
+  /**
+   * Validates the supplied password data against the rules in this validator
+   * on the supplied executor. Since validation may read dictionaries from disk
+   * or compute slow hashes, this allows callers to validate without blocking,
+   * e.g. by supplying an executor that starts a thread per task.
+   *
+   * @param  passwordData  to validate
+   * @param  executor  to validate on
+   *
+   * @return  future rule result
+   */
+  public Future<RuleResult> validateAsync(
+    final PasswordData passwordData,
+    final Executor executor)
+  {
+    final FutureTask<RuleResult> task = new FutureTask<>(
+      new Callable<RuleResult>() {
+        @Override
+        public RuleResult call()
+        {
+          return validate(passwordData);
+        }
+      });
+    executor.execute(task);
+    return task;
+  }
+
+
+  /**
+   * Validates the supplied password data against the rules in this validator
+   * and notifies the supplied listener of each rule result. A single clock
+   * reading separates consecutive rules, and the listener is notified after
+   * all rules have been validated so that it does not add to the measured
+   * durations.
+   *
+   * @param  passwordData  to validate
+   * @param  listener  to notify
+   *
+   * @return  rule result
+   */
+  private RuleResult validateAndNotify(
+    final PasswordData passwordData,
+    final ValidationListener listener)
+  {
+    final Rule[] rules = passwordRules.toArray(new Rule[passwordRules.size()]);
+    final RuleResult[] results = new RuleResult[rules.length];
+    final long[] times = new long[rules.length + 1];
+    times[0] = System.nanoTime();
+    for (int i = 0; i < rules.length; i++) {
+      results[i] = rules[i].validate(passwordData);
+      times[i + 1] = System.nanoTime();
+    }
+
+    final RuleResult result = new RuleResult(true);
+    for (int i = 0; i < rules.length; i++) {
+      listener.ruleValidated(rules[i], results[i], times[i + 1] - times[i]);
+      if (!results[i].isValid()) {
+        result.setValid(false);
+        result.getDetails().addAll(results[i].getDetails());
+      }
+    }
+    return result;
+  }
+
+
+  /**
+   * Validates the supplied password data against a single rule and notifies
+   * the validation listener, if any, of the result.
+   *
+   * @param  rule  to validate
+   * @param  passwordData  to validate
+   *
+   * @return  rule result
+   */
+  protected RuleResult validateRule(
+    final Rule rule,
+    final PasswordData passwordData)
+  {
+    final ValidationListener listener = validationListener;
+    if (listener == null) {
+      return rule.validate(passwordData);
+    }
+
+    final long start = System.nanoTime();
+    final RuleResult result = rule.validate(passwordData);
+    listener.ruleValidated(rule, result, System.nanoTime() - start);
+    return result;
+  }
+
+
   /**
    * Returns a list of human-readable messages by iterating over the details in
    * a failed rule result.
@@ -89,6 +255,36 @@ public class PasswordValidator implements Rule
   }
 
 
+  /**
+   * Returns a list of human-readable messages in the supplied locale by
+   * iterating over the details in a failed rule result. The locale is ignored
+   * unless the message resolver is a {@link LocalizedMessageResolver}; a null
+   * locale selects the default locale of the resolver, like {@link
+   * #getMessages(RuleResult)}.
+   *
+   * @param  result  failed rule result.
+   * @param  locale  of the messages or null for the default locale.
+   *
+   * @return  list of human-readable messages describing the reason(s) for
+   * validation failure.
+   */
+  public List<String> getMessages(final RuleResult result, final Locale locale)
+  {
+    if (locale == null ||
+        !(messageResolver instanceof LocalizedMessageResolver)) {
+      return getMessages(result);
+    }
+
+    final LocalizedMessageResolver resolver =
+      (LocalizedMessageResolver) messageResolver;
+    final List<String> messages = new ArrayList<>();
+    for (RuleResultDetail detail : result.getDetails()) {
+      messages.add(resolver.resolve(detail, locale));
+    }
+    return messages;
+  }
+
+
   @Override
   public String toString()
   {
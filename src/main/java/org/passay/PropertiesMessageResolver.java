@@ -3,12 +3,16 @@ package org.passay;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Resolves messages from rule result details from a properties file. The
  * default properties file is loaded from the classpath, see {@link
- * #DEFAULT_MESSAGE_PATH}.
+ * #DEFAULT_MESSAGE_PATH}. Each message is compiled into a {@link
+ * MessageTemplate} when the resolver is created; a template is recompiled only
+ * if its property is changed afterwards.
  *
  * @author  Middleware Services
  */
@@ -21,6 +25,10 @@ public class PropertiesMessageResolver extends AbstractMessageResolver
   /** Maps message keys to message strings. */
   private final Properties messageProperties;
 
+  /** Maps message keys to compiled message templates. */
+  private final Map<String, MessageTemplate> templates =
+    new ConcurrentHashMap<>();
+
 
   /** Creates a new message resolver with the default message map. */
   public PropertiesMessageResolver()
@@ -40,6 +48,9 @@ public class PropertiesMessageResolver extends AbstractMessageResolver
       throw new IllegalArgumentException("Properties cannot be null.");
     }
     messageProperties = properties;
+    for (String key : properties.stringPropertyNames()) {
+      templates.put(key, new MessageTemplate(properties.getProperty(key)));
+    }
   }
 
 
@@ -50,6 +61,23 @@ public class PropertiesMessageResolver extends AbstractMessageResolver
   }
 
 
+  @Override
+  protected MessageTemplate getTemplate(final String key)
+  {
+    final String message = getMessage(key);
+    if (message == null) {
+      return null;
+    }
+
+    MessageTemplate template = templates.get(key);
+    if (template == null || !template.getFormat().equals(message)) {
+      template = new MessageTemplate(message);
+      templates.put(key, template);
+    }
+    return template;
+  }
+
+
   /**
    * Returns the default mapping of message keys to message strings.
    *
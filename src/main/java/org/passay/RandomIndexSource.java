@@ -0,0 +1,160 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Supplies uniformly distributed random indices from random bytes that are
+ * drawn in bulk. A single call to {@link Random#nextBytes(byte[])} fills a
+ * buffer from which many indices are taken, so a {@link
+ * java.security.SecureRandom} is invoked once per buffer rather than once per
+ * index. Each index is formed from the fewest bytes that can represent it, and
+ * values that would bias the result are rejected and redrawn. Instances are
+ * not safe for use by multiple threads; create one for each password or batch
+ * of passwords and {@link #clear()} it afterwards.
+ *
+ * @author  Middleware Services
+ */
+public class RandomIndexSource
+{
+
+  /** Number of bits in a byte. */
+  private static final int BYTE_BITS = 8;
+
+  /** Mask of the bits of a byte. */
+  private static final int BYTE_MASK = 0xFF;
+
+  /** Maximum number of bytes of an index. */
+  private static final int MAX_BYTES = 4;
+
+  /** Source of random bytes. */
+  private final Random random;
+
+  /** Random bytes that have been drawn. */
+  private final byte[] buffer;
+
+  /** Position of the next unused byte. */
+  private int position;
+
+
+  /**
+   * Creates a new random index source with a buffer large enough to supply
+   * the supplied number of indices below the supplied bound with a single
+   * call to the random, if few values are rejected.
+   *
+   * @param  r  source of random bytes
+   * @param  count  number of indices expected to be drawn
+   * @param  bound  largest bound of the indices
+   */
+  public RandomIndexSource(final Random r, final int count, final int bound)
+  {
+    this(r, Math.max(1, 2 * count * bytesFor(bound)));
+  }
+
+
+  /**
+   * Creates a new random index source.
+   *
+   * @param  r  source of random bytes
+   * @param  size  number of bytes drawn from the random at a time
+   */
+  public RandomIndexSource(final Random r, final int size)
+  {
+    if (size <= 0) {
+      throw new IllegalArgumentException("size must be greater than 0");
+    }
+    random = r;
+    buffer = new byte[size];
+    position = size;
+  }
+
+
+  /**
+   * Returns a uniformly distributed index between zero, inclusive, and the
+   * supplied bound, exclusive.
+   *
+   * @param  bound  upper bound of the index
+   *
+   * @return  random index
+   */
+  public int nextIndex(final int bound)
+  {
+    if (bound <= 0) {
+      throw new IllegalArgumentException("bound must be greater than 0");
+    }
+
+    final int bytes = bytesFor(bound);
+    final long range = 1L << (BYTE_BITS * bytes);
+    final long limit = range - range % bound;
+    long value;
+    do {
+      value = 0;
+      for (int i = 0; i < bytes; i++) {
+        if (position == buffer.length) {
+          random.nextBytes(buffer);
+          position = 0;
+        }
+        value = (value << BYTE_BITS) | (buffer[position++] & BYTE_MASK);
+      }
+    } while (value >= limit);
+    return (int) (value % bound);
+  }
+
+
+  /**
+   * Shuffles the supplied characters using the Fisher-Yates algorithm.
+   *
+   * @param  chars  to shuffle
+   * @param  start  index of the first character to shuffle
+   * @param  end  index after the last character to shuffle
+   */
+  public void shuffle(final char[] chars, final int start, final int end)
+  {
+    for (int i = end - 1; i > start; i--) {
+      final int j = start + nextIndex(i - start + 1);
+      final char c = chars[i];
+      chars[i] = chars[j];
+      chars[j] = c;
+    }
+  }
+
+
+  /** Overwrites the buffered random bytes. */
+  public void clear()
+  {
+    Arrays.fill(buffer, (byte) 0);
+    position = buffer.length;
+  }
+
+
+  /**
+   * Returns the number of bytes needed to represent every index below the
+   * supplied bound.
+   *
+   * @param  bound  upper bound of the index
+   *
+   * @return  number of bytes between one and four
+   */
+  static int bytesFor(final int bound)
+  {
+    int bytes = 1;
+    while (bytes < MAX_BYTES && 1L << (BYTE_BITS * bytes) < bound) {
+      bytes++;
+    }
+    return bytes;
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return
+      String.format(
+        "%s@%h::random=%s,size=%s",
+        getClass().getName(),
+        hashCode(),
+        random,
+        buffer.length);
+  }
+}
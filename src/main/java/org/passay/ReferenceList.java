@@ -0,0 +1,337 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * List of password references that is indexed by reference type and by
+ * reference password. References are partitioned by type as they are added,
+ * and {@link #getReferences(Class)} returns a read-only view of the references
+ * of a type that is cached until this list is next modified. Each view can
+ * count the references whose password equals a given value in constant time,
+ * which makes matching against large clear text or unsalted digest histories
+ * O(1). Passwords that differ only in case, such as digests encoded as upper
+ * or lower case hex, are found with {@link
+ * TypedView#getPasswordsIgnoreCase(String)}.
+ *
+ * <p>Modifications must not be made concurrently with other operations, but
+ * views may be requested and read concurrently by multiple threads.</p>
+ *
+ * @author  Middleware Services
+ */
+public class ReferenceList extends AbstractList<PasswordData.Reference>
+  implements RandomAccess
+{
+
+  /** All references in list order. */
+  private final List<PasswordData.Reference> references = new ArrayList<>();
+
+  /** References partitioned by concrete reference type. */
+  private final Map<Class<?>, Partition> partitions = new LinkedHashMap<>();
+
+  /** Cached views keyed by requested reference type. */
+  private final Map<Class<?>, TypedView<?>> views = new ConcurrentHashMap<>();
+
+
+  /** Creates a new empty reference list. */
+  public ReferenceList() {}
+
+
+  /**
+   * Creates a new reference list containing the supplied references.
+   *
+   * @param  refs  password references
+   */
+  public ReferenceList(final List<? extends PasswordData.Reference> refs)
+  {
+    for (PasswordData.Reference r : refs) {
+      add(r);
+    }
+  }
+
+
+  @Override
+  public PasswordData.Reference get(final int index)
+  {
+    return references.get(index);
+  }
+
+
+  @Override
+  public int size()
+  {
+    return references.size();
+  }
+
+
+  @Override
+  public void add(final int index, final PasswordData.Reference reference)
+  {
+    if (reference == null) {
+      throw new NullPointerException("Reference cannot be null");
+    }
+    references.add(index, reference);
+    modCount++;
+    if (index == references.size() - 1) {
+      getPartition(reference.getClass()).add(reference);
+      views.clear();
+    } else {
+      reindex();
+    }
+  }
+
+
+  @Override
+  public PasswordData.Reference set(
+    final int index,
+    final PasswordData.Reference reference)
+  {
+    if (reference == null) {
+      throw new NullPointerException("Reference cannot be null");
+    }
+    final PasswordData.Reference old = references.set(index, reference);
+    reindex();
+    return old;
+  }
+
+
+  @Override
+  public PasswordData.Reference remove(final int index)
+  {
+    final PasswordData.Reference old = references.remove(index);
+    modCount++;
+    reindex();
+    return old;
+  }
+
+
+  @Override
+  public void clear()
+  {
+    references.clear();
+    modCount++;
+    reindex();
+  }
+
+
+  /**
+   * Returns a read-only view of the references that are instances of the
+   * supplied type, in list order. The view is cached until this list is
+   * modified.
+   *
+   * @param  <T>  type of password reference
+   * @param  type  of reference to match
+   *
+   * @return  view of matching references
+   */
+  @SuppressWarnings("unchecked")
+  public <T extends PasswordData.Reference> TypedView<T> getReferences(
+    final Class<T> type)
+  {
+    TypedView<T> view = (TypedView<T>) views.get(type);
+    if (view == null) {
+      view = new TypedView<>(type);
+      views.put(type, view);
+    }
+    return view;
+  }
+
+
+  /**
+   * Returns the partition for the supplied concrete reference type, creating
+   * it if necessary.
+   *
+   * @param  type  concrete reference type
+   *
+   * @return  partition
+   */
+  private Partition getPartition(final Class<?> type)
+  {
+    Partition p = partitions.get(type);
+    if (p == null) {
+      p = new Partition();
+      partitions.put(type, p);
+    }
+    return p;
+  }
+
+
+  /** Rebuilds every partition from the list of references. */
+  private void reindex()
+  {
+    partitions.clear();
+    views.clear();
+    for (PasswordData.Reference r : references) {
+      getPartition(r.getClass()).add(r);
+    }
+  }
+
+
+  /** References of a single concrete type with a count of each password. */
+  private static class Partition
+  {
+
+    /** References in list order. */
+    private final List<PasswordData.Reference> members = new ArrayList<>();
+
+    /** Number of references with each password. */
+    private final Map<String, Integer> counts = new HashMap<>();
+
+
+    /**
+     * Adds a reference to this partition.
+     *
+     * @param  reference  to add
+     */
+    public void add(final PasswordData.Reference reference)
+    {
+      members.add(reference);
+
+      final Integer count = counts.get(reference.getPassword());
+      counts.put(reference.getPassword(), count == null ? 1 : count + 1);
+    }
+  }
+
+
+  /**
+   * Read-only snapshot of the references of a type.
+   *
+   * @param  <T>  type of password reference
+   */
+  public final class TypedView<T extends PasswordData.Reference>
+    extends AbstractList<T> implements RandomAccess
+  {
+
+    /** Matching references in list order. */
+    private final Object[] elements;
+
+    /** Number of matching references with each password. */
+    private final Map<String, Integer> counts;
+
+    /** Distinct passwords keyed by their case folded form, built on use. */
+    private volatile Map<String, List<String>> foldedPasswords;
+
+
+    /**
+     * Creates a new typed view.
+     *
+     * @param  type  of reference to match
+     */
+    private TypedView(final Class<T> type)
+    {
+      final List<Partition> matching = new ArrayList<>();
+      int n = 0;
+      for (Map.Entry<Class<?>, Partition> e : partitions.entrySet()) {
+        if (type.isAssignableFrom(e.getKey())) {
+          matching.add(e.getValue());
+          n += e.getValue().members.size();
+        }
+      }
+      if (matching.size() == 1) {
+        elements = matching.get(0).members.toArray();
+        counts = new HashMap<>(matching.get(0).counts);
+      } else {
+        elements = new Object[n];
+        counts = new HashMap<>();
+        int i = 0;
+        for (PasswordData.Reference r : references) {
+          if (type.isInstance(r)) {
+            elements[i++] = r;
+            final Integer count = counts.get(r.getPassword());
+            counts.put(r.getPassword(), count == null ? 1 : count + 1);
+          }
+        }
+      }
+    }
+
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(final int index)
+    {
+      return (T) elements[index];
+    }
+
+
+    @Override
+    public int size()
+    {
+      return elements.length;
+    }
+
+
+    /**
+     * Returns the number of references in this view whose password equals the
+     * supplied password.
+     *
+     * @param  password  to count
+     *
+     * @return  number of references with the password
+     */
+    public int count(final String password)
+    {
+      final Integer count = counts.get(password);
+      return count != null ? count : 0;
+    }
+
+
+    /**
+     * Returns the distinct passwords of the references in this view that equal
+     * the supplied password ignoring case, as determined by {@link
+     * String#equalsIgnoreCase(String)}.
+     *
+     * @param  password  to find
+     *
+     * @return  passwords that equal the password ignoring case
+     */
+    public List<String> getPasswordsIgnoreCase(final String password)
+    {
+      Map<String, List<String>> folded = foldedPasswords;
+      if (folded == null) {
+        folded = new HashMap<>();
+        for (String p : counts.keySet()) {
+          final String key = fold(p);
+          List<String> passwords = folded.get(key);
+          if (passwords == null) {
+            passwords = new ArrayList<>(1);
+            folded.put(key, passwords);
+          }
+          passwords.add(p);
+        }
+        foldedPasswords = folded;
+      }
+
+      final List<String> passwords = folded.get(fold(password));
+      return
+        passwords != null ? Collections.unmodifiableList(passwords)
+                          : Collections.<String>emptyList();
+    }
+  }
+
+
+  /**
+   * Returns the supplied string with each character folded the way {@link
+   * String#equalsIgnoreCase(String)} compares it, so that two strings are
+   * equal ignoring case exactly when their folded forms are equal.
+   *
+   * @param  s  to fold
+   *
+   * @return  case folded string
+   */
+  private static String fold(final String s)
+  {
+    final char[] chars = s.toCharArray();
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+    }
+    return new String(chars);
+  }
+}
@@ -0,0 +1,278 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.util.Map;
+
+/**
+ * Rule for determining if a password contains repeated characters or,
+ * optionally, repeated blocks of characters. The default sequence length is 5
+ * characters. Blocks made only of control characters are never considered
+ * repeated.
+ *
+ * <ul>
+ *   <li>Sequences are of the form: 'bbbbb' or '#####'</li>
+ *   <li>If the maximum block length is 3 or more: 'abcabc' and 'xyxyxy' will
+ *     match as well</li>
+ * </ul>
+ *
+ * <p>A block of one to {@link #getMaxBlockLength()} characters that is
+ * repeated at least twice in a row matches if the repetitions are at least
+ * {@link #getSequenceLength()} characters long. Every run is reported with
+ * the error code of {@link RepeatCharacterRegexRule}, and its match detail is
+ * the whole run rather than its first characters.
+ * Passwords are scanned once for each block length, comparing each character
+ * with the one a block length before it, so validation takes linear time and
+ * allocates nothing unless a run is found.</p>
+ *
+ * @author  Middleware Services
+ */
+public class RepeatCharacterRule implements CacheableRule
+{
+
+  /** Error code for repeated characters. */
+  public static final String ERROR_CODE = IllegalRegexRule.ERROR_CODE;
+
+  /** Default length of sequence, value is {@value}. */
+  public static final int DEFAULT_SEQUENCE_LENGTH = 5;
+
+  /** Minimum length of sequence, value is {@value}. */
+  public static final int MINIMUM_SEQUENCE_LENGTH = 3;
+
+  /** Largest control character, which is never considered repeated. */
+  private static final int MAX_CONTROL_CHAR = 0x1F;
+
+  /** Names of the rule result detail parameters. */
+  private static final String[] PARAMETER_NAMES = {"match"};
+
+  /** Number of repeated characters to match. */
+  private final int sequenceLength;
+
+  /** Longest block of characters whose repetition is matched. */
+  private final int maxBlockLength;
+
+  /** Whether to report all runs or just the first. */
+  private final boolean reportAllFailures;
+
+
+  /**
+   * Creates a new repeat character rule with the default sequence length.
+   */
+  public RepeatCharacterRule()
+  {
+    this(DEFAULT_SEQUENCE_LENGTH);
+  }
+
+
+  /**
+   * Creates a new repeat character rule.
+   *
+   * @param  sl  sequence length
+   */
+  public RepeatCharacterRule(final int sl)
+  {
+    this(sl, 1);
+  }
+
+
+  /**
+   * Creates a new repeat character rule.
+   *
+   * @param  sl  sequence length
+   * @param  bl  longest block of characters whose repetition is matched
+   */
+  public RepeatCharacterRule(final int sl, final int bl)
+  {
+    this(sl, bl, true);
+  }
+
+
+  /**
+   * Creates a new repeat character rule.
+   *
+   * @param  sl  sequence length
+   * @param  bl  longest block of characters whose repetition is matched
+   * @param  b  whether to report all runs or just the first
+   */
+  public RepeatCharacterRule(final int sl, final int bl, final boolean b)
+  {
+    if (sl < MINIMUM_SEQUENCE_LENGTH) {
+      throw new IllegalArgumentException(
+        String.format(
+          "sequence length must be >= %s",
+          MINIMUM_SEQUENCE_LENGTH));
+    }
+    if (bl < 1) {
+      throw new IllegalArgumentException("block length must be >= 1");
+    }
+    sequenceLength = sl;
+    maxBlockLength = bl;
+    reportAllFailures = b;
+  }
+
+
+  /**
+   * Returns the number of repeated characters to match.
+   *
+   * @return  sequence length
+   */
+  public int getSequenceLength()
+  {
+    return sequenceLength;
+  }
+
+
+  /**
+   * Returns the longest block of characters whose repetition is matched.
+   *
+   * @return  maximum block length
+   */
+  public int getMaxBlockLength()
+  {
+    return maxBlockLength;
+  }
+
+
+  @Override
+  public boolean isCacheable()
+  {
+    return true;
+  }
+
+
+  @Override
+  public RuleResult validate(final PasswordData passwordData)
+  {
+    final RuleResult result = new RuleResult(true);
+    final String password = passwordData.getPassword();
+    final int count = password.codePointCount(0, password.length());
+    for (int bl = 1; bl <= maxBlockLength && 2 * bl <= count; bl++) {
+      if (!findRuns(password, bl, result)) {
+        break;
+      }
+    }
+    return result;
+  }
+
+
+  /**
+   * Adds a detail to the supplied result for each run of the supplied block
+   * length. A run is found as a streak of characters equal to the character
+   * one block before them.
+   *
+   * @param  password  to search
+   * @param  bl  block length in code points
+   * @param  result  to add details to
+   *
+   * @return  whether the search should continue
+   */
+  private boolean findRuns(
+    final String password,
+    final int bl,
+    final RuleResult result)
+  {
+    int trail = 0;
+    int lead = password.offsetByCodePoints(0, bl);
+    int streak = 0;
+    int start = 0;
+    boolean more = true;
+    while (lead < password.length() && more) {
+      final int cp = password.codePointAt(trail);
+      final int next = password.codePointAt(lead);
+      if (cp == next) {
+        if (streak == 0) {
+          start = trail;
+        }
+        streak++;
+      } else if (streak > 0) {
+        more = addRun(password, start, streak, bl, result);
+        streak = 0;
+      }
+      trail += Character.charCount(cp);
+      lead += Character.charCount(next);
+    }
+    if (streak > 0 && more) {
+      more = addRun(password, start, streak, bl, result);
+    }
+    return more;
+  }
+
+
+  /**
+   * Adds a detail to the supplied result if the supplied streak is a run that
+   * matches. A streak shorter than the block is a single recurring character
+   * rather than a repeated block and is skipped. Runs of blocks that are
+   * themselves repetitions are skipped, since they are found with the shorter
+   * block.
+   *
+   * @param  password  being searched
+   * @param  start  of the streak
+   * @param  streak  number of code points equal to the one a block before
+   * @param  bl  block length in code points
+   * @param  result  to add details to
+   *
+   * @return  whether the search should continue
+   */
+  private boolean addRun(
+    final String password,
+    final int start,
+    final int streak,
+    final int bl,
+    final RuleResult result)
+  {
+    final int length = (streak + bl) / bl * bl;
+    if (streak < bl || length < sequenceLength) {
+      return true;
+    }
+
+    final String block = password.substring(
+      start,
+      password.offsetByCodePoints(start, bl));
+    boolean control = true;
+    for (int i = 0; i < block.length() && control; i++) {
+      control = block.charAt(i) <= MAX_CONTROL_CHAR;
+    }
+    final boolean primitive =
+      (block + block).indexOf(block, 1) == block.length();
+    boolean more = true;
+    if (!control && primitive) {
+      result.setValid(false);
+      result.getDetails().add(
+        new RuleResultDetail(
+          ERROR_CODE,
+          createRuleResultDetailParameters(
+            password.substring(
+              start,
+              password.offsetByCodePoints(start, length)))));
+      more = reportAllFailures;
+    }
+    return more;
+  }
+
+
+  /**
+   * Creates the parameter data for the rule result detail.
+   *
+   * @param  match  repeated characters
+   *
+   * @return  map of parameter name to value
+   */
+  protected Map<String, Object> createRuleResultDetailParameters(
+    final String match)
+  {
+    return new ParameterMap(PARAMETER_NAMES, match);
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return
+      String.format(
+        "%s@%h::sequenceLength=%s,maxBlockLength=%s,reportAllFailures=%s",
+        getClass().getName(),
+        hashCode(),
+        sequenceLength,
+        maxBlockLength,
+        reportAllFailures);
+  }
+}
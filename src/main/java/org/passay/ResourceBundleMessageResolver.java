@@ -0,0 +1,194 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.Set;
+
+/**
+ * Resolves messages in several locales from properties resource bundles. The
+ * bundles of every supported locale are loaded once when the resolver is
+ * created and each message is compiled into a {@link MessageTemplate}, so a
+ * single resolver, and a single {@link PasswordValidator}, can serve all
+ * locales without resource bundle lookups at resolution time. Messages missing
+ * from a locale bundle are inherited from its parent bundles, ending with the
+ * base bundle, e.g. <code>messages_fr_CA</code>, <code>messages_fr</code>,
+ * <code>messages</code>.
+ *
+ * <p>Requests for an unsupported locale fall back to the nearest supported
+ * locale by removing the variant and then the country, and finally to the base
+ * bundle.</p>
+ *
+ * <p>This implementation is immutable and safe for use by multiple
+ * threads.</p>
+ *
+ * @author  Middleware Services
+ */
+public class ResourceBundleMessageResolver extends AbstractMessageResolver
+  implements LocalizedMessageResolver
+{
+
+  /** Base name of the default message bundles. */
+  public static final String DEFAULT_BASE_NAME = "messages";
+
+  /** Locale used when no locale is supplied. */
+  private final Locale defaultLocale;
+
+  /** Maps each supported locale to message templates keyed by error code. */
+  private final Map<Locale, Map<String, MessageTemplate>> templates;
+
+
+  /**
+   * Creates a new resource bundle message resolver with the default message
+   * bundles.
+   *
+   * @param  locales  supported locales, the first is the default locale
+   */
+  public ResourceBundleMessageResolver(final Locale... locales)
+  {
+    this(DEFAULT_BASE_NAME, locales);
+  }
+
+
+  /**
+   * Creates a new resource bundle message resolver. The base bundle is always
+   * loaded and is used when no locales are supplied.
+   *
+   * @param  baseName  of the message bundles
+   * @param  locales  supported locales, the first is the default locale
+   *
+   * @throws  java.util.MissingResourceException  if the base bundle cannot be
+   * found
+   */
+  public ResourceBundleMessageResolver(
+    final String baseName,
+    final Locale... locales)
+  {
+    if (baseName == null) {
+      throw new NullPointerException("Base name cannot be null");
+    }
+    defaultLocale = locales.length > 0 ? locales[0] : Locale.ROOT;
+
+    final ResourceBundle.Control control =
+      ResourceBundle.Control.getNoFallbackControl(
+        ResourceBundle.Control.FORMAT_PROPERTIES);
+    final Map<Locale, Map<String, MessageTemplate>> m = new HashMap<>();
+    m.put(
+      Locale.ROOT,
+      compile(ResourceBundle.getBundle(baseName, Locale.ROOT, control)));
+    for (Locale locale : locales) {
+      if (!m.containsKey(locale)) {
+        m.put(
+          locale,
+          compile(ResourceBundle.getBundle(baseName, locale, control)));
+      }
+    }
+    templates = Collections.unmodifiableMap(m);
+  }
+
+
+  /**
+   * Returns the supported locales, including {@link Locale#ROOT} for the base
+   * bundle.
+   *
+   * @return  unmodifiable set of supported locales
+   */
+  public Set<Locale> getLocales()
+  {
+    return templates.keySet();
+  }
+
+
+  /**
+   * Returns the locale used by {@link #resolve(RuleResultDetail)}.
+   *
+   * @return  default locale
+   */
+  public Locale getDefaultLocale()
+  {
+    return defaultLocale;
+  }
+
+
+  @Override
+  public String resolve(final RuleResultDetail detail, final Locale locale)
+  {
+    return format(detail, getTemplate(detail.getErrorCode(), locale));
+  }
+
+
+  @Override
+  protected String getMessage(final String key)
+  {
+    final MessageTemplate template = getTemplate(key);
+    return template != null ? template.getFormat() : null;
+  }
+
+
+  @Override
+  protected MessageTemplate getTemplate(final String key)
+  {
+    return getTemplate(key, defaultLocale);
+  }
+
+
+  /**
+   * Returns the message template for the supplied key in the supplied locale.
+   *
+   * @param  key  which corresponds to a message
+   * @param  locale  of the message or null for the default locale
+   *
+   * @return  message template or null if no message exists for the key
+   */
+  protected MessageTemplate getTemplate(final String key, final Locale locale)
+  {
+    final Locale l = locale != null ? locale : defaultLocale;
+    Map<String, MessageTemplate> m = templates.get(l);
+    if (m == null) {
+      if (!l.getVariant().isEmpty()) {
+        m = templates.get(new Locale(l.getLanguage(), l.getCountry()));
+      }
+      if (m == null && !l.getCountry().isEmpty()) {
+        m = templates.get(new Locale(l.getLanguage()));
+      }
+      if (m == null) {
+        m = templates.get(Locale.ROOT);
+      }
+    }
+    return m.get(key);
+  }
+
+
+  /**
+   * Compiles every message in the supplied bundle and its parents.
+   *
+   * @param  bundle  of messages
+   *
+   * @return  unmodifiable map of error code to message template
+   */
+  private static Map<String, MessageTemplate> compile(
+    final ResourceBundle bundle)
+  {
+    final Map<String, MessageTemplate> m = new HashMap<>();
+    for (String key : bundle.keySet()) {
+      m.put(key, new MessageTemplate(bundle.getString(key)));
+    }
+    return Collections.unmodifiableMap(m);
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return
+      String.format(
+        "%s@%h::defaultLocale=%s,locales=%s",
+        getClass().getName(),
+        hashCode(),
+        defaultLocale,
+        templates.keySet());
+  }
+}
@@ -0,0 +1,365 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Validation listener that records the number of validations, the number of
+ * rejections and a latency histogram for each rule. Counters are striped by
+ * thread so that concurrent validations rarely update the same memory, and
+ * latencies are recorded in a log-linear histogram with eight buckets per
+ * power of two, which bounds the error of a reported latency to 12.5%.
+ * Recording a validation takes a map lookup and two atomic additions, or
+ * three if the password was rejected; the number of validations is the sum
+ * of the histogram buckets.
+ *
+ * <p>Use {@link #snapshot()} to export the metrics, for example:</p>
+ *
+ * <pre>
+   RuleMetrics metrics = new RuleMetrics();
+   validator.setValidationListener(metrics);
+   ...
+   for (RuleMetrics.Snapshot s : metrics.snapshot()) {
+     log(s.getRule(), s.getCount(), s.getFailureCount(), s.getPercentile(99));
+   }
+ * </pre>
+ *
+ * @author  Middleware Services
+ */
+public class RuleMetrics implements ValidationListener
+{
+
+  /** Bits of a latency used to select a bucket within a power of two. */
+  private static final int SUB_BUCKET_BITS = 3;
+
+  /** Number of buckets per power of two. */
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+  /** Number of bits in a long. */
+  private static final int LONG_BITS = 64;
+
+  /** Number of bits in an int. */
+  private static final int INT_BITS = 32;
+
+  /** Number of histogram buckets. */
+  private static final int BUCKETS =
+    (LONG_BITS - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  /** Index of the failure count in a stripe. */
+  private static final int FAILURES = 0;
+
+  /** Index of the total duration in a stripe. */
+  private static final int TOTAL = 1;
+
+  /** Index of the first histogram bucket in a stripe. */
+  private static final int FIRST_BUCKET = 2;
+
+  /** Number of counters in a stripe. */
+  private static final int STRIPE_SIZE = FIRST_BUCKET + BUCKETS;
+
+  /** Maximum number of stripes. */
+  private static final int MAX_STRIPES = 16;
+
+  /** Multiplier that spreads thread identifiers over the stripes. */
+  private static final long STRIPE_HASH = 0x9E3779B97F4A7C15L;
+
+  /** Percent of all values. */
+  private static final double ALL_PERCENT = 100;
+
+  /** Percentile of the median. */
+  private static final double MEDIAN_PERCENT = 50;
+
+  /** Percentile of the tail latency reported by snapshots. */
+  private static final double TAIL_PERCENT = 99;
+
+  /** Number of stripes, a power of two. */
+  private final int stripes;
+
+  /** Counters for each rule. */
+  private final ConcurrentMap<Rule, AtomicLongArray> counters =
+    new ConcurrentHashMap<>();
+
+
+  /**
+   * Creates new rule metrics with a stripe for each available processor, up
+   * to sixteen stripes.
+   */
+  public RuleMetrics()
+  {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+
+  /**
+   * Creates new rule metrics.
+   *
+   * @param  n  number of stripes, rounded up to a power of two
+   */
+  public RuleMetrics(final int n)
+  {
+    if (n <= 0) {
+      throw new IllegalArgumentException("stripes must be greater than zero");
+    }
+    stripes = Math.min(
+      Integer.highestOneBit(n - 1 > 0 ? (n - 1) << 1 : 1),
+      MAX_STRIPES);
+  }
+
+
+  @Override
+  public void ruleValidated(
+    final Rule rule,
+    final RuleResult result,
+    final long nanos)
+  {
+    AtomicLongArray c = counters.get(rule);
+    if (c == null) {
+      final AtomicLongArray created = new AtomicLongArray(
+        stripes * STRIPE_SIZE);
+      c = counters.putIfAbsent(rule, created);
+      if (c == null) {
+        c = created;
+      }
+    }
+
+    final long duration = Math.max(nanos, 0);
+    final int offset = stripe() * STRIPE_SIZE;
+    if (!result.isValid()) {
+      c.incrementAndGet(offset + FAILURES);
+    }
+    c.addAndGet(offset + TOTAL, duration);
+    c.incrementAndGet(offset + FIRST_BUCKET + bucket(duration));
+  }
+
+
+  /**
+   * Returns a snapshot of the metrics of every rule that has been validated.
+   * Validations that happen while the snapshot is taken may be partially
+   * included.
+   *
+   * @return  rule metrics
+   */
+  public List<Snapshot> snapshot()
+  {
+    final List<Snapshot> snapshots = new ArrayList<>(counters.size());
+    for (Map.Entry<Rule, AtomicLongArray> e : counters.entrySet()) {
+      final long[] sums = new long[STRIPE_SIZE];
+      final AtomicLongArray c = e.getValue();
+      for (int i = 0; i < c.length(); i++) {
+        sums[i % STRIPE_SIZE] += c.get(i);
+      }
+      snapshots.add(new Snapshot(e.getKey(), sums));
+    }
+    return snapshots;
+  }
+
+
+  /** Discards the metrics of all rules. */
+  public void reset()
+  {
+    counters.clear();
+  }
+
+
+  /**
+   * Returns the stripe of the current thread.
+   *
+   * @return  stripe index
+   */
+  private int stripe()
+  {
+    final long h = Thread.currentThread().getId() * STRIPE_HASH;
+    return (int) (h >>> INT_BITS) & (stripes - 1);
+  }
+
+
+  /**
+   * Returns the histogram bucket of the supplied duration.
+   *
+   * @param  nanos  non-negative duration
+   *
+   * @return  bucket index
+   */
+  static int bucket(final long nanos)
+  {
+    if (nanos < SUB_BUCKETS) {
+      return (int) nanos;
+    }
+
+    final int exponent = LONG_BITS - 1 - Long.numberOfLeadingZeros(nanos);
+    final int shift = exponent - SUB_BUCKET_BITS;
+    return
+      (shift + 1) * SUB_BUCKETS + (int) ((nanos >>> shift) & (SUB_BUCKETS - 1));
+  }
+
+
+  /**
+   * Returns the smallest duration in the supplied histogram bucket.
+   *
+   * @param  index  of the bucket
+   *
+   * @return  lower bound of the bucket
+   */
+  static long bucketLowerBound(final int index)
+  {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+
+    final int shift = index / SUB_BUCKETS - 1;
+    return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return
+      String.format(
+        "%s@%h::stripes=%s,rules=%s",
+        getClass().getName(),
+        hashCode(),
+        stripes,
+        counters.size());
+  }
+
+
+  /** Metrics of a single rule at a point in time. */
+  public static class Snapshot
+  {
+
+    /** Rule the metrics belong to. */
+    private final Rule rule;
+
+    /** Counters summed over all stripes. */
+    private final long[] sums;
+
+
+    /**
+     * Creates a new snapshot.
+     *
+     * @param  r  rule the metrics belong to
+     * @param  s  counters summed over all stripes
+     */
+    Snapshot(final Rule r, final long[] s)
+    {
+      rule = r;
+      sums = s;
+    }
+
+
+    /**
+     * Returns the rule the metrics belong to.
+     *
+     * @return  rule
+     */
+    public Rule getRule()
+    {
+      return rule;
+    }
+
+
+    /**
+     * Returns the number of validations.
+     *
+     * @return  validation count
+     */
+    public long getCount()
+    {
+      long count = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+        count += sums[FIRST_BUCKET + i];
+      }
+      return count;
+    }
+
+
+    /**
+     * Returns the number of validations that rejected the password.
+     *
+     * @return  failure count
+     */
+    public long getFailureCount()
+    {
+      return sums[FAILURES];
+    }
+
+
+    /**
+     * Returns the total duration of all validations.
+     *
+     * @return  total duration in nanoseconds
+     */
+    public long getTotalNanos()
+    {
+      return sums[TOTAL];
+    }
+
+
+    /**
+     * Returns the mean duration of a validation.
+     *
+     * @return  mean duration in nanoseconds or zero if there are none
+     */
+    public double getMeanNanos()
+    {
+      final long count = getCount();
+      return count > 0 ? (double) sums[TOTAL] / count : 0;
+    }
+
+
+    /**
+     * Returns the duration that the supplied percentage of validations did not
+     * exceed. The value is the upper bound of the histogram bucket containing
+     * the percentile.
+     *
+     * @param  percent  between 0 and 100
+     *
+     * @return  duration in nanoseconds or zero if there are no validations
+     */
+    public long getPercentile(final double percent)
+    {
+      if (percent < 0 || percent > ALL_PERCENT) {
+        throw new IllegalArgumentException("percent must be between 0 and 100");
+      }
+
+      long value = 0;
+      final long count = getCount();
+      if (count > 0) {
+        final long rank = Math.max(
+          1,
+          (long) Math.ceil(percent / ALL_PERCENT * count));
+        long seen = 0;
+        int i = 0;
+        while (seen < rank) {
+          seen += sums[FIRST_BUCKET + i++];
+        }
+        value = i < BUCKETS ? bucketLowerBound(i) - 1 : Long.MAX_VALUE;
+      }
+      return value;
+    }
+
+
+    @Override
+    public String toString()
+    {
+      return
+        String.format(
+          "%s@%h::rule=%s,count=%s,failureCount=%s,meanNanos=%.0f," +
+          "p50=%s,p99=%s",
+          getClass().getName(),
+          hashCode(),
+          rule,
+          getCount(),
+          getFailureCount(),
+          getMeanNanos(),
+          getPercentile(MEDIAN_PERCENT),
+          getPercentile(TAIL_PERCENT));
+    }
+  }
+}
@@ -1,43 +1,93 @@
 /* See LICENSE for licensing and NOTICE for copyright. */
 package org.passay;
 
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
- * Describes an exact cause of a rule validation failure.
+ * Describes an exact cause of a rule validation failure. Parameters are stored
+ * as parallel arrays of names and values; rules that always report the same
+ * parameters can share a single array of names between details. A map view of
+ * the parameters is only created when {@link #getParameters()} is invoked.
  *
  * @author  Middleware Services
  */
 public class RuleResultDetail
 {
 
+  /** Empty parameter names. */
+  private static final String[] EMPTY_NAMES = new String[0];
+
+  /** Empty parameter values. */
+  private static final Object[] EMPTY_VALUES = new Object[0];
+
   /** Detail error code. */
   protected final String errorCode;
 
-  /**
-   * Additional parameters that provide information about validation failure.
-   */
-  protected final Map<String, Object> parameters;
+  /** Names of the parameters that provide information about the failure. */
+  private final String[] parameterNames;
+
+  /** Values of the parameters that provide information about the failure. */
+  private final Object[] parameterValues;
+
+  /** Map view of the parameters, created on demand. */
+  private Map<String, Object> parameters;
 
 
   /**
-   * Creates a new rule result detail.
+   * Creates a new rule result detail. The parameters are copied, unless they
+   * were created by a rule of this package with names that are shared by all
+   * of its details.
    *
    * @param  code  error code.
    * @param  params  error details.
    */
   public RuleResultDetail(final String code, final Map<String, Object> params)
   {
-    if (code == null || code.length() == 0) {
-      throw new IllegalArgumentException("Code cannot be null or empty.");
-    }
+    checkCode(code);
     errorCode = code;
-    if (params == null) {
-      parameters = new LinkedHashMap<>();
+    if (params instanceof ParameterMap && ((ParameterMap) params).isShared()) {
+      parameterNames = ((ParameterMap) params).parameterNames();
+      parameterValues = ((ParameterMap) params).parameterValues();
+    } else if (params == null || params.isEmpty()) {
+      parameterNames = EMPTY_NAMES;
+      parameterValues = EMPTY_VALUES;
     } else {
-      parameters = new LinkedHashMap<>(params);
+      parameterNames = new String[params.size()];
+      parameterValues = new Object[params.size()];
+
+      int i = 0;
+      for (Map.Entry<String, Object> e : params.entrySet()) {
+        parameterNames[i] = e.getKey();
+        parameterValues[i++] = e.getValue();
+      }
+    }
+  }
+
+
+  /**
+   * Creates a new rule result detail. The supplied arrays are not copied and
+   * must not be modified after the detail is created, which allows a rule to
+   * use one array of names for all of its details.
+   *
+   * @param  code  error code.
+   * @param  names  parameter names.
+   * @param  values  parameter values in the same order as the names.
+   */
+  public RuleResultDetail(
+    final String code,
+    final String[] names,
+    final Object[] values)
+  {
+    checkCode(code);
+    if (names.length != values.length) {
+      throw new IllegalArgumentException(
+        "Parameter names and values must have the same length.");
     }
+    errorCode = code;
+    parameterNames = names;
+    parameterValues = values;
   }
 
 
@@ -53,30 +103,96 @@ public class RuleResultDetail
 
 
   /**
-   * Returns the parameters.
+   * Returns the parameters. The map is created on the first invocation and
+   * cannot be modified; parameters are fixed when the detail is created.
    *
-   * @return  map of parameter name to value.
+   * @return  unmodifiable map of parameter name to value.
    */
   public Map<String, Object> getParameters()
   {
-    return parameters;
+    Map<String, Object> m = parameters;
+    if (m == null) {
+      if (parameterNames.length == 0) {
+        m = Collections.emptyMap();
+      } else {
+        final Map<String, Object> params = new LinkedHashMap<>(
+          parameterNames.length * 2);
+        for (int i = 0; i < parameterNames.length; i++) {
+          params.put(parameterNames[i], parameterValues[i]);
+        }
+        m = Collections.unmodifiableMap(params);
+      }
+      parameters = m;
+    }
+    return m;
+  }
+
+
+  /**
+   * Returns the parameter names.
+   *
+   * @return  copy of the parameter names or empty array if no parameters
+   * defined.
+   */
+  public String[] getNames()
+  {
+    return parameterNames.length == 0 ? EMPTY_NAMES : parameterNames.clone();
   }
 
 
   /**
    * Returns the parameter values.
    *
-   * @return  array of parameters or empty array if no parameters defined.
+   * @return  copy of the parameter values or empty array if no parameters
+   * defined.
    */
   public Object[] getValues()
   {
-    return parameters.values().toArray();
+    return parameterValues.length == 0 ?
+      EMPTY_VALUES : parameterValues.clone();
+  }
+
+
+  /**
+   * Returns the parameter names without copying them, for formatting details
+   * within this package. The returned array must not be modified.
+   *
+   * @return  array of parameter names or empty array if no parameters defined.
+   */
+  String[] names()
+  {
+    return parameterNames;
+  }
+
+
+  /**
+   * Returns the parameter values without copying them, for formatting details
+   * within this package. The returned array must not be modified.
+   *
+   * @return  array of parameters or empty array if no parameters defined.
+   */
+  Object[] values()
+  {
+    return parameterValues;
+  }
+
+
+  /**
+   * Throws if the supplied error code is null or empty.
+   *
+   * @param  code  error code.
+   */
+  private static void checkCode(final String code)
+  {
+    if (code == null || code.length() == 0) {
+      throw new IllegalArgumentException("Code cannot be null or empty.");
+    }
   }
 
 
   @Override
   public String toString()
   {
-    return String.format("%s:%s", errorCode, parameters);
+    return String.format("%s:%s", errorCode, getParameters());
   }
 }
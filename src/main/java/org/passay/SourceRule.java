@@ -1,7 +1,6 @@
 /* See LICENSE for licensing and NOTICE for copyright. */
 package org.passay;
 
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -13,13 +12,42 @@ import java.util.Map;
  *
  * @author  Middleware Services
  */
-public class SourceRule implements Rule
+public class SourceRule implements CacheableRule
 {
 
   /** Error code for regex validation failures. */
   public static final String ERROR_CODE = "SOURCE_VIOLATION";
 
+  /** Names of the rule result detail parameters. */
+  private static final String[] PARAMETER_NAMES = {"source"};
 
+  /** Whether to report all source matches or just the first. */
+  protected boolean reportAllFailures = true;
+
+
+  /** Creates a new source rule. */
+  public SourceRule() {}
+
+
+  /**
+   * Creates a new source rule.
+   *
+   * @param  b  whether to report all source matches or just the first
+   */
+  public SourceRule(final boolean b)
+  {
+    reportAllFailures = b;
+  }
+
+
+  @Override
+  public boolean isCacheable()
+  {
+    return true;
+  }
+
+
+  // CheckStyle:ReturnCount OFF
   @Override
   public RuleResult validate(final PasswordData passwordData)
   {
@@ -30,18 +58,80 @@ public class SourceRule implements Rule
       return result;
     }
 
-    final String cleartext = passwordData.getPassword();
-    for (PasswordData.SourceReference reference : references) {
-      if (matches(cleartext, reference)) {
+    if (!reportAllFailures) {
+      final int index = findFirstMatch(passwordData.getPassword(), references);
+      if (index >= 0) {
+        result.setValid(false);
+        result.getDetails().add(
+          new RuleResultDetail(
+            ERROR_CODE,
+            createRuleResultDetailParameters(
+              references.get(index).getLabel())));
+      }
+      return result;
+    }
+
+    final boolean[] matches = findMatches(
+      passwordData.getPassword(),
+      references);
+    for (int i = 0; i < matches.length; i++) {
+      if (matches[i]) {
         result.setValid(false);
         result.getDetails().add(
           new RuleResultDetail(
             ERROR_CODE,
-            createRuleResultDetailParameters(reference.getLabel())));
+            createRuleResultDetailParameters(references.get(i).getLabel())));
       }
     }
     return result;
   }
+  // CheckStyle:ReturnCount ON
+
+
+  /**
+   * Determines which source passwords a password matches. The default
+   * implementation invokes {@link #matches(String, PasswordData.Reference)} for
+   * each reference.
+   *
+   * @param  password  candidate password
+   * @param  references  source reference passwords
+   *
+   * @return  array with the match result of each reference in list order
+   */
+  protected boolean[] findMatches(
+    final String password,
+    final List<PasswordData.SourceReference> references)
+  {
+    final boolean[] matches = new boolean[references.size()];
+    for (int i = 0; i < matches.length; i++) {
+      matches[i] = matches(password, references.get(i));
+    }
+    return matches;
+  }
+
+
+  /**
+   * Returns the index of a source password that a password matches. The
+   * default implementation invokes {@link #matches(String,
+   * PasswordData.Reference)} for each reference until one matches.
+   *
+   * @param  password  candidate password
+   * @param  references  source reference passwords
+   *
+   * @return  index of a matching reference or -1 if none match
+   */
+  protected int findFirstMatch(
+    final String password,
+    final List<PasswordData.SourceReference> references)
+  {
+    int index = -1;
+    for (int i = 0; i < references.size() && index < 0; i++) {
+      if (matches(password, references.get(i))) {
+        index = i;
+      }
+    }
+    return index;
+  }
 
 
   /**
@@ -70,8 +160,6 @@ public class SourceRule implements Rule
   protected Map<String, Object> createRuleResultDetailParameters(
     final String source)
   {
-    final Map<String, Object> m = new LinkedHashMap<>();
-    m.put("source", source);
-    return m;
+    return new ParameterMap(PARAMETER_NAMES, source);
   }
 }
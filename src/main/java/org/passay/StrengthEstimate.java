@@ -0,0 +1,217 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Estimated strength of a password produced by a {@link StrengthEstimator}.
+ * The estimate is the number of guesses an attacker who knows common password
+ * patterns needs to find the password, together with the sequence of patterns
+ * that yields that minimum.
+ *
+ * @author  Middleware Services
+ */
+public class StrengthEstimate
+{
+
+  /** Minimum score, the password is trivially guessable. */
+  public static final int MIN_SCORE = 0;
+
+  /** Maximum score, the password is very unlikely to be guessed. */
+  public static final int MAX_SCORE = 4;
+
+  /** Base of guess logarithms. */
+  private static final double LOG_BASE = 10;
+
+  /** Log10 of the guesses below which each score applies. */
+  private static final double[] SCORE_THRESHOLDS = {3, 6, 8, 10};
+
+  /** Log10 of the estimated number of guesses. */
+  private final double guessesLog10;
+
+  /** Patterns that make up the password. */
+  private final List<Match> matches;
+
+
+  /**
+   * Creates a new strength estimate.
+   *
+   * @param  log10  of the estimated number of guesses
+   * @param  m  patterns that make up the password
+   */
+  public StrengthEstimate(final double log10, final List<Match> m)
+  {
+    guessesLog10 = log10;
+    matches = Collections.unmodifiableList(m);
+  }
+
+
+  /**
+   * Returns the estimated number of guesses needed to find the password.
+   *
+   * @return  number of guesses
+   */
+  public double getGuesses()
+  {
+    return Math.pow(LOG_BASE, guessesLog10);
+  }
+
+
+  /**
+   * Returns the base 10 logarithm of the estimated number of guesses.
+   *
+   * @return  log10 of the number of guesses
+   */
+  public double getGuessesLog10()
+  {
+    return guessesLog10;
+  }
+
+
+  /**
+   * Returns a score from {@link #MIN_SCORE} to {@link #MAX_SCORE}. Scores
+   * increase at 10<sup>3</sup>, 10<sup>6</sup>, 10<sup>8</sup> and
+   * 10<sup>10</sup> guesses.
+   *
+   * @return  strength score
+   */
+  public int getScore()
+  {
+    int score = MIN_SCORE;
+    while (score < SCORE_THRESHOLDS.length &&
+        guessesLog10 >= SCORE_THRESHOLDS[score]) {
+      score++;
+    }
+    return score;
+  }
+
+
+  /**
+   * Returns the patterns that make up the password in order.
+   *
+   * @return  unmodifiable list of matches
+   */
+  public List<Match> getMatches()
+  {
+    return matches;
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return
+      String.format(
+        "%s@%h::guessesLog10=%s,score=%s,matches=%s",
+        getClass().getName(),
+        hashCode(),
+        guessesLog10,
+        getScore(),
+        matches);
+  }
+
+
+  /** Kind of pattern matched in a password. */
+  public enum Pattern
+  {
+
+    /** Word found in a dictionary, possibly reversed. */
+    DICTIONARY,
+
+    /** Alphabetical, numerical or keyboard sequence. */
+    SEQUENCE,
+
+    /** Run of a repeated character. */
+    REPEAT,
+
+    /** Characters that match no other pattern. */
+    BRUTEFORCE
+  }
+
+
+  /** Pattern found in a range of a password. */
+  public static class Match
+  {
+
+    /** Kind of pattern. */
+    private final Pattern pattern;
+
+    /** Index of the first character of the match. */
+    private final int start;
+
+    /** Index after the last character of the match. */
+    private final int end;
+
+    /** Log10 of the guesses needed to find the match. */
+    private final double guessesLog10;
+
+
+    /**
+     * Creates a new match.
+     *
+     * @param  p  kind of pattern
+     * @param  i  index of the first character of the match
+     * @param  j  index after the last character of the match
+     * @param  log10  of the guesses needed to find the match
+     */
+    public Match(final Pattern p, final int i, final int j, final double log10)
+    {
+      pattern = p;
+      start = i;
+      end = j;
+      guessesLog10 = log10;
+    }
+
+
+    /**
+     * Returns the kind of pattern.
+     *
+     * @return  pattern
+     */
+    public Pattern getPattern()
+    {
+      return pattern;
+    }
+
+
+    /**
+     * Returns the index of the first character of the match.
+     *
+     * @return  start index
+     */
+    public int getStart()
+    {
+      return start;
+    }
+
+
+    /**
+     * Returns the index after the last character of the match.
+     *
+     * @return  end index
+     */
+    public int getEnd()
+    {
+      return end;
+    }
+
+
+    /**
+     * Returns the base 10 logarithm of the guesses needed to find the match.
+     *
+     * @return  log10 of the number of guesses
+     */
+    public double getGuessesLog10()
+    {
+      return guessesLog10;
+    }
+
+
+    @Override
+    public String toString()
+    {
+      return String.format("%s[%s,%s):%.2f", pattern, start, end, guessesLog10);
+    }
+  }
+}
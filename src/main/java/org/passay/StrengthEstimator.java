@@ -0,0 +1,807 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import org.passay.dictionary.Dictionary;
+import org.passay.dictionary.WordList;
+import org.passay.dictionary.WordListDictionary;
+import org.passay.dictionary.WordLists;
+
+/**
+ * Estimates the number of guesses needed to find a password. The password is
+ * decomposed into dictionary words, alphabetical, numerical and QWERTY
+ * sequences, repeated characters and brute force segments, and the
+ * decomposition that needs the fewest guesses is found with dynamic
+ * programming. Guesses for a decomposition of <i>l</i> patterns are
+ * <i>l</i>! times the product of the pattern guesses, plus a penalty of
+ * 10<sup>4(l-1)</sup> that keeps many short patterns from being cheaper than a
+ * few long ones. Sequence tables are those of the {@link AbstractSequenceRule}
+ * implementations.
+ *
+ * <p>Work is bounded: only the first {@link #getMaxLength()} characters are
+ * decomposed, the remainder counts as brute force, and dictionary words are
+ * only searched up to {@link #getMaxWordLength()} characters.</p>
+ *
+ * <p>This implementation is safe for concurrent use by multiple threads if its
+ * dictionary is.</p>
+ *
+ * @author  Middleware Services
+ */
+public class StrengthEstimator
+{
+
+  /** Default maximum number of characters to decompose. */
+  public static final int DEFAULT_MAX_LENGTH = 64;
+
+  /** Default maximum length of a dictionary word. */
+  public static final int DEFAULT_MAX_WORD_LENGTH = 16;
+
+  /** Guesses per word for dictionaries of unknown size. */
+  public static final double DEFAULT_WORD_GUESSES = 10000;
+
+  /** Minimum length of a dictionary word, sequence or repeat. */
+  private static final int MIN_MATCH_LENGTH = 3;
+
+  /** Log10 of the guesses per brute force character. */
+  private static final double BRUTEFORCE_LOG10 = 1;
+
+  /** Log10 of the minimum guesses of a non brute force match. */
+  private static final double MIN_MATCH_LOG10 = Math.log10(50);
+
+  /** Log10 of the penalty per additional pattern. */
+  private static final double PATTERN_PENALTY_LOG10 = 4;
+
+  /** Base of guess logarithms. */
+  private static final double LOG_BASE = 10;
+
+  /** Number of digits. */
+  private static final int DIGIT_CARDINALITY = 10;
+
+  /** Number of letters of one case. */
+  private static final int LETTER_CARDINALITY = 26;
+
+  /** Number of other printable ASCII characters. */
+  private static final int OTHER_CARDINALITY = 33;
+
+  /** Number of ASCII characters. */
+  private static final int ASCII_SIZE = 128;
+
+  /** Character sequences from the sequence rules. */
+  private static final char[][][] SEQUENCES = createSequences(
+    new AlphabeticalSequenceRule(),
+    new NumericalSequenceRule(),
+    new QwertySequenceRule());
+
+  /** Dictionary of words or null. */
+  private final Dictionary dictionary;
+
+  /** Sorted word list of the dictionary searched by prefix or null. */
+  private final WordList wordList;
+
+  /** Whether the word list is case sensitive. */
+  private final boolean caseSensitive;
+
+  /** Index of the first word starting with each ASCII character or null. */
+  private final int[] firstCharBounds;
+
+  /** Log10 of the guesses per dictionary word. */
+  private final double wordGuessesLog10;
+
+  /** Maximum number of characters to decompose. */
+  private int maxLength = DEFAULT_MAX_LENGTH;
+
+  /** Maximum length of a dictionary word. */
+  private int maxWordLength = DEFAULT_MAX_WORD_LENGTH;
+
+
+  /** Creates a new strength estimator without a dictionary. */
+  public StrengthEstimator()
+  {
+    this(null);
+  }
+
+
+  /**
+   * Creates a new strength estimator. Dictionary words are searched in lower
+   * case. Each word of a {@link WordListDictionary} needs half the size of the
+   * word list in guesses; words of other dictionaries need {@link
+   * #DEFAULT_WORD_GUESSES}. The word list of a {@link WordListDictionary}
+   * sorted by a comparator of {@link WordLists} is searched by prefix without
+   * creating strings; other dictionaries are searched for every candidate
+   * word.
+   *
+   * @param  dict  dictionary of words or null
+   */
+  public StrengthEstimator(final Dictionary dict)
+  {
+    dictionary = dict;
+    if (dict instanceof WordListDictionary) {
+      final WordList wl = ((WordListDictionary) dict).getWordList();
+      final Comparator<String> c = wl.getComparator();
+      if (dict.getClass() == WordListDictionary.class &&
+          (c == WordLists.CASE_SENSITIVE_COMPARATOR ||
+            c == WordLists.CASE_INSENSITIVE_COMPARATOR)) {
+        wordList = wl;
+      } else {
+        wordList = null;
+      }
+      caseSensitive = c == WordLists.CASE_SENSITIVE_COMPARATOR;
+      wordGuessesLog10 = Math.log10(Math.max(wl.size() / 2, 1));
+    } else {
+      wordList = null;
+      caseSensitive = true;
+      wordGuessesLog10 = Math.log10(DEFAULT_WORD_GUESSES);
+    }
+    if (wordList != null) {
+      firstCharBounds = new int[ASCII_SIZE + 1];
+      for (int i = 0; i <= ASCII_SIZE; i++) {
+        firstCharBounds[i] = prefixBound(
+          0,
+          wordList.size(),
+          0,
+          (char) i,
+          false);
+      }
+    } else {
+      firstCharBounds = null;
+    }
+  }
+
+
+  /**
+   * Returns the maximum number of characters to decompose.
+   *
+   * @return  maximum length
+   */
+  public int getMaxLength()
+  {
+    return maxLength;
+  }
+
+
+  /**
+   * Sets the maximum number of characters to decompose.
+   *
+   * @param  n  maximum length
+   */
+  public void setMaxLength(final int n)
+  {
+    if (n < 1) {
+      throw new IllegalArgumentException("Maximum length must be positive");
+    }
+    maxLength = n;
+  }
+
+
+  /**
+   * Returns the maximum length of a dictionary word.
+   *
+   * @return  maximum word length
+   */
+  public int getMaxWordLength()
+  {
+    return maxWordLength;
+  }
+
+
+  /**
+   * Sets the maximum length of a dictionary word.
+   *
+   * @param  n  maximum word length
+   */
+  public void setMaxWordLength(final int n)
+  {
+    if (n < MIN_MATCH_LENGTH) {
+      throw new IllegalArgumentException(
+        String.format("Maximum word length must be >= %s", MIN_MATCH_LENGTH));
+    }
+    maxWordLength = n;
+  }
+
+
+  /**
+   * Estimates the strength of the supplied password.
+   *
+   * @param  password  to estimate
+   *
+   * @return  strength estimate
+   */
+  public StrengthEstimate estimate(final String password)
+  {
+    final int n = Math.min(password.length(), maxLength);
+    final List<List<StrengthEstimate.Match>> matches = new ArrayList<>(n + 1);
+    for (int i = 0; i <= n; i++) {
+      matches.add(new ArrayList<StrengthEstimate.Match>());
+    }
+    findDictionaryMatches(password, n, matches);
+    findSequenceMatches(password, n, matches);
+    findRepeatMatches(password, n, matches);
+    return minimize(password.length(), n, matches);
+  }
+
+
+  /**
+   * Adds dictionary word matches, forwards and reversed.
+   *
+   * @param  password  to search
+   * @param  n  number of characters to search
+   * @param  matches  to add to, indexed by match end
+   */
+  private void findDictionaryMatches(
+    final String password,
+    final int n,
+    final List<List<StrengthEstimate.Match>> matches)
+  {
+    if (dictionary == null) {
+      return;
+    }
+
+    final char[] lower = new char[n];
+    for (int i = 0; i < n; i++) {
+      lower[i] = Character.toLowerCase(password.charAt(i));
+    }
+
+    // words[i * stride + length]: the characters from i are a word
+    final int maxWord = Math.min(maxWordLength, n);
+    final int stride = maxWord + 1;
+    final boolean[] words = new boolean[n * stride];
+    final boolean[] reversedWords = new boolean[n * stride];
+    if (wordList != null) {
+      for (int i = 0; i < n; i++) {
+        searchWordList(lower, i, 1, maxWord, words, stride);
+        searchWordList(lower, i, -1, maxWord, reversedWords, stride);
+      }
+    } else {
+      searchDictionary(lower, maxWord, words, reversedWords, stride);
+    }
+
+    final double reversedLog10 = wordGuessesLog10 + Math.log10(2);
+    for (int i = 0; i < n; i++) {
+      final int max = Math.min(n, i + maxWord);
+      for (int j = i + MIN_MATCH_LENGTH; j <= max; j++) {
+        if (words[i * stride + j - i]) {
+          addMatch(
+            matches,
+            StrengthEstimate.Pattern.DICTIONARY,
+            i,
+            j,
+            wordGuessesLog10 + uppercaseLog10(password, i, j));
+        } else if (reversedWords[i * stride + j - i]) {
+          addMatch(
+            matches,
+            StrengthEstimate.Pattern.DICTIONARY,
+            i,
+            j,
+            reversedLog10 + uppercaseLog10(password, i, j));
+        }
+      }
+    }
+  }
+
+
+  /**
+   * Finds the words of the word list that start at, or reversed end at, the
+   * supplied index. Characters are read in the supplied direction and each one
+   * narrows the range of words having the characters read so far as a prefix,
+   * so the search stops as soon as no word has the prefix and no strings are
+   * created.
+   *
+   * @param  lower  lower case characters to search
+   * @param  from  index of the first character to read
+   * @param  direction  1 to read forwards, -1 to read backwards
+   * @param  maxWord  maximum word length
+   * @param  found  to mark words in, by start index times stride plus length
+   * @param  stride  of the found array
+   */
+  private void searchWordList(
+    final char[] lower,
+    final int from,
+    final int direction,
+    final int maxWord,
+    final boolean[] found,
+    final int stride)
+  {
+    int low = 0;
+    int high = wordList.size();
+    int length = 0;
+    int position = from;
+    while (low < high && length < maxWord &&
+        position >= 0 && position < lower.length) {
+      final char c = fold(lower[position]);
+      if (length == 0 && c < ASCII_SIZE) {
+        low = firstCharBounds[c];
+        high = firstCharBounds[c + 1];
+      } else {
+        low = prefixBound(low, high, length, c, false);
+        high = prefixBound(low, high, length, c, true);
+      }
+      length++;
+      // the shortest word with the prefix sorts first
+      if (low < high && length >= MIN_MATCH_LENGTH &&
+          wordList.get(low).length() == length) {
+        final int start = direction > 0 ? from : position;
+        found[start * stride + length] = true;
+      }
+      position += direction;
+    }
+  }
+
+
+  /**
+   * Returns the first index of a range of words sharing a prefix at which the
+   * character after the prefix is not less than, or greater than, the
+   * supplied character. Words that are no longer than the prefix sort first.
+   *
+   * @param  low  first index of the range
+   * @param  high  index after the range
+   * @param  length  of the shared prefix
+   * @param  c  folded character to compare
+   * @param  after  whether to find the first greater character rather than
+   * the first not less
+   *
+   * @return  index in the range
+   */
+  private int prefixBound(
+    final int low,
+    final int high,
+    final int length,
+    final char c,
+    final boolean after)
+  {
+    int lo = low;
+    int hi = high;
+    while (lo < hi) {
+      final int mid = (lo + hi) >>> 1;
+      final String word = wordList.get(mid);
+      boolean before = word.length() <= length;
+      if (!before) {
+        final char wc = fold(word.charAt(length));
+        before = after ? wc <= c : wc < c;
+      }
+      if (before) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+
+  /**
+   * Folds a character the way the word list comparator compares it.
+   *
+   * @param  c  character
+   *
+   * @return  character as compared by the word list
+   */
+  private char fold(final char c)
+  {
+    return caseSensitive ?
+      c : Character.toLowerCase(Character.toUpperCase(c));
+  }
+
+
+  /**
+   * Finds dictionary words and reversed words by searching the dictionary for
+   * every candidate, for dictionaries that are not searched by prefix.
+   *
+   * @param  lower  lower case characters to search
+   * @param  maxWord  maximum word length
+   * @param  words  to mark words in, by start index times stride plus length
+   * @param  reversedWords  to mark reversed words in, by start index times
+   * stride plus length
+   * @param  stride  of the found arrays
+   */
+  private void searchDictionary(
+    final char[] lower,
+    final int maxWord,
+    final boolean[] words,
+    final boolean[] reversedWords,
+    final int stride)
+  {
+    final int n = lower.length;
+    final String forward = new String(lower);
+    final char[] backward = new char[n];
+    for (int i = 0; i < n; i++) {
+      backward[i] = lower[n - 1 - i];
+    }
+
+    final String reversed = new String(backward);
+    for (int i = 0; i < n; i++) {
+      final int max = Math.min(n, i + maxWord);
+      for (int j = i + MIN_MATCH_LENGTH; j <= max; j++) {
+        if (dictionary.search(forward.substring(i, j))) {
+          words[i * stride + j - i] = true;
+        } else if (dictionary.search(reversed.substring(n - j, n - i))) {
+          reversedWords[i * stride + j - i] = true;
+        }
+      }
+    }
+  }
+
+
+  /**
+   * Adds alphabetical, numerical and QWERTY sequence matches, forwards and
+   * backwards.
+   *
+   * @param  password  to search
+   * @param  n  number of characters to search
+   * @param  matches  to add to, indexed by match end
+   */
+  private void findSequenceMatches(
+    final String password,
+    final int n,
+    final List<List<StrengthEstimate.Match>> matches)
+  {
+    for (int i = 0; i + MIN_MATCH_LENGTH <= n; i++) {
+      for (char[][] sequence : SEQUENCES) {
+        final int position = indexOf(sequence, password.charAt(i));
+        if (position < 0) {
+          continue;
+        }
+        for (int direction = -1; direction <= 1; direction += 2) {
+          int length = 1;
+          while (i + length < n &&
+              matchesAt(
+                sequence,
+                position + direction * length,
+                password.charAt(i + length))) {
+            length++;
+          }
+
+          final double log10 = Math.log10(sequence.length) +
+            (direction < 0 ? Math.log10(2) : 0);
+          for (int k = MIN_MATCH_LENGTH; k <= length; k++) {
+            addMatch(
+              matches,
+              StrengthEstimate.Pattern.SEQUENCE,
+              i,
+              i + k,
+              log10 + Math.log10(k));
+          }
+        }
+      }
+    }
+  }
+
+
+  /**
+   * Adds matches for runs of a repeated character.
+   *
+   * @param  password  to search
+   * @param  n  number of characters to search
+   * @param  matches  to add to, indexed by match end
+   */
+  private void findRepeatMatches(
+    final String password,
+    final int n,
+    final List<List<StrengthEstimate.Match>> matches)
+  {
+    for (int i = 0; i + MIN_MATCH_LENGTH <= n; i++) {
+      int length = 1;
+      while (i + length < n &&
+          password.charAt(i + length) == password.charAt(i)) {
+        length++;
+      }
+
+      final double log10 = Math.log10(cardinality(password.charAt(i)));
+      for (int k = MIN_MATCH_LENGTH; k <= length; k++) {
+        addMatch(
+          matches,
+          StrengthEstimate.Pattern.REPEAT,
+          i,
+          i + k,
+          log10 + Math.log10(k));
+      }
+    }
+  }
+
+
+  /**
+   * Finds the decomposition of the password that needs the fewest guesses.
+   *
+   * @param  length  of the password
+   * @param  n  number of characters to decompose
+   * @param  matches  pattern matches indexed by match end
+   *
+   * @return  strength estimate
+   */
+  private StrengthEstimate minimize(
+    final int length,
+    final int n,
+    final List<List<StrengthEstimate.Match>> matches)
+  {
+    // best[k][l]: log10 of the smallest product of guesses of l patterns that
+    // cover the first k characters, with the last pattern in last[k][l]
+    final double[][] best = new double[n + 1][n + 1];
+    final StrengthEstimate.Match[][] last = new StrengthEstimate.Match[n + 1][];
+    for (int k = 0; k <= n; k++) {
+      Arrays.fill(best[k], Double.POSITIVE_INFINITY);
+      last[k] = new StrengthEstimate.Match[n + 1];
+    }
+    best[0][0] = 0;
+    for (int k = 1; k <= n; k++) {
+      for (StrengthEstimate.Match m : matches.get(k)) {
+        for (int l = 0; l < m.getStart() + 1; l++) {
+          update(best, last, m, l, m.getGuessesLog10());
+        }
+      }
+      for (int i = 0; i < k; i++) {
+        // the match is only created if it improves a decomposition
+        final double log10 = (k - i) * BRUTEFORCE_LOG10;
+        StrengthEstimate.Match m = null;
+        for (int l = 0; l < i + 1; l++) {
+          if (best[i][l] + log10 < best[k][l + 1] &&
+              (last[i][l] == null ||
+                last[i][l].getPattern() !=
+                  StrengthEstimate.Pattern.BRUTEFORCE)) {
+            if (m == null) {
+              m = new StrengthEstimate.Match(
+                StrengthEstimate.Pattern.BRUTEFORCE,
+                i,
+                k,
+                log10);
+            }
+            update(best, last, m, l, log10);
+          }
+        }
+      }
+    }
+
+    int count = 0;
+    double guesses = n == 0 ? 0 : Double.POSITIVE_INFINITY;
+    double factorialLog10 = 0;
+    for (int l = 1; l <= n; l++) {
+      factorialLog10 += Math.log10(l);
+      final double g = sequenceLog10(best[n][l], factorialLog10, l);
+      if (g < guesses) {
+        guesses = g;
+        count = l;
+      }
+    }
+
+    final StrengthEstimate.Match[] path = new StrengthEstimate.Match[count];
+    int end = n;
+    for (int l = count; l > 0; l--) {
+      path[l - 1] = last[end][l];
+      end = path[l - 1].getStart();
+    }
+    return
+      new StrengthEstimate(
+        guesses + (length - n) * BRUTEFORCE_LOG10,
+        Arrays.asList(path));
+  }
+
+
+  /**
+   * Extends the best decomposition of l patterns ending at the start of the
+   * supplied match with that match.
+   *
+   * @param  best  log10 guess products by end and pattern count
+   * @param  last  last pattern by end and pattern count
+   * @param  m  match to append
+   * @param  l  number of patterns before the match
+   * @param  log10  of the guesses of the match
+   */
+  private static void update(
+    final double[][] best,
+    final StrengthEstimate.Match[][] last,
+    final StrengthEstimate.Match m,
+    final int l,
+    final double log10)
+  {
+    final double candidate = best[m.getStart()][l] + log10;
+    if (candidate < best[m.getEnd()][l + 1]) {
+      best[m.getEnd()][l + 1] = candidate;
+      last[m.getEnd()][l + 1] = m;
+    }
+  }
+
+
+  /**
+   * Returns log10 of l! * 10^product + 10^(4(l-1)).
+   *
+   * @param  product  log10 of the product of pattern guesses
+   * @param  factorial  log10 of l!
+   * @param  l  number of patterns
+   *
+   * @return  log10 of the guesses for the decomposition
+   */
+  private static double sequenceLog10(
+    final double product,
+    final double factorial,
+    final int l)
+  {
+    final double a = factorial + product;
+    final double b = (l - 1) * PATTERN_PENALTY_LOG10;
+    return
+      Math.max(a, b) + Math.log10(1 + Math.pow(LOG_BASE, -Math.abs(a - b)));
+  }
+
+
+  /**
+   * Adds a match, applying the minimum guesses of a pattern.
+   *
+   * @param  matches  to add to, indexed by match end
+   * @param  pattern  of the match
+   * @param  i  index of the first character of the match
+   * @param  j  index after the last character of the match
+   * @param  log10  of the guesses needed to find the match
+   */
+  private static void addMatch(
+    final List<List<StrengthEstimate.Match>> matches,
+    final StrengthEstimate.Pattern pattern,
+    final int i,
+    final int j,
+    final double log10)
+  {
+    matches.get(j).add(
+      new StrengthEstimate.Match(
+        pattern,
+        i,
+        j,
+        Math.max(log10, MIN_MATCH_LOG10)));
+  }
+
+
+  /**
+   * Returns log10 of the number of upper and lower case variations of a word
+   * that must be guessed to find its capitalization.
+   *
+   * @param  password  containing the word
+   * @param  start  index of the first character of the word
+   * @param  end  index after the last character of the word
+   *
+   * @return  log10 of the number of case variations
+   */
+  private static double uppercaseLog10(
+    final String password,
+    final int start,
+    final int end)
+  {
+    int upper = 0;
+    int lower = 0;
+    for (int i = start; i < end; i++) {
+      if (Character.isUpperCase(password.charAt(i))) {
+        upper++;
+      } else if (Character.isLowerCase(password.charAt(i))) {
+        lower++;
+      }
+    }
+
+    double log10 = 0;
+    if (upper > 0 && lower > 0) {
+      final boolean common = upper == 1 &&
+        Character.isUpperCase(password.charAt(start)) ||
+        upper == 1 && Character.isUpperCase(password.charAt(end - 1));
+      if (common) {
+        log10 = Math.log10(2);
+      } else {
+        double variations = 0;
+        for (int i = 1; i <= Math.min(upper, lower); i++) {
+          variations += binomial(upper + lower, i);
+        }
+        log10 = Math.log10(variations);
+      }
+    } else if (upper > 0) {
+      log10 = Math.log10(2);
+    }
+    return log10;
+  }
+
+
+  /**
+   * Returns the binomial coefficient n choose k.
+   *
+   * @param  n  number of items
+   * @param  k  number of items chosen
+   *
+   * @return  binomial coefficient
+   */
+  private static double binomial(final int n, final int k)
+  {
+    double result = 1;
+    for (int i = 1; i <= k; i++) {
+      result = result * (n - k + i) / i;
+    }
+    return result;
+  }
+
+
+  /**
+   * Returns the number of characters of the same class as the supplied
+   * character.
+   *
+   * @param  c  character
+   *
+   * @return  size of the character class
+   */
+  private static int cardinality(final char c)
+  {
+    final int size;
+    if (c >= '0' && c <= '9') {
+      size = DIGIT_CARDINALITY;
+    } else if (c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z') {
+      size = LETTER_CARDINALITY;
+    } else {
+      size = OTHER_CARDINALITY;
+    }
+    return size;
+  }
+
+
+  /**
+   * Returns the position of the supplied character in a sequence.
+   *
+   * @param  sequence  of upper/lowercase character pairs
+   * @param  c  character to find
+   *
+   * @return  position of the character or -1
+   */
+  private static int indexOf(final char[][] sequence, final char c)
+  {
+    for (int i = 0; i < sequence.length; i++) {
+      if (sequence[i][0] == c || sequence[i][1] == c) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+
+  /**
+   * Returns whether the supplied character is at a position in a sequence.
+   *
+   * @param  sequence  of upper/lowercase character pairs
+   * @param  position  in the sequence
+   * @param  c  character to check
+   *
+   * @return  whether the character is at the position
+   */
+  private static boolean matchesAt(
+    final char[][] sequence,
+    final int position,
+    final char c)
+  {
+    return position >= 0 && position < sequence.length &&
+      (sequence[position][0] == c || sequence[position][1] == c);
+  }
+
+
+  /**
+   * Collects the character sequences of the supplied sequence rules.
+   *
+   * @param  rules  sequence rules
+   *
+   * @return  character sequences
+   */
+  private static char[][][] createSequences(
+    final AbstractSequenceRule... rules)
+  {
+    final List<char[][]> sequences = new ArrayList<>();
+    for (AbstractSequenceRule rule : rules) {
+      for (int i = 0; i < rule.getSequenceCount(); i++) {
+        sequences.add(rule.getSequence(i));
+      }
+    }
+    return sequences.toArray(new char[sequences.size()][][]);
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return
+      String.format(
+        "%s@%h::dictionary=%s,maxLength=%s,maxWordLength=%s",
+        getClass().getName(),
+        hashCode(),
+        dictionary,
+        maxLength,
+        maxWordLength);
+  }
+}
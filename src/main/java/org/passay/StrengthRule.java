@@ -0,0 +1,123 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+/**
+ * Rule for determining if a password is hard enough to guess. The password
+ * strength is estimated with a {@link StrengthEstimator} and the password is
+ * valid if its score is at least the minimum score.
+ *
+ * @author  Middleware Services
+ */
+public class StrengthRule implements CacheableRule
+{
+
+  /** Error code for insufficient password strength. */
+  public static final String ERROR_CODE = "INSUFFICIENT_STRENGTH";
+
+  /** Default minimum score. */
+  public static final int DEFAULT_MINIMUM_SCORE = 3;
+
+  /** Names of the rule result detail parameters. */
+  private static final String[] PARAMETER_NAMES = {"minimumScore", "score"};
+
+  /** Estimator of password strength. */
+  private final StrengthEstimator estimator;
+
+  /** Minimum score. */
+  private final int minimumScore;
+
+
+  /**
+   * Creates a new strength rule with the default minimum score.
+   *
+   * @param  se  strength estimator
+   */
+  public StrengthRule(final StrengthEstimator se)
+  {
+    this(se, DEFAULT_MINIMUM_SCORE);
+  }
+
+
+  /**
+   * Creates a new strength rule.
+   *
+   * @param  se  strength estimator
+   * @param  score  minimum score from {@link StrengthEstimate#MIN_SCORE} to
+   * {@link StrengthEstimate#MAX_SCORE}
+   */
+  public StrengthRule(final StrengthEstimator se, final int score)
+  {
+    if (se == null) {
+      throw new NullPointerException("Strength estimator cannot be null");
+    }
+    if (score < StrengthEstimate.MIN_SCORE ||
+        score > StrengthEstimate.MAX_SCORE) {
+      throw new IllegalArgumentException(
+        String.format(
+          "Minimum score must be between %s and %s",
+          StrengthEstimate.MIN_SCORE,
+          StrengthEstimate.MAX_SCORE));
+    }
+    estimator = se;
+    minimumScore = score;
+  }
+
+
+  /**
+   * Returns the strength estimator.
+   *
+   * @return  strength estimator
+   */
+  public StrengthEstimator getEstimator()
+  {
+    return estimator;
+  }
+
+
+  /**
+   * Returns the minimum score.
+   *
+   * @return  minimum score
+   */
+  public int getMinimumScore()
+  {
+    return minimumScore;
+  }
+
+
+  @Override
+  public boolean isCacheable()
+  {
+    return true;
+  }
+
+
+  @Override
+  public RuleResult validate(final PasswordData passwordData)
+  {
+    final int score = estimator.estimate(passwordData.getPassword()).getScore();
+    if (score < minimumScore) {
+      return
+        new RuleResult(
+          false,
+          new RuleResultDetail(
+            ERROR_CODE,
+            PARAMETER_NAMES,
+            new Object[] {minimumScore, score}));
+    }
+    return new RuleResult(true);
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return
+      String.format(
+        "%s@%h::estimator=%s,minimumScore=%s",
+        getClass().getName(),
+        hashCode(),
+        estimator,
+        minimumScore);
+  }
+}
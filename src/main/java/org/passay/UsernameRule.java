@@ -1,7 +1,6 @@
 /* See LICENSE for licensing and NOTICE for copyright. */
 package org.passay;
 
-import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -10,7 +9,7 @@ import java.util.Map;
  *
  * @author  Middleware Services
  */
-public class UsernameRule implements Rule
+public class UsernameRule implements CacheableRule
 {
 
   /** Error code for matching username. */
@@ -19,6 +18,9 @@ public class UsernameRule implements Rule
   /** Error code for matching reversed dictionary word. */
   public static final String ERROR_CODE_REVERSED = "ILLEGAL_USERNAME_REVERSED";
 
+  /** Names of the rule result detail parameters. */
+  private static final String[] PARAMETER_NAMES = {"username"};
+
   /** Whether to search for username backwards. */
   private boolean matchBackwards;
 
@@ -89,6 +91,13 @@ public class UsernameRule implements Rule
   }
 
 
+  @Override
+  public boolean isCacheable()
+  {
+    return true;
+  }
+
+
   @Override
   public RuleResult validate(final PasswordData passwordData)
   {
@@ -129,9 +138,7 @@ public class UsernameRule implements Rule
   protected Map<String, Object> createRuleResultDetailParameters(
     final String username)
   {
-    final Map<String, Object> m = new LinkedHashMap<>();
-    m.put("username", username);
-    return m;
+    return new ParameterMap(PARAMETER_NAMES, username);
   }
 
 
@@ -0,0 +1,31 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+/**
+ * Receives the outcome of an asynchronous validation by an {@link
+ * AsyncPasswordValidator}. Callbacks are invoked on the thread that completes
+ * the validation, which may be the calling thread or an executor thread, and
+ * should not block.
+ *
+ * @author  Middleware Services
+ */
+public interface ValidationCallback
+{
+
+
+  /**
+   * Invoked when all rules have been validated.
+   *
+   * @param  result  merged result of all rules
+   */
+  void completed(RuleResult result);
+
+
+  /**
+   * Invoked when a rule threw an exception, the executor rejected a rule or
+   * the validation was cancelled.
+   *
+   * @param  cause  of the failure
+   */
+  void failed(Throwable cause);
+}
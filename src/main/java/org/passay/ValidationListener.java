@@ -0,0 +1,25 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+/**
+ * Receives the outcome of each rule validated by a {@link PasswordValidator},
+ * e.g. to collect latency and rejection metrics. Rule results served from the
+ * cache of a {@link CachingPasswordValidator} are not reported. Listeners are
+ * invoked on the validating thread and must be safe for use by multiple
+ * threads.
+ *
+ * @author  Middleware Services
+ */
+public interface ValidationListener
+{
+
+
+  /**
+   * Invoked after a rule has validated a password.
+   *
+   * @param  rule  that validated the password
+   * @param  result  of the rule
+   * @param  nanos  duration of the validation in nanoseconds
+   */
+  void ruleValidated(Rule rule, RuleResult result, long nanos);
+}
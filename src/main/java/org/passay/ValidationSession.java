@@ -0,0 +1,823 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Validates a password that is edited one character at a time, such as a
+ * password typed into a strength meter. The session keeps per-rule state that
+ * is updated as characters are appended or deleted, so validating after each
+ * keystroke does not rescan the whole password for the following rules:
+ *
+ * <ul>
+ *   <li>{@link LengthRule}</li>
+ *   <li>{@link AlphabeticalCharacterRule}, {@link DigitCharacterRule}, {@link
+ *     LowercaseCharacterRule}, {@link SpecialCharacterRule} and {@link
+ *     UppercaseCharacterRule}</li>
+ *   <li>{@link CharacterCharacteristicsRule} composed of the above</li>
+ *   <li>{@link AlphabeticalSequenceRule}, {@link NumericalSequenceRule} and
+ *     {@link QwertySequenceRule}</li>
+ *   <li>{@link RepeatCharacterRegexRule}</li>
+ *   <li>{@link WhitespaceRule}</li>
+ * </ul>
+ *
+ * <p>Subclasses of these rules and all other rules are validated against the
+ * whole password each time {@link #validate()} is invoked. The result is the
+ * same as {@link PasswordValidator#validate(PasswordData)} for the current
+ * password. Rules must not be reconfigured while a session is in use, and a
+ * session is not safe for use by multiple threads.</p>
+ *
+ * @author  Middleware Services
+ */
+public class ValidationSession
+{
+
+  /** Initial capacity of the password buffer. */
+  private static final int INITIAL_CAPACITY = 32;
+
+  /** Rules of the validator. */
+  private final List<Rule> rules;
+
+  /** Tracker for each rule or null if the rule is validated in full. */
+  private final Tracker[] trackers;
+
+  /** Password data supplied to rules validated in full. */
+  private final PasswordData passwordData;
+
+  /** Current password. */
+  private final StringBuilder buffer = new StringBuilder(INITIAL_CAPACITY);
+
+  /** Current password as a string, null if it has changed. */
+  private String password = "";
+
+
+  /**
+   * Creates a new validation session with an empty password.
+   *
+   * @param  validator  whose rules are validated
+   */
+  public ValidationSession(final PasswordValidator validator)
+  {
+    this(validator, new PasswordData());
+  }
+
+
+  /**
+   * Creates a new validation session with an empty password. The username and
+   * references of the supplied password data are used by rules that require
+   * them; its password is replaced by the password of this session.
+   *
+   * @param  validator  whose rules are validated
+   * @param  data  username and references of the password
+   */
+  public ValidationSession(
+    final PasswordValidator validator,
+    final PasswordData data)
+  {
+    rules = new ArrayList<>(validator.getRules());
+    trackers = new Tracker[rules.size()];
+    for (int i = 0; i < trackers.length; i++) {
+      trackers[i] = newTracker(rules.get(i));
+    }
+    passwordData = data;
+  }
+
+
+  /**
+   * Returns the current password.
+   *
+   * @return  password
+   */
+  public String getPassword()
+  {
+    if (password == null) {
+      password = buffer.toString();
+    }
+    return password;
+  }
+
+
+  /**
+   * Returns the length of the current password.
+   *
+   * @return  number of characters in the password
+   */
+  public int length()
+  {
+    return buffer.length();
+  }
+
+
+  /**
+   * Appends a character to the password.
+   *
+   * @param  c  character to append
+   */
+  public void append(final char c)
+  {
+    final int position = buffer.length();
+    buffer.append(c);
+    password = null;
+    for (Tracker t : trackers) {
+      if (t != null) {
+        t.push(buffer, position);
+      }
+    }
+  }
+
+
+  /**
+   * Appends characters to the password.
+   *
+   * @param  s  characters to append
+   */
+  public void append(final CharSequence s)
+  {
+    for (int i = 0; i < s.length(); i++) {
+      append(s.charAt(i));
+    }
+  }
+
+
+  /**
+   * Deletes the last character of the password.
+   *
+   * @throws  IllegalStateException  if the password is empty
+   */
+  public void delete()
+  {
+    final int position = buffer.length() - 1;
+    if (position < 0) {
+      throw new IllegalStateException("Password is empty");
+    }
+    for (Tracker t : trackers) {
+      if (t != null) {
+        t.pop(buffer, position);
+      }
+    }
+    buffer.setLength(position);
+    password = null;
+  }
+
+
+  /**
+   * Deletes characters from the end of the password until it has the supplied
+   * length.
+   *
+   * @param  length  of the password
+   */
+  public void truncate(final int length)
+  {
+    if (length < 0 || length > buffer.length()) {
+      throw new IllegalArgumentException(
+        "Length must be between 0 and " + buffer.length());
+    }
+    while (buffer.length() > length) {
+      delete();
+    }
+  }
+
+
+  /**
+   * Changes the password to the supplied value. Only the characters after the
+   * prefix the two passwords have in common are deleted and appended, so an
+   * edit near the end of the password is cheap.
+   *
+   * @param  s  new password
+   */
+  public void setPassword(final CharSequence s)
+  {
+    final int max = Math.min(s.length(), buffer.length());
+    int common = 0;
+    while (common < max && s.charAt(common) == buffer.charAt(common)) {
+      common++;
+    }
+    truncate(common);
+    for (int i = common; i < s.length(); i++) {
+      append(s.charAt(i));
+    }
+  }
+
+
+  /**
+   * Validates the current password against the rules of the validator.
+   *
+   * @return  rule result
+   */
+  public RuleResult validate()
+  {
+    final RuleResult result = new RuleResult(true);
+    for (int i = 0; i < trackers.length; i++) {
+      final RuleResult rr;
+      if (trackers[i] != null) {
+        rr = trackers[i].validate(this);
+      } else {
+        rr = rules.get(i).validate(getPasswordData());
+      }
+      if (!rr.isValid()) {
+        result.setValid(false);
+        result.getDetails().addAll(rr.getDetails());
+      }
+    }
+    return result;
+  }
+
+
+  /**
+   * Returns the password data for rules that are validated in full.
+   *
+   * @return  password data containing the current password
+   */
+  private PasswordData getPasswordData()
+  {
+    final String p = getPassword();
+    if (!p.equals(passwordData.getPassword())) {
+      passwordData.setPassword(p);
+    }
+    return passwordData;
+  }
+
+
+  /**
+   * Returns whether the rule at the supplied index of the validator is
+   * validated incrementally.
+   *
+   * @param  index  of the rule
+   *
+   * @return  whether the rule has incremental state
+   */
+  public boolean isIncremental(final int index)
+  {
+    return trackers[index] != null;
+  }
+
+
+  /**
+   * Creates a tracker for the supplied rule.
+   *
+   * @param  rule  to track
+   *
+   * @return  tracker or null if the rule must be validated in full
+   */
+  private static Tracker newTracker(final Rule rule)
+  {
+    final Class<?> type = rule.getClass();
+    final Tracker tracker;
+    if (type == LengthRule.class) {
+      tracker = new LengthTracker((LengthRule) rule);
+    } else if (type == WhitespaceRule.class) {
+      tracker = new WhitespaceTracker();
+    } else if (type == CharacterCharacteristicsRule.class) {
+      tracker = newCharacteristicsTracker((CharacterCharacteristicsRule) rule);
+    } else if (
+      type == AlphabeticalSequenceRule.class ||
+        type == NumericalSequenceRule.class ||
+        type == QwertySequenceRule.class) {
+      tracker = new SequenceTracker((AbstractSequenceRule) rule);
+    } else if (type == RepeatCharacterRegexRule.class) {
+      tracker = new RepeatTracker((RepeatCharacterRegexRule) rule);
+    } else {
+      tracker = newCharacterTracker(rule);
+    }
+    return tracker;
+  }
+
+
+  /**
+   * Creates a tracker for a character rule.
+   *
+   * @param  rule  to track
+   *
+   * @return  tracker or null if the rule is not a built-in character rule
+   */
+  private static CharacterTracker newCharacterTracker(final Rule rule)
+  {
+    final Class<?> type = rule.getClass();
+    if (
+      type == AlphabeticalCharacterRule.class ||
+        type == DigitCharacterRule.class ||
+        type == LowercaseCharacterRule.class ||
+        type == SpecialCharacterRule.class ||
+        type == UppercaseCharacterRule.class) {
+      return new CharacterTracker((AbstractCharacterRule) rule);
+    }
+    return null;
+  }
+
+
+  /**
+   * Creates a tracker for a character characteristics rule.
+   *
+   * @param  rule  to track
+   *
+   * @return  tracker or null if any of its rules cannot be tracked
+   */
+  private static CharacteristicsTracker newCharacteristicsTracker(
+    final CharacterCharacteristicsRule rule)
+  {
+    final CharacterTracker[] children =
+      new CharacterTracker[rule.getRules().size()];
+    for (int i = 0; i < children.length; i++) {
+      children[i] = newCharacterTracker(rule.getRules().get(i));
+      if (children[i] == null) {
+        return null;
+      }
+    }
+    return new CharacteristicsTracker(rule, children);
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return
+      String.format(
+        "%s@%h::rules=%s,trackers=%s",
+        getClass().getName(),
+        hashCode(),
+        rules,
+        Arrays.toString(trackers));
+  }
+
+
+  /** Incremental state of a single rule. */
+  private abstract static class Tracker
+  {
+
+
+    /**
+     * Updates the state after a character has been appended.
+     *
+     * @param  password  containing the appended character
+     * @param  position  of the appended character
+     */
+    abstract void push(CharSequence password, int position);
+
+
+    /**
+     * Updates the state before the last character is deleted.
+     *
+     * @param  password  still containing the character to delete
+     * @param  position  of the character to delete
+     */
+    abstract void pop(CharSequence password, int position);
+
+
+    /**
+     * Returns the result of the rule for the current password.
+     *
+     * @param  session  holding the current password
+     *
+     * @return  rule result
+     */
+    abstract RuleResult validate(ValidationSession session);
+  }
+
+
+  /** Tracks a {@link LengthRule}, which only depends on the length. */
+  private static class LengthTracker extends Tracker
+  {
+
+    /** Rule to track. */
+    private final LengthRule rule;
+
+
+    /**
+     * Creates a new length tracker.
+     *
+     * @param  r  rule to track
+     */
+    LengthTracker(final LengthRule r)
+    {
+      rule = r;
+    }
+
+
+    @Override
+    void push(final CharSequence password, final int position) {}
+
+
+    @Override
+    void pop(final CharSequence password, final int position) {}
+
+
+    @Override
+    RuleResult validate(final ValidationSession session)
+    {
+      final int length = session.length();
+      if (length < rule.getMinimumLength()) {
+        return new RuleResult(
+          false,
+          new RuleResultDetail(
+            LengthRule.ERROR_CODE_MIN,
+            rule.createRuleResultDetailParameters()));
+      } else if (length > rule.getMaximumLength()) {
+        return new RuleResult(
+          false,
+          new RuleResultDetail(
+            LengthRule.ERROR_CODE_MAX,
+            rule.createRuleResultDetailParameters()));
+      }
+      return new RuleResult(true);
+    }
+  }
+
+
+  /** Tracks the characters of a password that belong to a set. */
+  private abstract static class CharacterSetTracker extends Tracker
+  {
+
+    /** Characters in the set. */
+    private final String characters;
+
+    /** Characters of the password in the set, in order. */
+    private final StringBuilder matches = new StringBuilder();
+
+
+    /**
+     * Creates a new character set tracker.
+     *
+     * @param  chars  characters in the set
+     */
+    CharacterSetTracker(final String chars)
+    {
+      characters = chars;
+    }
+
+
+    @Override
+    void push(final CharSequence password, final int position)
+    {
+      final char c = password.charAt(position);
+      if (characters.indexOf(c) != -1) {
+        matches.append(c);
+      }
+    }
+
+
+    @Override
+    void pop(final CharSequence password, final int position)
+    {
+      if (characters.indexOf(password.charAt(position)) != -1) {
+        matches.setLength(matches.length() - 1);
+      }
+    }
+
+
+    /**
+     * Returns the number of characters of the password in the set.
+     *
+     * @return  number of matching characters
+     */
+    int count()
+    {
+      return matches.length();
+    }
+
+
+    /**
+     * Returns the characters of the password in the set.
+     *
+     * @return  matching characters
+     */
+    String matchingCharacters()
+    {
+      return matches.toString();
+    }
+  }
+
+
+  /** Tracks a {@link WhitespaceRule}. */
+  private static class WhitespaceTracker extends CharacterSetTracker
+  {
+
+
+    /** Creates a new whitespace tracker. */
+    WhitespaceTracker()
+    {
+      super(WhitespaceRule.CHARS);
+    }
+
+
+    @Override
+    RuleResult validate(final ValidationSession session)
+    {
+      if (count() == 0) {
+        return new RuleResult(true);
+      }
+      return new RuleResult(
+        false,
+        new RuleResultDetail(WhitespaceRule.ERROR_CODE, null));
+    }
+  }
+
+
+  /** Tracks one of the built-in character rules. */
+  private static class CharacterTracker extends CharacterSetTracker
+  {
+
+    /** Rule to track. */
+    private final AbstractCharacterRule rule;
+
+
+    /**
+     * Creates a new character tracker.
+     *
+     * @param  r  rule to track
+     */
+    CharacterTracker(final AbstractCharacterRule r)
+    {
+      super(r.getValidCharacters());
+      rule = r;
+    }
+
+
+    /**
+     * Returns whether the password contains enough characters.
+     *
+     * @return  whether the rule is satisfied
+     */
+    boolean isValid()
+    {
+      return count() >= rule.getNumberOfCharacters();
+    }
+
+
+    @Override
+    RuleResult validate(final ValidationSession session)
+    {
+      if (isValid()) {
+        return new RuleResult(true);
+      }
+      return new RuleResult(
+        false,
+        new RuleResultDetail(
+          rule.getErrorCode(),
+          rule.createRuleResultDetailParameters(
+            session.getPassword(),
+            matchingCharacters())));
+    }
+  }
+
+
+  /** Tracks a {@link CharacterCharacteristicsRule}. */
+  private static class CharacteristicsTracker extends Tracker
+  {
+
+    /** Rule to track. */
+    private final CharacterCharacteristicsRule rule;
+
+    /** Trackers of the character rules. */
+    private final CharacterTracker[] children;
+
+
+    /**
+     * Creates a new characteristics tracker.
+     *
+     * @param  r  rule to track
+     * @param  c  trackers of the character rules
+     */
+    CharacteristicsTracker(
+      final CharacterCharacteristicsRule r,
+      final CharacterTracker[] c)
+    {
+      rule = r;
+      children = c;
+    }
+
+
+    @Override
+    void push(final CharSequence password, final int position)
+    {
+      for (CharacterTracker t : children) {
+        t.push(password, position);
+      }
+    }
+
+
+    @Override
+    void pop(final CharSequence password, final int position)
+    {
+      for (CharacterTracker t : children) {
+        t.pop(password, position);
+      }
+    }
+
+
+    @Override
+    RuleResult validate(final ValidationSession session)
+    {
+      if (rule.getNumberOfCharacteristics() > children.length) {
+        throw new IllegalStateException(
+          "Number of characteristics must be <= to the number of rules");
+      }
+
+      int successCount = 0;
+      final RuleResult result = new RuleResult(true);
+      for (CharacterTracker t : children) {
+        if (t.isValid()) {
+          successCount++;
+        } else if (rule.getReportRuleFailures()) {
+          result.getDetails().addAll(t.validate(session).getDetails());
+        }
+      }
+      if (successCount < rule.getNumberOfCharacteristics()) {
+        result.setValid(false);
+        result.getDetails().add(
+          new RuleResultDetail(
+            CharacterCharacteristicsRule.ERROR_CODE,
+            rule.createRuleResultDetailParameters(successCount)));
+      }
+      return result;
+    }
+  }
+
+
+  /**
+   * Tracks one of the built-in sequence rules. Each appended character is
+   * checked as the end of a sequence, so at most one window of the sequence
+   * length is searched per keystroke.
+   */
+  private static class SequenceTracker extends Tracker
+  {
+
+    /** Rule to track. */
+    private final AbstractSequenceRule rule;
+
+    /** Start positions of the matches for each character sequence. */
+    private final int[][] starts;
+
+    /** Matched strings for each character sequence. */
+    private final List<List<String>> matches;
+
+    /** Number of matches for each character sequence. */
+    private final int[] counts;
+
+    /** Matches found at a single position. */
+    private final String[] found = new String[2];
+
+
+    /**
+     * Creates a new sequence tracker.
+     *
+     * @param  r  rule to track
+     */
+    SequenceTracker(final AbstractSequenceRule r)
+    {
+      rule = r;
+      final int n = r.getSequenceCount();
+      starts = new int[n][INITIAL_CAPACITY];
+      counts = new int[n];
+      matches = new ArrayList<>(n);
+      for (int i = 0; i < n; i++) {
+        matches.add(new ArrayList<String>());
+      }
+    }
+
+
+    @Override
+    void push(final CharSequence password, final int position)
+    {
+      final int start = position - rule.sequenceLength + 1;
+      if (start < 0) {
+        return;
+      }
+      for (int i = 0; i < counts.length; i++) {
+        final int count = rule.findSequences(i, password, start, found);
+        for (int j = 0; j < count; j++) {
+          if (counts[i] == starts[i].length) {
+            starts[i] = Arrays.copyOf(starts[i], counts[i] * 2);
+          }
+          starts[i][counts[i]++] = start;
+          matches.get(i).add(found[j]);
+        }
+      }
+    }
+
+
+    @Override
+    void pop(final CharSequence password, final int position)
+    {
+      final int start = position - rule.sequenceLength + 1;
+      for (int i = 0; i < counts.length; i++) {
+        final List<String> list = matches.get(i);
+        while (counts[i] > 0 && starts[i][counts[i] - 1] == start) {
+          counts[i]--;
+          list.remove(list.size() - 1);
+        }
+      }
+    }
+
+
+    @Override
+    RuleResult validate(final ValidationSession session)
+    {
+      final RuleResult result = new RuleResult(true);
+      for (List<String> list : matches) {
+        for (String match : list) {
+          rule.recordFailure(result, match);
+        }
+      }
+      return result;
+    }
+  }
+
+
+  /**
+   * Tracks a {@link RepeatCharacterRegexRule} by keeping the length of the run
+   * of equal characters that ends at each position. The rule reports the
+   * first run whose length reaches the sequence length. Passwords containing
+   * supplementary characters are validated by the rule, since its pattern
+   * matches code points rather than characters.
+   */
+  private static class RepeatTracker extends Tracker
+  {
+
+    /** Characters below this value are never matched by the rule. */
+    private static final char MIN_CHAR = 0x20;
+
+    /** Rule to track. */
+    private final RepeatCharacterRegexRule rule;
+
+    /** Length of the run of equal characters ending at each position. */
+    private int[] runs = new int[INITIAL_CAPACITY];
+
+    /** Position of the first match or -1 if there is no match. */
+    private int matchStart = -1;
+
+    /** Number of surrogate characters in the password. */
+    private int surrogates;
+
+
+    /**
+     * Creates a new repeat tracker.
+     *
+     * @param  r  rule to track
+     */
+    RepeatTracker(final RepeatCharacterRegexRule r)
+    {
+      rule = r;
+    }
+
+
+    @Override
+    void push(final CharSequence password, final int position)
+    {
+      if (position == runs.length) {
+        runs = Arrays.copyOf(runs, position * 2);
+      }
+
+      final char c = password.charAt(position);
+      if (Character.isSurrogate(c)) {
+        surrogates++;
+      }
+      if (position > 0 && password.charAt(position - 1) == c) {
+        runs[position] = runs[position - 1] + 1;
+      } else {
+        runs[position] = 1;
+      }
+      if (
+        matchStart < 0 &&
+          c >= MIN_CHAR &&
+          runs[position] == rule.getSequenceLength()) {
+        matchStart = position - runs[position] + 1;
+      }
+    }
+
+
+    @Override
+    void pop(final CharSequence password, final int position)
+    {
+      if (Character.isSurrogate(password.charAt(position))) {
+        surrogates--;
+      }
+      if (matchStart >= 0 &&
+          position == matchStart + rule.getSequenceLength() - 1) {
+        matchStart = -1;
+      }
+    }
+
+
+    @Override
+    RuleResult validate(final ValidationSession session)
+    {
+      if (surrogates > 0) {
+        return rule.validate(session.getPasswordData());
+      }
+      if (matchStart < 0) {
+        return new RuleResult(true);
+      }
+
+      final String match = session.getPassword().substring(
+        matchStart,
+        matchStart + rule.getSequenceLength());
+      return new RuleResult(
+        false,
+        new RuleResultDetail(
+          IllegalRegexRule.ERROR_CODE,
+          rule.createRuleResultDetailParameters(match)));
+    }
+  }
+}
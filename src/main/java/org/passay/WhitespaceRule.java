@@ -10,7 +10,7 @@ import java.nio.charset.StandardCharsets;
  *
  * @author  Middleware Services
  */
-public class WhitespaceRule implements Rule
+public class WhitespaceRule implements CacheableRule
 {
 
   /** Characters: TAB,LF,VT,FF,CR,Space. */
@@ -26,6 +26,13 @@ public class WhitespaceRule implements Rule
   public static final String ERROR_CODE = "ILLEGAL_WHITESPACE";
 
 
+  @Override
+  public boolean isCacheable()
+  {
+    return true;
+  }
+
+
   @Override
   public RuleResult validate(final PasswordData passwordData)
   {
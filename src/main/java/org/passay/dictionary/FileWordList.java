@@ -4,6 +4,7 @@ package org.passay.dictionary;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Provides an implementation of a {@link WordList} that is backed by a file.
@@ -21,6 +22,12 @@ public class FileWordList extends AbstractWordList
   /** 100 percent. */
   private static final int HUNDRED_PERCENT = 100;
 
+  /** Number of bytes read from the file at a time. */
+  private static final int READ_BUFFER_SIZE = 256;
+
+  /** Mask of the bits in a byte. */
+  private static final int BYTE_MASK = 0xFF;
+
   /** file containing words. */
   protected RandomAccessFile file;
 
@@ -33,6 +40,9 @@ public class FileWordList extends AbstractWordList
   protected TreeMap<Integer, Long> cache = new TreeMap<>();
   // CheckStyle:IllegalType ON
 
+  /** Lock held while reading words from the file. */
+  private final ReentrantLock lock = new ReentrantLock();
+
 
   /**
    * Creates a new case-sensitive word list from the supplied file. The input
@@ -104,7 +114,8 @@ public class FileWordList extends AbstractWordList
     } else {
       comparator = WordLists.CASE_INSENSITIVE_COMPARATOR;
     }
-    synchronized (file) {
+    lock.lock();
+    try {
       file.seek(0L);
 
       String a;
@@ -118,6 +129,8 @@ public class FileWordList extends AbstractWordList
         size++;
       }
       intializeCache(cachePercent * size / HUNDRED_PERCENT);
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -183,10 +196,13 @@ public class FileWordList extends AbstractWordList
   public void close()
     throws IOException
   {
-    synchronized (file) {
+    lock.lock();
+    try {
       file.close();
+      cache = null;
+    } finally {
+      lock.unlock();
     }
-    cache = null;
   }
 
 
@@ -195,6 +211,15 @@ public class FileWordList extends AbstractWordList
    * Returns null if the index cannot be read. This method leverages the cache
    * to seek to the closest position of the supplied index.
    *
+   * <p>The file and the cache are read under a {@link ReentrantLock} rather
+   * than the monitor of the file, so a thread waiting for the file does not
+   * pin its carrier when it is a virtual thread. Reads go through the {@link
+   * RandomAccessFile} rather than its channel, since interrupting a thread
+   * that reads from the channel closes the channel, and the file, for every
+   * thread. Lines are decoded like {@link RandomAccessFile#readLine()}, i.e.
+   * each byte is a character and a line ends with a line feed, a carriage
+   * return or both.</p>
+   *
    * @param  index  to read word at
    *
    * @return  word at the supplied index
@@ -204,27 +229,44 @@ public class FileWordList extends AbstractWordList
    */
   private String readFile(final int index)
   {
+    final byte[] buffer = new byte[READ_BUFFER_SIZE];
+    final StringBuilder word = new StringBuilder();
+    int i = 0;
+    boolean skipLineFeed = false;
+    boolean found = false;
+    lock.lock();
     try {
-      synchronized (file) {
-        int i = 0;
-        if (!cache.isEmpty() && cache.firstKey() <= index) {
-          i = cache.floorKey(index);
-        }
-
-        final long pos = i > 0 ? cache.get(i) : 0L;
-        file.seek(pos);
+      // the cache is null once the list is closed, the file then fails to seek
+      long pos = 0L;
+      if (cache != null && !cache.isEmpty() && cache.firstKey() <= index) {
+        i = cache.floorKey(index);
+        pos = cache.get(i);
+      }
+      file.seek(pos);
 
-        String s;
-        while ((s = file.readLine()) != null) {
-          if (i == index) {
-            return s;
+      int n;
+      while (!found && (n = file.read(buffer)) > 0) {
+        for (int j = 0; j < n && !found; j++) {
+          final char c = (char) (buffer[j] & BYTE_MASK);
+          if (c == '\n' && skipLineFeed) {
+            skipLineFeed = false;
+          } else if (c == '\n' || c == '\r') {
+            skipLineFeed = c == '\r';
+            found = i == index;
+            i++;
+          } else {
+            skipLineFeed = false;
+            if (i == index) {
+              word.append(c);
+            }
           }
-          i++;
         }
       }
     } catch (IOException e) {
       throw new IllegalStateException("Error reading file", e);
+    } finally {
+      lock.unlock();
     }
-    return null;
+    return found || (i == index && word.length() > 0) ? word.toString() : null;
   }
 }
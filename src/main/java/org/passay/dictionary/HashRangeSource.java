@@ -0,0 +1,30 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.dictionary;
+
+/**
+ * Source of password hashes that is queried by hash range in the manner of the
+ * k-anonymity model: the first {@link #PREFIX_LENGTH} hex characters of a hash
+ * select a range of candidate hashes and the remaining characters are searched
+ * for within that range. Implementations never need to see a cleartext
+ * password.
+ *
+ * @author  Middleware Services
+ */
+public interface HashRangeSource
+{
+
+  /** Number of hex characters in a hash range prefix, value is {@value}. */
+  int PREFIX_LENGTH = 5;
+
+
+  /**
+   * Returns whether the hash formed by the supplied prefix and suffix exists in
+   * this source.
+   *
+   * @param  prefix  first {@link #PREFIX_LENGTH} hex characters of the hash
+   * @param  suffix  remaining hex characters of the hash
+   *
+   * @return  whether the hash was found
+   */
+  boolean search(String prefix, String suffix);
+}
@@ -0,0 +1,140 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.dictionary;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * In-process stand-in for a remote hash range API. Hashes are grouped by
+ * prefix and each range is answered exactly as a range API would, with the
+ * sorted list of suffixes sharing that prefix. Since every hash is held on the
+ * heap this implementation is intended for small hash sets and testing; see
+ * {@link MappedHashRangeSource} for large hash sets.
+ *
+ * @author  Middleware Services
+ */
+public class LocalHashRangeSource implements HashRangeSource
+{
+
+  /** Number of hex characters in a SHA-1 hash. */
+  static final int HASH_LENGTH = 40;
+
+  /** Radix of hex encoded hashes. */
+  static final int HEX_RADIX = 16;
+
+  /** Empty range. */
+  private static final String[] EMPTY_RANGE = new String[0];
+
+  /** Maps hash prefix to sorted hash suffixes. */
+  private final Map<String, String[]> ranges = new HashMap<>();
+
+
+  /**
+   * Creates a new local hash range source from the supplied hex encoded
+   * hashes.
+   *
+   * @param  hashes  hex encoded SHA-1 hashes
+   */
+  public LocalHashRangeSource(final List<String> hashes)
+  {
+    final Map<String, Set<String>> m = new HashMap<>();
+    for (String s : hashes) {
+      final String hash = readHash(s);
+      final String prefix = hash.substring(0, PREFIX_LENGTH);
+      Set<String> suffixes = m.get(prefix);
+      if (suffixes == null) {
+        suffixes = new TreeSet<>();
+        m.put(prefix, suffixes);
+      }
+      suffixes.add(hash.substring(PREFIX_LENGTH));
+    }
+    for (Map.Entry<String, Set<String>> e : m.entrySet()) {
+      ranges.put(
+        e.getKey(),
+        e.getValue().toArray(new String[e.getValue().size()]));
+    }
+  }
+
+
+  /**
+   * Returns the hash suffixes that belong to the supplied prefix.
+   *
+   * @param  prefix  first {@link #PREFIX_LENGTH} hex characters of a hash
+   *
+   * @return  sorted hash suffixes or an empty array if the range is empty
+   */
+  public String[] getRange(final String prefix)
+  {
+    final String[] range = ranges.get(prefix.toUpperCase());
+    return range != null ? range.clone() : EMPTY_RANGE;
+  }
+
+
+  @Override
+  public boolean search(final String prefix, final String suffix)
+  {
+    final String[] range = ranges.get(prefix.toUpperCase());
+    return
+      range != null && Arrays.binarySearch(range, suffix.toUpperCase()) >= 0;
+  }
+
+
+  /**
+   * Creates a local hash range source by reading hashes from the supplied
+   * reader, one per line. Lines may be in the form HASH or HASH:COUNT.
+   *
+   * @param  reader  to read hashes from
+   *
+   * @return  local hash range source
+   *
+   * @throws  IOException  if an error occurs reading from the reader
+   */
+  public static LocalHashRangeSource createFromReader(final Reader reader)
+    throws IOException
+  {
+    final List<String> hashes = new ArrayList<>();
+    try (BufferedReader br = new BufferedReader(reader)) {
+      String line;
+      while ((line = br.readLine()) != null) {
+        if (!"".equals(line)) {
+          hashes.add(line);
+        }
+      }
+    }
+    return new LocalHashRangeSource(hashes);
+  }
+
+
+  /**
+   * Reads the hex encoded hash from a line in the form HASH or HASH:COUNT.
+   *
+   * @param  line  to read
+   *
+   * @return  upper case hex encoded hash
+   *
+   * @throws  IllegalArgumentException  if the line does not contain a SHA-1
+   * hash
+   */
+  static String readHash(final String line)
+  {
+    final int colon = line.indexOf(':');
+    final String hash = (colon < 0 ? line : line.substring(0, colon)).trim();
+    if (hash.length() != HASH_LENGTH) {
+      throw new IllegalArgumentException("Invalid SHA-1 hash: " + hash);
+    }
+    for (int i = 0; i < HASH_LENGTH; i++) {
+      if (Character.digit(hash.charAt(i), HEX_RADIX) < 0) {
+        throw new IllegalArgumentException("Invalid SHA-1 hash: " + hash);
+      }
+    }
+    return hash.toUpperCase();
+  }
+}
@@ -0,0 +1,265 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.dictionary;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+
+/**
+ * Provides a {@link HashRangeSource} backed by a memory mapped file of sorted
+ * SHA-1 hashes. The file is partitioned by hash prefix: a header holds the
+ * starting record of each of the 2<sup>20</sup> prefix ranges and is followed
+ * by fixed width hash records in ascending order. A search binary searches the
+ * records of a single range, so lookups are O(log n) in the size of the range
+ * and no part of the hash set is held on the java heap. Use {@link
+ * #createFromReader(Reader, File)} to build the file from a sorted list of hex
+ * encoded hashes.
+ *
+ * <p>This implementation is safe for concurrent use by multiple threads.</p>
+ *
+ * @author  Middleware Services
+ */
+public class MappedHashRangeSource implements HashRangeSource
+{
+
+  /** Number of hash ranges, one per 20 bit prefix. */
+  private static final int RANGE_COUNT = 1 << 20;
+
+  /** Size of the file header in bytes. */
+  private static final int HEADER_SIZE = (RANGE_COUNT + 1) * 4;
+
+  /** Number of bytes in a SHA-1 hash. */
+  private static final int HASH_SIZE = 20;
+
+  /** Number of leading hash bytes that belong entirely to the prefix. */
+  private static final int PREFIX_BYTES = 2;
+
+  /** Size of a hash record in bytes. */
+  private static final int RECORD_SIZE = HASH_SIZE - PREFIX_BYTES;
+
+  /** Number of records in each mapped segment of the file. */
+  private static final int SEGMENT_RECORDS = (1 << 30) / RECORD_SIZE;
+
+  /** Bits to shift the first hash byte to form a range index. */
+  private static final int FIRST_BYTE_SHIFT = 12;
+
+  /** Bits to shift the second hash byte to form a range index. */
+  private static final int SECOND_BYTE_SHIFT = 4;
+
+  /** Mask for a single byte. */
+  private static final int BYTE_MASK = 0xFF;
+
+  /** Starting record of each hash range. */
+  private final IntBuffer header;
+
+  /** Mapped segments of hash records. */
+  private final ByteBuffer[] segments;
+
+  /** Total number of hash records. */
+  private final int size;
+
+
+  /**
+   * Creates a new mapped hash range source from the supplied file. The file
+   * must have been created with {@link #createFromReader(Reader, File)}.
+   *
+   * @param  file  containing partitioned hash records
+   *
+   * @throws  IOException  if an error occurs mapping the file
+   */
+  public MappedHashRangeSource(final File file)
+    throws IOException
+  {
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+      final FileChannel channel = raf.getChannel();
+      if (channel.size() < HEADER_SIZE) {
+        throw new IllegalArgumentException("File is not a hash range file");
+      }
+      header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE)
+        .asIntBuffer();
+      size = header.get(RANGE_COUNT);
+      if (channel.size() != HEADER_SIZE + (long) size * RECORD_SIZE) {
+        throw new IllegalArgumentException(
+          "File size does not match the number of hash records");
+      }
+      segments = new ByteBuffer[(size + SEGMENT_RECORDS - 1) / SEGMENT_RECORDS];
+      for (int i = 0; i < segments.length; i++) {
+        final long first = (long) i * SEGMENT_RECORDS;
+        final long count = Math.min(SEGMENT_RECORDS, size - first);
+        segments[i] = channel.map(
+          FileChannel.MapMode.READ_ONLY,
+          HEADER_SIZE + first * RECORD_SIZE,
+          count * RECORD_SIZE);
+      }
+    }
+  }
+
+
+  /**
+   * Returns the number of hashes in this source.
+   *
+   * @return  number of hashes
+   */
+  public int size()
+  {
+    return size;
+  }
+
+
+  @Override
+  public boolean search(final String prefix, final String suffix)
+  {
+    final byte[] hash = decode(LocalHashRangeSource.readHash(prefix + suffix));
+    final int range = (hash[0] & BYTE_MASK) << FIRST_BYTE_SHIFT |
+      (hash[1] & BYTE_MASK) << SECOND_BYTE_SHIFT |
+      (hash[2] & BYTE_MASK) >>> SECOND_BYTE_SHIFT;
+    int low = header.get(range);
+    int high = header.get(range + 1) - 1;
+    while (low <= high) {
+      final int mid = (low + high) >>> 1;
+      final int cmp = compareRecord(mid, hash);
+      if (cmp < 0) {
+        low = mid + 1;
+      } else if (cmp > 0) {
+        high = mid - 1;
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+
+
+  /**
+   * Compares the record at the supplied index with the supplied hash.
+   *
+   * @param  index  of the record
+   * @param  hash  to compare
+   *
+   * @return  negative, zero or positive as the record is less than, equal to
+   * or greater than the hash
+   */
+  private int compareRecord(final int index, final byte[] hash)
+  {
+    final ByteBuffer segment = segments[index / SEGMENT_RECORDS];
+    final int offset = (index % SEGMENT_RECORDS) * RECORD_SIZE;
+    for (int i = 0; i < RECORD_SIZE; i++) {
+      final int a = segment.get(offset + i) & BYTE_MASK;
+      final int b = hash[PREFIX_BYTES + i] & BYTE_MASK;
+      if (a != b) {
+        return a - b;
+      }
+    }
+    return 0;
+  }
+
+
+  /**
+   * Writes a hash range file from the hashes read from the supplied reader and
+   * returns a source backed by that file. Hashes are read one per line in the
+   * form HASH or HASH:COUNT and must be sorted in ascending order. Duplicate
+   * hashes are written once.
+   *
+   * @param  reader  to read hex encoded SHA-1 hashes from
+   * @param  file  to write the hash range file to
+   *
+   * @return  mapped hash range source backed by the file
+   *
+   * @throws  IOException  if an error occurs reading hashes or writing the
+   * file
+   * @throws  IllegalArgumentException  if the hashes are not sorted
+   */
+  public static MappedHashRangeSource createFromReader(
+    final Reader reader,
+    final File file)
+    throws IOException
+  {
+    final int[] counts = new int[RANGE_COUNT];
+    try (
+      BufferedReader br = new BufferedReader(reader);
+      RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      raf.setLength(0);
+      final FileChannel channel = raf.getChannel();
+      channel.position(HEADER_SIZE);
+
+      final OutputStream out = new BufferedOutputStream(
+        Channels.newOutputStream(channel));
+      String previous = null;
+      String line;
+      while ((line = br.readLine()) != null) {
+        if ("".equals(line)) {
+          continue;
+        }
+        final String hash = LocalHashRangeSource.readHash(line);
+        if (previous != null) {
+          final int cmp = hash.compareTo(previous);
+          if (cmp < 0) {
+            throw new IllegalArgumentException(
+              "Hashes are not sorted in ascending order");
+          } else if (cmp == 0) {
+            continue;
+          }
+        }
+        final byte[] bytes = decode(hash);
+        counts[Integer.parseInt(
+          hash.substring(0, PREFIX_LENGTH),
+          LocalHashRangeSource.HEX_RADIX)]++;
+        out.write(bytes, PREFIX_BYTES, RECORD_SIZE);
+        previous = hash;
+      }
+      out.flush();
+
+      final ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+      int start = 0;
+      for (int count : counts) {
+        buffer.putInt(start);
+        start += count;
+      }
+      buffer.putInt(start);
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer, buffer.position());
+      }
+    }
+    return new MappedHashRangeSource(file);
+  }
+
+
+  /**
+   * Decodes the supplied hex encoded hash.
+   *
+   * @param  hex  upper case hex encoded hash
+   *
+   * @return  hash bytes
+   */
+  private static byte[] decode(final String hex)
+  {
+    final byte[] bytes = new byte[hex.length() / 2];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = (byte) Integer.parseInt(
+        hex.substring(i * 2, i * 2 + 2),
+        LocalHashRangeSource.HEX_RADIX);
+    }
+    return bytes;
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return
+      String.format(
+        "%s@%h::size=%s",
+        getClass().getName(),
+        hashCode(),
+        size);
+  }
+}
@@ -0,0 +1,767 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.dictionary.sort;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import org.passay.dictionary.WordLists;
+
+/**
+ * Sorts word lists that are too large to be held in memory. Words are read
+ * from the supplied readers in chunks of a fixed number of words, each chunk
+ * is sorted with an {@link ArraySorter} and written to a temporary file, and
+ * the temporary files are merged into the output. When there are more
+ * temporary files than can be merged at once they are merged in several
+ * passes. Memory use is bounded by the chunk size whatever the size of the
+ * input.
+ *
+ * <p>Like {@link WordLists#createFromReader(Reader[], boolean, ArraySorter)},
+ * every line of the input is a word and empty lines are skipped. Words that
+ * compare equal under the case sensitive or insensitive comparator of {@link
+ * WordLists} are written once, keeping the first occurrence in the input if
+ * the sorter is stable, as {@link ParallelMergeSort} and {@link ArraysSort}
+ * are. The output has one word per line, so a file written with the
+ * ISO-8859-1 charset from readers of the same charset can be read by a {@link
+ * org.passay.dictionary.FileWordList} with the same case sensitivity, which
+ * reads each byte as a character. Temporary files store each character as its
+ * two bytes rather than in a charset, so words are merged unchanged even if
+ * they contain unpaired surrogates.</p>
+ *
+ * @author  Middleware Services
+ */
+public class ExternalMergeSort
+{
+
+  /** Default number of words sorted in memory at a time. */
+  public static final int DEFAULT_CHUNK_SIZE = 1000000;
+
+  /** Default number of temporary files merged at a time. */
+  public static final int DEFAULT_MERGE_WIDTH = 64;
+
+  /** Size of the buffer of each temporary file reader and writer. */
+  private static final int BUFFER_SIZE = 65536;
+
+  /** Prefix of temporary file names. */
+  private static final String TEMP_FILE_PREFIX = "passay-sort";
+
+  /** Number of bits in a byte. */
+  private static final int BYTE_BITS = 8;
+
+  /** Mask of the bits in a byte. */
+  private static final int BYTE_MASK = 0xFF;
+
+  /** Sorter for each chunk. */
+  private final ArraySorter sorter;
+
+  /** Number of words sorted in memory at a time. */
+  private final int chunkSize;
+
+  /** Number of temporary files merged at a time. */
+  private final int mergeWidth;
+
+  /** Directory for temporary files or null for the default. */
+  private final File tempDirectory;
+
+
+  /**
+   * Creates a new external merge sort that sorts chunks of the default size
+   * with a {@link ParallelMergeSort}.
+   */
+  public ExternalMergeSort()
+  {
+    this(DEFAULT_CHUNK_SIZE);
+  }
+
+
+  /**
+   * Creates a new external merge sort that sorts chunks with a {@link
+   * ParallelMergeSort}.
+   *
+   * @param  size  number of words sorted in memory at a time
+   */
+  public ExternalMergeSort(final int size)
+  {
+    this(new ParallelMergeSort(), size, DEFAULT_MERGE_WIDTH, null);
+  }
+
+
+  /**
+   * Creates a new external merge sort.
+   *
+   * @param  s  sorter for each chunk
+   * @param  size  number of words sorted in memory at a time
+   * @param  width  number of temporary files merged at a time
+   * @param  dir  directory for temporary files or null for the default
+   */
+  public ExternalMergeSort(
+    final ArraySorter s,
+    final int size,
+    final int width,
+    final File dir)
+  {
+    if (s == null) {
+      throw new NullPointerException("Sorter cannot be null");
+    }
+    if (size < 1) {
+      throw new IllegalArgumentException("chunk size must be >= 1");
+    }
+    if (width < 2) {
+      throw new IllegalArgumentException("merge width must be >= 2");
+    }
+    sorter = s;
+    chunkSize = size;
+    mergeWidth = width;
+    tempDirectory = dir;
+  }
+
+
+  /**
+   * Returns the number of words sorted in memory at a time.
+   *
+   * @return  chunk size
+   */
+  public int getChunkSize()
+  {
+    return chunkSize;
+  }
+
+
+  /**
+   * Returns the number of temporary files merged at a time.
+   *
+   * @return  merge width
+   */
+  public int getMergeWidth()
+  {
+    return mergeWidth;
+  }
+
+
+  /**
+   * Sorts the words of the supplied readers into the supplied writer. The
+   * readers are closed, the writer is flushed but left open. Temporary files
+   * are deleted before this method returns.
+   *
+   * @param  readers  array of readers
+   * @param  writer  to write sorted words to
+   * @param  caseSensitive  set to true to sort and remove duplicates case
+   * sensitively, false otherwise
+   *
+   * @return  number of words written
+   *
+   * @throws  IOException  if an error occurs reading, writing or using
+   * temporary files
+   */
+  public long sort(
+    final Reader[] readers,
+    final Writer writer,
+    final boolean caseSensitive)
+    throws IOException
+  {
+    final Comparator<String> comparator = caseSensitive ?
+      WordLists.CASE_SENSITIVE_COMPARATOR :
+      WordLists.CASE_INSENSITIVE_COMPARATOR;
+    final List<File> tempFiles = new ArrayList<>();
+    try {
+      final String[] chunk = new String[chunkSize];
+      int n = 0;
+      // every reader is closed even if reading or closing another one fails
+      try (Closer closer = new Closer()) {
+        for (Reader r : readers) {
+          closer.add(r);
+        }
+        for (Reader r : readers) {
+          final BufferedReader br = new BufferedReader(r);
+          String word;
+          while ((word = br.readLine()) != null) {
+            if (!"".equals(word)) {
+              chunk[n++] = word;
+              if (n == chunkSize) {
+                spill(chunk, comparator, tempFiles);
+                n = 0;
+              }
+            }
+          }
+        }
+      }
+
+      long count;
+      if (tempFiles.isEmpty()) {
+        final String[] words = Arrays.copyOf(chunk, n);
+        sorter.sort(words, comparator);
+        count = write(words, comparator, writer);
+      } else {
+        if (n > 0) {
+          spill(Arrays.copyOf(chunk, n), comparator, tempFiles);
+        }
+        count = merge(tempFiles, comparator, writer);
+      }
+      writer.flush();
+      return count;
+    } finally {
+      for (File f : tempFiles) {
+        f.delete();
+      }
+    }
+  }
+
+
+  /**
+   * Sorts the supplied words and writes them to a new temporary file.
+   *
+   * @param  words  to sort
+   * @param  comparator  to sort with
+   * @param  tempFiles  to add the temporary file to
+   *
+   * @throws  IOException  if an error occurs writing the temporary file
+   */
+  private void spill(
+    final String[] words,
+    final Comparator<String> comparator,
+    final List<File> tempFiles)
+    throws IOException
+  {
+    sorter.sort(words, comparator);
+    try (Writer w = createWriter(createTempFile(tempFiles))) {
+      write(words, comparator, w);
+    }
+  }
+
+
+  /**
+   * Merges the supplied temporary files into the supplied writer. While there
+   * are too many files to merge at once, consecutive groups of files are
+   * merged into new temporary files, which keeps the files in input order.
+   * Merged files are deleted and removed from the list as soon as they have
+   * been read.
+   *
+   * @param  tempFiles  sorted temporary files in input order
+   * @param  comparator  the files are sorted by
+   * @param  writer  to write sorted words to
+   *
+   * @return  number of words written
+   *
+   * @throws  IOException  if an error occurs reading or writing
+   */
+  private long merge(
+    final List<File> tempFiles,
+    final Comparator<String> comparator,
+    final Writer writer)
+    throws IOException
+  {
+    List<File> runs = new ArrayList<>(tempFiles);
+    while (runs.size() > mergeWidth) {
+      final List<File> merged = new ArrayList<>();
+      for (int i = 0; i < runs.size(); i += mergeWidth) {
+        final List<File> group = runs.subList(
+          i,
+          Math.min(i + mergeWidth, runs.size()));
+        if (group.size() == 1) {
+          merged.add(group.get(0));
+        } else {
+          final File f = createTempFile(tempFiles);
+          try (Writer w = createWriter(f)) {
+            mergeFiles(group, comparator, w);
+          }
+          merged.add(f);
+          for (File g : group) {
+            g.delete();
+            tempFiles.remove(g);
+          }
+        }
+      }
+      runs = merged;
+    }
+    return mergeFiles(runs, comparator, writer);
+  }
+
+
+  /**
+   * Performs a k-way merge of the supplied sorted files into the supplied
+   * writer, writing words that compare equal once. Equal words are taken
+   * from the files in list order.
+   *
+   * @param  files  sorted files to merge
+   * @param  comparator  the files are sorted by
+   * @param  writer  to write merged words to
+   *
+   * @return  number of words written
+   *
+   * @throws  IOException  if an error occurs reading or writing
+   */
+  private static long mergeFiles(
+    final List<File> files,
+    final Comparator<String> comparator,
+    final Writer writer)
+    throws IOException
+  {
+    final PriorityQueue<Run> queue = new PriorityQueue<>(
+      files.size(),
+      new Comparator<Run>() {
+        @Override
+        public int compare(final Run a, final Run b)
+        {
+          final int cmp = comparator.compare(a.word, b.word);
+          return cmp != 0 ? cmp : Integer.compare(a.index, b.index);
+        }
+      });
+    try (Closer readers = new Closer()) {
+      for (int i = 0; i < files.size(); i++) {
+        final BufferedReader br = readers.add(
+          new BufferedReader(new CharFileReader(files.get(i))));
+
+        final Run run = new Run(br, i + 1);
+        if (run.next()) {
+          queue.add(run);
+        }
+      }
+
+      long count = 0;
+      String last = null;
+      while (!queue.isEmpty()) {
+        final Run run = queue.poll();
+        if (last == null || comparator.compare(last, run.word) != 0) {
+          writer.write(run.word);
+          writer.write('\n');
+          last = run.word;
+          count++;
+        }
+        if (run.next()) {
+          queue.add(run);
+        }
+      }
+      return count;
+    }
+  }
+
+
+  /**
+   * Writes the supplied sorted words to the supplied writer one per line,
+   * skipping words that compare equal to the word before them.
+   *
+   * @param  words  sorted words
+   * @param  comparator  the words are sorted by
+   * @param  writer  to write words to
+   *
+   * @return  number of words written
+   *
+   * @throws  IOException  if an error occurs writing
+   */
+  private static long write(
+    final String[] words,
+    final Comparator<String> comparator,
+    final Writer writer)
+    throws IOException
+  {
+    long count = 0;
+    for (int i = 0; i < words.length; i++) {
+      if (i == 0 || comparator.compare(words[i - 1], words[i]) != 0) {
+        writer.write(words[i]);
+        writer.write('\n');
+        count++;
+      }
+    }
+    return count;
+  }
+
+
+  /**
+   * Creates a new temporary file and adds it to the supplied list, so that it
+   * is deleted even if writing it fails.
+   *
+   * @param  tempFiles  to add the temporary file to
+   *
+   * @return  temporary file
+   *
+   * @throws  IOException  if the file cannot be created
+   */
+  private File createTempFile(final List<File> tempFiles)
+    throws IOException
+  {
+    final File f = File.createTempFile(TEMP_FILE_PREFIX, null, tempDirectory);
+    tempFiles.add(f);
+    return f;
+  }
+
+
+  /**
+   * Creates a writer of the supplied temporary file.
+   *
+   * @param  f  temporary file
+   *
+   * @return  writer of the temporary file
+   *
+   * @throws  IOException  if the file cannot be opened
+   */
+  private static Writer createWriter(final File f)
+    throws IOException
+  {
+    return new CharFileWriter(f);
+  }
+
+
+  /**
+   * Provides command line access to the external merge sort. Files are read
+   * and written with the ISO-8859-1 charset, so the output can be read by a
+   * {@link org.passay.dictionary.FileWordList} whatever the charset of the
+   * input.
+   *
+   * @param  args  command line arguments
+   *
+   * @throws  Exception  if an error occurs
+   */
+  public static void main(final String[] args)
+    throws Exception
+  {
+    final List<Reader> files = new ArrayList<>();
+    try {
+      if (args.length == 0) {
+        throw new ArrayIndexOutOfBoundsException();
+      }
+
+      boolean caseSensitive = true;
+      int size = DEFAULT_CHUNK_SIZE;
+      File dir = null;
+      String output = null;
+
+      for (int i = 0; i < args.length; i++) {
+        if ("-ci".equals(args[i])) {
+          caseSensitive = false;
+        } else if ("-c".equals(args[i])) {
+          size = Integer.parseInt(args[++i]);
+        } else if ("-t".equals(args[i])) {
+          dir = new File(args[++i]);
+        } else if ("-o".equals(args[i])) {
+          output = args[++i];
+        } else if ("-h".equals(args[i])) {
+          throw new ArrayIndexOutOfBoundsException();
+        } else {
+          files.add(
+            new InputStreamReader(
+              new FileInputStream(args[i]),
+              StandardCharsets.ISO_8859_1));
+        }
+      }
+      if (output == null || files.isEmpty()) {
+        throw new ArrayIndexOutOfBoundsException();
+      }
+
+      final ExternalMergeSort sort = new ExternalMergeSort(
+        new ParallelMergeSort(),
+        size,
+        DEFAULT_MERGE_WIDTH,
+        dir);
+      try (Writer w = new BufferedWriter(
+          new OutputStreamWriter(
+            new FileOutputStream(output),
+            StandardCharsets.ISO_8859_1),
+          BUFFER_SIZE)) {
+        final long count = sort.sort(
+          files.toArray(new Reader[files.size()]),
+          w,
+          caseSensitive);
+        System.out.println(
+          String.format("%s words written to %s", count, output));
+      }
+
+    } catch (ArrayIndexOutOfBoundsException e) {
+      System.out.println(
+        "Usage: java " + ExternalMergeSort.class.getName() + " \\");
+      System.out.println(
+        "       <dictionary1> <dictionary2> ... " +
+        "<options> -o <output> \\");
+      System.out.println("");
+      System.out.println("where <options> includes:");
+      System.out.println("       -ci (Sort case-insensitively) \\");
+      System.out.println(
+        "       -c <size> (Number of words sorted in memory at a time) \\");
+      System.out.println("       -t <dir> (Directory for temporary files) \\");
+      System.out.println("       -h (Print this message) \\");
+      System.exit(1);
+    }
+  }
+
+
+  /** Sorted file being merged and its current word. */
+  private static final class Run
+  {
+
+    /** Reader of the file. */
+    private final BufferedReader reader;
+
+    /** Position of the file in the merge, which orders equal words. */
+    private final int index;
+
+    /** Current word of the file. */
+    private String word;
+
+
+    /**
+     * Creates a new run.
+     *
+     * @param  br  reader of the file
+     * @param  i  position of the file in the merge
+     */
+    Run(final BufferedReader br, final int i)
+    {
+      reader = br;
+      index = i;
+    }
+
+
+    /**
+     * Reads the next word of the file.
+     *
+     * @return  whether a word was read
+     *
+     * @throws  IOException  if an error occurs reading the file
+     */
+    boolean next()
+      throws IOException
+    {
+      word = reader.readLine();
+      return word != null;
+    }
+  }
+
+
+  /**
+   * Closes a group of closeables. Every closeable is closed even if closing
+   * another one fails; the first error is thrown with any later errors
+   * suppressed.
+   */
+  private static final class Closer implements Closeable
+  {
+
+    /** Closeables to close. */
+    private final List<Closeable> closeables = new ArrayList<>();
+
+
+    /**
+     * Adds a closeable to close.
+     *
+     * @param  <T>  type of closeable
+     * @param  c  closeable to close
+     *
+     * @return  the supplied closeable
+     */
+    <T extends Closeable> T add(final T c)
+    {
+      closeables.add(c);
+      return c;
+    }
+
+
+    @Override
+    public void close()
+      throws IOException
+    {
+      IOException error = null;
+      for (Closeable c : closeables) {
+        try {
+          c.close();
+        } catch (IOException e) {
+          if (error == null) {
+            error = e;
+          } else {
+            error.addSuppressed(e);
+          }
+        }
+      }
+      if (error != null) {
+        throw error;
+      }
+    }
+  }
+
+
+  /**
+   * Writes characters to a temporary file as the two bytes of each character,
+   * high byte first. Unlike a charset encoder it writes unpaired surrogates
+   * unchanged.
+   */
+  private static final class CharFileWriter extends Writer
+  {
+
+    /** Stream of the file. */
+    private final OutputStream out;
+
+    /** Bytes not yet written to the file. */
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    /** Number of bytes in the buffer. */
+    private int position;
+
+
+    /**
+     * Creates a new char file writer.
+     *
+     * @param  f  file to write
+     *
+     * @throws  IOException  if the file cannot be opened
+     */
+    CharFileWriter(final File f)
+      throws IOException
+    {
+      out = new FileOutputStream(f);
+    }
+
+
+    @Override
+    public void write(final char[] cbuf, final int off, final int len)
+      throws IOException
+    {
+      for (int i = off; i < off + len; i++) {
+        write(cbuf[i]);
+      }
+    }
+
+
+    @Override
+    public void write(final String str, final int off, final int len)
+      throws IOException
+    {
+      for (int i = off; i < off + len; i++) {
+        write(str.charAt(i));
+      }
+    }
+
+
+    @Override
+    public void write(final int c)
+      throws IOException
+    {
+      if (position == buffer.length) {
+        out.write(buffer, 0, position);
+        position = 0;
+      }
+      buffer[position++] = (byte) (c >>> BYTE_BITS);
+      buffer[position++] = (byte) c;
+    }
+
+
+    @Override
+    public void flush()
+      throws IOException
+    {
+      out.write(buffer, 0, position);
+      position = 0;
+      out.flush();
+    }
+
+
+    @Override
+    public void close()
+      throws IOException
+    {
+      try {
+        flush();
+      } finally {
+        out.close();
+      }
+    }
+  }
+
+
+  /** Reads characters written by a {@link CharFileWriter}. */
+  private static final class CharFileReader extends Reader
+  {
+
+    /** Stream of the file. */
+    private final InputStream in;
+
+    /** Bytes read from the file. */
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    /** Position of the next unread byte. */
+    private int position;
+
+    /** Number of bytes in the buffer. */
+    private int limit;
+
+
+    /**
+     * Creates a new char file reader.
+     *
+     * @param  f  file to read
+     *
+     * @throws  IOException  if the file cannot be opened
+     */
+    CharFileReader(final File f)
+      throws IOException
+    {
+      in = new FileInputStream(f);
+    }
+
+
+    @Override
+    public int read(final char[] cbuf, final int off, final int len)
+      throws IOException
+    {
+      int n = 0;
+      while (n < len && fill()) {
+        cbuf[off + n++] = (char) (
+          (buffer[position] & BYTE_MASK) << BYTE_BITS |
+            buffer[position + 1] & BYTE_MASK);
+        position += 2;
+      }
+      return n == 0 && len > 0 ? -1 : n;
+    }
+
+
+    /**
+     * Reads from the file until the buffer holds the two bytes of a character
+     * or the end of the file is reached.
+     *
+     * @return  whether the buffer holds a character
+     *
+     * @throws  IOException  if an error occurs reading the file or it ends
+     * within a character
+     */
+    private boolean fill()
+      throws IOException
+    {
+      if (limit - position < 2) {
+        final int remaining = limit - position;
+        System.arraycopy(buffer, position, buffer, 0, remaining);
+        position = 0;
+        limit = remaining;
+        int read = 0;
+        while (limit < 2 && read != -1) {
+          read = in.read(buffer, limit, buffer.length - limit);
+          if (read > 0) {
+            limit += read;
+          }
+        }
+        if (limit == 1) {
+          throw new IOException("Temporary file ends within a character");
+        }
+      }
+      return limit - position >= 2;
+    }
+
+
+    @Override
+    public void close()
+      throws IOException
+    {
+      in.close();
+    }
+  }
+}
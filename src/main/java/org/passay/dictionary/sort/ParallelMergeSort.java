@@ -0,0 +1,307 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.dictionary.sort;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import org.passay.dictionary.WordLists;
+
+/**
+ * Provides a parallel implementation of the merge sort algorithm using a fork
+ * join pool. Ranges are split until they are small enough to be sorted with
+ * {@link Arrays#sort(Object[], int, int, Comparator)}, and sorted ranges are
+ * merged in parallel by splitting each merge at the median of its larger half.
+ * The sort is stable, takes O(n log n) time whatever the order of the input
+ * and needs a buffer the size of the array.
+ *
+ * @author  Middleware Services
+ */
+public class ParallelMergeSort implements ArraySorter
+{
+
+  /** Number of elements below which ranges are sorted or merged in turn. */
+  private static final int THRESHOLD = 8192;
+
+  /** Pool to sort with or null to create a pool for each sort. */
+  private final ForkJoinPool pool;
+
+
+  /**
+   * Creates a new parallel merge sort that uses all available processors.
+   */
+  public ParallelMergeSort()
+  {
+    this(null);
+  }
+
+
+  /**
+   * Creates a new parallel merge sort.
+   *
+   * @param  fjp  pool to sort with
+   */
+  public ParallelMergeSort(final ForkJoinPool fjp)
+  {
+    pool = fjp;
+  }
+
+
+  @Override
+  public void sort(final String[] array)
+  {
+    sort(array, WordLists.CASE_SENSITIVE_COMPARATOR);
+  }
+
+
+  @Override
+  public void sort(final String[] array, final Comparator<String> c)
+  {
+    if (array.length <= THRESHOLD) {
+      Arrays.sort(array, c);
+    } else {
+      final SortTask task = new SortTask(
+        array,
+        new String[array.length],
+        c,
+        0,
+        array.length);
+      if (pool != null) {
+        pool.invoke(task);
+      } else {
+        final ForkJoinPool p = new ForkJoinPool();
+        try {
+          p.invoke(task);
+        } finally {
+          p.shutdown();
+        }
+      }
+    }
+  }
+
+
+  /** Sorts a range of the array, splitting large ranges. */
+  private static final class SortTask extends RecursiveAction
+  {
+
+    /** For serialization. */
+    private static final long serialVersionUID = 4306853917564383186L;
+
+    /** Array to sort. */
+    private final String[] array;
+
+    /** Buffer the size of the array. */
+    private final String[] buffer;
+
+    /** Comparator to sort with. */
+    private final Comparator<String> comparator;
+
+    /** First index of the range. */
+    private final int start;
+
+    /** Index after the range. */
+    private final int end;
+
+
+    /**
+     * Creates a new sort task.
+     *
+     * @param  a  array to sort
+     * @param  b  buffer the size of the array
+     * @param  c  comparator to sort with
+     * @param  s  first index of the range
+     * @param  e  index after the range
+     */
+    SortTask(
+      final String[] a,
+      final String[] b,
+      final Comparator<String> c,
+      final int s,
+      final int e)
+    {
+      array = a;
+      buffer = b;
+      comparator = c;
+      start = s;
+      end = e;
+    }
+
+
+    @Override
+    protected void compute()
+    {
+      if (end - start <= THRESHOLD) {
+        Arrays.sort(array, start, end, comparator);
+      } else {
+        final int middle = (start + end) >>> 1;
+        invokeAll(
+          new SortTask(array, buffer, comparator, start, middle),
+          new SortTask(array, buffer, comparator, middle, end));
+        // halves that are already in order need no merge
+        if (comparator.compare(array[middle - 1], array[middle]) > 0) {
+          System.arraycopy(array, start, buffer, start, end - start);
+          new MergeTask(
+            buffer,
+            array,
+            comparator,
+            new int[] {start, middle, middle, end},
+            start).compute();
+        }
+      }
+    }
+  }
+
+
+  /**
+   * Merges two sorted ranges of a source array into a destination array,
+   * splitting large merges. Elements of the first range precede equal
+   * elements of the second.
+   */
+  private static final class MergeTask extends RecursiveAction
+  {
+
+    /** For serialization. */
+    private static final long serialVersionUID = -7925187734011306329L;
+
+    /** Array holding the ranges to merge. */
+    private final String[] source;
+
+    /** Array receiving the merged ranges. */
+    private final String[] dest;
+
+    /** Comparator to merge with. */
+    private final Comparator<String> comparator;
+
+    /** Start and end of the first range followed by those of the second. */
+    private final int[] ranges;
+
+    /** Index of the destination receiving the first element. */
+    private final int offset;
+
+
+    /**
+     * Creates a new merge task.
+     *
+     * @param  s  array holding the ranges to merge
+     * @param  d  array receiving the merged ranges
+     * @param  c  comparator to merge with
+     * @param  r  start and end of the first range followed by those of the
+     * second
+     * @param  o  index of the destination receiving the first element
+     */
+    MergeTask(
+      final String[] s,
+      final String[] d,
+      final Comparator<String> c,
+      final int[] r,
+      final int o)
+    {
+      source = s;
+      dest = d;
+      comparator = c;
+      ranges = r;
+      offset = o;
+    }
+
+
+    @Override
+    protected void compute()
+    {
+      final int start1 = ranges[0];
+      final int end1 = ranges[1];
+      final int start2 = ranges[2];
+      final int end2 = ranges[2 + 1];
+      if (end1 - start1 + end2 - start2 <= THRESHOLD) {
+        merge(start1, end1, start2, end2);
+      } else {
+        final int split1;
+        final int split2;
+        if (end1 - start1 >= end2 - start2) {
+          // second range elements less than the median go before it
+          split1 = (start1 + end1) >>> 1;
+          split2 = search(source[split1], start2, end2, false);
+        } else {
+          // first range elements not greater than the median go before it
+          split2 = (start2 + end2) >>> 1;
+          split1 = search(source[split2], start1, end1, true);
+        }
+        invokeAll(
+          new MergeTask(
+            source,
+            dest,
+            comparator,
+            new int[] {start1, split1, start2, split2},
+            offset),
+          new MergeTask(
+            source,
+            dest,
+            comparator,
+            new int[] {split1, end1, split2, end2},
+            offset + split1 - start1 + split2 - start2));
+      }
+    }
+
+
+    /**
+     * Merges two ranges of the source in turn.
+     *
+     * @param  start1  first index of the first range
+     * @param  end1  index after the first range
+     * @param  start2  first index of the second range
+     * @param  end2  index after the second range
+     */
+    private void merge(
+      final int start1,
+      final int end1,
+      final int start2,
+      final int end2)
+    {
+      int i = start1;
+      int j = start2;
+      int k = offset;
+      while (i < end1 && j < end2) {
+        if (comparator.compare(source[j], source[i]) < 0) {
+          dest[k++] = source[j++];
+        } else {
+          dest[k++] = source[i++];
+        }
+      }
+      System.arraycopy(source, i, dest, k, end1 - i);
+      System.arraycopy(source, j, dest, k + end1 - i, end2 - j);
+    }
+
+
+    /**
+     * Returns the index of the first element of a sorted range of the source
+     * that is greater than the key, or not less than the key if equal elements
+     * are excluded.
+     *
+     * @param  key  to search for
+     * @param  from  first index of the range
+     * @param  to  index after the range
+     * @param  includeEqual  whether elements equal to the key come before the
+     * index
+     *
+     * @return  index of the first element after the key
+     */
+    private int search(
+      final String key,
+      final int from,
+      final int to,
+      final boolean includeEqual)
+    {
+      int low = from;
+      int high = to;
+      while (low < high) {
+        final int mid = (low + high) >>> 1;
+        final int cmp = comparator.compare(source[mid], key);
+        if (cmp < 0 || (cmp == 0 && includeEqual)) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+  }
+}
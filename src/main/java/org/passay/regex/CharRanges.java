@@ -0,0 +1,177 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.regex;
+
+import java.util.Arrays;
+
+/**
+ * Operations on sets of characters represented as sorted, disjoint,
+ * non-adjacent ranges. A set is an array of even length whose elements at
+ * index 2i and 2i + 1 are the first and last character of the i-th range.
+ *
+ * @author  Middleware Services
+ */
+final class CharRanges
+{
+
+  /** Set of all characters. */
+  static final int[] ALL = {Character.MIN_VALUE, Character.MAX_VALUE};
+
+  /** Empty set. */
+  static final int[] EMPTY = {};
+
+  /** Maximum number of ranges a range can become when folding case. */
+  private static final int FOLD_FACTOR = 3;
+
+  /** Offset between ASCII upper and lower case letters. */
+  private static final int CASE_OFFSET = 'a' - 'A';
+
+
+  /** Default constructor. */
+  private CharRanges() {}
+
+
+  /**
+   * Returns the set containing the supplied range.
+   *
+   * @param  first  character of the range
+   * @param  last  character of the range
+   *
+   * @return  character set
+   */
+  static int[] of(final int first, final int last)
+  {
+    return new int[] {first, last};
+  }
+
+
+  /**
+   * Sorts and merges the supplied ranges, which may overlap.
+   *
+   * @param  ranges  first and last character of each range
+   * @param  length  number of elements of the array that are used
+   *
+   * @return  character set
+   */
+  static int[] normalize(final int[] ranges, final int length)
+  {
+    final int n = length / 2;
+    final long[] packed = new long[n];
+    for (int i = 0; i < n; i++) {
+      packed[i] = ((long) ranges[2 * i] << Integer.SIZE) | ranges[2 * i + 1];
+    }
+    Arrays.sort(packed);
+
+    final int[] result = new int[length];
+    int size = 0;
+    for (long p : packed) {
+      final int first = (int) (p >>> Integer.SIZE);
+      final int last = (int) p;
+      if (size > 0 && first <= result[size - 1] + 1) {
+        result[size - 1] = Math.max(result[size - 1], last);
+      } else {
+        result[size++] = first;
+        result[size++] = last;
+      }
+    }
+    return Arrays.copyOf(result, size);
+  }
+
+
+  /**
+   * Returns the union of two sets.
+   *
+   * @param  a  character set
+   * @param  b  character set
+   *
+   * @return  union of the sets
+   */
+  static int[] union(final int[] a, final int[] b)
+  {
+    final int[] ranges = Arrays.copyOf(a, a.length + b.length);
+    System.arraycopy(b, 0, ranges, a.length, b.length);
+    return normalize(ranges, ranges.length);
+  }
+
+
+  /**
+   * Returns the characters that are not in the supplied set.
+   *
+   * @param  set  character set
+   *
+   * @return  complement of the set
+   */
+  static int[] negate(final int[] set)
+  {
+    final int[] result = new int[set.length + 2];
+    int size = 0;
+    int next = Character.MIN_VALUE;
+    for (int i = 0; i < set.length; i += 2) {
+      if (set[i] > next) {
+        result[size++] = next;
+        result[size++] = set[i] - 1;
+      }
+      next = set[i + 1] + 1;
+    }
+    if (next <= Character.MAX_VALUE) {
+      result[size++] = next;
+      result[size++] = Character.MAX_VALUE;
+    }
+    return Arrays.copyOf(result, size);
+  }
+
+
+  /**
+   * Adds the other case of every ASCII letter in the supplied set.
+   *
+   * @param  set  character set
+   *
+   * @return  set matching ASCII letters without regard to case
+   */
+  static int[] foldCase(final int[] set)
+  {
+    final int[] ranges = Arrays.copyOf(set, set.length * FOLD_FACTOR);
+    int size = set.length;
+    for (int i = 0; i < set.length; i += 2) {
+      final int lowerFirst = Math.max(set[i], 'a');
+      final int lowerLast = Math.min(set[i + 1], 'z');
+      if (lowerFirst <= lowerLast) {
+        ranges[size++] = lowerFirst - CASE_OFFSET;
+        ranges[size++] = lowerLast - CASE_OFFSET;
+      }
+
+      final int upperFirst = Math.max(set[i], 'A');
+      final int upperLast = Math.min(set[i + 1], 'Z');
+      if (upperFirst <= upperLast) {
+        ranges[size++] = upperFirst + CASE_OFFSET;
+        ranges[size++] = upperLast + CASE_OFFSET;
+      }
+    }
+    return normalize(ranges, size);
+  }
+
+
+  /**
+   * Returns whether the supplied set contains the supplied character.
+   *
+   * @param  set  character set
+   * @param  c  character to find
+   *
+   * @return  whether the character is in the set
+   */
+  static boolean contains(final int[] set, final char c)
+  {
+    int low = 0;
+    int high = set.length / 2 - 1;
+    while (low <= high) {
+      final int mid = (low + high) >>> 1;
+      if (c < set[2 * mid]) {
+        high = mid - 1;
+      } else if (c > set[2 * mid + 1]) {
+        low = mid + 1;
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,565 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.regex;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Deterministic finite automaton built lazily from an {@link Nfa} by subset
+ * construction. A state of this automaton is the set of automaton states
+ * that read a character, match or wait for an assertion; states and
+ * transitions are computed the first time they are needed and cached, so
+ * scanning an input costs a table lookup per character once the automaton
+ * is warm.
+ *
+ * <p>The cache is bounded: once it holds {@link #MAX_STATES} states it is
+ * discarded and built again, so that patterns whose automaton is
+ * exponentially large still run in linear time per input, at the cost of
+ * recomputing states. Instances are safe for use by multiple threads;
+ * states are immutable apart from their transition caches, whose races only
+ * cause a transition to be computed twice.</p>
+ *
+ * @author  Middleware Services
+ */
+final class Dfa
+{
+
+  /** Maximum number of cached states. */
+  static final int MAX_STATES = 10000;
+
+  /** Number of characters with a transition table entry. */
+  private static final int TABLE_SIZE = 128;
+
+  /** Number of combinations of assertions. */
+  private static final int CONTEXTS = 8;
+
+  /** Automaton the states are built from. */
+  private final Nfa nfa;
+
+  /** Cached states. */
+  private volatile Cache cache = new Cache();
+
+
+  /**
+   * Creates a new automaton.
+   *
+   * @param  n  automaton the states are built from
+   */
+  Dfa(final Nfa n)
+  {
+    nfa = n;
+  }
+
+
+  /**
+   * Returns the automaton the states are built from.
+   *
+   * @return  nondeterministic automaton
+   */
+  Nfa getNfa()
+  {
+    return nfa;
+  }
+
+
+  /**
+   * Returns the state the automaton is in before reading any character when
+   * starting from the supplied state.
+   *
+   * @param  nfaState  start state of the nondeterministic automaton
+   *
+   * @return  start state
+   */
+  State start(final int nfaState)
+  {
+    final Cache c = cache;
+    State s = c.starts.get(nfaState);
+    if (s == null) {
+      s = closure(new int[] {nfaState}, 1, 0);
+      c.starts.putIfAbsent(nfaState, s);
+    }
+    return s;
+  }
+
+
+  /**
+   * Returns the state that follows the supplied state on the supplied
+   * character.
+   *
+   * @param  s  current state
+   * @param  c  character read
+   *
+   * @return  next state
+   */
+  State next(final State s, final char c)
+  {
+    State t;
+    if (c < TABLE_SIZE) {
+      t = s.table[c];
+      if (t == null) {
+        t = step(s, c);
+        s.table[c] = t;
+      }
+    } else {
+      Map<Character, State> others = s.others;
+      if (others == null) {
+        others = new ConcurrentHashMap<>();
+        s.others = others;
+      }
+      t = others.get(c);
+      if (t == null) {
+        t = step(s, c);
+        others.put(c, t);
+      }
+    }
+    return t;
+  }
+
+
+  /**
+   * Returns whether any expression matches anywhere in the supplied input.
+   * Scanning stops at the first match found.
+   *
+   * @param  input  to scan
+   *
+   * @return  whether a match exists
+   */
+  boolean search(final CharSequence input)
+  {
+    final int n = input.length();
+    State s = start(nfa.getSearchStart());
+    boolean match = false;
+    for (int i = 0; !match; i++) {
+      s = expand(s, input, i);
+      match = s.isMatch();
+      if (i == n) {
+        break;
+      }
+      s = next(s, input.charAt(i));
+    }
+    return match;
+  }
+
+
+  /**
+   * Returns the expressions that match anywhere in the supplied input.
+   * Scanning stops once every expression has matched.
+   *
+   * @param  input  to scan
+   *
+   * @return  sorted indexes of the matching expressions
+   */
+  int[] searchAll(final CharSequence input)
+  {
+    final int n = input.length();
+    final boolean[] found = new boolean[nfa.getExpressionCount()];
+    int count = 0;
+    State s = start(nfa.getSearchStart());
+    for (int i = 0; count < found.length; i++) {
+      s = expand(s, input, i);
+      for (int expression : s.getMatches()) {
+        if (!found[expression]) {
+          found[expression] = true;
+          count++;
+        }
+      }
+      if (i == n) {
+        break;
+      }
+      s = next(s, input.charAt(i));
+    }
+
+    final int[] matches = new int[count];
+    int size = 0;
+    for (int i = 0; i < found.length; i++) {
+      if (found[i]) {
+        matches[size++] = i;
+      }
+    }
+    return matches;
+  }
+
+
+  /**
+   * Returns the first position where a match of the supplied expression
+   * starts. This automaton must read the input backwards; the scan goes
+   * from the end of the input to its beginning and remembers the last
+   * position where a match ended, which is the first start position.
+   *
+   * @param  input  to scan
+   * @param  expression  index of the expression
+   *
+   * @return  start of the leftmost match or -1 if there is none
+   */
+  int leftmostStart(final CharSequence input, final int expression)
+  {
+    int start = -1;
+    State s = start(nfa.getSearchStart());
+    for (int i = input.length(); i >= 0; i--) {
+      s = expand(s, input, i);
+      if (s.isMatch(expression)) {
+        start = i;
+      }
+      if (i > 0) {
+        s = next(s, input.charAt(i - 1));
+      }
+    }
+    return start;
+  }
+
+
+  /**
+   * Returns the last position where a match of the supplied expression that
+   * starts at the supplied position ends. The scan stops as soon as no match
+   * can follow.
+   *
+   * @param  input  to scan
+   * @param  from  position where the match starts
+   * @param  expression  index of the expression
+   *
+   * @return  end of the longest match or -1 if there is none
+   */
+  int longestEnd(final CharSequence input, final int from, final int expression)
+  {
+    final int n = input.length();
+    int end = -1;
+    State s = start(nfa.getStart(expression));
+    for (int i = from; s != null; i++) {
+      s = expand(s, input, i);
+      if (s.isMatch(expression)) {
+        end = i;
+      }
+      s = i < n && !s.isDead() ? next(s, input.charAt(i)) : null;
+    }
+    return end;
+  }
+
+
+  /**
+   * Returns the supplied state after following the assertions that hold at
+   * the supplied position of the input.
+   *
+   * @param  s  current state
+   * @param  input  being scanned
+   * @param  pos  position in the input
+   *
+   * @return  state with the assertions followed
+   */
+  State expand(final State s, final CharSequence input, final int pos)
+  {
+    if (!s.assertions) {
+      return s;
+    }
+
+    final int context = context(input, pos);
+    State t = s;
+    if (context != 0) {
+      t = s.expanded[context];
+      if (t == null) {
+        t = closure(s.states, s.states.length, context);
+        s.expanded[context] = t;
+      }
+    }
+    return t;
+  }
+
+
+  /**
+   * Returns the assertions that hold at the supplied position of the input.
+   * Positions are those of the input, whichever the direction of the scan.
+   *
+   * @param  input  being scanned
+   * @param  pos  position in the input
+   *
+   * @return  bit set of assertions
+   */
+  private static int context(final CharSequence input, final int pos)
+  {
+    final int n = input.length();
+    int context = 0;
+    if (pos == 0) {
+      context |= 1 << Nfa.ASSERT_BEGIN;
+    }
+    if (pos == n) {
+      context |= 1 << Nfa.ASSERT_ABSOLUTE_END | 1 << Nfa.ASSERT_END;
+    } else if (isFinalTerminator(input, pos)) {
+      context |= 1 << Nfa.ASSERT_END;
+    }
+    return context;
+  }
+
+
+  /**
+   * Returns whether the input from the supplied position on is exactly one
+   * line terminator. The position between a carriage return and a line feed
+   * is not before a terminator.
+   *
+   * @param  input  being scanned
+   * @param  pos  position in the input
+   *
+   * @return  whether the rest of the input is a line terminator
+   */
+  private static boolean isFinalTerminator(
+    final CharSequence input,
+    final int pos)
+  {
+    final int n = input.length();
+    boolean terminator = false;
+    if (pos == n - 1) {
+      final char c = input.charAt(pos);
+      terminator = CharRanges.contains(RegexParser.LINE_TERMINATORS, c) &&
+        !(c == '\n' && pos > 0 && input.charAt(pos - 1) == '\r');
+    } else if (pos == n - 2) {
+      terminator = input.charAt(pos) == '\r' && input.charAt(pos + 1) == '\n';
+    }
+    return terminator;
+  }
+
+
+  /**
+   * Computes the state that follows the supplied state on the supplied
+   * character.
+   *
+   * @param  s  current state
+   * @param  c  character read
+   *
+   * @return  next state
+   */
+  private State step(final State s, final char c)
+  {
+    final int[] seeds = new int[s.states.length];
+    int count = 0;
+    for (int state : s.states) {
+      if (nfa.getKind(state) == Nfa.CHARS &&
+          CharRanges.contains(nfa.getChars(state), c)) {
+        seeds[count++] = nfa.getOut(state);
+      }
+    }
+    return closure(seeds, count, 0);
+  }
+
+
+  /**
+   * Returns the state made of the states reachable from the supplied states
+   * without reading a character.
+   *
+   * @param  seeds  states to start from
+   * @param  count  number of seeds
+   * @param  context  bit set of the assertions that hold
+   *
+   * @return  deterministic state
+   */
+  private State closure(final int[] seeds, final int count, final int context)
+  {
+    final boolean[] visited = new boolean[nfa.size()];
+    int[] stack = Arrays.copyOf(seeds, Math.max(count, 1));
+    int top = count;
+    int[] states = new int[Math.max(count, 1)];
+    int size = 0;
+    while (top > 0) {
+      final int state = stack[--top];
+      if (visited[state]) {
+        continue;
+      }
+      visited[state] = true;
+
+      final int kind = nfa.getKind(state);
+      if (kind != Nfa.SPLIT) {
+        if (size == states.length) {
+          states = Arrays.copyOf(states, size * 2);
+        }
+        states[size++] = state;
+      }
+      if (top + 2 > stack.length) {
+        stack = Arrays.copyOf(stack, stack.length * 2 + 2);
+      }
+      if (kind == Nfa.SPLIT) {
+        stack[top++] = nfa.getArg(state);
+        stack[top++] = nfa.getOut(state);
+      } else if (kind == Nfa.ASSERT &&
+                 (context & (1 << nfa.getArg(state))) != 0) {
+        stack[top++] = nfa.getOut(state);
+      }
+    }
+    states = Arrays.copyOf(states, size);
+    Arrays.sort(states);
+    return intern(states);
+  }
+
+
+  /**
+   * Returns the cached state for the supplied set of states, creating it if
+   * necessary.
+   *
+   * @param  states  sorted states of the nondeterministic automaton
+   *
+   * @return  deterministic state
+   */
+  private State intern(final int[] states)
+  {
+    Cache c = cache;
+    final Key key = new Key(states);
+    State s = c.states.get(key);
+    if (s == null) {
+      if (c.states.size() >= MAX_STATES) {
+        c = new Cache();
+        cache = c;
+      }
+      s = new State(nfa, states);
+      final State existing = c.states.putIfAbsent(key, s);
+      if (existing != null) {
+        s = existing;
+      }
+    }
+    return s;
+  }
+
+
+  /** State of the deterministic automaton. */
+  static final class State
+  {
+
+    /** Sorted states of the nondeterministic automaton. */
+    private final int[] states;
+
+    /** Sorted indexes of the expressions matched in this state. */
+    private final int[] matches;
+
+    /** Whether any state waits for an assertion. */
+    private final boolean assertions;
+
+    /** Transitions on the first characters. */
+    private final State[] table = new State[TABLE_SIZE];
+
+    /** Transitions on the other characters. */
+    private volatile Map<Character, State> others;
+
+    /** States after following the assertions of each context. */
+    private final State[] expanded = new State[CONTEXTS];
+
+
+    /**
+     * Creates a new state.
+     *
+     * @param  nfa  nondeterministic automaton
+     * @param  s  sorted states of the nondeterministic automaton
+     */
+    State(final Nfa nfa, final int[] s)
+    {
+      states = s;
+      boolean a = false;
+      final int[] m = new int[s.length];
+      int count = 0;
+      for (int state : s) {
+        final int kind = nfa.getKind(state);
+        if (kind == Nfa.ASSERT) {
+          a = true;
+        } else if (kind == Nfa.MATCH) {
+          m[count++] = nfa.getArg(state);
+        }
+      }
+      assertions = a;
+      matches = Arrays.copyOf(m, count);
+      Arrays.sort(matches);
+    }
+
+
+    /**
+     * Returns whether any expression is matched in this state.
+     *
+     * @return  whether this state accepts
+     */
+    boolean isMatch()
+    {
+      return matches.length > 0;
+    }
+
+
+    /**
+     * Returns whether the supplied expression is matched in this state.
+     *
+     * @param  expression  index of the expression
+     *
+     * @return  whether this state accepts the expression
+     */
+    boolean isMatch(final int expression)
+    {
+      return Arrays.binarySearch(matches, expression) >= 0;
+    }
+
+
+    /**
+     * Returns the indexes of the expressions matched in this state.
+     *
+     * @return  sorted expression indexes
+     */
+    int[] getMatches()
+    {
+      return matches;
+    }
+
+
+    /**
+     * Returns whether no match can follow this state.
+     *
+     * @return  whether this state is empty
+     */
+    boolean isDead()
+    {
+      return states.length == 0;
+    }
+  }
+
+
+  /** Key of a cached state. */
+  private static final class Key
+  {
+
+    /** Sorted states of the nondeterministic automaton. */
+    private final int[] states;
+
+    /** Hash code of the states. */
+    private final int hash;
+
+
+    /**
+     * Creates a new key.
+     *
+     * @param  s  sorted states of the nondeterministic automaton
+     */
+    Key(final int[] s)
+    {
+      states = s;
+      hash = Arrays.hashCode(s);
+    }
+
+
+    @Override
+    public boolean equals(final Object o)
+    {
+      return o instanceof Key && Arrays.equals(states, ((Key) o).states);
+    }
+
+
+    @Override
+    public int hashCode()
+    {
+      return hash;
+    }
+  }
+
+
+  /** Cached states and start states. */
+  private static final class Cache
+  {
+
+    /** States by set of nondeterministic states. */
+    private final ConcurrentMap<Key, State> states = new ConcurrentHashMap<>();
+
+    /** Start states by nondeterministic start state. */
+    private final ConcurrentMap<Integer, State> starts =
+      new ConcurrentHashMap<>();
+  }
+}
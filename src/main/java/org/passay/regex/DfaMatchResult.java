@@ -0,0 +1,102 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.regex;
+
+import java.util.regex.MatchResult;
+
+/**
+ * Match of a DFA pattern, which has no capturing groups.
+ *
+ * @author  Middleware Services
+ */
+final class DfaMatchResult implements MatchResult
+{
+
+  /** Matched text. */
+  private final String text;
+
+  /** Start of the match. */
+  private final int start;
+
+  /** End of the match. */
+  private final int end;
+
+
+  /**
+   * Creates a new match result.
+   *
+   * @param  input  that was matched
+   * @param  s  start of the match
+   * @param  e  end of the match
+   */
+  DfaMatchResult(final CharSequence input, final int s, final int e)
+  {
+    text = input.subSequence(s, e).toString();
+    start = s;
+    end = e;
+  }
+
+
+  @Override
+  public int start()
+  {
+    return start;
+  }
+
+
+  @Override
+  public int start(final int group)
+  {
+    checkGroup(group);
+    return start;
+  }
+
+
+  @Override
+  public int end()
+  {
+    return end;
+  }
+
+
+  @Override
+  public int end(final int group)
+  {
+    checkGroup(group);
+    return end;
+  }
+
+
+  @Override
+  public String group()
+  {
+    return text;
+  }
+
+
+  @Override
+  public String group(final int group)
+  {
+    checkGroup(group);
+    return text;
+  }
+
+
+  @Override
+  public int groupCount()
+  {
+    return 0;
+  }
+
+
+  /**
+   * Throws if the supplied group is not the whole match.
+   *
+   * @param  group  index of the group
+   */
+  private static void checkGroup(final int group)
+  {
+    if (group != 0) {
+      throw new IndexOutOfBoundsException("No group " + group);
+    }
+  }
+}
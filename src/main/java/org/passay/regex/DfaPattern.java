@@ -0,0 +1,188 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.regex;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.MatchResult;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Regular expression compiled to a deterministic finite automaton. Matching
+ * takes time linear in the length of the input whatever the expression, so
+ * expressions such as <code>(a+)+$</code> that make {@link Pattern} backtrack
+ * exponentially are safe to use on untrusted input.
+ *
+ * <p>The syntax is that of {@link Pattern} without the constructs that need
+ * backtracking: backreferences, lookaround, atomic groups and possessive
+ * quantifiers are rejected, as are word boundaries and the flags other than
+ * {@link Pattern#CASE_INSENSITIVE} and {@link Pattern#DOTALL}. Case
+ * insensitive matching applies to ASCII letters only, like {@link Pattern}
+ * without {@link Pattern#UNICODE_CASE}, except that the POSIX classes such as
+ * <code>\p{Lower}</code> match both cases of ASCII letters and the categories
+ * <code>\p{Lu}</code>, <code>\p{Ll}</code> and <code>\p{Lt}</code> match
+ * letters of all three cases, as they do in {@link Pattern}. A quantifier after
+ * a <code>\Q...\E</code> quote applies to its last character, and stacked
+ * quantifiers such as <code>a{2}{2}</code> are rejected. Groups only group;
+ * reluctant quantifiers are treated as greedy. Matching is done on UTF-16
+ * chars, so a supplementary character is two characters to the
+ * expression.</p>
+ *
+ * <p>{@link #findMatch(CharSequence)} returns the leftmost longest match,
+ * which starts where the match of {@link Pattern} starts but may end later
+ * when an earlier alternative or a reluctant quantifier would have stopped
+ * {@link Pattern} sooner.</p>
+ *
+ * <p>Instances are immutable and safe for use by multiple threads.</p>
+ *
+ * @author  Middleware Services
+ */
+public final class DfaPattern
+{
+
+  /** Expression of a pattern in its automata. */
+  private static final int EXPRESSION = 0;
+
+  /** Regular expression. */
+  private final String regex;
+
+  /** Match flags. */
+  private final int flags;
+
+  /** Automaton reading the input forward. */
+  private final Dfa forward;
+
+  /** Automaton reading the input backwards. */
+  private final Dfa reverse;
+
+
+  /**
+   * Creates a new DFA pattern.
+   *
+   * @param  r  regular expression
+   * @param  f  match flags
+   */
+  private DfaPattern(final String r, final int f)
+  {
+    regex = r;
+    flags = f;
+
+    final List<RegexNode> trees = Collections.singletonList(
+      new RegexParser(r, f).parse());
+    forward = new Dfa(new Nfa(trees, false));
+    reverse = new Dfa(new Nfa(trees, true));
+  }
+
+
+  /**
+   * Compiles the supplied regular expression.
+   *
+   * @param  regex  regular expression
+   *
+   * @return  compiled pattern
+   *
+   * @throws  PatternSyntaxException  if the expression is invalid or uses a
+   * construct that is not supported
+   * @throws  IllegalArgumentException  if the expression is too large
+   */
+  public static DfaPattern compile(final String regex)
+  {
+    return compile(regex, 0);
+  }
+
+
+  /**
+   * Compiles the supplied regular expression with the supplied flags.
+   *
+   * @param  regex  regular expression
+   * @param  flags  bit mask of {@link Pattern#CASE_INSENSITIVE} and {@link
+   * Pattern#DOTALL}
+   *
+   * @return  compiled pattern
+   *
+   * @throws  PatternSyntaxException  if the expression is invalid or uses a
+   * construct that is not supported
+   * @throws  IllegalArgumentException  if the flags are not supported or the
+   * expression is too large
+   */
+  public static DfaPattern compile(final String regex, final int flags)
+  {
+    if (regex == null) {
+      throw new NullPointerException("Regex cannot be null");
+    }
+    return new DfaPattern(regex, flags);
+  }
+
+
+  /**
+   * Returns the regular expression.
+   *
+   * @return  regular expression
+   */
+  public String pattern()
+  {
+    return regex;
+  }
+
+
+  /**
+   * Returns the match flags.
+   *
+   * @return  match flags
+   */
+  public int flags()
+  {
+    return flags;
+  }
+
+
+  /**
+   * Returns whether the whole input matches this pattern.
+   *
+   * @param  input  to match
+   *
+   * @return  whether the input matches
+   */
+  public boolean matches(final CharSequence input)
+  {
+    return forward.longestEnd(input, 0, EXPRESSION) == input.length();
+  }
+
+
+  /**
+   * Returns whether any part of the input matches this pattern.
+   *
+   * @param  input  to search
+   *
+   * @return  whether a match exists
+   */
+  public boolean find(final CharSequence input)
+  {
+    return forward.search(input);
+  }
+
+
+  /**
+   * Returns the leftmost longest match of this pattern in the input.
+   *
+   * @param  input  to search
+   *
+   * @return  match or null if there is none
+   */
+  public MatchResult findMatch(final CharSequence input)
+  {
+    final int start = reverse.leftmostStart(input, EXPRESSION);
+    if (start < 0) {
+      return null;
+    }
+    final int end = forward.longestEnd(input, start, EXPRESSION);
+    return new DfaMatchResult(input, start, end);
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return regex;
+  }
+}
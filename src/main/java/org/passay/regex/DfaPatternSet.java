@@ -0,0 +1,183 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.regex;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.MatchResult;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Set of regular expressions compiled to a single deterministic finite
+ * automaton, which finds every expression that matches an input in one scan.
+ * Expressions are identified by their index in the set. The syntax and
+ * semantics of each expression are those of {@link DfaPattern}.
+ *
+ * <p>Instances are immutable and safe for use by multiple threads.</p>
+ *
+ * @author  Middleware Services
+ */
+public final class DfaPatternSet
+{
+
+  /** Regular expressions. */
+  private final List<String> regexes;
+
+  /** Match flags. */
+  private final int flags;
+
+  /** Automaton reading the input forward. */
+  private final Dfa forward;
+
+  /** Automaton reading the input backwards. */
+  private final Dfa reverse;
+
+
+  /**
+   * Creates a new DFA pattern set.
+   *
+   * @param  r  regular expressions
+   * @param  f  match flags
+   */
+  private DfaPatternSet(final List<String> r, final int f)
+  {
+    regexes = r;
+    flags = f;
+
+    final List<RegexNode> trees = new ArrayList<>(r.size());
+    for (String regex : r) {
+      trees.add(new RegexParser(regex, f).parse());
+    }
+    forward = new Dfa(new Nfa(trees, false));
+    reverse = new Dfa(new Nfa(trees, true));
+  }
+
+
+  /**
+   * Compiles the supplied regular expressions.
+   *
+   * @param  regexes  regular expressions
+   *
+   * @return  compiled pattern set
+   *
+   * @throws  PatternSyntaxException  if an expression is invalid or uses a
+   * construct that is not supported
+   * @throws  IllegalArgumentException  if the expressions are too large
+   */
+  public static DfaPatternSet compile(final List<String> regexes)
+  {
+    return compile(regexes, 0);
+  }
+
+
+  /**
+   * Compiles the supplied regular expressions with the supplied flags.
+   *
+   * @param  regexes  regular expressions
+   * @param  flags  bit mask of {@link java.util.regex.Pattern#CASE_INSENSITIVE}
+   * and {@link java.util.regex.Pattern#DOTALL}
+   *
+   * @return  compiled pattern set
+   *
+   * @throws  PatternSyntaxException  if an expression is invalid or uses a
+   * construct that is not supported
+   * @throws  IllegalArgumentException  if the expressions are empty or too
+   * large or the flags are not supported
+   */
+  public static DfaPatternSet compile(
+    final List<String> regexes,
+    final int flags)
+  {
+    if (regexes == null || regexes.isEmpty()) {
+      throw new IllegalArgumentException("Regexes cannot be empty");
+    }
+    for (String regex : regexes) {
+      if (regex == null) {
+        throw new NullPointerException("Regex cannot be null");
+      }
+    }
+    return new DfaPatternSet(
+      Collections.unmodifiableList(new ArrayList<>(regexes)),
+      flags);
+  }
+
+
+  /**
+   * Returns the regular expressions.
+   *
+   * @return  unmodifiable list of regular expressions
+   */
+  public List<String> patterns()
+  {
+    return regexes;
+  }
+
+
+  /**
+   * Returns the match flags.
+   *
+   * @return  match flags
+   */
+  public int flags()
+  {
+    return flags;
+  }
+
+
+  /**
+   * Returns the number of expressions.
+   *
+   * @return  number of expressions
+   */
+  public int size()
+  {
+    return regexes.size();
+  }
+
+
+  /**
+   * Returns the expressions that match any part of the input. The input is
+   * scanned once for all expressions.
+   *
+   * @param  input  to search
+   *
+   * @return  sorted indexes of the matching expressions
+   */
+  public int[] find(final CharSequence input)
+  {
+    return forward.searchAll(input);
+  }
+
+
+  /**
+   * Returns the leftmost longest match of the supplied expression in the
+   * input.
+   *
+   * @param  input  to search
+   * @param  index  of the expression
+   *
+   * @return  match or null if there is none
+   */
+  public MatchResult findMatch(final CharSequence input, final int index)
+  {
+    if (index < 0 || index >= regexes.size()) {
+      throw new IndexOutOfBoundsException("No pattern " + index);
+    }
+
+    final int start = reverse.leftmostStart(input, index);
+    if (start < 0) {
+      return null;
+    }
+    return new DfaMatchResult(
+      input,
+      start,
+      forward.longestEnd(input, start, index));
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return regexes.toString();
+  }
+}
@@ -0,0 +1,318 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.regex;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Nondeterministic finite automaton compiled from the syntax trees of one or
+ * more regular expressions by Thompson's construction. The automaton can be
+ * built to read the input backwards, which is used to find where a match
+ * starts. Each expression leads to its own match state, so a single
+ * automaton tells which of several expressions matched.
+ *
+ * @author  Middleware Services
+ */
+final class Nfa
+{
+
+  /** Assertion that holds at the beginning of the input. */
+  static final int ASSERT_BEGIN = 0;
+
+  /** Assertion that holds at the end of the input or before a final line
+   * terminator. */
+  static final int ASSERT_END = 1;
+
+  /** Assertion that holds at the end of the input. */
+  static final int ASSERT_ABSOLUTE_END = 2;
+
+  /** State that reads a character of a set. */
+  static final int CHARS = 0;
+
+  /** State with two epsilon transitions. */
+  static final int SPLIT = 1;
+
+  /** State with an epsilon transition that requires an assertion. */
+  static final int ASSERT = 2;
+
+  /** State that accepts an expression. */
+  static final int MATCH = 3;
+
+  /** Maximum number of states. */
+  static final int MAX_STATES = 100000;
+
+  /** Initial capacity of the state arrays. */
+  private static final int INITIAL_CAPACITY = 16;
+
+  /** Whether the automaton reads the input backwards. */
+  private final boolean reverse;
+
+  /** Kind of each state. */
+  private int[] kinds = new int[INITIAL_CAPACITY];
+
+  /** First transition of each state. */
+  private int[] outs = new int[INITIAL_CAPACITY];
+
+  /** Second transition, assertion or expression index of each state. */
+  private int[] args = new int[INITIAL_CAPACITY];
+
+  /** Characters read by each state. */
+  private int[][] sets = new int[INITIAL_CAPACITY][];
+
+  /** Number of states. */
+  private int size;
+
+  /** Start state of each expression. */
+  private final int[] starts;
+
+  /** Start state of a match of any expression at any position. */
+  private final int searchStart;
+
+
+  /**
+   * Creates a new automaton.
+   *
+   * @param  trees  syntax trees of the expressions
+   * @param  backwards  whether the automaton reads the input backwards
+   */
+  Nfa(final List<RegexNode> trees, final boolean backwards)
+  {
+    reverse = backwards;
+    starts = new int[trees.size()];
+    int any = -1;
+    for (int i = 0; i < starts.length; i++) {
+      starts[i] = compile(trees.get(i), addState(MATCH, -1, i, null));
+      any = any < 0 ? starts[i] : addState(SPLIT, starts[i], any, null);
+    }
+
+    // loop that skips any character before a match
+    searchStart = addState(SPLIT, any, -1, null);
+    final int skip = addState(CHARS, searchStart, 0, CharRanges.ALL);
+    args[searchStart] = skip;
+  }
+
+
+  /**
+   * Returns the number of states.
+   *
+   * @return  number of states
+   */
+  int size()
+  {
+    return size;
+  }
+
+
+  /**
+   * Returns whether the automaton reads the input backwards.
+   *
+   * @return  whether the automaton is reversed
+   */
+  boolean isReverse()
+  {
+    return reverse;
+  }
+
+
+  /**
+   * Returns the number of expressions.
+   *
+   * @return  number of expressions
+   */
+  int getExpressionCount()
+  {
+    return starts.length;
+  }
+
+
+  /**
+   * Returns the start state of the supplied expression.
+   *
+   * @param  expression  index of the expression
+   *
+   * @return  start state
+   */
+  int getStart(final int expression)
+  {
+    return starts[expression];
+  }
+
+
+  /**
+   * Returns the start state of a match of any expression at any position.
+   *
+   * @return  start state
+   */
+  int getSearchStart()
+  {
+    return searchStart;
+  }
+
+
+  /**
+   * Returns the kind of the supplied state.
+   *
+   * @param  state  index of the state
+   *
+   * @return  kind of state
+   */
+  int getKind(final int state)
+  {
+    return kinds[state];
+  }
+
+
+  /**
+   * Returns the first transition of the supplied state.
+   *
+   * @param  state  index of the state
+   *
+   * @return  next state
+   */
+  int getOut(final int state)
+  {
+    return outs[state];
+  }
+
+
+  /**
+   * Returns the second transition of a split state, the assertion of an
+   * assertion state or the expression of a match state.
+   *
+   * @param  state  index of the state
+   *
+   * @return  state, assertion or expression index
+   */
+  int getArg(final int state)
+  {
+    return args[state];
+  }
+
+
+  /**
+   * Returns the characters read by the supplied state.
+   *
+   * @param  state  index of the state
+   *
+   * @return  character set
+   */
+  int[] getChars(final int state)
+  {
+    return sets[state];
+  }
+
+
+  /**
+   * Compiles the supplied node so that it continues with the supplied state.
+   *
+   * @param  node  to compile
+   * @param  next  state that follows a match of the node
+   *
+   * @return  start state of the node
+   */
+  private int compile(final RegexNode node, final int next)
+  {
+    int start = next;
+    switch (node.getKind()) {
+
+    case RegexNode.CHARS:
+      start = addState(CHARS, next, 0, node.getChars());
+      break;
+
+    case RegexNode.ASSERT:
+      start = addState(ASSERT, next, node.getMin(), null);
+      break;
+
+    case RegexNode.CONCAT:
+      final List<RegexNode> children = node.getChildren();
+      if (reverse) {
+        for (RegexNode child : children) {
+          start = compile(child, start);
+        }
+      } else {
+        for (int i = children.size() - 1; i >= 0; i--) {
+          start = compile(children.get(i), start);
+        }
+      }
+      break;
+
+    case RegexNode.ALTERNATE:
+      start = -1;
+      for (RegexNode child : node.getChildren()) {
+        final int s = compile(child, next);
+        start = start < 0 ? s : addState(SPLIT, s, start, null);
+      }
+      break;
+
+    case RegexNode.REPEAT:
+      start = compileRepeat(node, next);
+      break;
+
+    default:
+      throw new IllegalStateException("Unknown node " + node.getKind());
+    }
+    return start;
+  }
+
+
+  /**
+   * Compiles a repetition so that it continues with the supplied state.
+   *
+   * @param  node  to compile
+   * @param  next  state that follows a match of the node
+   *
+   * @return  start state of the node
+   */
+  private int compileRepeat(final RegexNode node, final int next)
+  {
+    final RegexNode child = node.getChildren().get(0);
+    int start;
+    if (node.getMax() == RegexNode.UNBOUNDED) {
+      start = addState(SPLIT, -1, next, null);
+      final int body = compile(child, start);
+      outs[start] = body;
+    } else {
+      start = next;
+      for (int i = node.getMin(); i < node.getMax(); i++) {
+        start = addState(SPLIT, compile(child, start), next, null);
+      }
+    }
+    for (int i = 0; i < node.getMin(); i++) {
+      start = compile(child, start);
+    }
+    return start;
+  }
+
+
+  /**
+   * Adds a state.
+   *
+   * @param  kind  of state
+   * @param  out  first transition
+   * @param  arg  second transition, assertion or expression index
+   * @param  set  characters read by the state
+   *
+   * @return  index of the state
+   */
+  private int addState(
+    final int kind,
+    final int out,
+    final int arg,
+    final int[] set)
+  {
+    if (size == MAX_STATES) {
+      throw new IllegalArgumentException("Pattern is too large");
+    }
+    if (size == kinds.length) {
+      kinds = Arrays.copyOf(kinds, size * 2);
+      outs = Arrays.copyOf(outs, size * 2);
+      args = Arrays.copyOf(args, size * 2);
+      sets = Arrays.copyOf(sets, size * 2);
+    }
+    kinds[size] = kind;
+    outs[size] = out;
+    args[size] = arg;
+    sets[size] = set;
+    return size++;
+  }
+}
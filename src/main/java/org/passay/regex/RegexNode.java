@@ -0,0 +1,201 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.regex;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Node of the syntax tree of a regular expression.
+ *
+ * @author  Middleware Services
+ */
+final class RegexNode
+{
+
+  /** Node matching one character of a set. */
+  static final int CHARS = 0;
+
+  /** Node matching its children in order. */
+  static final int CONCAT = 1;
+
+  /** Node matching any one of its children. */
+  static final int ALTERNATE = 2;
+
+  /** Node matching its child repeatedly. */
+  static final int REPEAT = 3;
+
+  /** Node matching the empty string at a position satisfying an assertion. */
+  static final int ASSERT = 4;
+
+  /** Unbounded number of repetitions. */
+  static final int UNBOUNDED = -1;
+
+  /** Kind of node. */
+  private final int kind;
+
+  /** Characters matched by a {@link #CHARS} node. */
+  private final int[] chars;
+
+  /** Children of a {@link #CONCAT}, {@link #ALTERNATE} or {@link #REPEAT}. */
+  private final List<RegexNode> children;
+
+  /** Minimum repetitions or the assertion of an {@link #ASSERT} node. */
+  private final int min;
+
+  /** Maximum repetitions or {@link #UNBOUNDED}. */
+  private final int max;
+
+
+  /**
+   * Creates a new regex node.
+   *
+   * @param  k  kind of node
+   * @param  c  characters matched
+   * @param  ch  children
+   * @param  mn  minimum repetitions or assertion
+   * @param  mx  maximum repetitions
+   */
+  private RegexNode(
+    final int k,
+    final int[] c,
+    final List<RegexNode> ch,
+    final int mn,
+    final int mx)
+  {
+    kind = k;
+    chars = c;
+    children = ch;
+    min = mn;
+    max = mx;
+  }
+
+
+  /**
+   * Creates a node matching one character of the supplied set.
+   *
+   * @param  set  character set
+   *
+   * @return  regex node
+   */
+  static RegexNode chars(final int[] set)
+  {
+    return new RegexNode(CHARS, set, null, 0, 0);
+  }
+
+
+  /**
+   * Creates a node matching the supplied nodes in order.
+   *
+   * @param  nodes  to match
+   *
+   * @return  regex node
+   */
+  static RegexNode concat(final List<RegexNode> nodes)
+  {
+    return new RegexNode(CONCAT, null, nodes, 0, 0);
+  }
+
+
+  /**
+   * Creates a node matching any one of the supplied nodes.
+   *
+   * @param  nodes  to match
+   *
+   * @return  regex node
+   */
+  static RegexNode alternate(final List<RegexNode> nodes)
+  {
+    return new RegexNode(ALTERNATE, null, nodes, 0, 0);
+  }
+
+
+  /**
+   * Creates a node matching the supplied node repeatedly.
+   *
+   * @param  node  to repeat
+   * @param  mn  minimum repetitions
+   * @param  mx  maximum repetitions or {@link #UNBOUNDED}
+   *
+   * @return  regex node
+   */
+  static RegexNode repeat(final RegexNode node, final int mn, final int mx)
+  {
+    return new RegexNode(
+      REPEAT,
+      null,
+      Collections.singletonList(node),
+      mn,
+      mx);
+  }
+
+
+  /**
+   * Creates a node matching the empty string where the supplied assertion
+   * holds.
+   *
+   * @param  assertion  one of the assertions of {@link Nfa}
+   *
+   * @return  regex node
+   */
+  static RegexNode assertion(final int assertion)
+  {
+    return new RegexNode(ASSERT, null, null, assertion, 0);
+  }
+
+
+  /**
+   * Returns the kind of node.
+   *
+   * @return  kind of node
+   */
+  int getKind()
+  {
+    return kind;
+  }
+
+
+  /**
+   * Returns the characters matched by a {@link #CHARS} node.
+   *
+   * @return  character set
+   */
+  int[] getChars()
+  {
+    return chars;
+  }
+
+
+  /**
+   * Returns the children of a {@link #CONCAT}, {@link #ALTERNATE} or {@link
+   * #REPEAT} node.
+   *
+   * @return  child nodes
+   */
+  List<RegexNode> getChildren()
+  {
+    return children;
+  }
+
+
+  /**
+   * Returns the minimum repetitions of a {@link #REPEAT} node or the assertion
+   * of an {@link #ASSERT} node.
+   *
+   * @return  minimum repetitions or assertion
+   */
+  int getMin()
+  {
+    return min;
+  }
+
+
+  /**
+   * Returns the maximum repetitions of a {@link #REPEAT} node.
+   *
+   * @return  maximum repetitions or {@link #UNBOUNDED}
+   */
+  int getMax()
+  {
+    return max;
+  }
+}
@@ -0,0 +1,904 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.regex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Parses the subset of the {@link Pattern} syntax that can be matched by a
+ * finite automaton into a syntax tree. Constructs that require backtracking
+ * or lookaround, such as backreferences, lookahead, lookbehind, atomic groups,
+ * possessive quantifiers and word boundaries, are rejected with a {@link
+ * PatternSyntaxException}.
+ *
+ * @author  Middleware Services
+ */
+final class RegexParser
+{
+
+  /** Flags that are supported. */
+  static final int SUPPORTED_FLAGS = Pattern.CASE_INSENSITIVE | Pattern.DOTALL;
+
+  /** Largest supported bound of a repetition. */
+  static final int MAX_REPEAT = 1000;
+
+  /** Characters that end a line. */
+  static final int[] LINE_TERMINATORS = {
+    '\n', '\n', '\r', '\r', '\u0085', '\u0085', '\u2028', '\u2029',
+  };
+
+  /** Radix of hexadecimal escapes. */
+  private static final int HEX_RADIX = 16;
+
+  /** Radix of octal escapes. */
+  private static final int OCTAL_RADIX = 8;
+
+  /** Number of digits of a hexadecimal escape. */
+  private static final int HEX_DIGITS = 2;
+
+  /** Number of digits of a unicode escape. */
+  private static final int UNICODE_DIGITS = 4;
+
+  /** Maximum number of digits of an octal escape. */
+  private static final int MAX_OCTAL_DIGITS = 3;
+
+  /** Largest value of two octal digits that a third digit may follow. */
+  private static final int MAX_OCTAL_PREFIX = 037;
+
+  /** Initial capacity of range arrays. */
+  private static final int INITIAL_CAPACITY = 16;
+
+  /** Bit that is inverted by a control character escape. */
+  private static final int CONTROL_BIT = 0x40;
+
+  /** Characters of \d. */
+  private static final int[] DIGIT = CharRanges.of('0', '9');
+
+  /** Characters of \w. */
+  private static final int[] WORD = {'0', '9', 'A', 'Z', '_', '_', 'a', 'z'};
+
+  /** Characters of \s. */
+  private static final int[] SPACE = {'\t', '\r', ' ', ' '};
+
+  /** Characters of \p{Lower}. */
+  private static final int[] LOWER = CharRanges.of('a', 'z');
+
+  /** Characters of \p{Upper}. */
+  private static final int[] UPPER = CharRanges.of('A', 'Z');
+
+  /** Characters of \p{Alpha}. */
+  private static final int[] ALPHA = {'A', 'Z', 'a', 'z'};
+
+  /** Characters of \p{Alnum}. */
+  private static final int[] ALNUM = {'0', '9', 'A', 'Z', 'a', 'z'};
+
+  /** Characters of \p{Punct}. */
+  private static final int[] PUNCT = {'!', '/', ':', '@', '[', '`', '{', '~'};
+
+  /** Characters of \p{Graph}. */
+  private static final int[] GRAPH = CharRanges.of('!', '~');
+
+  /** Characters of \p{Print}. */
+  private static final int[] PRINT = CharRanges.of(' ', '~');
+
+  /** Characters of \p{Blank}. */
+  private static final int[] BLANK = {'\t', '\t', ' ', ' '};
+
+  /** Characters of \p{Cntrl}. */
+  private static final int[] CNTRL = {0, '\u001F', '\u007F', '\u007F'};
+
+  /** Characters of \p{XDigit}. */
+  private static final int[] XDIGIT = {'0', '9', 'A', 'F', 'a', 'f'};
+
+  /** Characters of \p{ASCII}. */
+  private static final int[] ASCII = CharRanges.of(0, '\u007F');
+
+  /** Names of the supported POSIX classes. */
+  private static final String[] POSIX_NAMES = {
+    "Lower", "Upper", "ASCII", "Alpha", "Digit", "Alnum", "Punct", "Graph",
+    "Print", "Blank", "Cntrl", "XDigit", "Space",
+  };
+
+  /** Characters of the supported POSIX classes. */
+  private static final int[][] POSIX_SETS = {
+    LOWER, UPPER, ASCII, ALPHA, DIGIT, ALNUM, PUNCT, GRAPH, PRINT, BLANK,
+    CNTRL, XDIGIT, SPACE,
+  };
+
+  /** Names of the supported general categories. */
+  private static final String[] CATEGORY_NAMES = {
+    "Cn", "Lu", "Ll", "Lt", "Lm", "Lo", "Mn", "Me", "Mc", "Nd", "Nl", "No",
+    "Zs", "Zl", "Zp", "Cc", "Cf", null, "Co", "Cs", "Pd", "Ps", "Pe", "Pc",
+    "Po", "Sm", "Sc", "Sk", "So", "Pi", "Pf",
+  };
+
+  /** Regular expression being parsed. */
+  private final String regex;
+
+  /** Position of the next character to parse. */
+  private int pos;
+
+  /** Flags in effect at the current position. */
+  private int flags;
+
+
+  /**
+   * Creates a new regex parser.
+   *
+   * @param  r  regular expression
+   * @param  f  match flags
+   */
+  RegexParser(final String r, final int f)
+  {
+    if ((f & ~SUPPORTED_FLAGS) != 0) {
+      throw new IllegalArgumentException(
+        "Only CASE_INSENSITIVE and DOTALL flags are supported");
+    }
+    regex = removeQuoting(r);
+    flags = f;
+  }
+
+
+  /**
+   * Parses the regular expression.
+   *
+   * @return  syntax tree
+   *
+   * @throws  PatternSyntaxException  if the expression is invalid or uses an
+   * unsupported construct
+   */
+  RegexNode parse()
+  {
+    final RegexNode node = parseAlternation();
+    if (pos < regex.length()) {
+      throw error("Unmatched closing ')'");
+    }
+    return node;
+  }
+
+
+  /**
+   * Parses alternatives separated by '|'.
+   *
+   * @return  regex node
+   */
+  private RegexNode parseAlternation()
+  {
+    final List<RegexNode> alternatives = new ArrayList<>();
+    alternatives.add(parseConcatenation());
+    while (pos < regex.length() && regex.charAt(pos) == '|') {
+      pos++;
+      alternatives.add(parseConcatenation());
+    }
+    return
+      alternatives.size() == 1 ?
+        alternatives.get(0) : RegexNode.alternate(alternatives);
+  }
+
+
+  /**
+   * Parses a sequence of quantified atoms.
+   *
+   * @return  regex node
+   */
+  private RegexNode parseConcatenation()
+  {
+    final List<RegexNode> nodes = new ArrayList<>();
+    while (pos < regex.length()) {
+      final char c = regex.charAt(pos);
+      if (c == '|' || c == ')') {
+        break;
+      }
+
+      final RegexNode node = parseQuantified();
+      if (node != null) {
+        nodes.add(node);
+      }
+    }
+    return nodes.size() == 1 ? nodes.get(0) : RegexNode.concat(nodes);
+  }
+
+
+  /**
+   * Parses an atom and its optional quantifier.
+   *
+   * @return  regex node or null if the atom only changed flags
+   */
+  // CheckStyle:ReturnCount OFF
+  private RegexNode parseQuantified()
+  {
+    final RegexNode atom = parseAtom();
+    if (atom == null || pos == regex.length()) {
+      return atom;
+    }
+
+    final int min;
+    final int max;
+    switch (regex.charAt(pos)) {
+
+    case '*':
+      min = 0;
+      max = RegexNode.UNBOUNDED;
+      pos++;
+      break;
+
+    case '+':
+      min = 1;
+      max = RegexNode.UNBOUNDED;
+      pos++;
+      break;
+
+    case '?':
+      min = 0;
+      max = 1;
+      pos++;
+      break;
+
+    case '{':
+      pos++;
+      min = parseNumber();
+      if (pos < regex.length() && regex.charAt(pos) == ',') {
+        pos++;
+        max = peekDigit() ? parseNumber() : RegexNode.UNBOUNDED;
+      } else {
+        max = min;
+      }
+      expect('}', "Unclosed counted closure");
+      if (max != RegexNode.UNBOUNDED && max < min) {
+        throw error("Illegal repetition range");
+      }
+      if (Math.max(min, max) > MAX_REPEAT) {
+        throw error("Repetition bound exceeds " + MAX_REPEAT);
+      }
+      break;
+
+    default:
+      return atom;
+    }
+
+    if (pos < regex.length()) {
+      final char c = regex.charAt(pos);
+      if (c == '?') {
+        // reluctant quantifiers match the same strings
+        pos++;
+      } else if (c == '+') {
+        throw error("Possessive quantifiers are not supported");
+      }
+    }
+    if (pos < regex.length() && "*+?{".indexOf(regex.charAt(pos)) != -1) {
+      throw error("Dangling meta character '" + regex.charAt(pos) + "'");
+    }
+    return RegexNode.repeat(atom, min, max);
+  }
+  // CheckStyle:ReturnCount ON
+
+
+  /**
+   * Parses a single atom.
+   *
+   * @return  regex node or null if the atom only changed flags
+   */
+  // CheckStyle:ReturnCount OFF
+  private RegexNode parseAtom()
+  {
+    final char c = regex.charAt(pos++);
+    switch (c) {
+
+    case '(':
+      return parseGroup();
+
+    case '[':
+      return RegexNode.chars(parseClass());
+
+    case '.':
+      return RegexNode.chars(
+        (flags & Pattern.DOTALL) != 0 ?
+          CharRanges.ALL : CharRanges.negate(LINE_TERMINATORS));
+
+    case '^':
+      return RegexNode.assertion(Nfa.ASSERT_BEGIN);
+
+    case '$':
+      return RegexNode.assertion(Nfa.ASSERT_END);
+
+    case '\\':
+      return parseEscape();
+
+    case '*':
+    case '+':
+    case '?':
+    case '{':
+      pos--;
+      throw error("Dangling meta character '" + c + "'");
+
+    default:
+      return RegexNode.chars(literal(c));
+    }
+  }
+  // CheckStyle:ReturnCount ON
+
+
+  /**
+   * Parses a group after its opening parenthesis.
+   *
+   * @return  regex node or null if the group only changed flags
+   */
+  private RegexNode parseGroup()
+  {
+    final int saved = flags;
+    if (pos < regex.length() && regex.charAt(pos) == '?') {
+      pos++;
+      if (pos == regex.length()) {
+        throw error("Unknown group type");
+      }
+
+      final char c = regex.charAt(pos);
+      if (c == ':') {
+        pos++;
+      } else if (c == '<' && pos + 1 < regex.length() &&
+          Character.isLetter(regex.charAt(pos + 1))) {
+        final int end = regex.indexOf('>', pos);
+        if (end < 0) {
+          throw error("Named capturing group is missing trailing '>'");
+        }
+        pos = end + 1;
+      } else if (c == '=' || c == '!' || c == '<') {
+        throw error("Lookaround is not supported");
+      } else if (c == '>') {
+        throw error("Atomic groups are not supported");
+      } else {
+        parseFlags();
+        if (regex.charAt(pos++) == ')') {
+          // flags apply to the rest of the enclosing group
+          return null;
+        }
+      }
+    }
+
+    final RegexNode node = parseAlternation();
+    expect(')', "Unclosed group");
+    flags = saved;
+    return node;
+  }
+
+
+  /** Parses inline flags up to and excluding the closing ':' or ')'. */
+  private void parseFlags()
+  {
+    boolean on = true;
+    while (pos < regex.length() && ":)".indexOf(regex.charAt(pos)) == -1) {
+      final char c = regex.charAt(pos);
+      if (c == '-') {
+        on = false;
+      } else if (c == 'i') {
+        flags = on ? flags | Pattern.CASE_INSENSITIVE :
+          flags & ~Pattern.CASE_INSENSITIVE;
+      } else if (c == 's') {
+        flags = on ? flags | Pattern.DOTALL : flags & ~Pattern.DOTALL;
+      } else {
+        throw error("Unsupported inline flag '" + c + "'");
+      }
+      pos++;
+    }
+    if (pos == regex.length()) {
+      throw error("Unclosed group");
+    }
+  }
+
+
+  /**
+   * Parses an escape sequence outside a character class after its backslash.
+   *
+   * @return  regex node
+   */
+  // CheckStyle:ReturnCount OFF
+  private RegexNode parseEscape()
+  {
+    if (pos == regex.length()) {
+      throw error("Unexpected internal error");
+    }
+
+    final char c = regex.charAt(pos);
+    if (c >= '1' && c <= '9' || c == 'k') {
+      throw error("Backreferences are not supported");
+    }
+    if (c == 'b' || c == 'B' || c == 'G' || c == 'R' || c == 'X') {
+      throw error("Escape sequence \\" + c + " is not supported");
+    }
+    if (c == 'A') {
+      pos++;
+      return RegexNode.assertion(Nfa.ASSERT_BEGIN);
+    }
+    if (c == 'Z') {
+      pos++;
+      return RegexNode.assertion(Nfa.ASSERT_END);
+    }
+    if (c == 'z') {
+      pos++;
+      return RegexNode.assertion(Nfa.ASSERT_ABSOLUTE_END);
+    }
+    final int lit = parseEscapedLiteral();
+    return RegexNode.chars(lit >= 0 ? literal((char) lit) : parseEscapedSet());
+  }
+  // CheckStyle:ReturnCount ON
+
+
+  /**
+   * Parses a character class after its opening bracket.
+   *
+   * @return  character set
+   */
+  private int[] parseClass()
+  {
+    boolean negate = false;
+    if (pos < regex.length() && regex.charAt(pos) == '^') {
+      negate = true;
+      pos++;
+    }
+
+    int[] ranges = new int[INITIAL_CAPACITY];
+    int size = 0;
+    boolean first = true;
+    while (true) {
+      if (pos >= regex.length()) {
+        throw error("Unclosed character class");
+      }
+
+      final char c = regex.charAt(pos);
+      if (c == ']' && !first) {
+        pos++;
+        break;
+      }
+      if (c == '[') {
+        throw error("Nested character classes are not supported");
+      }
+      if (c == '&' && regex.startsWith("&&", pos)) {
+        throw error("Character class intersection is not supported");
+      }
+
+      final int[] set;
+      final int start = parseClassLiteral();
+      if (start < 0) {
+        set = parseEscapedSet();
+      } else if (
+        pos + 1 < regex.length() &&
+          regex.charAt(pos) == '-' &&
+          regex.charAt(pos + 1) != ']') {
+        pos++;
+
+        final int end = parseClassLiteral();
+        if (end < 0 || end < start) {
+          throw error("Illegal character range");
+        }
+        set = CharRanges.of(start, end);
+      } else {
+        set = CharRanges.of(start, start);
+      }
+      if (size + set.length > ranges.length) {
+        ranges = Arrays.copyOf(ranges, (size + set.length) * 2);
+      }
+      System.arraycopy(set, 0, ranges, size, set.length);
+      size += set.length;
+      first = false;
+    }
+
+    int[] set = CharRanges.normalize(ranges, size);
+    if ((flags & Pattern.CASE_INSENSITIVE) != 0) {
+      set = CharRanges.foldCase(set);
+    }
+    return negate ? CharRanges.negate(set) : set;
+  }
+
+
+  /**
+   * Parses a single character of a character class.
+   *
+   * @return  character or -1 if the next element is an escaped set
+   */
+  // CheckStyle:ReturnCount OFF
+  private int parseClassLiteral()
+  {
+    if (pos >= regex.length()) {
+      throw error("Unclosed character class");
+    }
+
+    final char c = regex.charAt(pos++);
+    if (c != '\\') {
+      return c;
+    }
+    if (pos == regex.length()) {
+      throw error("Unclosed character class");
+    }
+    return parseEscapedLiteral();
+  }
+  // CheckStyle:ReturnCount ON
+
+
+  /**
+   * Parses an escape sequence after its backslash if it denotes a single
+   * character.
+   *
+   * @return  character or -1 if the escape denotes a set, in which case the
+   * position is unchanged
+   */
+  // CheckStyle:ReturnCount OFF
+  private int parseEscapedLiteral()
+  {
+    final char c = regex.charAt(pos);
+    switch (c) {
+
+    case 't':
+      pos++;
+      return '\t';
+
+    case 'n':
+      pos++;
+      return '\n';
+
+    case 'r':
+      pos++;
+      return '\r';
+
+    case 'f':
+      pos++;
+      return '\f';
+
+    case 'a':
+      pos++;
+      return '\u0007';
+
+    case 'e':
+      pos++;
+      return '\u001B';
+
+    case 'c':
+      pos++;
+      if (pos == regex.length()) {
+        throw error("Illegal control escape sequence");
+      }
+      return regex.charAt(pos++) ^ CONTROL_BIT;
+
+    case 'x':
+      pos++;
+      if (pos < regex.length() && regex.charAt(pos) == '{') {
+        final int end = regex.indexOf('}', pos);
+        if (end < 0) {
+          throw error("Unclosed hexadecimal escape sequence");
+        }
+
+        final int value = parseRadix(pos + 1, end, HEX_RADIX);
+        pos = end + 1;
+        if (value > Character.MAX_VALUE) {
+          throw error("Supplementary characters are not supported");
+        }
+        return value;
+      }
+      pos += HEX_DIGITS;
+      return parseRadix(pos - HEX_DIGITS, pos, HEX_RADIX);
+
+    case 'u':
+      pos += 1 + UNICODE_DIGITS;
+      return parseRadix(pos - UNICODE_DIGITS, pos, HEX_RADIX);
+
+    case '0':
+      pos++;
+      return parseOctal();
+
+    default:
+      if (Character.isLetterOrDigit(c)) {
+        return -1;
+      }
+      pos++;
+      return c;
+    }
+  }
+  // CheckStyle:ReturnCount ON
+
+
+  /**
+   * Parses an escape sequence after its backslash that denotes a set of
+   * characters.
+   *
+   * @return  character set
+   */
+  // CheckStyle:ReturnCount OFF
+  private int[] parseEscapedSet()
+  {
+    final char c = regex.charAt(pos++);
+    switch (c) {
+
+    case 'd':
+      return DIGIT;
+
+    case 'D':
+      return CharRanges.negate(DIGIT);
+
+    case 'w':
+      return WORD;
+
+    case 'W':
+      return CharRanges.negate(WORD);
+
+    case 's':
+      return SPACE;
+
+    case 'S':
+      return CharRanges.negate(SPACE);
+
+    case 'p':
+      return parseProperty();
+
+    case 'P':
+      return CharRanges.negate(parseProperty());
+
+    default:
+      pos--;
+      throw error("Illegal/unsupported escape sequence");
+    }
+  }
+  // CheckStyle:ReturnCount ON
+
+
+  /**
+   * Parses the name of a character property after \p or \P.
+   *
+   * @return  character set
+   */
+  // CheckStyle:ReturnCount OFF
+  private int[] parseProperty()
+  {
+    if (pos == regex.length()) {
+      throw error("Illegal character property");
+    }
+
+    String name;
+    if (regex.charAt(pos) == '{') {
+      final int end = regex.indexOf('}', pos);
+      if (end < 0) {
+        throw error("Unclosed character family");
+      }
+      name = regex.substring(pos + 1, end);
+      pos = end + 1;
+    } else {
+      name = regex.substring(pos, pos + 1);
+      pos++;
+    }
+    if (name.startsWith("Is")) {
+      name = name.substring(2);
+    }
+
+    final boolean caseInsensitive = (flags & Pattern.CASE_INSENSITIVE) != 0;
+    for (int i = 0; i < POSIX_NAMES.length; i++) {
+      if (POSIX_NAMES[i].equals(name)) {
+        return
+          caseInsensitive ? CharRanges.foldCase(POSIX_SETS[i]) : POSIX_SETS[i];
+      }
+    }
+
+    final boolean[] types = new boolean[CATEGORY_NAMES.length];
+    boolean found = false;
+    for (int i = 0; i < CATEGORY_NAMES.length; i++) {
+      final String category = CATEGORY_NAMES[i];
+      if (
+        category != null &&
+          (category.equals(name) ||
+            name.length() == 1 && category.charAt(0) == name.charAt(0))) {
+        types[i] = true;
+        found = true;
+      }
+    }
+    if (!found) {
+      throw error("Unknown character property name {" + name + "}");
+    }
+    if (
+      caseInsensitive &&
+        (types[Character.UPPERCASE_LETTER] ||
+          types[Character.LOWERCASE_LETTER] ||
+          types[Character.TITLECASE_LETTER])) {
+      // like Pattern, a cased letter category matches letters of every case
+      types[Character.UPPERCASE_LETTER] = true;
+      types[Character.LOWERCASE_LETTER] = true;
+      types[Character.TITLECASE_LETTER] = true;
+    }
+
+    int[] ranges = new int[INITIAL_CAPACITY];
+    int size = 0;
+    for (int c = Character.MIN_VALUE; c <= Character.MAX_VALUE; c++) {
+      if (types[Character.getType(c)]) {
+        if (size > 0 && ranges[size - 1] == c - 1) {
+          ranges[size - 1] = c;
+        } else {
+          if (size == ranges.length) {
+            ranges = Arrays.copyOf(ranges, size * 2);
+          }
+          ranges[size++] = c;
+          ranges[size++] = c;
+        }
+      }
+    }
+    return Arrays.copyOf(ranges, size);
+  }
+  // CheckStyle:ReturnCount ON
+
+
+  /**
+   * Parses up to three octal digits after \0.
+   *
+   * @return  character
+   */
+  private int parseOctal()
+  {
+    int value = 0;
+    int digits = 0;
+    while (pos < regex.length() && digits < MAX_OCTAL_DIGITS) {
+      final int d = Character.digit(regex.charAt(pos), OCTAL_RADIX);
+      if (d < 0 || digits == 2 && value > MAX_OCTAL_PREFIX) {
+        break;
+      }
+      value = value * OCTAL_RADIX + d;
+      digits++;
+      pos++;
+    }
+    if (digits == 0) {
+      throw error("Illegal octal escape sequence");
+    }
+    return value;
+  }
+
+
+  /**
+   * Parses a number in the supplied radix.
+   *
+   * @param  start  index of the first digit
+   * @param  end  index after the last digit
+   * @param  radix  of the number
+   *
+   * @return  value of the number
+   */
+  private int parseRadix(final int start, final int end, final int radix)
+  {
+    if (start >= end || end > regex.length()) {
+      throw error("Illegal escape sequence");
+    }
+
+    int value = 0;
+    for (int i = start; i < end; i++) {
+      final int d = Character.digit(regex.charAt(i), radix);
+      if (d < 0 || value > Character.MAX_VALUE) {
+        throw error("Illegal escape sequence");
+      }
+      value = value * radix + d;
+    }
+    return value;
+  }
+
+
+  /**
+   * Parses a decimal number of a repetition.
+   *
+   * @return  value of the number
+   */
+  private int parseNumber()
+  {
+    final int start = pos;
+    while (peekDigit()) {
+      pos++;
+    }
+    if (start == pos) {
+      throw error("Illegal repetition");
+    }
+    try {
+      return Integer.parseInt(regex.substring(start, pos));
+    } catch (NumberFormatException e) {
+      throw error("Illegal repetition");
+    }
+  }
+
+
+  /**
+   * Returns whether the next character is a decimal digit.
+   *
+   * @return  whether a digit follows
+   */
+  private boolean peekDigit()
+  {
+    return
+      pos < regex.length() &&
+      regex.charAt(pos) >= '0' &&
+      regex.charAt(pos) <= '9';
+  }
+
+
+  /**
+   * Returns the set matching the supplied literal character with the current
+   * flags.
+   *
+   * @param  c  literal character
+   *
+   * @return  character set
+   */
+  private int[] literal(final char c)
+  {
+    final int[] set = CharRanges.of(c, c);
+    return (flags & Pattern.CASE_INSENSITIVE) != 0 ?
+      CharRanges.foldCase(set) : set;
+  }
+
+
+  /**
+   * Consumes the supplied character.
+   *
+   * @param  c  expected character
+   * @param  message  of the error if the character is missing
+   */
+  private void expect(final char c, final String message)
+  {
+    if (pos >= regex.length() || regex.charAt(pos) != c) {
+      throw error(message);
+    }
+    pos++;
+  }
+
+
+  /**
+   * Creates a syntax exception at the current position.
+   *
+   * @param  message  describing the error
+   *
+   * @return  pattern syntax exception
+   */
+  private PatternSyntaxException error(final String message)
+  {
+    return new PatternSyntaxException(message, regex, pos);
+  }
+
+
+  /**
+   * Replaces each quote of the supplied expression, from \\Q to \\E or the
+   * end, with the escaped characters it quotes, as {@link Pattern} does before
+   * parsing. A quantifier after a quote therefore applies to its last
+   * character only.
+   *
+   * @param  r  regular expression
+   *
+   * @return  regular expression without quotes
+   */
+  private static String removeQuoting(final String r)
+  {
+    if (r.indexOf("\\Q") < 0) {
+      return r;
+    }
+
+    final StringBuilder sb = new StringBuilder(r.length() * 2);
+    int i = 0;
+    while (i < r.length()) {
+      final char c = r.charAt(i++);
+      if (c != '\\' || i == r.length()) {
+        sb.append(c);
+      } else if (r.charAt(i) != 'Q') {
+        sb.append(c).append(r.charAt(i++));
+      } else {
+        int end = r.indexOf("\\E", ++i);
+        if (end < 0) {
+          end = r.length();
+        }
+        for (; i < end; i++) {
+          final char q = r.charAt(i);
+          if (q >= '0' && q <= '9') {
+            // a hexadecimal escape cannot join a preceding escape
+            sb.append("\\x3").append(q);
+          } else if (q > '\u007F' || Character.isLetter(q)) {
+            sb.append(q);
+          } else {
+            sb.append('\\').append(q);
+          }
+        }
+        i = Math.min(end + 2, r.length());
+      }
+    }
+    return sb.toString();
+  }
+}
@@ -41,6 +41,31 @@ public class AllowedRegexRuleTest extends AbstractRuleTest
           new PasswordData("pwUi0248xwK"),
           null,
         },
+
+        // test dfa invalid password
+        {
+          new AllowedRegexRule("\\d\\d\\d\\d", true),
+          new PasswordData("p4zRcv8#n65"),
+          codes(AllowedRegexRule.ERROR_CODE),
+        },
+        // test dfa entire password
+        {
+          new AllowedRegexRule("^[\\p{Alpha}]+\\d\\d\\d\\d$", true),
+          new PasswordData("pwUiNh0248"),
+          null,
+        },
+        // test dfa find password
+        {
+          new AllowedRegexRule("\\d\\d\\d\\d", true),
+          new PasswordData("pwUi0248xwK"),
+          null,
+        },
+        // test dfa with catastrophic backtracking pattern
+        {
+          new AllowedRegexRule("^(\\w+\\s?)*$", true),
+          new PasswordData("aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa!"),
+          codes(AllowedRegexRule.ERROR_CODE),
+        },
       };
   }
 
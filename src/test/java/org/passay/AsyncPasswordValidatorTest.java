@@ -0,0 +1,228 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.testng.AssertJUnit;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link AsyncPasswordValidator}.
+ *
+ * @author  Middleware Services
+ */
+public class AsyncPasswordValidatorTest
+{
+
+  /** Executor for expensive rules. */
+  private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+
+  /** Shuts down the executor. */
+  @AfterClass(groups = {"passtest"})
+  public void shutdown()
+  {
+    executor.shutdown();
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passtest"})
+  public void validate()
+    throws Exception
+  {
+    final Thread caller = Thread.currentThread();
+    final AtomicReference<Thread> inlineThread = new AtomicReference<>();
+    final AtomicReference<Thread> asyncThread = new AtomicReference<>();
+
+    final List<Rule> rules = new ArrayList<>();
+    rules.add(new AsyncRule(new ThreadRule(asyncThread, "SLOW", 50)));
+    rules.add(new LengthRule(8, 16));
+    rules.add(new ThreadRule(inlineThread, "FAST", 0));
+    rules.add(new AsyncRule(new DigitCharacterRule(1)));
+
+    final AsyncPasswordValidator validator = new AsyncPasswordValidator(
+      rules,
+      executor);
+    final ResultCallback callback = new ResultCallback();
+    final Future<RuleResult> future = validator.validateWithCallback(
+      new PasswordData("short"),
+      callback);
+    final RuleResult result = future.get(10, TimeUnit.SECONDS);
+    callback.await();
+
+    AssertJUnit.assertSame(caller, inlineThread.get());
+    AssertJUnit.assertNotSame(caller, asyncThread.get());
+    AssertJUnit.assertNotNull(asyncThread.get());
+    AssertJUnit.assertSame(result, callback.result);
+    AssertJUnit.assertNull(callback.cause);
+
+    final RuleResult expected = new PasswordValidator(rules).validate(
+      new PasswordData("short"));
+    AssertJUnit.assertFalse(result.isValid());
+    AssertJUnit.assertEquals(
+      expected.getDetails().toString(),
+      result.getDetails().toString());
+    AssertJUnit.assertEquals("SLOW", result.getDetails().get(0).getErrorCode());
+    AssertJUnit.assertEquals(
+      DigitCharacterRule.ERROR_CODE,
+      result.getDetails().get(3).getErrorCode());
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passtest"})
+  public void validateInline()
+    throws Exception
+  {
+    final List<Rule> rules = new ArrayList<>();
+    rules.add(new LengthRule(8, 16));
+    final AsyncPasswordValidator validator = new AsyncPasswordValidator(
+      rules,
+      executor);
+    final Future<RuleResult> future = validator.validateAsync(
+      new PasswordData("password"));
+    AssertJUnit.assertTrue(future.isDone());
+    AssertJUnit.assertTrue(future.get().isValid());
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passtest"})
+  public void validateFailure()
+    throws Exception
+  {
+    final List<Rule> rules = new ArrayList<>();
+    rules.add(new LengthRule(8, 16));
+    rules.add(
+      new AsyncRule(
+        new Rule() {
+          @Override
+          public RuleResult validate(final PasswordData passwordData)
+          {
+            throw new IllegalStateException("Source unavailable");
+          }
+        }));
+
+    final AsyncPasswordValidator validator = new AsyncPasswordValidator(
+      rules,
+      executor);
+    final ResultCallback callback = new ResultCallback();
+    final Future<RuleResult> future = validator.validateWithCallback(
+      new PasswordData("password"),
+      callback);
+    try {
+      future.get(10, TimeUnit.SECONDS);
+      AssertJUnit.fail("Should have thrown ExecutionException");
+    } catch (ExecutionException e) {
+      AssertJUnit.assertEquals(
+        IllegalStateException.class,
+        e.getCause().getClass());
+    }
+    callback.await();
+    AssertJUnit.assertNull(callback.result);
+    AssertJUnit.assertEquals(
+      "Source unavailable",
+      callback.cause.getMessage());
+  }
+
+
+  /** Rule that records the thread it runs on and always fails. */
+  private static class ThreadRule implements Rule
+  {
+
+    /** Thread the rule ran on. */
+    private final AtomicReference<Thread> thread;
+
+    /** Error code to report. */
+    private final String code;
+
+    /** Time to sleep in milliseconds. */
+    private final long sleep;
+
+
+    /**
+     * Creates a new thread rule.
+     *
+     * @param  t  receives the thread the rule ran on
+     * @param  c  error code to report
+     * @param  s  time to sleep in milliseconds
+     */
+    ThreadRule(final AtomicReference<Thread> t, final String c, final long s)
+    {
+      thread = t;
+      code = c;
+      sleep = s;
+    }
+
+
+    @Override
+    public RuleResult validate(final PasswordData passwordData)
+    {
+      thread.set(Thread.currentThread());
+      try {
+        Thread.sleep(sleep);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return new RuleResult(false, new RuleResultDetail(code, null));
+    }
+  }
+
+
+  /** Callback that records the outcome. */
+  private static class ResultCallback implements ValidationCallback
+  {
+
+    /** Signals that the callback was invoked. */
+    private final CountDownLatch latch = new CountDownLatch(1);
+
+    /** Result of the validation. */
+    private volatile RuleResult result;
+
+    /** Cause of the failure. */
+    private volatile Throwable cause;
+
+
+    @Override
+    public void completed(final RuleResult rr)
+    {
+      result = rr;
+      latch.countDown();
+    }
+
+
+    @Override
+    public void failed(final Throwable t)
+    {
+      cause = t;
+      latch.countDown();
+    }
+
+
+    /**
+     * Waits for the callback to be invoked.
+     *
+     * @throws  InterruptedException  if interrupted while waiting
+     */
+    public void await()
+      throws InterruptedException
+    {
+      AssertJUnit.assertTrue(latch.await(10, TimeUnit.SECONDS));
+    }
+  }
+}
@@ -0,0 +1,174 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.io.File;
+import java.io.StringReader;
+import org.passay.dictionary.LocalHashRangeSource;
+import org.passay.dictionary.MappedHashRangeSource;
+import org.testng.AssertJUnit;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link BreachedPasswordRule}.
+ *
+ * @author  Middleware Services
+ */
+public class BreachedPasswordRuleTest extends AbstractRuleTest
+{
+
+  /** Sorted SHA-1 hashes of breached passwords. */
+  private static final String HASHES =
+    "03C36E92244D17AB8B34D2C4ACBF49C775F7A1E8:3\n" +
+    "5BAA61E4C9B93F3F0682250B6CF8331B7EE68FD7:1\n" +
+    "5BAA61E4C9B93F3F0682250B6CF8331B7EE68FD8:3861493\n" +
+    "5BAA61E4C9B93F3F0682250B6CF8331B7EE68FD8:3861493\n" +
+    "5BAA61E4C9B93F3F0682250B6CF8331B7EE68FD9:2\n" +
+    "7C4A8D09CA3762AF61E59520943DC26494F8941B:24230577\n" +
+    "B1B3773A05C0ED0176787A4F1574FF0075F7521E:4401479\n" +
+    "B7A875FC1EA228B9061041B7CEC4BD3C52AB3CE3:1068474\n";
+
+  /** Test password. */
+  private static final String VALID_PASS = "t3stUs3r00";
+
+  /** Test password. */
+  private static final String BREACHED_PASS = "password";
+
+  /** For testing. */
+  private BreachedPasswordRule localRule;
+
+  /** For testing. */
+  private BreachedPasswordRule mappedRule;
+
+
+  /**
+   * Initialize rules for this test.
+   *
+   * @throws  Exception  if the hash range file cannot be written
+   */
+  @BeforeClass(groups = {"passtest"})
+  public void createRules()
+    throws Exception
+  {
+    localRule = new BreachedPasswordRule(
+      LocalHashRangeSource.createFromReader(new StringReader(HASHES)));
+
+    final File file = File.createTempFile("passay", ".sha1");
+    file.deleteOnExit();
+    mappedRule = new BreachedPasswordRule(
+      MappedHashRangeSource.createFromReader(new StringReader(HASHES), file));
+  }
+
+
+  /**
+   * @return  Test data.
+   *
+   * @throws  Exception  On test data generation failure.
+   */
+  @DataProvider(name = "passwords")
+  public Object[][] passwords()
+    throws Exception
+  {
+    return
+      new Object[][] {
+
+        {localRule, new PasswordData(VALID_PASS), null, },
+        {
+          localRule,
+          new PasswordData(BREACHED_PASS),
+          codes(BreachedPasswordRule.ERROR_CODE),
+        },
+        {
+          localRule,
+          new PasswordData("123456"),
+          codes(BreachedPasswordRule.ERROR_CODE),
+        },
+        {
+          localRule,
+          new PasswordData("letmein"),
+          codes(BreachedPasswordRule.ERROR_CODE),
+        },
+
+        {mappedRule, new PasswordData(VALID_PASS), null, },
+        {mappedRule, new PasswordData("correcthorse"), null, },
+        {
+          mappedRule,
+          new PasswordData(BREACHED_PASS),
+          codes(BreachedPasswordRule.ERROR_CODE),
+        },
+        {
+          mappedRule,
+          new PasswordData("qwerty"),
+          codes(BreachedPasswordRule.ERROR_CODE),
+        },
+        {
+          mappedRule,
+          new PasswordData("letmein"),
+          codes(BreachedPasswordRule.ERROR_CODE),
+        },
+      };
+  }
+
+
+  /**
+   * @return  Test data.
+   *
+   * @throws  Exception  On test data generation failure.
+   */
+  @DataProvider(name = "messages")
+  public Object[][] messages()
+    throws Exception
+  {
+    return
+      new Object[][] {
+        {
+          mappedRule,
+          new PasswordData(BREACHED_PASS),
+          new String[] {"Password has been found in a data breach."},
+        },
+      };
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passtest"})
+  public void checkHashRanges()
+    throws Exception
+  {
+    final LocalHashRangeSource source =
+      LocalHashRangeSource.createFromReader(new StringReader(HASHES));
+    AssertJUnit.assertEquals(3, source.getRange("5BAA6").length);
+    AssertJUnit.assertEquals(0, source.getRange("00000").length);
+
+    final MappedHashRangeSource mapped =
+      (MappedHashRangeSource) mappedRule.getHashSource();
+    AssertJUnit.assertEquals(7, mapped.size());
+    AssertJUnit.assertTrue(
+      mapped.search("5baa6", "1e4c9b93f3f0682250b6cf8331b7ee68fd9"));
+    AssertJUnit.assertFalse(
+      mapped.search("5BAA6", "1E4C9B93F3F0682250B6CF8331B7EE68FDA"));
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(
+    groups = {"passtest"},
+    expectedExceptions = IllegalArgumentException.class
+  )
+  public void checkUnsortedHashes()
+    throws Exception
+  {
+    final File file = File.createTempFile("passay", ".sha1");
+    file.deleteOnExit();
+    MappedHashRangeSource.createFromReader(
+      new StringReader(
+        "7C4A8D09CA3762AF61E59520943DC26494F8941B\n" +
+        "5BAA61E4C9B93F3F0682250B6CF8331B7EE68FD8\n"),
+      file);
+  }
+}
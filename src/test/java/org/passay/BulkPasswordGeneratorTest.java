@@ -0,0 +1,114 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.testng.AssertJUnit;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link BulkPasswordGenerator}.
+ *
+ * @author  Middleware Services
+ */
+public class BulkPasswordGeneratorTest
+{
+
+  /** Rules to generate passwords with. */
+  private final List<CharacterRule> rules = new ArrayList<>();
+
+  /** Validator to verify passwords with. */
+  private PasswordValidator validator;
+
+
+  /** @throws  Exception  On test failure. */
+  @BeforeClass(groups = {"passgentest"})
+  public void initializeRules()
+    throws Exception
+  {
+    rules.add(new DigitCharacterRule(2));
+    rules.add(new SpecialCharacterRule(2));
+    rules.add(new UppercaseCharacterRule(1));
+    rules.add(new LowercaseCharacterRule(1));
+
+    final List<Rule> verifyRules = new ArrayList<Rule>(rules);
+    verifyRules.add(new LengthRule(10, 10));
+    validator = new PasswordValidator(verifyRules);
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passgentest"})
+  public void generate()
+    throws Exception
+  {
+    final BulkPasswordGenerator generator = new BulkPasswordGenerator(
+      10,
+      rules);
+    final char[] password = new char[10];
+    for (int i = 0; i < 100; i++) {
+      generator.generate(password);
+      AssertJUnit.assertTrue(
+        validator.validate(new PasswordData(new String(password))).isValid());
+    }
+    AssertJUnit.assertEquals(10, generator.generate().length);
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passgentest"})
+  public void generateBulk()
+    throws Exception
+  {
+    final BulkPasswordGenerator generator = new BulkPasswordGenerator(
+      10,
+      rules);
+    final ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      final char[][] passwords = generator.generate(5000, pool);
+      AssertJUnit.assertEquals(5000, passwords.length);
+      for (char[] password : passwords) {
+        AssertJUnit.assertTrue(
+          validator.validate(new PasswordData(new String(password))).isValid());
+      }
+    } finally {
+      pool.shutdown();
+    }
+    AssertJUnit.assertEquals(3, generator.generate(3).length);
+    AssertJUnit.assertEquals(0, generator.generate(0).length);
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passgentest"})
+  public void invalidArguments()
+    throws Exception
+  {
+    try {
+      new BulkPasswordGenerator(5, rules);
+      AssertJUnit.fail("Should have thrown IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      AssertJUnit.assertEquals(IllegalArgumentException.class, e.getClass());
+    }
+    try {
+      new BulkPasswordGenerator(10, new ArrayList<CharacterRule>());
+      AssertJUnit.fail("Should have thrown IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      AssertJUnit.assertEquals(IllegalArgumentException.class, e.getClass());
+    }
+    try {
+      new BulkPasswordGenerator(10, rules).generate(new char[8]);
+      AssertJUnit.fail("Should have thrown IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      AssertJUnit.assertEquals(IllegalArgumentException.class, e.getClass());
+    }
+  }
+}
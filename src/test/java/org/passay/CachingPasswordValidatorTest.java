@@ -0,0 +1,222 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link CachingPasswordValidator}.
+ *
+ * @author  Middleware Services
+ */
+public class CachingPasswordValidatorTest
+{
+
+  /** Invocations of the cacheable rule. */
+  private final AtomicInteger cacheableCount = new AtomicInteger();
+
+  /** Invocations of the rule that is not cacheable. */
+  private final AtomicInteger uncacheableCount = new AtomicInteger();
+
+
+  /**
+   * Creates rules that count their invocations.
+   *
+   * @return  password rules
+   */
+  private List<Rule> createRules()
+  {
+    final List<Rule> rules = new ArrayList<>();
+    rules.add(new LengthRule(8, 16));
+    rules.add(
+      new CacheableRule() {
+        @Override
+        public boolean isCacheable()
+        {
+          return true;
+        }
+
+        @Override
+        public RuleResult validate(final PasswordData passwordData)
+        {
+          cacheableCount.incrementAndGet();
+          return new RuleResult(true);
+        }
+      });
+    rules.add(
+      new Rule() {
+        @Override
+        public RuleResult validate(final PasswordData passwordData)
+        {
+          uncacheableCount.incrementAndGet();
+          return new RuleResult(
+            false,
+            new RuleResultDetail("UNCACHED", null));
+        }
+      });
+    rules.add(new UsernameRule());
+    rules.add(new HistoryRule());
+    return rules;
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passtest"})
+  public void checkHitsAndMisses()
+    throws Exception
+  {
+    cacheableCount.set(0);
+    uncacheableCount.set(0);
+
+    final List<Rule> rules = createRules();
+    final PasswordValidator expected = new PasswordValidator(rules);
+    final CachingPasswordValidator validator = new CachingPasswordValidator(
+      rules);
+    AssertJUnit.assertEquals(0, validator.size());
+
+    final PasswordData data = new PasswordData("shortpw");
+    data.setUsername("shortpw");
+    checkResult(expected.validate(data), validator.validate(data));
+    checkResult(expected.validate(data), validator.validate(data));
+    AssertJUnit.assertEquals(1, validator.getMissCount());
+    AssertJUnit.assertEquals(1, validator.getHitCount());
+    AssertJUnit.assertEquals(3, cacheableCount.get());
+    AssertJUnit.assertEquals(4, uncacheableCount.get());
+
+    // same password with a different username
+    final PasswordData other = new PasswordData("shortpw");
+    other.setUsername("user");
+    checkResult(expected.validate(other), validator.validate(other));
+    AssertJUnit.assertEquals(2, validator.getMissCount());
+
+    // same password and username with references
+    final List<PasswordData.Reference> refs = new ArrayList<>();
+    refs.add(new PasswordData.HistoricalReference("shortpw"));
+    other.setPasswordReferences(refs);
+    checkResult(expected.validate(other), validator.validate(other));
+    checkResult(expected.validate(other), validator.validate(other));
+    AssertJUnit.assertEquals(3, validator.getMissCount());
+    AssertJUnit.assertEquals(2, validator.getHitCount());
+    AssertJUnit.assertEquals(3, validator.size());
+
+    validator.clear();
+    AssertJUnit.assertEquals(0, validator.size());
+    validator.validate(data);
+    AssertJUnit.assertEquals(4, validator.getMissCount());
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passtest"})
+  public void checkEviction()
+    throws Exception
+  {
+    final CachingPasswordValidator validator = new CachingPasswordValidator(
+      new PropertiesMessageResolver(),
+      createRules(),
+      2,
+      1,
+      TimeUnit.HOURS);
+    validator.validate(newData("password1"));
+    validator.validate(newData("password2"));
+    validator.validate(newData("password1"));
+    validator.validate(newData("password3"));
+    AssertJUnit.assertEquals(2, validator.size());
+    AssertJUnit.assertEquals(1, validator.getHitCount());
+
+    // password2 was least recently used
+    validator.validate(newData("password1"));
+    validator.validate(newData("password2"));
+    AssertJUnit.assertEquals(2, validator.getHitCount());
+    AssertJUnit.assertEquals(4, validator.getMissCount());
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passtest"})
+  public void checkExpiration()
+    throws Exception
+  {
+    final CachingPasswordValidator validator = new CachingPasswordValidator(
+      new PropertiesMessageResolver(),
+      createRules(),
+      CachingPasswordValidator.DEFAULT_MAXIMUM_SIZE,
+      1,
+      TimeUnit.MILLISECONDS);
+    validator.validate(newData("password1"));
+    Thread.sleep(10);
+    validator.validate(newData("password1"));
+    AssertJUnit.assertEquals(0, validator.getHitCount());
+    AssertJUnit.assertEquals(2, validator.getMissCount());
+    AssertJUnit.assertEquals(
+      1,
+      validator.getTimeToLive(TimeUnit.MILLISECONDS));
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passtest"})
+  public void checkCacheable()
+    throws Exception
+  {
+    final CharacterCharacteristicsRule charRule =
+      new CharacterCharacteristicsRule();
+    charRule.getRules().add(new DigitCharacterRule(1));
+    charRule.getRules().add(new SpecialCharacterRule(1));
+    AssertJUnit.assertTrue(charRule.isCacheable());
+    AssertJUnit.assertTrue(PasswordUtils.isCacheable(new DictionaryRule()));
+    AssertJUnit.assertTrue(
+      PasswordUtils.isCacheable(new RepeatCharacterRegexRule()));
+    AssertJUnit.assertFalse(
+      PasswordUtils.isCacheable(new PasswordValidator(createRules())));
+
+    final List<Rule> rules = new ArrayList<>();
+    rules.add(new UsernameRule());
+    rules.add(charRule);
+    AssertJUnit.assertTrue(new PasswordValidator(rules).isCacheable());
+  }
+
+
+  /**
+   * Creates password data with a username.
+   *
+   * @param  password  of the data
+   *
+   * @return  password data
+   */
+  private static PasswordData newData(final String password)
+  {
+    final PasswordData data = new PasswordData(password);
+    data.setUsername("user");
+    return data;
+  }
+
+
+  /**
+   * Asserts that two results are equal.
+   *
+   * @param  expected  result
+   * @param  actual  result
+   */
+  private static void checkResult(
+    final RuleResult expected,
+    final RuleResult actual)
+  {
+    AssertJUnit.assertEquals(expected.isValid(), actual.isValid());
+    AssertJUnit.assertEquals(
+      expected.getDetails().toString(),
+      actual.getDetails().toString());
+  }
+}
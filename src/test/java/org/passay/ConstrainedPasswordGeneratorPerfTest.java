@@ -0,0 +1,111 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Reports the number of valid passwords per second created by {@link
+ * ConstrainedPasswordGenerator} and by generating passwords with {@link
+ * PasswordGenerator} until the validator accepts one.
+ *
+ * @author  Middleware Services
+ */
+public class ConstrainedPasswordGeneratorPerfTest
+{
+
+  /** Number of valid passwords to create. */
+  private static final int ITERATIONS = 20000;
+
+  /** Number of rounds of each measurement. */
+  private static final int ROUNDS = 3;
+
+
+
+  /**
+   * Gets performance test data.
+   *
+   * @return  validator, character rules and password length of each policy
+   */
+  @DataProvider(name = "perf-data")
+  public Object[][] perfData()
+  {
+    final List<CharacterRule> charRules = new ArrayList<>();
+    charRules.add(new DigitCharacterRule(2));
+    charRules.add(new SpecialCharacterRule(1));
+    charRules.add(new UppercaseCharacterRule(1));
+    charRules.add(new LowercaseCharacterRule(1));
+
+    final List<CharacterRule> pinRules = new ArrayList<>();
+    pinRules.add(new DigitCharacterRule(8));
+    final List<Rule> pinPolicy = new ArrayList<>();
+    pinPolicy.add(new LengthRule(8, 8));
+    pinPolicy.add(new NumericalSequenceRule(3, true));
+    pinPolicy.add(new QwertySequenceRule(3, true));
+    pinPolicy.add(new RepeatCharacterRegexRule(3));
+
+    return
+      new Object[][] {
+        new Object[] {
+          ConstrainedPasswordGeneratorTest.createValidator(),
+          charRules,
+          12,
+        },
+        new Object[] {new PasswordValidator(pinPolicy), pinRules, 8},
+      };
+  }
+
+
+  /**
+   * Executes the performance test with both generators.
+   *
+   * @param  validator  that passwords must pass
+   * @param  charRules  character rules to generate passwords from
+   * @param  length  of generated passwords
+   */
+  @Test(groups = {"genperftest"}, dataProvider = "perf-data", timeOut = 300000)
+  public void execute(
+    final PasswordValidator validator,
+    final List<CharacterRule> charRules,
+    final int length)
+  {
+    final PasswordGenerator naive = new PasswordGenerator();
+    final ConstrainedPasswordGenerator constrained =
+      new ConstrainedPasswordGenerator(validator, length, charRules);
+    long naiveTime = Long.MAX_VALUE;
+    long constrainedTime = Long.MAX_VALUE;
+    long candidates = 0;
+    for (int i = 0; i < ROUNDS; i++) {
+      long t = System.nanoTime();
+      candidates = 0;
+      for (int j = 0; j < ITERATIONS; j++) {
+        final PasswordData data = new PasswordData();
+        data.setUsername("user");
+        do {
+          data.setPassword(naive.generatePassword(length, charRules));
+          candidates++;
+        } while (!validator.validate(data).isValid());
+      }
+      naiveTime = Math.min(naiveTime, System.nanoTime() - t);
+
+      t = System.nanoTime();
+      for (int j = 0; j < ITERATIONS; j++) {
+        final PasswordData data = new PasswordData();
+        data.setUsername("user");
+        constrained.generatePassword(data);
+      }
+      constrainedTime = Math.min(constrainedTime, System.nanoTime() - t);
+    }
+    System.out.println(
+      String.format(
+        "%s:: length %s, generate and validate %.0f passwords/s " +
+        "(%.1f%% accepted), constrained %.0f passwords/s",
+        getClass().getName(),
+        length,
+        ITERATIONS * 1e9 / naiveTime,
+        ITERATIONS * 100.0 / candidates,
+        ITERATIONS * 1e9 / constrainedTime));
+  }
+}
@@ -0,0 +1,123 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link ConstrainedPasswordGenerator}.
+ *
+ * @author  Middleware Services
+ */
+public class ConstrainedPasswordGeneratorTest
+{
+
+
+  /**
+   * Creates a validator with a strict policy.
+   *
+   * @return  password validator
+   */
+  static PasswordValidator createValidator()
+  {
+    final CharacterCharacteristicsRule charRule =
+      new CharacterCharacteristicsRule();
+    charRule.getRules().add(new DigitCharacterRule(2));
+    charRule.getRules().add(new SpecialCharacterRule(1));
+    charRule.getRules().add(new UppercaseCharacterRule(1));
+    charRule.getRules().add(new LowercaseCharacterRule(1));
+    charRule.setNumberOfCharacteristics(4);
+
+    final List<Rule> rules = new ArrayList<>();
+    rules.add(new LengthRule(12, 12));
+    rules.add(charRule);
+    rules.add(new WhitespaceRule());
+    rules.add(new AlphabeticalSequenceRule(3, true));
+    rules.add(new NumericalSequenceRule(3, true));
+    rules.add(new QwertySequenceRule(3, true));
+    rules.add(new RepeatCharacterRegexRule(3));
+    rules.add(new UsernameRule());
+    return new PasswordValidator(rules);
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passgentest"})
+  public void generatePassword()
+    throws Exception
+  {
+    final PasswordValidator validator = createValidator();
+    final ConstrainedPasswordGenerator generator =
+      new ConstrainedPasswordGenerator(validator, 12);
+    for (int i = 0; i < 1000; i++) {
+      final PasswordData data = new PasswordData();
+      data.setUsername("user");
+      final String password = generator.generatePassword(data);
+      AssertJUnit.assertEquals(12, password.length());
+      AssertJUnit.assertEquals(password, data.getPassword());
+      AssertJUnit.assertTrue(validator.validate(data).isValid());
+    }
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passgentest"})
+  public void filterCharacters()
+    throws Exception
+  {
+    final List<Rule> rules = new ArrayList<>();
+    rules.add(new LengthRule(8, 8));
+    rules.add(new IllegalCharacterRule(new char[] {'0', '1'}));
+    rules.add(
+      new AllowedCharacterRule("0123abc".toCharArray()));
+    rules.add(new DigitCharacterRule(1));
+    rules.add(new LowercaseCharacterRule(1));
+    rules.add(new RepeatCharacterRegexRule(3));
+    rules.add(new RepeatCharacterRule(3, 2));
+    final PasswordValidator validator = new PasswordValidator(rules);
+    final ConstrainedPasswordGenerator generator =
+      new ConstrainedPasswordGenerator(validator, 8);
+    for (int i = 0; i < 100; i++) {
+      final String password = generator.generatePassword();
+      AssertJUnit.assertTrue(password.matches("[23abc]{8}"));
+      AssertJUnit.assertTrue(
+        validator.validate(new PasswordData(password)).isValid());
+    }
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passgentest"})
+  public void unsatisfiable()
+    throws Exception
+  {
+    final List<Rule> rules = new ArrayList<>();
+    rules.add(new DigitCharacterRule(1));
+    rules.add(new LengthRule(10, 12));
+    final ConstrainedPasswordGenerator generator =
+      new ConstrainedPasswordGenerator(new PasswordValidator(rules), 8);
+    generator.setMaxAttempts(5);
+    try {
+      generator.generatePassword();
+      AssertJUnit.fail("Should have thrown IllegalStateException");
+    } catch (IllegalStateException e) {
+      AssertJUnit.assertEquals(IllegalStateException.class, e.getClass());
+    }
+
+    rules.add(new IllegalCharacterRule("0123456789".toCharArray()));
+    try {
+      new ConstrainedPasswordGenerator(new PasswordValidator(rules), 8);
+      AssertJUnit.fail("Should have thrown IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      AssertJUnit.assertEquals(IllegalArgumentException.class, e.getClass());
+    }
+  }
+}
@@ -3,9 +3,12 @@ package org.passay;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.cryptacular.bean.EncodingHashBean;
 import org.cryptacular.spec.CodecSpec;
 import org.cryptacular.spec.DigestSpec;
+import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.DataProvider;
 
@@ -39,6 +42,12 @@ public class DigestHistoryRuleTest extends AbstractRuleTest
   private final List<PasswordData.Reference> saltedDigestRefs =
     new ArrayList<>();
 
+  /** For testing. */
+  private final ReferenceList indexedDigestRefs = new ReferenceList();
+
+  /** For testing. */
+  private final ReferenceList hexDigestRefs = new ReferenceList();
+
   /** For testing. */
   private final DigestHistoryRule digestRule = new DigestHistoryRule(
     new EncodingHashBean(new CodecSpec("Base64"), new DigestSpec("SHA1"), 1));
@@ -47,6 +56,21 @@ public class DigestHistoryRuleTest extends AbstractRuleTest
   private final DigestHistoryRule saltedDigestRule = new DigestHistoryRule(
     new EncodingHashBean(new CodecSpec("Base64"), new DigestSpec("SHA1"), 1));
 
+  /** For testing. */
+  private final DigestHistoryRule unsaltedDigestRule = new DigestHistoryRule(
+    new EncodingHashBean(new CodecSpec("Base64"), new DigestSpec("SHA1"), 1));
+
+  /** For testing. */
+  private final DigestHistoryRule hexDigestRule = new DigestHistoryRule(
+    new EncodingHashBean(new CodecSpec("Hex"), new DigestSpec("SHA1"), 1));
+
+  /** For testing. */
+  private final DigestHistoryRule parallelDigestRule = new DigestHistoryRule(
+    new EncodingHashBean(new CodecSpec("Base64"), new DigestSpec("SHA1"), 1));
+
+  /** For testing. */
+  private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
   /** For testing. */
   private final DigestHistoryRule emptyDigestRule = new DigestHistoryRule(
     new EncodingHashBean(new CodecSpec("Base64"), new DigestSpec("SHA1"), 1));
@@ -78,6 +102,29 @@ public class DigestHistoryRuleTest extends AbstractRuleTest
       new PasswordData.HistoricalReference(
         "salted-history",
         "3lABdWxtWhfGKtXBx4MfiWZ1737KnFuG"));
+
+    indexedDigestRefs.addAll(digestRefs);
+    indexedDigestRefs.addAll(saltedDigestRefs);
+
+    // digests encoded as upper and lower case hex
+    hexDigestRefs.add(
+      new PasswordData.HistoricalReference(
+        "history", "B1A7F1FCB5BCF92B12CBFA373E608DCB85449B9B"));
+    hexDigestRefs.add(
+      new PasswordData.HistoricalReference(
+        "history", "ceeadbf43c90e67a2863595af21f3a061d27d62c"));
+
+    unsaltedDigestRule.setSaltedReferences(false);
+    hexDigestRule.setSaltedReferences(false);
+    parallelDigestRule.setExecutor(executor);
+  }
+
+
+  /** Shutdown the executor used by the parallel rule. */
+  @AfterClass(groups = {"passtest"})
+  public void shutdownExecutor()
+  {
+    executor.shutdown();
   }
 
 
@@ -135,6 +182,69 @@ public class DigestHistoryRuleTest extends AbstractRuleTest
           codes(HistoryRule.ERROR_CODE),
         },
 
+        {
+          unsaltedDigestRule,
+          PasswordData.newInstance(VALID_PASS, USER, digestRefs),
+          null,
+        },
+        {
+          unsaltedDigestRule,
+          PasswordData.newInstance(HISTORY_PASS1, USER, digestRefs),
+          codes(HistoryRule.ERROR_CODE),
+        },
+        {
+          unsaltedDigestRule,
+          PasswordData.newInstance(HISTORY_PASS3, USER, digestRefs),
+          codes(HistoryRule.ERROR_CODE),
+        },
+        {
+          unsaltedDigestRule,
+          PasswordData.newInstance(VALID_PASS, USER, indexedDigestRefs),
+          null,
+        },
+        {
+          unsaltedDigestRule,
+          PasswordData.newInstance(HISTORY_PASS2, USER, indexedDigestRefs),
+          codes(HistoryRule.ERROR_CODE),
+        },
+        {
+          digestRule,
+          PasswordData.newInstance(HISTORY_PASS2, USER, indexedDigestRefs),
+          codes(HistoryRule.ERROR_CODE, HistoryRule.ERROR_CODE),
+        },
+
+        {
+          hexDigestRule,
+          PasswordData.newInstance(VALID_PASS, USER, hexDigestRefs),
+          null,
+        },
+        {
+          hexDigestRule,
+          PasswordData.newInstance(HISTORY_PASS1, USER, hexDigestRefs),
+          codes(HistoryRule.ERROR_CODE),
+        },
+        {
+          hexDigestRule,
+          PasswordData.newInstance(HISTORY_PASS2, USER, hexDigestRefs),
+          codes(HistoryRule.ERROR_CODE),
+        },
+
+        {
+          parallelDigestRule,
+          PasswordData.newInstance(VALID_PASS, USER, saltedDigestRefs),
+          null,
+        },
+        {
+          parallelDigestRule,
+          PasswordData.newInstance(HISTORY_PASS2, USER, saltedDigestRefs),
+          codes(HistoryRule.ERROR_CODE),
+        },
+        {
+          parallelDigestRule,
+          PasswordData.newInstance(HISTORY_PASS3, USER, saltedDigestRefs),
+          codes(HistoryRule.ERROR_CODE),
+        },
+
         {
           emptyDigestRule,
           PasswordData.newInstance(VALID_PASS, USER, null),
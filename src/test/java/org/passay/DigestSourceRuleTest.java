@@ -3,9 +3,12 @@ package org.passay;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.cryptacular.bean.EncodingHashBean;
 import org.cryptacular.spec.CodecSpec;
 import org.cryptacular.spec.DigestSpec;
+import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.DataProvider;
 
@@ -29,10 +32,27 @@ public class DigestSourceRuleTest extends AbstractRuleTest
   /** For testing. */
   private final List<PasswordData.Reference> sourceRefs = new ArrayList<>();
 
+  /** For testing. */
+  private final List<PasswordData.Reference> federatedRefs =
+    new ArrayList<>();
+
   /** For testing. */
   private final DigestSourceRule digestRule = new DigestSourceRule(
     new EncodingHashBean(new CodecSpec("Base64"), new DigestSpec("SHA1"), 1));
 
+  /** For testing. */
+  private final DigestSourceRule firstMatchRule = new DigestSourceRule(
+    new EncodingHashBean(new CodecSpec("Base64"), new DigestSpec("SHA1"), 1),
+    false);
+
+  /** For testing. */
+  private final DigestSourceRule parallelFirstMatchRule = new DigestSourceRule(
+    new EncodingHashBean(new CodecSpec("Base64"), new DigestSpec("SHA1"), 1),
+    false);
+
+  /** For testing. */
+  private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
   /** For testing. */
   private final DigestSourceRule emptyRule = new DigestSourceRule(
     new EncodingHashBean(new CodecSpec("Base64"), new DigestSpec("SHA1"), 1));
@@ -45,6 +65,29 @@ public class DigestSourceRuleTest extends AbstractRuleTest
     sourceRefs.add(
       new PasswordData.SourceReference(
         "System B", "CJGTDMQRP+rmHApkcijC80aDV0o="));
+
+    federatedRefs.add(
+      new PasswordData.SourceReference(
+        "System A", "zurb9DyQ5nooY1la8h86Bh0n1iw="));
+    federatedRefs.add(
+      new PasswordData.SourceReference(
+        "System B", "CJGTDMQRP+rmHApkcijC80aDV0o="));
+    federatedRefs.add(
+      new PasswordData.SourceReference(
+        "System C", "bhqabXwE3S8E6xNJfX/d76MFOCs="));
+    federatedRefs.add(
+      new PasswordData.SourceReference(
+        "System D", "CJGTDMQRP+rmHApkcijC80aDV0o="));
+
+    parallelFirstMatchRule.setExecutor(executor);
+  }
+
+
+  /** Shutdown the executor used by the parallel rule. */
+  @AfterClass(groups = {"passtest"})
+  public void shutdownExecutor()
+  {
+    executor.shutdown();
   }
 
 
@@ -70,6 +113,33 @@ public class DigestSourceRuleTest extends AbstractRuleTest
           PasswordData.newInstance(SOURCE_PASS, USER, sourceRefs),
           codes(SourceRule.ERROR_CODE),
         },
+        {
+          digestRule,
+          PasswordData.newInstance(SOURCE_PASS, USER, federatedRefs),
+          codes(SourceRule.ERROR_CODE, SourceRule.ERROR_CODE),
+        },
+
+        {
+          firstMatchRule,
+          PasswordData.newInstance(VALID_PASS, USER, federatedRefs),
+          null,
+        },
+        {
+          firstMatchRule,
+          PasswordData.newInstance(SOURCE_PASS, USER, federatedRefs),
+          codes(SourceRule.ERROR_CODE),
+        },
+
+        {
+          parallelFirstMatchRule,
+          PasswordData.newInstance(VALID_PASS, USER, federatedRefs),
+          null,
+        },
+        {
+          parallelFirstMatchRule,
+          PasswordData.newInstance(SOURCE_PASS, USER, federatedRefs),
+          codes(SourceRule.ERROR_CODE),
+        },
 
         {
           emptyRule,
@@ -105,6 +175,15 @@ public class DigestSourceRuleTest extends AbstractRuleTest
               "System B"),
           },
         },
+        {
+          firstMatchRule,
+          PasswordData.newInstance(SOURCE_PASS, USER, federatedRefs),
+          new String[] {
+            String.format(
+              "Password cannot be the same as your %s password.",
+              "System B"),
+          },
+        },
       };
   }
 }
@@ -32,9 +32,23 @@ public class HistoryRuleTest extends AbstractRuleTest
   /** For testing. */
   private final List<PasswordData.Reference> history = new ArrayList<>();
 
+  /** For testing. */
+  private final ReferenceList indexedHistory = new ReferenceList();
+
   /** For testing. */
   private final HistoryRule rule = new HistoryRule();
 
+  /** For testing. */
+  private final HistoryRule ignoreCaseRule = new HistoryRule() {
+    @Override
+    protected boolean matches(
+      final String password,
+      final PasswordData.Reference reference)
+    {
+      return password.equalsIgnoreCase(reference.getPassword());
+    }
+  };
+
   /** For testing. */
   private final HistoryRule emptyRule = new HistoryRule();
 
@@ -46,6 +60,11 @@ public class HistoryRuleTest extends AbstractRuleTest
     history.add(new PasswordData.HistoricalReference("history", HISTORY_PASS1));
     history.add(new PasswordData.HistoricalReference("history", HISTORY_PASS2));
     history.add(new PasswordData.HistoricalReference("history", HISTORY_PASS3));
+
+    indexedHistory.addAll(history);
+    indexedHistory.add(new PasswordData.SourceReference("source", VALID_PASS));
+    indexedHistory.add(
+      new PasswordData.HistoricalReference("history", HISTORY_PASS1));
   }
 
 
@@ -82,6 +101,30 @@ public class HistoryRuleTest extends AbstractRuleTest
           codes(HistoryRule.ERROR_CODE),
         },
 
+        {
+          rule,
+          PasswordData.newInstance(VALID_PASS, USER, indexedHistory),
+          null,
+        },
+        {
+          rule,
+          PasswordData.newInstance(HISTORY_PASS1, USER, indexedHistory),
+          codes(HistoryRule.ERROR_CODE, HistoryRule.ERROR_CODE),
+        },
+        {
+          rule,
+          PasswordData.newInstance(HISTORY_PASS3, USER, indexedHistory),
+          codes(HistoryRule.ERROR_CODE),
+        },
+        {
+          ignoreCaseRule,
+          PasswordData.newInstance(
+            HISTORY_PASS1.toUpperCase(),
+            USER,
+            indexedHistory),
+          codes(HistoryRule.ERROR_CODE, HistoryRule.ERROR_CODE),
+        },
+
         {
           emptyRule,
           PasswordData.newInstance(VALID_PASS, USER, null),
@@ -41,6 +41,31 @@ public class IllegalRegexRuleTest extends AbstractRuleTest
           new PasswordData("pwUi0248xwK"),
           codes(IllegalRegexRule.ERROR_CODE),
         },
+
+        // test dfa valid password
+        {
+          new IllegalRegexRule("\\d\\d\\d\\d", true),
+          new PasswordData("p4zRcv8#n65"),
+          null,
+        },
+        // test dfa entire password
+        {
+          new IllegalRegexRule("^[\\p{Alpha}]+\\d\\d\\d\\d$", true),
+          new PasswordData("pwUiNh0248"),
+          codes(IllegalRegexRule.ERROR_CODE),
+        },
+        // test dfa find password
+        {
+          new IllegalRegexRule("\\d\\d\\d\\d", true),
+          new PasswordData("pwUi0248xwK"),
+          codes(IllegalRegexRule.ERROR_CODE),
+        },
+        // test dfa with catastrophic backtracking pattern
+        {
+          new IllegalRegexRule("^(\\w+\\s?)*$", true),
+          new PasswordData("aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa!"),
+          null,
+        },
       };
   }
 
@@ -63,6 +88,13 @@ public class IllegalRegexRuleTest extends AbstractRuleTest
             String.format("Password matches the illegal pattern '%s'.", "0248"),
           },
         },
+        {
+          new IllegalRegexRule("\\d+", true),
+          new PasswordData("pwUiNh0248x12"),
+          new String[] {
+            String.format("Password matches the illegal pattern '%s'.", "0248"),
+          },
+        },
       };
   }
 }
@@ -0,0 +1,87 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.util.Arrays;
+import org.testng.annotations.DataProvider;
+
+/**
+ * Unit test for {@link IllegalRegexSetRule}.
+ *
+ * @author  Middleware Services
+ */
+public class IllegalRegexSetRuleTest extends AbstractRuleTest
+{
+
+
+  /**
+   * @return  Test data.
+   *
+   * @throws  Exception  On test data generation failure.
+   */
+  @DataProvider(name = "passwords")
+  public Object[][] passwords()
+    throws Exception
+  {
+    return
+      new Object[][] {
+        // test valid password
+        {
+          new IllegalRegexSetRule("\\d\\d\\d\\d", "(?i)acme", "19\\d\\d"),
+          new PasswordData("p4zRcv8#n65"),
+          null,
+        },
+        // test entire password
+        {
+          new IllegalRegexSetRule("^[\\p{Alpha}]+\\d\\d\\d\\d$", "(?i)acme"),
+          new PasswordData("pwUiNh0248"),
+          codes(IllegalRegexSetRule.ERROR_CODE),
+        },
+        // test find password
+        {
+          new IllegalRegexSetRule("(?i)acme", "\\d\\d\\d\\d"),
+          new PasswordData("pwUi0248xwK"),
+          codes(IllegalRegexSetRule.ERROR_CODE),
+        },
+        // test multiple matches
+        {
+          new IllegalRegexSetRule("\\d\\d\\d\\d", "(?i)acme", "19\\d\\d"),
+          new PasswordData("AcMe1984!"),
+          codes(
+            IllegalRegexSetRule.ERROR_CODE,
+            IllegalRegexSetRule.ERROR_CODE,
+            IllegalRegexSetRule.ERROR_CODE),
+        },
+        // test multiple matches reporting the first
+        {
+          new IllegalRegexSetRule(
+            Arrays.asList("\\d\\d\\d\\d", "(?i)acme", "19\\d\\d"),
+            false),
+          new PasswordData("AcMe1984!"),
+          codes(IllegalRegexSetRule.ERROR_CODE),
+        },
+      };
+  }
+
+
+  /**
+   * @return  Test data.
+   *
+   * @throws  Exception  On test data generation failure.
+   */
+  @DataProvider(name = "messages")
+  public Object[][] messages()
+    throws Exception
+  {
+    return
+      new Object[][] {
+        {
+          new IllegalRegexSetRule("\\d\\d\\d\\d", "(?i)acme", "[xyz]"),
+          new PasswordData("pwAcmeNh0248"),
+          new String[] {
+            String.format("Password matches the illegal pattern '%s'.", "0248"),
+            String.format("Password matches the illegal pattern '%s'.", "Acme"),
+          },
+        },
+      };
+  }
+}
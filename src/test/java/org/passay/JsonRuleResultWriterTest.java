@@ -0,0 +1,132 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link JsonRuleResultWriter}.
+ *
+ * @author  Middleware Services
+ */
+public class JsonRuleResultWriterTest
+{
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passtest"})
+  public void checkValidResult()
+    throws Exception
+  {
+    final StringBuilder sb = new StringBuilder();
+    new JsonRuleResultWriter().write(new RuleResult(true), sb);
+    AssertJUnit.assertEquals("{\"valid\":true,\"details\":[]}", sb.toString());
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passtest"})
+  public void checkInvalidResult()
+    throws Exception
+  {
+    final RuleResult result = new LengthRule(8, 16).validate(
+      new PasswordData("short"));
+    final StringBuilder sb = new StringBuilder();
+    new JsonRuleResultWriter(new PropertiesMessageResolver()).write(result, sb);
+    AssertJUnit.assertEquals(
+      "{\"valid\":false,\"details\":[{\"code\":\"TOO_SHORT\"," +
+        "\"parameters\":{\"minimumLength\":8,\"maximumLength\":16}," +
+        "\"message\":\"Password must be at least 8 characters in length.\"}]}",
+      sb.toString());
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new JsonRuleResultWriter(new ResourceBundleMessageResolver(Locale.FRENCH))
+      .writeUtf8(result, Locale.FRENCH, out);
+    AssertJUnit.assertEquals(
+      "{\"valid\":false,\"details\":[{\"code\":\"TOO_SHORT\"," +
+        "\"parameters\":{\"minimumLength\":8,\"maximumLength\":16}," +
+        "\"message\":\"Le mot de passe doit contenir au moins 8 " +
+        "caract\u00e8res.\"}]}",
+      new String(out.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passtest"})
+  public void checkEscaping()
+    throws Exception
+  {
+    final Properties props = new Properties();
+    props.setProperty("CODE", "Quote \"%1$s\"");
+
+    final Map<String, Object> params = new LinkedHashMap<>();
+    params.put("match", "a\\b\"c\n\u0001");
+    params.put("count", -42L);
+    params.put("ratio", 0.5);
+    params.put("valid", false);
+    params.put("missing", null);
+
+    final RuleResult result = new RuleResult(
+      false,
+      new RuleResultDetail("CODE", params));
+    final StringBuilder sb = new StringBuilder();
+    new JsonRuleResultWriter(new PropertiesMessageResolver(props)).write(
+      result,
+      sb);
+    AssertJUnit.assertEquals(
+      "{\"valid\":false,\"details\":[{\"code\":\"CODE\",\"parameters\":{" +
+        "\"match\":\"a\\\\b\\\"c\\n\\u0001\",\"count\":-42,\"ratio\":0.5," +
+        "\"valid\":false,\"missing\":null}," +
+        "\"message\":\"Quote \\\"a\\\\b\\\"c\\n\\u0001\\\"\"}]}",
+      sb.toString());
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passtest"})
+  public void checkOverriddenResolve()
+    throws Exception
+  {
+    final RuleResult result = new LengthRule(8, 16).validate(
+      new PasswordData("short"));
+    final StringBuilder sb = new StringBuilder();
+    new JsonRuleResultWriter(new PropertiesMessageResolver() {
+      @Override
+      public String resolve(final RuleResultDetail detail)
+      {
+        return "Custom " + super.resolve(detail);
+      }
+    }).write(result, sb);
+    AssertJUnit.assertTrue(
+      sb.toString(),
+      sb.toString().endsWith(
+        "\"message\":\"Custom Password must be at least 8 characters " +
+          "in length.\"}]}"));
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new JsonRuleResultWriter(new ResourceBundleMessageResolver(Locale.FRENCH) {
+      @Override
+      public String resolve(final RuleResultDetail detail, final Locale locale)
+      {
+        return locale + ": " + detail.getErrorCode();
+      }
+    }).writeUtf8(result, Locale.FRENCH, out);
+    AssertJUnit.assertTrue(
+      new String(out.toByteArray(), StandardCharsets.UTF_8).endsWith(
+        "\"message\":\"fr: TOO_SHORT\"}]}"));
+  }
+}
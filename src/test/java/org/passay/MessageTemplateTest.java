@@ -0,0 +1,116 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.MissingFormatArgumentException;
+import java.util.Properties;
+import org.testng.AssertJUnit;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link MessageTemplate}.
+ *
+ * @author  Middleware Services
+ */
+public class MessageTemplateTest
+{
+
+
+  /**
+   * @return  Test data.
+   *
+   * @throws  Exception  On test data generation failure.
+   */
+  @DataProvider(name = "formats")
+  public Object[][] formats()
+    throws Exception
+  {
+    return
+      new Object[][] {
+        {"Password cannot contain whitespace characters.", true},
+        {"Password matches %1$s of %3$s character rules, but %2$s", true},
+        {"%s and %s then %1$s", true},
+        {"100%% of %s%n", true},
+        {"%2$s%1$s", true},
+        {"%d digits", false},
+        {"%-10s padded", false},
+        {"%1$S upper", false},
+        {"%0$s", false},
+      };
+  }
+
+
+  /**
+   * @param  format  to compile
+   * @param  compiled  whether the format should be compiled
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passtest"}, dataProvider = "formats")
+  public void checkFormat(final String format, final boolean compiled)
+    throws Exception
+  {
+    final MessageTemplate template = new MessageTemplate(format);
+    AssertJUnit.assertEquals(compiled, template.isCompiled());
+    if (compiled) {
+      final Object[] args = new Object[] {"a", 2, null};
+      AssertJUnit.assertEquals(
+        String.format(format, args),
+        template.format(args));
+
+      final StringBuilder sb = new StringBuilder("prefix:");
+      template.appendTo(sb, args);
+      AssertJUnit.assertEquals(
+        "prefix:" + String.format(format, args),
+        sb.toString());
+    }
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(
+    groups = {"passtest"},
+    expectedExceptions = MissingFormatArgumentException.class
+  )
+  public void checkMissingArgument()
+    throws Exception
+  {
+    new MessageTemplate("%1$s and %2$s").format("a");
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passtest"})
+  public void checkResolver()
+    throws Exception
+  {
+    final Properties props = new Properties();
+    props.setProperty("CODE", "Value is %1$s.");
+
+    final PropertiesMessageResolver resolver =
+      new PropertiesMessageResolver(props);
+    final Map<String, Object> params = new LinkedHashMap<>();
+    params.put("value", 1);
+    params.put("name", "test");
+    AssertJUnit.assertEquals(
+      "Value is 1.",
+      resolver.resolve(new RuleResultDetail("CODE", params)));
+
+    props.setProperty("CODE", "Value changed to %1$s.");
+    AssertJUnit.assertEquals(
+      "Value changed to 1.",
+      resolver.resolve(new RuleResultDetail("CODE", params)));
+    AssertJUnit.assertEquals(
+      String.format("%s:%s", "OTHER", params),
+      resolver.resolve(new RuleResultDetail("OTHER", params)));
+    AssertJUnit.assertEquals(
+      "OTHER",
+      resolver.resolve(new RuleResultDetail("OTHER", null)));
+  }
+}
@@ -0,0 +1,194 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import org.passay.dictionary.ArrayWordList;
+import org.passay.dictionary.FileWordList;
+import org.passay.dictionary.WordList;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link PassphraseGenerator}.
+ *
+ * @author  Middleware Services
+ */
+public class PassphraseGeneratorTest
+{
+
+  /** Words to generate passphrases from. */
+  private static final String[] WORDS = {
+    "apple", "bread", "cloud", "delta", "eagle", "flute", "grape", "house",
+  };
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passgentest"})
+  public void generate()
+    throws Exception
+  {
+    final WordList words = new ArrayWordList(WORDS);
+    final PassphraseGenerator generator = new PassphraseGenerator(words);
+    AssertJUnit.assertEquals(18.0, generator.getEntropyBits(), 1e-9);
+
+    final Set<String> seen = new HashSet<>();
+    for (int i = 0; i < 1000; i++) {
+      final String[] parts = generator.generate().split(" ");
+      AssertJUnit.assertEquals(6, parts.length);
+      for (String part : parts) {
+        AssertJUnit.assertTrue(contains(part));
+        seen.add(part);
+      }
+    }
+    AssertJUnit.assertEquals(WORDS.length, seen.size());
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passgentest"})
+  public void policies()
+    throws Exception
+  {
+    final PassphraseGenerator generator = new PassphraseGenerator(
+      new ArrayWordList(WORDS));
+    generator.setWordCount(4);
+    generator.setSeparator("-");
+    generator.setCapitalization(PassphraseGenerator.Capitalization.EACH_WORD);
+    generator.setDigitCount(2);
+    for (int i = 0; i < 100; i++) {
+      final String passphrase = generator.generate();
+      AssertJUnit.assertTrue(
+        passphrase,
+        passphrase.matches("([A-Z][a-z]{4}-){3}[A-Z][a-z]{4}[0-9]{2}"));
+    }
+
+    generator.setCapitalization(PassphraseGenerator.Capitalization.FIRST_WORD);
+    generator.setDigitPlacement(
+      PassphraseGenerator.DigitPlacement.RANDOM_WORD);
+    generator.setSeparator("");
+    boolean middle = false;
+    for (int i = 0; i < 100; i++) {
+      final String passphrase = generator.generate();
+      AssertJUnit.assertTrue(
+        passphrase,
+        passphrase.matches("[A-Z][a-z0-9]{21}"));
+      AssertJUnit.assertTrue(passphrase.replaceAll("[^0-9]", "").length() == 2);
+      middle |= Character.isDigit(passphrase.charAt(5));
+    }
+    AssertJUnit.assertTrue(middle);
+    // 4 words of 3 bits, 2 digits and one of 4 positions
+    AssertJUnit.assertEquals(
+      12 + 2 * Math.log(10) / Math.log(2) + 2,
+      generator.getEntropyBits(),
+      1e-9);
+
+    generator.setCapitalization(PassphraseGenerator.Capitalization.RANDOM);
+    AssertJUnit.assertEquals(
+      16 + 2 * Math.log(10) / Math.log(2) + 2,
+      generator.getEntropyBits(),
+      1e-9);
+
+    // only words whose first character has an upper case form add a bit
+    final PassphraseGenerator mixed = new PassphraseGenerator(
+      new ArrayWordList(
+        new String[] {"1st", "2nd", "Alpha", "beta", "gamma", "\u00dfig"}));
+    mixed.setWordCount(4);
+    mixed.setCapitalization(PassphraseGenerator.Capitalization.RANDOM);
+    AssertJUnit.assertEquals(
+      4 * Math.log(6) / Math.log(2) + 4 * 2.0 / 6,
+      mixed.getEntropyBits(),
+      1e-9);
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passgentest"})
+  public void generateBulk()
+    throws Exception
+  {
+    final File file = File.createTempFile("passphrase", ".txt");
+    file.deleteOnExit();
+    try (Writer writer = new FileWriter(file)) {
+      for (String word : WORDS) {
+        writer.write(word);
+        writer.write('\n');
+      }
+    }
+
+    final FileWordList words = new FileWordList(
+      new RandomAccessFile(file, "r"),
+      true,
+      100);
+    try {
+      final PassphraseGenerator generator = new PassphraseGenerator(words);
+      generator.setWordCount(3);
+      final ForkJoinPool pool = new ForkJoinPool(4);
+      try {
+        final String[] passphrases = generator.generate(5000, pool);
+        AssertJUnit.assertEquals(5000, passphrases.length);
+        for (String passphrase : passphrases) {
+          for (String part : passphrase.split(" ")) {
+            AssertJUnit.assertTrue(contains(part));
+          }
+        }
+      } finally {
+        pool.shutdown();
+      }
+      AssertJUnit.assertEquals(2, generator.generate(2).length);
+    } finally {
+      words.close();
+    }
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passgentest"})
+  public void invalidArguments()
+    throws Exception
+  {
+    try {
+      new PassphraseGenerator(new ArrayWordList(new String[0]));
+      AssertJUnit.fail("Should have thrown IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      AssertJUnit.assertEquals(IllegalArgumentException.class, e.getClass());
+    }
+    try {
+      new PassphraseGenerator(new ArrayWordList(WORDS)).setWordCount(0);
+      AssertJUnit.fail("Should have thrown IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      AssertJUnit.assertEquals(IllegalArgumentException.class, e.getClass());
+    }
+  }
+
+
+  /**
+   * Returns whether the supplied word is one of the test words.
+   *
+   * @param  word  to find
+   *
+   * @return  whether the word is known
+   */
+  private static boolean contains(final String word)
+  {
+    for (String w : WORDS) {
+      if (w.equals(word)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
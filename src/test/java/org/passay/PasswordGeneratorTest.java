@@ -1,8 +1,10 @@
 /* See LICENSE for licensing and NOTICE for copyright. */
 package org.passay;
 
+import java.nio.CharBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 import org.testng.AssertJUnit;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.DataProvider;
@@ -103,4 +105,103 @@ public class PasswordGeneratorTest
     AssertJUnit.assertTrue(
       verifyCharRule.validate(new PasswordData(pass)).isValid());
   }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passgentest"})
+  public void testRandomCalls()
+    throws Exception
+  {
+    final int[] calls = new int[2];
+    final PasswordGenerator countingGenerator = new PasswordGenerator(
+      new Random() {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void nextBytes(final byte[] bytes)
+        {
+          calls[0]++;
+          super.nextBytes(bytes);
+        }
+
+        @Override
+        public int nextInt(final int bound)
+        {
+          calls[1]++;
+          return super.nextInt(bound);
+        }
+      });
+    // one draw for each rule, the remaining characters and the shuffle
+    for (int i = 0; i < 100; i++) {
+      final String password = countingGenerator.generatePassword(16, rules);
+      AssertJUnit.assertEquals(16, password.length());
+      AssertJUnit.assertTrue(
+        verifyCharRule.validate(new PasswordData(password)).isValid());
+    }
+    AssertJUnit.assertEquals(0, calls[1]);
+    AssertJUnit.assertTrue(calls[0] >= 600 && calls[0] < 1200);
+
+    // one source for a batch of passwords
+    calls[0] = 0;
+    final RandomIndexSource indices = new RandomIndexSource(
+      new Random() {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void nextBytes(final byte[] bytes)
+        {
+          calls[0]++;
+          super.nextBytes(bytes);
+        }
+      },
+      100 * 2 * 16,
+      94);
+    for (int i = 0; i < 100; i++) {
+      final String password = countingGenerator.generatePassword(
+        16,
+        rules,
+        indices);
+      AssertJUnit.assertEquals(16, password.length());
+      AssertJUnit.assertTrue(
+        verifyCharRule.validate(new PasswordData(password)).isValid());
+    }
+    indices.clear();
+    AssertJUnit.assertEquals(0, calls[1]);
+    AssertJUnit.assertTrue(calls[0] >= 1 && calls[0] < 10);
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passgentest"})
+  public void testOverriddenHooks()
+    throws Exception
+  {
+    final PasswordGenerator reversingGenerator = new PasswordGenerator() {
+      @Override
+      protected void fillRandomCharacters(
+        final CharSequence source,
+        final int count,
+        final Appendable target)
+      {
+        super.fillRandomCharacters(source.subSequence(0, 1), count, target);
+      }
+
+      @Override
+      protected void randomize(final CharBuffer buffer)
+      {
+        final String s = new StringBuilder(buffer).reverse().toString();
+        buffer.put(s).flip();
+      }
+    };
+    final List<CharacterRule> firstCharRules = new ArrayList<>();
+    firstCharRules.add(new DigitCharacterRule(1));
+    firstCharRules.add(new LowercaseCharacterRule(2));
+    AssertJUnit.assertEquals(
+      "00aa0",
+      reversingGenerator.generatePassword(5, firstCharRules));
+  }
 }
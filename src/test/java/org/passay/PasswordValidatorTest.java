@@ -4,6 +4,9 @@ package org.passay;
 import java.io.FileReader;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.cryptacular.bean.EncodingHashBean;
 import org.cryptacular.spec.CodecSpec;
 import org.cryptacular.spec.DigestSpec;
@@ -192,6 +195,30 @@ public class PasswordValidatorTest extends AbstractRuleTest
   }
 
 
+  /** @throws  Exception  On test failure. */
+  @Test(groups = {"passtest"})
+  public void validateAsync()
+    throws Exception
+  {
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      final List<Future<RuleResult>> futures = new ArrayList<>();
+      for (int i = 0; i < 10; i++) {
+        final PasswordData data = PasswordData.newInstance(
+          i % 2 == 0 ? VALID_PASS : INVALID_PASS,
+          USER,
+          references);
+        futures.add(validator.validateAsync(data, executor));
+      }
+      for (int i = 0; i < futures.size(); i++) {
+        AssertJUnit.assertEquals(i % 2 == 0, futures.get(i).get().isValid());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+
   /**
    * @return  Test data.
    *
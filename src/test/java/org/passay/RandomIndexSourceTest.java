@@ -0,0 +1,176 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.security.SecureRandom;
+import java.util.Random;
+import org.testng.AssertJUnit;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link RandomIndexSource}.
+ *
+ * @author  Middleware Services
+ */
+public class RandomIndexSourceTest
+{
+
+  /** Number of samples drawn for each expected value. */
+  private static final int SAMPLES_PER_VALUE = 1000;
+
+  /** Standard normal quantile of the significance level 0.0001. */
+  private static final double Z = 3.719;
+
+
+  /**
+   * @return  Test data.
+   *
+   * @throws  Exception  On test data generation failure.
+   */
+  @DataProvider(name = "bounds")
+  public Object[][] bounds()
+    throws Exception
+  {
+    return
+      new Object[][] {
+        {2},
+        {10},
+        {26},
+        {94},
+        {129},
+        {256},
+        {300},
+        {70000},
+      };
+  }
+
+
+  /**
+   * @param  bound  of the indices
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passgentest"}, dataProvider = "bounds")
+  public void uniformIndices(final int bound)
+    throws Exception
+  {
+    final int buckets = Math.min(bound, 1000);
+    final long[] observed = new long[buckets];
+    final RandomIndexSource source = new RandomIndexSource(
+      new SecureRandom(),
+      64);
+    final int samples = buckets * SAMPLES_PER_VALUE;
+    for (int i = 0; i < samples; i++) {
+      final int index = source.nextIndex(bound);
+      AssertJUnit.assertTrue(index >= 0 && index < bound);
+      observed[(int) ((long) index * buckets / bound)]++;
+    }
+
+    final double[] expected = new double[buckets];
+    for (int i = 0; i < bound; i++) {
+      expected[(int) ((long) i * buckets / bound)] += (double) samples / bound;
+    }
+    assertUniform(observed, expected);
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passgentest"})
+  public void uniformShuffle()
+    throws Exception
+  {
+    // six orderings of three characters
+    final long[] observed = new long[6];
+    final RandomIndexSource source = new RandomIndexSource(
+      new SecureRandom(),
+      32);
+    final int samples = observed.length * SAMPLES_PER_VALUE;
+    for (int i = 0; i < samples; i++) {
+      final char[] chars = {'a', 'b', 'c', 'x'};
+      source.shuffle(chars, 0, 3);
+      AssertJUnit.assertEquals('x', chars[3]);
+      final int first = chars[0] - 'a';
+      final int second = chars[1] - 'a';
+      observed[first * 2 + (second > first ? second - 1 : second)]++;
+    }
+
+    final double[] expected = new double[observed.length];
+    for (int i = 0; i < expected.length; i++) {
+      expected[i] = (double) samples / expected.length;
+    }
+    assertUniform(observed, expected);
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passgentest"})
+  public void bulkCalls()
+    throws Exception
+  {
+    final int[] calls = new int[1];
+    final RandomIndexSource source = new RandomIndexSource(
+      new Random() {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void nextBytes(final byte[] bytes)
+        {
+          calls[0]++;
+          super.nextBytes(bytes);
+        }
+      },
+      20,
+      10);
+    for (int i = 0; i < 20; i++) {
+      source.nextIndex(10);
+    }
+    AssertJUnit.assertEquals(1, calls[0]);
+    source.clear();
+    source.nextIndex(10);
+    AssertJUnit.assertEquals(2, calls[0]);
+
+    AssertJUnit.assertEquals(1, RandomIndexSource.bytesFor(1));
+    AssertJUnit.assertEquals(1, RandomIndexSource.bytesFor(256));
+    AssertJUnit.assertEquals(2, RandomIndexSource.bytesFor(257));
+    AssertJUnit.assertEquals(3, RandomIndexSource.bytesFor(65537));
+    AssertJUnit.assertEquals(4, RandomIndexSource.bytesFor(Integer.MAX_VALUE));
+    AssertJUnit.assertEquals(0, source.nextIndex(1));
+    try {
+      source.nextIndex(0);
+      AssertJUnit.fail("Should have thrown IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      AssertJUnit.assertEquals(IllegalArgumentException.class, e.getClass());
+    }
+  }
+
+
+  /**
+   * Asserts that observed counts do not deviate from the expected counts more
+   * than a chi-square test at a significance level of 0.0001 allows.
+   *
+   * @param  observed  counts
+   * @param  expected  counts
+   */
+  private static void assertUniform(
+    final long[] observed,
+    final double[] expected)
+  {
+    double chiSquare = 0;
+    for (int i = 0; i < observed.length; i++) {
+      final double d = observed[i] - expected[i];
+      chiSquare += d * d / expected[i];
+    }
+
+    // Wilson-Hilferty approximation of the critical value
+    final int df = observed.length - 1;
+    final double h = 2.0 / (9 * df);
+    final double critical = df * Math.pow(1 - h + Z * Math.sqrt(h), 3);
+    AssertJUnit.assertTrue(
+      String.format("chi-square %.1f exceeds %.1f", chiSquare, critical),
+      chiSquare < critical);
+  }
+}
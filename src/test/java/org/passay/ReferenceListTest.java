@@ -0,0 +1,127 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link ReferenceList}.
+ *
+ * @author  Middleware Services
+ */
+public class ReferenceListTest
+{
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passtest"})
+  public void checkReferences()
+    throws Exception
+  {
+    final ReferenceList list = new ReferenceList();
+    list.add(new PasswordData.HistoricalReference("p1"));
+    list.add(new PasswordData.SourceReference("s1"));
+    list.add(new PasswordData.HistoricalReference("p2"));
+    list.add(new PasswordData.HistoricalReference("p1"));
+
+    final ReferenceList.TypedView<PasswordData.HistoricalReference> history =
+      list.getReferences(PasswordData.HistoricalReference.class);
+    AssertJUnit.assertEquals(3, history.size());
+    AssertJUnit.assertEquals("p2", history.get(1).getPassword());
+    AssertJUnit.assertEquals(2, history.count("p1"));
+    AssertJUnit.assertEquals(0, history.count("s1"));
+    AssertJUnit.assertEquals(
+      Arrays.asList("p1"),
+      history.getPasswordsIgnoreCase("P1"));
+    AssertJUnit.assertTrue(history.getPasswordsIgnoreCase("S1").isEmpty());
+    AssertJUnit.assertSame(
+      history,
+      list.getReferences(PasswordData.HistoricalReference.class));
+
+    final List<PasswordData.Reference> all =
+      list.getReferences(PasswordData.Reference.class);
+    AssertJUnit.assertEquals(4, all.size());
+    AssertJUnit.assertEquals("s1", all.get(1).getPassword());
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passtest"})
+  public void checkModification()
+    throws Exception
+  {
+    final ReferenceList list = new ReferenceList();
+    list.add(new PasswordData.HistoricalReference("p1"));
+    list.add(new PasswordData.HistoricalReference("p2"));
+
+    final ReferenceList.TypedView<PasswordData.HistoricalReference> before =
+      list.getReferences(PasswordData.HistoricalReference.class);
+    list.add(0, new PasswordData.HistoricalReference("p0"));
+    list.remove(2);
+    list.set(1, new PasswordData.SourceReference("p1"));
+
+    final ReferenceList.TypedView<PasswordData.HistoricalReference> after =
+      list.getReferences(PasswordData.HistoricalReference.class);
+    AssertJUnit.assertEquals(2, before.size());
+    AssertJUnit.assertEquals(1, after.size());
+    AssertJUnit.assertEquals("p0", after.get(0).getPassword());
+    AssertJUnit.assertEquals(0, after.count("p1"));
+    AssertJUnit.assertEquals(
+      1,
+      list.getReferences(PasswordData.SourceReference.class).count("p1"));
+
+    list.clear();
+    AssertJUnit.assertTrue(
+      list.getReferences(PasswordData.HistoricalReference.class).isEmpty());
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passtest"})
+  public void checkPasswordData()
+    throws Exception
+  {
+    final ReferenceList list = new ReferenceList();
+    list.add(new PasswordData.HistoricalReference("p1"));
+    list.add(new PasswordData.SourceReference("s1"));
+
+    final PasswordData data = new PasswordData("p1");
+    data.setPasswordReferences(list);
+    AssertJUnit.assertSame(list, data.getPasswordReferences());
+    AssertJUnit.assertSame(
+      list.getReferences(PasswordData.SourceReference.class),
+      data.getPasswordReferences(PasswordData.SourceReference.class));
+
+    final List<PasswordData.Reference> refs = new ArrayList<>(list);
+    data.setPasswordReferences(refs);
+    refs.add(new PasswordData.HistoricalReference("p2"));
+    final List<PasswordData.HistoricalReference> history =
+      data.getPasswordReferences(PasswordData.HistoricalReference.class);
+    AssertJUnit.assertEquals(1, history.size());
+    AssertJUnit.assertSame(
+      history,
+      data.getPasswordReferences(PasswordData.HistoricalReference.class));
+
+    data.getPasswordReferences().add(
+      new PasswordData.HistoricalReference("p2"));
+    AssertJUnit.assertNotSame(
+      history,
+      data.getPasswordReferences(PasswordData.HistoricalReference.class));
+    AssertJUnit.assertEquals(
+      2,
+      data.getPasswordReferences(PasswordData.HistoricalReference.class)
+        .size());
+
+    data.setPasswordReferences(null);
+    AssertJUnit.assertTrue(data.getPasswordReferences().isEmpty());
+  }
+}
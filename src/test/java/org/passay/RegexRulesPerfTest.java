@@ -0,0 +1,103 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.util.UUID;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Reports the time it takes to execute many password validations using regex
+ * rules that do not backtrack, compared with the same rules matching with
+ * {@link java.util.regex.Pattern}.
+ *
+ * @author  Middleware Services
+ */
+public class RegexRulesPerfTest
+{
+
+  /** Number of rounds of each measurement. */
+  private static final int ROUNDS = 5;
+
+
+  /**
+   * Gets performance test data.
+   *
+   * @return  Array of test parameters including the rule to test, the rule to
+   * compare it with and number of iterations for which rules should be
+   * evaluated on a random password.
+   */
+  @DataProvider(name = "perf-data")
+  public Object[][] perfData()
+  {
+    return
+      new Object[][] {
+        new Object[] {
+          new IllegalRegexRule("\\d\\d\\d\\d", true),
+          new IllegalRegexRule("\\d\\d\\d\\d"),
+          100000,
+        },
+        new Object[] {
+          new AllowedRegexRule("\\d[a-f]", true),
+          new AllowedRegexRule("\\d[a-f]"),
+          100000,
+        },
+        new Object[] {
+          new RepeatCharacterRegexRule(),
+          new IllegalRegexRule("([^\\x00-\\x1F])\\1{4}"),
+          100000,
+        },
+      };
+  }
+
+
+  /**
+   * Executes the performance test on the given rules.
+   *
+   * @param  rule  Password validation rule to test.
+   * @param  baseline  Password validation rule to compare with.
+   * @param  iterations  Number of iterations of each test.
+   */
+  @Test(
+    groups = {"regexperftest"},
+    dataProvider = "perf-data",
+    timeOut = 120000
+  )
+  public void execute(
+    final Rule rule,
+    final Rule baseline,
+    final int iterations)
+  {
+    final PasswordData[] passwords = new PasswordData[iterations];
+    for (int i = 0; i < iterations; i++) {
+      passwords[i] = new PasswordData();
+      passwords[i].setPassword(UUID.randomUUID().toString());
+    }
+
+    final Rule[] rules = {baseline, rule};
+    final long[] times = {Long.MAX_VALUE, Long.MAX_VALUE};
+    final int[] valid = new int[2];
+    for (int i = 0; i < ROUNDS * 2; i++) {
+      // alternate which rule runs first in each round
+      final int r = i % 2;
+      final long t = System.nanoTime();
+      for (PasswordData password : passwords) {
+        if (rules[r].validate(password).isValid()) {
+          valid[r]++;
+        }
+      }
+      times[r] = Math.min(times[r], System.nanoTime() - t);
+    }
+    System.out.println(
+      String.format(
+        "%s:: %s completed in %.1f ms, %s in %.1f ms, " +
+        "%.0f%% of the baseline time (valid %s/%s)",
+        getClass().getName(),
+        rule,
+        times[1] / 1e6,
+        baseline,
+        times[0] / 1e6,
+        times[1] * 100.0 / times[0],
+        valid[1],
+        valid[0]));
+  }
+}
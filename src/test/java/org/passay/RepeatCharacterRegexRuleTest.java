@@ -41,6 +41,18 @@ public class RepeatCharacterRegexRuleTest extends AbstractRuleTest
           new PasswordData("p4vvvvvvv#n65"),
           codes(RepeatCharacterRegexRule.ERROR_CODE),
         },
+        // test repeating control character
+        {
+          new RepeatCharacterRegexRule(),
+          new PasswordData("p4\u0001\u0001\u0001\u0001\u0001#n65"),
+          null,
+        },
+        // test interrupted repeating character
+        {
+          new RepeatCharacterRegexRule(),
+          new PasswordData("p4&&&&#&&&&n65"),
+          null,
+        },
 
         // test valid password for long regex
         {
@@ -83,6 +95,14 @@ public class RepeatCharacterRegexRuleTest extends AbstractRuleTest
               "Password matches the illegal pattern '%s'.", "&&&&&"),
           },
         },
+        {
+          new RepeatCharacterRegexRule(),
+          new PasswordData("p4vvvv#&&&&&&&n65"),
+          new String[] {
+            String.format(
+              "Password matches the illegal pattern '%s'.", "&&&&&"),
+          },
+        },
       };
   }
 }
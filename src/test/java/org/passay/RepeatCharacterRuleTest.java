@@ -0,0 +1,158 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import org.testng.annotations.DataProvider;
+
+/**
+ * Unit test for {@link RepeatCharacterRule}.
+ *
+ * @author  Middleware Services
+ */
+public class RepeatCharacterRuleTest extends AbstractRuleTest
+{
+
+
+  /**
+   * @return  Test data.
+   *
+   * @throws  Exception  On test data generation failure.
+   */
+  @DataProvider(name = "passwords")
+  public Object[][] passwords()
+    throws Exception
+  {
+    return
+      new Object[][] {
+        // test valid password
+        {
+          new RepeatCharacterRule(),
+          new PasswordData("p4zRcv8#n65"),
+          null,
+        },
+        // test repeating character
+        {
+          new RepeatCharacterRule(),
+          new PasswordData("p4&&&&&#n65"),
+          codes(RepeatCharacterRule.ERROR_CODE),
+        },
+        // test longer repeating character
+        {
+          new RepeatCharacterRule(),
+          new PasswordData("p4vvvvvvv#n65"),
+          codes(RepeatCharacterRule.ERROR_CODE),
+        },
+        // test repeating control character
+        {
+          new RepeatCharacterRule(),
+          new PasswordData("p4\u0001\u0001\u0001\u0001\u0001#n65"),
+          null,
+        },
+        // test repeating supplementary character
+        {
+          new RepeatCharacterRule(3),
+          new PasswordData("p4\uD83D\uDE00\uD83D\uDE00\uD83D\uDE00#n65"),
+          codes(RepeatCharacterRule.ERROR_CODE),
+        },
+        // test multiple repeating characters
+        {
+          new RepeatCharacterRule(),
+          new PasswordData("p4vvvvvvv#n65&&&&&"),
+          codes(RepeatCharacterRule.ERROR_CODE, RepeatCharacterRule.ERROR_CODE),
+        },
+        // test multiple repeating characters reporting the first
+        {
+          new RepeatCharacterRule(5, 1, false),
+          new PasswordData("p4vvvvvvv#n65&&&&&"),
+          codes(RepeatCharacterRule.ERROR_CODE),
+        },
+
+        // test repeating block without block detection
+        {
+          new RepeatCharacterRule(),
+          new PasswordData("p4abcabcabc#n65"),
+          null,
+        },
+        // test repeating block
+        {
+          new RepeatCharacterRule(5, 3),
+          new PasswordData("p4abcabcabc#n65"),
+          codes(RepeatCharacterRule.ERROR_CODE),
+        },
+        // test repeating block shorter than sequence length
+        {
+          new RepeatCharacterRule(5, 3),
+          new PasswordData("p4abab#n65"),
+          null,
+        },
+        // test repeating block longer than block length
+        {
+          new RepeatCharacterRule(5, 3),
+          new PasswordData("p4passpass#n65"),
+          null,
+        },
+        // test recurring character with block length above sequence length
+        {
+          new RepeatCharacterRule(5, 8),
+          new PasswordData("correcthorse"),
+          null,
+        },
+        // test recurring character with block length at sequence length
+        {
+          new RepeatCharacterRule(3, 3),
+          new PasswordData("abcaxyz"),
+          null,
+        },
+        // test recurring character followed by other characters
+        {
+          new RepeatCharacterRule(3, 3),
+          new PasswordData("xyzxqrst"),
+          null,
+        },
+        // test repeating block with block length at sequence length
+        {
+          new RepeatCharacterRule(3, 3),
+          new PasswordData("p4xyzxyz#n65"),
+          codes(RepeatCharacterRule.ERROR_CODE),
+        },
+        // test repeating characters and blocks
+        {
+          new RepeatCharacterRule(5, 4),
+          new PasswordData("passpass#n65&&&&&"),
+          codes(RepeatCharacterRule.ERROR_CODE, RepeatCharacterRule.ERROR_CODE),
+        },
+      };
+  }
+
+
+  /**
+   * @return  Test data.
+   *
+   * @throws  Exception  On test data generation failure.
+   */
+  @DataProvider(name = "messages")
+  public Object[][] messages()
+    throws Exception
+  {
+    return
+      new Object[][] {
+        {
+          new RepeatCharacterRule(),
+          new PasswordData("p4&&&&&&#n65"),
+          new String[] {
+            String.format(
+              "Password matches the illegal pattern '%s'.", "&&&&&&"),
+          },
+        },
+        {
+          new RepeatCharacterRule(5, 2),
+          new PasswordData("p4xyxyxyx#aaaaa"),
+          new String[] {
+            String.format(
+              "Password matches the illegal pattern '%s'.", "aaaaa"),
+            String.format(
+              "Password matches the illegal pattern '%s'.", "xyxyxy"),
+          },
+        },
+      };
+  }
+}
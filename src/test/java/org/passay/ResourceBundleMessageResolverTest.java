@@ -0,0 +1,104 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link ResourceBundleMessageResolver}.
+ *
+ * @author  Middleware Services
+ */
+public class ResourceBundleMessageResolverTest
+{
+
+  /** For testing. */
+  private final ResourceBundleMessageResolver resolver =
+    new ResourceBundleMessageResolver(Locale.ENGLISH, Locale.FRENCH);
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passtest"})
+  public void checkLocales()
+    throws Exception
+  {
+    final RuleResult result = new LengthRule(8, 16).validate(
+      new PasswordData("short"));
+    final RuleResultDetail detail = result.getDetails().get(0);
+
+    AssertJUnit.assertEquals(
+      "Password must be at least 8 characters in length.",
+      resolver.resolve(detail));
+    AssertJUnit.assertEquals(
+      "Password must be at least 8 characters in length.",
+      resolver.resolve(detail, Locale.GERMANY));
+    AssertJUnit.assertEquals(
+      "Le mot de passe doit contenir au moins 8 caract\u00e8res.",
+      resolver.resolve(detail, Locale.FRENCH));
+    AssertJUnit.assertEquals(
+      "Le mot de passe doit contenir au moins 8 caract\u00e8res.",
+      resolver.resolve(detail, Locale.CANADA_FRENCH));
+    AssertJUnit.assertEquals(
+      "Password cannot contain whitespace characters.",
+      resolver.resolve(
+        new RuleResultDetail(WhitespaceRule.ERROR_CODE, null),
+        Locale.FRENCH));
+    AssertJUnit.assertEquals(
+      "UNKNOWN",
+      resolver.resolve(new RuleResultDetail("UNKNOWN", null), Locale.FRENCH));
+    AssertJUnit.assertTrue(resolver.getLocales().contains(Locale.ROOT));
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passtest"})
+  public void checkValidatorMessages()
+    throws Exception
+  {
+    final PasswordValidator validator = new PasswordValidator(
+      resolver,
+      Arrays.<Rule>asList(new LengthRule(8, 16)));
+    final RuleResult result = validator.validate(new PasswordData("short"));
+
+    final List<String> messages = validator.getMessages(result, Locale.FRENCH);
+    AssertJUnit.assertEquals(1, messages.size());
+    AssertJUnit.assertEquals(
+      "Le mot de passe doit contenir au moins 8 caract\u00e8res.",
+      messages.get(0));
+    AssertJUnit.assertEquals(
+      "Password must be at least 8 characters in length.",
+      new PasswordValidator(Arrays.<Rule>asList(new LengthRule(8, 16)))
+        .getMessages(result, Locale.FRENCH).get(0));
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passtest"})
+  public void checkNullLocale()
+    throws Exception
+  {
+    final ResourceBundleMessageResolver frenchResolver =
+      new ResourceBundleMessageResolver(Locale.FRENCH);
+    final PasswordValidator validator = new PasswordValidator(
+      frenchResolver,
+      Arrays.<Rule>asList(new LengthRule(8, 16)));
+    final RuleResult result = validator.validate(new PasswordData("short"));
+    final String message =
+      "Le mot de passe doit contenir au moins 8 caract\u00e8res.";
+    AssertJUnit.assertEquals(
+      message,
+      frenchResolver.resolve(result.getDetails().get(0), null));
+    AssertJUnit.assertEquals(
+      message,
+      validator.getMessages(result, null).get(0));
+  }
+}
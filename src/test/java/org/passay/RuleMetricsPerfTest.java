@@ -0,0 +1,100 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.testng.annotations.Test;
+
+/**
+ * Reports the overhead of collecting {@link RuleMetrics} when validating many
+ * passwords.
+ *
+ * @author  Middleware Services
+ */
+public class RuleMetricsPerfTest
+{
+
+  /** Number of passwords to validate. */
+  private static final int ITERATIONS = 20000;
+
+  /** Number of rounds of each measurement. */
+  private static final int ROUNDS = 5;
+
+
+  /**
+   * Executes the performance test with and without metrics.
+   */
+  @Test(groups = {"metricsperftest"}, timeOut = 120000)
+  public void execute()
+  {
+    final CharacterCharacteristicsRule charRule =
+      new CharacterCharacteristicsRule();
+    charRule.getRules().add(new DigitCharacterRule(1));
+    charRule.getRules().add(new SpecialCharacterRule(1));
+    charRule.getRules().add(new UppercaseCharacterRule(1));
+    charRule.getRules().add(new LowercaseCharacterRule(1));
+    charRule.setNumberOfCharacteristics(3);
+
+    final List<Rule> rules = new ArrayList<>();
+    rules.add(new LengthRule(8, 16));
+    rules.add(charRule);
+    rules.add(new WhitespaceRule());
+    rules.add(new AlphabeticalSequenceRule());
+    rules.add(new NumericalSequenceRule());
+    rules.add(new QwertySequenceRule());
+    rules.add(new RepeatCharacterRegexRule());
+
+    final PasswordData[] passwords = new PasswordData[ITERATIONS];
+    for (int i = 0; i < ITERATIONS; i++) {
+      passwords[i] = new PasswordData(UUID.randomUUID().toString());
+    }
+
+    final PasswordValidator validator = new PasswordValidator(rules);
+    final RuleMetrics metrics = new RuleMetrics();
+    long plain = Long.MAX_VALUE;
+    long measured = Long.MAX_VALUE;
+    for (int i = 0; i < ROUNDS; i++) {
+      validator.setValidationListener(null);
+      plain = Math.min(plain, time(validator, passwords));
+      validator.setValidationListener(metrics);
+      measured = Math.min(measured, time(validator, passwords));
+    }
+    System.out.println(
+      String.format(
+        "%s:: without metrics %s ns/op, with metrics %s ns/op, overhead %.1f%%",
+        getClass().getName(),
+        plain / ITERATIONS,
+        measured / ITERATIONS,
+        (measured - plain) * 100.0 / plain));
+    for (RuleMetrics.Snapshot s : metrics.snapshot()) {
+      System.out.println(
+        String.format(
+          "%s:: %s p50=%s ns p99=%s ns",
+          getClass().getName(),
+          s.getRule().getClass().getSimpleName(),
+          s.getPercentile(50),
+          s.getPercentile(99)));
+    }
+  }
+
+
+  /**
+   * Validates all passwords.
+   *
+   * @param  validator  to validate with
+   * @param  passwords  to validate
+   *
+   * @return  elapsed time in nanoseconds
+   */
+  private static long time(
+    final PasswordValidator validator,
+    final PasswordData[] passwords)
+  {
+    final long t = System.nanoTime();
+    for (PasswordData password : passwords) {
+      validator.validate(password);
+    }
+    return System.nanoTime() - t;
+  }
+}
@@ -0,0 +1,107 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link RuleMetrics}.
+ *
+ * @author  Middleware Services
+ */
+public class RuleMetricsTest
+{
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passtest"})
+  public void checkBuckets()
+    throws Exception
+  {
+    int last = -1;
+    for (long n = 0; n < 100000; n++) {
+      final int bucket = RuleMetrics.bucket(n);
+      AssertJUnit.assertTrue(bucket == last || bucket == last + 1);
+      AssertJUnit.assertTrue(RuleMetrics.bucketLowerBound(bucket) <= n);
+      AssertJUnit.assertTrue(RuleMetrics.bucketLowerBound(bucket + 1) > n);
+      AssertJUnit.assertTrue(
+        n < 8 || RuleMetrics.bucketLowerBound(bucket + 1) - n <= n / 8 + 1);
+      last = bucket;
+    }
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passtest"})
+  public void checkValidator()
+    throws Exception
+  {
+    final LengthRule lengthRule = new LengthRule(8, 16);
+    final DigitCharacterRule digitRule = new DigitCharacterRule(1);
+    final List<Rule> rules = new ArrayList<>();
+    rules.add(lengthRule);
+    rules.add(digitRule);
+
+    final RuleMetrics metrics = new RuleMetrics(3);
+    final PasswordValidator validator = new PasswordValidator(rules);
+    AssertJUnit.assertNull(validator.getValidationListener());
+    validator.setValidationListener(metrics);
+    validator.validate(new PasswordData("password"));
+    validator.validate(new PasswordData("pass1"));
+    validator.validate(new PasswordData("password1"));
+
+    final List<RuleMetrics.Snapshot> snapshots = metrics.snapshot();
+    AssertJUnit.assertEquals(2, snapshots.size());
+    for (RuleMetrics.Snapshot s : snapshots) {
+      AssertJUnit.assertEquals(3, s.getCount());
+      AssertJUnit.assertEquals(1, s.getFailureCount());
+      AssertJUnit.assertTrue(s.getTotalNanos() >= 0);
+      AssertJUnit.assertTrue(s.getPercentile(50) <= s.getPercentile(100));
+      AssertJUnit.assertTrue(s.getPercentile(0) >= 0);
+      AssertJUnit.assertTrue(
+        s.getRule() == lengthRule || s.getRule() == digitRule);
+    }
+
+    metrics.reset();
+    AssertJUnit.assertTrue(metrics.snapshot().isEmpty());
+
+    // cached results are not reported
+    final CachingPasswordValidator caching = new CachingPasswordValidator(
+      rules);
+    caching.setValidationListener(metrics);
+    caching.validate(new PasswordData("password"));
+    caching.validate(new PasswordData("password"));
+    AssertJUnit.assertEquals(1, metrics.snapshot().get(0).getCount());
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passtest"})
+  public void checkPercentile()
+    throws Exception
+  {
+    final Rule rule = new LengthRule(1);
+    final RuleResult result = new RuleResult(true);
+    final RuleMetrics metrics = new RuleMetrics(1);
+    for (int i = 1; i <= 1000; i++) {
+      metrics.ruleValidated(rule, result, i * 1000L);
+    }
+
+    final RuleMetrics.Snapshot s = metrics.snapshot().get(0);
+    AssertJUnit.assertEquals(1000, s.getCount());
+    AssertJUnit.assertEquals(0, s.getFailureCount());
+    AssertJUnit.assertEquals(500500.0, s.getMeanNanos(), 0.1);
+    AssertJUnit.assertTrue(Math.abs(s.getPercentile(50) - 500000) < 62500);
+    AssertJUnit.assertTrue(Math.abs(s.getPercentile(99) - 990000) < 123750);
+    AssertJUnit.assertTrue(s.getPercentile(100) >= 1000000);
+    AssertJUnit.assertTrue(new RuleMetrics(1).snapshot().isEmpty());
+  }
+}
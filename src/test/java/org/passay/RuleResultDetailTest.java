@@ -0,0 +1,126 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link RuleResultDetail}.
+ *
+ * @author  Middleware Services
+ */
+public class RuleResultDetailTest
+{
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passtest"})
+  public void checkParameters()
+    throws Exception
+  {
+    final Map<String, Object> params = new LinkedHashMap<>();
+    params.put("minimumLength", 8);
+    params.put("maximumLength", 16);
+
+    final RuleResultDetail mapDetail = new RuleResultDetail("CODE", params);
+    final RuleResultDetail arrayDetail = new RuleResultDetail(
+      "CODE",
+      new String[] {"minimumLength", "maximumLength"},
+      new Object[] {8, 16});
+    for (RuleResultDetail detail : new RuleResultDetail[] {
+        mapDetail,
+        arrayDetail,
+      }) {
+      AssertJUnit.assertEquals(params, detail.getParameters());
+      AssertJUnit.assertSame(detail.getParameters(), detail.getParameters());
+      AssertJUnit.assertEquals(16, detail.getValues()[1]);
+      AssertJUnit.assertEquals("maximumLength", detail.getNames()[1]);
+      detail.getValues()[1] = 0;
+      detail.getNames()[1] = "length";
+      AssertJUnit.assertEquals(16, detail.getValues()[1]);
+      AssertJUnit.assertEquals("maximumLength", detail.getNames()[1]);
+      AssertJUnit.assertEquals(
+        "CODE:{minimumLength=8, maximumLength=16}",
+        detail.toString());
+    }
+
+    final RuleResultDetail empty = new RuleResultDetail("CODE", null);
+    AssertJUnit.assertTrue(empty.getParameters().isEmpty());
+    AssertJUnit.assertEquals(0, empty.getValues().length);
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passtest"})
+  public void checkSharedParameters()
+    throws Exception
+  {
+    final String[] names = {"minimumLength", "maximumLength"};
+    final ParameterMap shared = new ParameterMap(names, 8, 16);
+    AssertJUnit.assertEquals(16, shared.get("maximumLength"));
+    AssertJUnit.assertTrue(shared.isShared());
+
+    final RuleResultDetail detail = new RuleResultDetail("CODE", shared);
+    AssertJUnit.assertEquals(
+      "CODE:{minimumLength=8, maximumLength=16}",
+      detail.toString());
+
+    shared.put("length", 4);
+    AssertJUnit.assertFalse(shared.isShared());
+    AssertJUnit.assertEquals(2, detail.getNames().length);
+    AssertJUnit.assertEquals(2, names.length);
+    AssertJUnit.assertEquals(
+      "CODE:{minimumLength=8, maximumLength=16, length=4}",
+      new RuleResultDetail("CODE", shared).toString());
+
+    // subclasses may extend the parameters of a rule
+    final LengthRule rule = new LengthRule(8, 16) {
+      @Override
+      protected Map<String, Object> createRuleResultDetailParameters()
+      {
+        final Map<String, Object> m = super.createRuleResultDetailParameters();
+        m.put("policy", "default");
+        return m;
+      }
+    };
+    AssertJUnit.assertEquals(
+      "TOO_SHORT:{minimumLength=8, maximumLength=16, policy=default}",
+      rule.validate(new PasswordData("short")).getDetails().get(0)
+        .toString());
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(
+    groups = {"passtest"},
+    expectedExceptions = UnsupportedOperationException.class
+  )
+  public void checkUnmodifiableParameters()
+    throws Exception
+  {
+    new RuleResultDetail("CODE", new String[] {"a"}, new Object[] {1})
+      .getParameters().put("b", 2);
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(
+    groups = {"passtest"},
+    expectedExceptions = IllegalArgumentException.class
+  )
+  public void checkParameterLength()
+    throws Exception
+  {
+    new RuleResultDetail("CODE", new String[] {"a", "b"}, new Object[] {1});
+  }
+}
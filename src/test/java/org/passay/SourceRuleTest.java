@@ -26,9 +26,16 @@ public class SourceRuleTest extends AbstractRuleTest
   /** For testing. */
   private final List<PasswordData.Reference> sources = new ArrayList<>();
 
+  /** For testing. */
+  private final List<PasswordData.Reference> multipleSources =
+    new ArrayList<>();
+
   /** For testing. */
   private final SourceRule rule = new SourceRule();
 
+  /** For testing. */
+  private final SourceRule firstMatchRule = new SourceRule(false);
+
   /** For testing. */
   private final SourceRule emptyRule = new SourceRule();
 
@@ -38,6 +45,10 @@ public class SourceRuleTest extends AbstractRuleTest
   public void createRules()
   {
     sources.add(new PasswordData.SourceReference("System A", "t3stUs3r04"));
+    multipleSources.add(
+      new PasswordData.SourceReference("System A", "t3stUs3r04"));
+    multipleSources.add(
+      new PasswordData.SourceReference("System B", "t3stUs3r04"));
   }
 
 
@@ -63,6 +74,22 @@ public class SourceRuleTest extends AbstractRuleTest
           PasswordData.newInstance(SOURCE_PASS, USER, sources),
           codes(SourceRule.ERROR_CODE),
         },
+        {
+          rule,
+          PasswordData.newInstance(SOURCE_PASS, USER, multipleSources),
+          codes(SourceRule.ERROR_CODE, SourceRule.ERROR_CODE),
+        },
+
+        {
+          firstMatchRule,
+          PasswordData.newInstance(VALID_PASS, USER, multipleSources),
+          null,
+        },
+        {
+          firstMatchRule,
+          PasswordData.newInstance(SOURCE_PASS, USER, multipleSources),
+          codes(SourceRule.ERROR_CODE),
+        },
 
         {
           emptyRule,
@@ -98,6 +125,15 @@ public class SourceRuleTest extends AbstractRuleTest
               "System A"),
           },
         },
+        {
+          firstMatchRule,
+          PasswordData.newInstance(SOURCE_PASS, USER, multipleSources),
+          new String[] {
+            String.format(
+              "Password cannot be the same as your %s password.",
+              "System A"),
+          },
+        },
       };
   }
 }
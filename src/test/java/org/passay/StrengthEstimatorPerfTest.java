@@ -0,0 +1,90 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.io.FileReader;
+import java.util.Random;
+import org.passay.dictionary.ArrayWordList;
+import org.passay.dictionary.WordListDictionary;
+import org.passay.dictionary.WordLists;
+import org.passay.dictionary.sort.ArraysSort;
+import org.testng.annotations.Parameters;
+import org.testng.annotations.Test;
+
+/**
+ * Reports the time it takes to estimate the strength of passwords of the
+ * maximum decomposed length with a large dictionary.
+ *
+ * @author  Middleware Services
+ */
+public class StrengthEstimatorPerfTest
+{
+
+  /** Number of rounds of the measurement. */
+  private static final int ROUNDS = 5;
+
+  /** Nanoseconds per millisecond. */
+  private static final long NANOS_PER_MILLI = 1000000;
+
+  /** Number of passwords estimated in each round. */
+  private static final int ITERATIONS = 2000;
+
+  /** One in this many password parts is a dictionary word. */
+  private static final int WORD_FREQUENCY = 3;
+
+  /** Printable ASCII characters mixed between dictionary words. */
+  private static final String CHARACTERS =
+    "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789!@#$%^&*";
+
+
+  /**
+   * Estimates passwords of {@link StrengthEstimator#DEFAULT_MAX_LENGTH}
+   * characters made of dictionary words and random characters.
+   *
+   * @param  dict  dictionary to load.
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Parameters("webFile")
+  @Test(groups = {"strengthperftest"}, timeOut = 120000)
+  public void execute(final String dict)
+    throws Exception
+  {
+    final ArrayWordList words = WordLists.createFromReader(
+      new FileReader[] {new FileReader(dict)},
+      false,
+      new ArraysSort());
+    final StrengthEstimator estimator = new StrengthEstimator(
+      new WordListDictionary(words));
+
+    final Random random = new Random(1);
+    final String[] passwords = new String[ITERATIONS];
+    for (int i = 0; i < ITERATIONS; i++) {
+      final StringBuilder sb = new StringBuilder();
+      while (sb.length() < StrengthEstimator.DEFAULT_MAX_LENGTH) {
+        if (random.nextInt(WORD_FREQUENCY) == 0) {
+          sb.append(words.get(random.nextInt(words.size())));
+        } else {
+          sb.append(CHARACTERS.charAt(random.nextInt(CHARACTERS.length())));
+        }
+      }
+      passwords[i] = sb.substring(0, StrengthEstimator.DEFAULT_MAX_LENGTH);
+    }
+
+    for (int round = 1; round <= ROUNDS; round++) {
+      final long t = System.nanoTime();
+      for (String password : passwords) {
+        estimator.estimate(password);
+      }
+
+      final long elapsed = System.nanoTime() - t;
+      System.out.println(
+        String.format(
+          "%s:: round %s estimated %s passwords in %s ms, %.3f ms each",
+          getClass().getName(),
+          round,
+          ITERATIONS,
+          elapsed / NANOS_PER_MILLI,
+          (double) elapsed / NANOS_PER_MILLI / ITERATIONS));
+    }
+  }
+}
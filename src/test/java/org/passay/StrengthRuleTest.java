@@ -0,0 +1,126 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import org.passay.dictionary.ArrayWordList;
+import org.passay.dictionary.WordListDictionary;
+import org.testng.AssertJUnit;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link StrengthRule} and {@link StrengthEstimator}.
+ *
+ * @author  Middleware Services
+ */
+public class StrengthRuleTest extends AbstractRuleTest
+{
+
+  /** Dictionary words. */
+  private static final String[] WORDS = new String[] {
+    "battery",
+    "correct",
+    "dragon",
+    "horse",
+    "monkey",
+    "password",
+    "staple",
+  };
+
+  /** For testing. */
+  private final StrengthEstimator estimator = new StrengthEstimator(
+    new WordListDictionary(new ArrayWordList(WORDS, false)));
+
+  /** For testing. */
+  private final StrengthRule rule = new StrengthRule(estimator);
+
+
+  /**
+   * @return  Test data.
+   *
+   * @throws  Exception  On test data generation failure.
+   */
+  @DataProvider(name = "passwords")
+  public Object[][] passwords()
+    throws Exception
+  {
+    return
+      new Object[][] {
+
+        {rule, new PasswordData("x7$Kq!2vLp#9"), null, },
+        {rule, new PasswordData("correcthorsebatterystaple"), null, },
+        {rule, new PasswordData("password"), codes(StrengthRule.ERROR_CODE), },
+        {rule, new PasswordData("Password1"), codes(StrengthRule.ERROR_CODE), },
+        {rule, new PasswordData("abcdefgh"), codes(StrengthRule.ERROR_CODE), },
+        {rule, new PasswordData("qwertyui"), codes(StrengthRule.ERROR_CODE), },
+        {rule, new PasswordData("aaaaaaaa"), codes(StrengthRule.ERROR_CODE), },
+        {rule, new PasswordData("drowssap"), codes(StrengthRule.ERROR_CODE), },
+      };
+  }
+
+
+  /**
+   * @return  Test data.
+   *
+   * @throws  Exception  On test data generation failure.
+   */
+  @DataProvider(name = "messages")
+  public Object[][] messages()
+    throws Exception
+  {
+    return
+      new Object[][] {
+        {
+          new StrengthRule(estimator, 4),
+          new PasswordData("monkey"),
+          new String[] {
+            "Password is too easy to guess, its strength is 0 but must be " +
+              "at least 4.",
+          },
+        },
+      };
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passtest"})
+  public void checkEstimate()
+    throws Exception
+  {
+    final StrengthEstimate estimate = estimator.estimate("Monkey123456");
+    AssertJUnit.assertEquals(2, estimate.getMatches().size());
+    AssertJUnit.assertEquals(
+      StrengthEstimate.Pattern.DICTIONARY,
+      estimate.getMatches().get(0).getPattern());
+    AssertJUnit.assertEquals(6, estimate.getMatches().get(0).getEnd());
+    AssertJUnit.assertEquals(
+      StrengthEstimate.Pattern.SEQUENCE,
+      estimate.getMatches().get(1).getPattern());
+
+    AssertJUnit.assertEquals(0d, estimator.estimate("").getGuessesLog10());
+    AssertJUnit.assertTrue(
+      estimator.estimate("x7$Kq!2vLp#9").getGuessesLog10() >
+        estimator.estimate("x7$Kq!2v").getGuessesLog10());
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passtest"})
+  public void checkBoundedLength()
+    throws Exception
+  {
+    final StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      sb.append((char) ('a' + i * 7 % 26));
+    }
+
+    final StrengthEstimate estimate = estimator.estimate(sb.toString());
+    AssertJUnit.assertEquals(StrengthEstimate.MAX_SCORE, estimate.getScore());
+    AssertJUnit.assertTrue(
+      estimate.getMatches().get(estimate.getMatches().size() - 1).getEnd() <=
+        StrengthEstimator.DEFAULT_MAX_LENGTH);
+  }
+}
@@ -0,0 +1,207 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.testng.AssertJUnit;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link ValidationSession}.
+ *
+ * @author  Middleware Services
+ */
+public class ValidationSessionTest
+{
+
+  /** For testing. */
+  private static final String USER = "testuser";
+
+  /** For testing. */
+  private final PasswordValidator validator = createValidator();
+
+
+  /**
+   * Creates a validator with tracked and untracked rules.
+   *
+   * @return  password validator
+   */
+  private static PasswordValidator createValidator()
+  {
+    final CharacterCharacteristicsRule charRule =
+      new CharacterCharacteristicsRule();
+    charRule.getRules().add(new DigitCharacterRule(1));
+    charRule.getRules().add(new SpecialCharacterRule(1));
+    charRule.getRules().add(new UppercaseCharacterRule(2));
+    charRule.getRules().add(new LowercaseCharacterRule(1));
+    charRule.setNumberOfCharacteristics(3);
+
+    final List<Rule> rules = new ArrayList<>();
+    rules.add(new LengthRule(8, 16));
+    rules.add(charRule);
+    rules.add(new DigitCharacterRule(2));
+    rules.add(new AlphabeticalCharacterRule(4));
+    rules.add(new WhitespaceRule());
+    rules.add(new AlphabeticalSequenceRule(3, true));
+    rules.add(new NumericalSequenceRule(4, false, false));
+    rules.add(new QwertySequenceRule());
+    rules.add(new RepeatCharacterRegexRule(3));
+    rules.add(new UsernameRule(true, true));
+    rules.add(new IllegalRegexRule("\\d\\d\\d\\d"));
+    return new PasswordValidator(rules);
+  }
+
+
+  /**
+   * @return  passwords to type into a session.
+   *
+   * @throws  Exception  On test failure.
+   */
+  @DataProvider(name = "passwords")
+  public Object[][] createPasswords()
+    throws Exception
+  {
+    return
+      new Object[][] {
+        {"p4zRcv8#n65"},
+        {"xyzabc1234 098"},
+        {"aaaABCDE5678qwerty!!!"},
+        {"ZYXwvuTEST321gfdsa"},
+        {"11111zxcvbn-=[];"},
+        {"tEsTuSeR%%%%a"},
+        {"\t\n\u0001\u0001\u0001\u0001"},
+        {"ab\ud83d\ude00\ud83d\ude00\ud83d\ude00cd"},
+        {"yzabcdefghijklmnopqrstuvwxyzab"},
+      };
+  }
+
+
+  /**
+   * @param  password  to type.
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passtest"}, dataProvider = "passwords")
+  public void typeAndDelete(final String password)
+    throws Exception
+  {
+    final PasswordData data = new PasswordData();
+    data.setUsername(USER);
+
+    final ValidationSession session = new ValidationSession(validator, data);
+    checkSession(session, "");
+    for (int i = 0; i < password.length(); i++) {
+      session.append(password.charAt(i));
+      checkSession(session, password.substring(0, i + 1));
+    }
+    for (int i = password.length() - 1; i >= 0; i--) {
+      session.delete();
+      checkSession(session, password.substring(0, i));
+    }
+  }
+
+
+  /**
+   * @param  password  to edit.
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passtest"}, dataProvider = "passwords")
+  public void edit(final String password)
+    throws Exception
+  {
+    final PasswordData data = new PasswordData();
+    data.setUsername(USER);
+
+    final ValidationSession session = new ValidationSession(validator, data);
+    session.append(password);
+    checkSession(session, password);
+
+    final String reversed = new StringBuilder(password).reverse().toString();
+    session.setPassword(reversed);
+    checkSession(session, reversed);
+
+    final String middle = password.substring(0, password.length() / 2) +
+      "abc" + password.substring(password.length() / 2);
+    session.setPassword(middle);
+    checkSession(session, middle);
+
+    session.truncate(2);
+    checkSession(session, middle.substring(0, 2));
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passtest"})
+  public void checkIncremental()
+    throws Exception
+  {
+    final ValidationSession session = new ValidationSession(validator);
+    for (int i = 0; i < validator.getRules().size(); i++) {
+      AssertJUnit.assertEquals(i < 9, session.isIncremental(i));
+    }
+
+    final List<Rule> rules = new ArrayList<>();
+    rules.add(new QwertySequenceRule(5, true, false));
+    rules.add(
+      new LengthRule(8) {
+        @Override
+        public RuleResult validate(final PasswordData passwordData)
+        {
+          return new RuleResult(true);
+        }
+      });
+
+    final PasswordValidator v = new PasswordValidator(rules);
+    final ValidationSession s = new ValidationSession(v);
+    AssertJUnit.assertTrue(s.isIncremental(0));
+    AssertJUnit.assertFalse(s.isIncremental(1));
+    s.append("qwertyuiop[]\\");
+    AssertJUnit.assertEquals(1, s.validate().getDetails().size());
+    AssertJUnit.assertEquals(
+      v.validate(new PasswordData(s.getPassword())).getDetails().toString(),
+      s.validate().getDetails().toString());
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(
+    groups = {"passtest"},
+    expectedExceptions = IllegalStateException.class
+  )
+  public void deleteEmpty()
+    throws Exception
+  {
+    new ValidationSession(validator).delete();
+  }
+
+
+  /**
+   * Asserts that a session has the same result as the validator.
+   *
+   * @param  session  to check
+   * @param  password  expected password of the session
+   */
+  private void checkSession(
+    final ValidationSession session,
+    final String password)
+  {
+    AssertJUnit.assertEquals(password, session.getPassword());
+    AssertJUnit.assertEquals(password.length(), session.length());
+
+    final PasswordData data = new PasswordData(password);
+    data.setUsername(USER);
+
+    final RuleResult expected = validator.validate(data);
+    final RuleResult actual = session.validate();
+    AssertJUnit.assertEquals(expected.isValid(), actual.isValid());
+    AssertJUnit.assertEquals(
+      expected.getDetails().toString(),
+      actual.getDetails().toString());
+  }
+}
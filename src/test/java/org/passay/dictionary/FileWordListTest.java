@@ -1,7 +1,20 @@
 /* See LICENSE for licensing and NOTICE for copyright. */
 package org.passay.dictionary;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import org.testng.AssertJUnit;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
@@ -87,4 +100,130 @@ public class FileWordListTest extends AbstractWordListTest
     fwl = new FileWordList(new RandomAccessFile(file2, "r"), false, 0);
     fwl.close();
   }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"wltest"})
+  public void lineTerminators()
+    throws Exception
+  {
+    final File file = File.createTempFile("passay", ".txt");
+    file.deleteOnExit();
+    try (OutputStream out = new FileOutputStream(file)) {
+      out.write(
+        "\r\na\r\nb\rc\nd\u00e9\r\ne".getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    final RandomAccessFile raf = new RandomAccessFile(file, "r");
+    final FileWordList fwl = new FileWordList(raf, true, 100);
+    final String[] expected = {"", "a", "b", "c", "d\u00e9", "e"};
+    AssertJUnit.assertEquals(expected.length, fwl.size());
+    for (int i = 0; i < expected.length; i++) {
+      AssertJUnit.assertEquals(expected[i], fwl.get(i));
+    }
+    fwl.close();
+    try {
+      fwl.get(expected.length - 1);
+      AssertJUnit.fail("Should have thrown IllegalStateException");
+    } catch (IllegalStateException e) {
+      AssertJUnit.assertEquals(IOException.class, e.getCause().getClass());
+    }
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"wltest"})
+  public void concurrentReads()
+    throws Exception
+  {
+    final List<String> expected = new ArrayList<>(wordList.size());
+    for (int i = 0; i < wordList.size(); i += 97) {
+      expected.add(wordList.get(i));
+    }
+
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final List<Future<Boolean>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        futures.add(
+          executor.submit(
+            new Callable<Boolean>() {
+              @Override
+              public Boolean call()
+              {
+                for (int i = 0; i < expected.size(); i++) {
+                  if (!expected.get(i).equals(wordList.get(i * 97))) {
+                    return false;
+                  }
+                }
+                return true;
+              }
+            }));
+      }
+      for (Future<Boolean> future : futures) {
+        AssertJUnit.assertTrue(future.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+
+  /**
+   * @param  file  dictionary to load.
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Parameters("fbsdFileSorted")
+  @Test(groups = {"wltest"})
+  public void interruptedRead(final String file)
+    throws Exception
+  {
+    final FileWordList fwl = new FileWordList(
+      new RandomAccessFile(file, "r"),
+      true,
+      0);
+    try {
+      final String expected = fwl.get(200);
+      final AtomicReference<String> interruptedWord = new AtomicReference<>();
+      final AtomicBoolean stillInterrupted = new AtomicBoolean();
+      final Thread reader = new Thread(
+        new Runnable() {
+          @Override
+          public void run()
+          {
+            Thread.currentThread().interrupt();
+            interruptedWord.set(fwl.get(200));
+            stillInterrupted.set(Thread.currentThread().isInterrupted());
+          }
+        });
+      reader.start();
+      reader.join();
+      AssertJUnit.assertEquals(expected, interruptedWord.get());
+      AssertJUnit.assertTrue(stillInterrupted.get());
+
+      // the file is still open for other threads
+      final ExecutorService executor = Executors.newSingleThreadExecutor();
+      try {
+        final Future<String> future = executor.submit(
+          new Callable<String>() {
+            @Override
+            public String call()
+            {
+              return fwl.get(200);
+            }
+          });
+        AssertJUnit.assertEquals(expected, future.get());
+      } finally {
+        executor.shutdown();
+      }
+      AssertJUnit.assertEquals(expected, fwl.get(200));
+    } finally {
+      fwl.close();
+    }
+  }
 }
@@ -0,0 +1,266 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.dictionary.sort;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.passay.dictionary.FileWordList;
+import org.passay.dictionary.TestUtil;
+import org.passay.dictionary.WordLists;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Parameters;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link ExternalMergeSort}.
+ *
+ * @author  Middleware Services
+ */
+public class ExternalMergeSortTest
+{
+
+
+  /**
+   * Sorts words in memory when they fit in one chunk.
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"sorttest"})
+  public void sortInMemory()
+    throws Exception
+  {
+    final StringWriter writer = new StringWriter();
+    final long count = new ExternalMergeSort().sort(
+      new Reader[] {
+        new StringReader("pear\n\napple\nPear\n"),
+        new StringReader("fig\r\napple\r\n"),
+      },
+      writer,
+      true);
+    AssertJUnit.assertEquals(4, count);
+    AssertJUnit.assertEquals("Pear\napple\nfig\npear\n", writer.toString());
+  }
+
+
+  /**
+   * Keeps the first occurrence of words that are equal ignoring case, across
+   * chunks and merge passes.
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"sorttest"})
+  public void sortCaseInsensitive()
+    throws Exception
+  {
+    final StringWriter writer = new StringWriter();
+    final long count = new ExternalMergeSort(new ArraysSort(), 2, 2, null).sort(
+      new Reader[] {
+        new StringReader("Pear\napple\nfig\nFIG\n"),
+        new StringReader("pear\nAPPLE\nkiwi\nfig\napple\n"),
+      },
+      writer,
+      false);
+    AssertJUnit.assertEquals(4, count);
+    AssertJUnit.assertEquals("apple\nfig\nkiwi\nPear\n", writer.toString());
+  }
+
+
+  /**
+   * Merges words containing unpaired surrogates unchanged.
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"sorttest"})
+  public void sortSurrogates()
+    throws Exception
+  {
+    final StringWriter writer = new StringWriter();
+    final long count = new ExternalMergeSort(new ArraysSort(), 1, 2, null).sort(
+      new Reader[] {
+        new StringReader("b\ud800\na\udc00x\n\ud83d\ude00\n"),
+        new StringReader("\u00e9\n"),
+      },
+      writer,
+      true);
+    AssertJUnit.assertEquals(4, count);
+    AssertJUnit.assertEquals(
+      "a\udc00x\nb\ud800\n\u00e9\n\ud83d\ude00\n",
+      writer.toString());
+  }
+
+
+  /**
+   * Closes every reader when reading one of them fails.
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"sorttest"})
+  public void closeReaders()
+    throws Exception
+  {
+    final boolean[] closed = new boolean[3];
+    final Reader[] readers = new Reader[closed.length];
+    for (int i = 0; i < readers.length; i++) {
+      final int index = i;
+      readers[i] = new StringReader("word\n") {
+        @Override
+        public int read(final char[] cbuf, final int off, final int len)
+          throws IOException
+        {
+          if (index == 1) {
+            throw new IOException("Read failed");
+          }
+          return super.read(cbuf, off, len);
+        }
+
+        @Override
+        public void close()
+        {
+          closed[index] = true;
+          super.close();
+        }
+      };
+    }
+    try {
+      new ExternalMergeSort().sort(readers, new StringWriter(), true);
+      AssertJUnit.fail("Should have thrown IOException");
+    } catch (IOException e) {
+      AssertJUnit.assertEquals("Read failed", e.getMessage());
+    }
+    AssertJUnit.assertTrue(closed[0] && closed[1] && closed[2]);
+  }
+
+
+  /**
+   * Sorts a dictionary in many chunks and checks that the result can be read
+   * by a {@link FileWordList}.
+   *
+   * @param  dict  to load.
+   * @param  sortedDict  dictionary sorted case sensitively.
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Parameters({ "webFile", "fbsdFileSorted" })
+  @Test(groups = {"sorttest"})
+  public void sortFile(final String dict, final String sortedDict)
+    throws Exception
+  {
+    final File tempDir = new File(
+      System.getProperty("java.io.tmpdir"),
+      "passay-sort-test-" + System.nanoTime());
+    AssertJUnit.assertTrue(tempDir.mkdir());
+    try {
+      // case insensitive with enough chunks for several merge passes
+      final File insensitive = sortFile(
+        new ExternalMergeSort(new ParallelMergeSort(), 10000, 4, tempDir),
+        dict,
+        tempDir,
+        false);
+      final String[] words = TestUtil.fileToArray(dict);
+      Arrays.sort(words, WordLists.CASE_INSENSITIVE_COMPARATOR);
+      final List<String> expected = new ArrayList<>();
+      for (String word : words) {
+        if (expected.isEmpty() ||
+            WordLists.CASE_INSENSITIVE_COMPARATOR.compare(
+              expected.get(expected.size() - 1), word) != 0) {
+          expected.add(word);
+        }
+      }
+      final FileWordList insensitiveList = new FileWordList(
+        new RandomAccessFile(insensitive, "r"),
+        false);
+      try {
+        AssertJUnit.assertEquals(expected.size(), insensitiveList.size());
+        for (int i = 0; i < expected.size(); i++) {
+          AssertJUnit.assertEquals(
+            0,
+            WordLists.CASE_INSENSITIVE_COMPARATOR.compare(
+              expected.get(i),
+              insensitiveList.get(i)));
+        }
+      } finally {
+        insensitiveList.close();
+      }
+
+      // case sensitive matches the sorted dictionary
+      final File sensitive = sortFile(
+        new ExternalMergeSort(new ArraysSort(), 100, 8, tempDir),
+        sortedDict,
+        tempDir,
+        true);
+      final String[] sortedWords = TestUtil.fileToArray(sortedDict);
+      final FileWordList sensitiveList = new FileWordList(
+        new RandomAccessFile(sensitive, "r"));
+      try {
+        AssertJUnit.assertEquals(sortedWords.length, sensitiveList.size());
+        for (int i = 0; i < sortedWords.length; i++) {
+          AssertJUnit.assertEquals(sortedWords[i], sensitiveList.get(i));
+        }
+      } finally {
+        sensitiveList.close();
+      }
+
+      // only the outputs remain
+      AssertJUnit.assertEquals(2, tempDir.listFiles().length);
+    } finally {
+      for (File f : tempDir.listFiles()) {
+        f.delete();
+      }
+      tempDir.delete();
+    }
+  }
+
+
+  /**
+   * Sorts the supplied dictionary into a new file.
+   *
+   * @param  sort  to sort with
+   * @param  dict  to sort
+   * @param  dir  to create the file in
+   * @param  caseSensitive  whether to sort case sensitively
+   *
+   * @return  sorted file
+   *
+   * @throws  Exception  On test failure.
+   */
+  private File sortFile(
+    final ExternalMergeSort sort,
+    final String dict,
+    final File dir,
+    final boolean caseSensitive)
+    throws Exception
+  {
+    final File output = File.createTempFile("sorted", null, dir);
+    try (Writer writer = new OutputStreamWriter(
+        new FileOutputStream(output),
+        StandardCharsets.ISO_8859_1)) {
+      final long start = System.nanoTime();
+      final long count = sort.sort(
+        new Reader[] {
+          new InputStreamReader(
+            new FileInputStream(dict),
+            StandardCharsets.ISO_8859_1),
+        },
+        writer,
+        caseSensitive);
+      System.out.println(
+        String.format(
+          "ExternalMergeSort sort time (%s): %sns",
+          count,
+          System.nanoTime() - start));
+    }
+    return output;
+  }
+}
@@ -2,7 +2,12 @@
 package org.passay.dictionary.sort;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 import org.passay.dictionary.TestUtil;
+import org.passay.dictionary.WordLists;
 import org.testng.AssertJUnit;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
@@ -95,6 +100,55 @@ public class SorterTest
   }
 
 
+  /**
+   * @param  dict  to load.
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Parameters("fbsdFile")
+  @Test(groups = {"sorttest"})
+  public void parallelMergeSort(final String dict)
+    throws Exception
+  {
+    final String[] array = TestUtil.fileToArray(dict);
+    AssertJUnit.assertFalse(Arrays.equals(sortedArray, array));
+    doSort(new ParallelMergeSort(), array);
+    AssertJUnit.assertTrue(Arrays.equals(sortedArray, array));
+  }
+
+
+  /**
+   * @param  dict  to load.
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Parameters("fbsdFile")
+  @Test(groups = {"sorttest"})
+  public void parallelMergeSortCaseInsensitive(final String dict)
+    throws Exception
+  {
+    // repeat the words in mixed case so the array is split and merged
+    final String[] words = TestUtil.fileToArray(dict);
+    final String[] array = new String[words.length * 100];
+    for (int i = 0; i < array.length; i++) {
+      final String word = words[i % words.length];
+      array[i] = i % 2 == 0 ? word.toUpperCase() : word;
+    }
+    final String[] expected = Arrays.copyOf(array, array.length);
+    Arrays.sort(expected, WordLists.CASE_INSENSITIVE_COMPARATOR);
+    final ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      doSort(
+        new ParallelMergeSort(pool),
+        array,
+        WordLists.CASE_INSENSITIVE_COMPARATOR);
+    } finally {
+      pool.shutdown();
+    }
+    AssertJUnit.assertTrue(Arrays.equals(expected, array));
+  }
+
+
   /**
    * @param  dict  to load.
    *
@@ -129,6 +183,43 @@ public class SorterTest
   }
 
 
+  /**
+   * Times the sorters that handle large inputs on the shuffled words of a large
+   * dictionary, which parallel merge sort splits across threads.
+   *
+   * @param  dict  to load.
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Parameters("webFile")
+  @Test(groups = {"sortperftest"})
+  public void largeSort(final String dict)
+    throws Exception
+  {
+    final String[] words = TestUtil.fileToArray(dict);
+    Collections.shuffle(Arrays.asList(words), new Random(words.length));
+    for (Comparator<String> c : Arrays.asList(
+        WordLists.CASE_SENSITIVE_COMPARATOR,
+        WordLists.CASE_INSENSITIVE_COMPARATOR)) {
+      // the first round warms up each sorter
+      for (int i = 0; i < 3; i++) {
+        for (ArraySorter s : new ArraySorter[] {
+            new ArraysSort(),
+            new QuickSort(),
+            new ParallelMergeSort(),
+          }) {
+          final String[] array = Arrays.copyOf(words, words.length);
+          doSort(s, array, c);
+          // quick sort is not stable, so only the order is compared
+          for (int j = 1; j < array.length; j++) {
+            AssertJUnit.assertTrue(c.compare(array[j - 1], array[j]) <= 0);
+          }
+        }
+      }
+    }
+  }
+
+
   /**
    * Sorts the supplied list with the supplied sorter.
    *
@@ -144,4 +235,26 @@ public class SorterTest
       s.getClass().getSimpleName() + " sort time (" + array.length + "): " + t +
       "ns");
   }
+
+
+  /**
+   * Sorts the supplied list with the supplied sorter and comparator.
+   *
+   * @param  s  sorter to sort with
+   * @param  array  to sort
+   * @param  c  comparator to sort with
+   */
+  public void doSort(
+    final ArraySorter s,
+    final String[] array,
+    final Comparator<String> c)
+  {
+    long t = System.nanoTime();
+    s.sort(array, c);
+    t = System.nanoTime() - t;
+    System.out.println(
+      s.getClass().getSimpleName() + " sort time (" + array.length + ", " +
+      (c == WordLists.CASE_SENSITIVE_COMPARATOR ? "case sensitive" :
+        "case insensitive") + "): " + t + "ns");
+  }
 }
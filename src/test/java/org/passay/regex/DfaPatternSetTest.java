@@ -0,0 +1,106 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.regex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link DfaPatternSet}.
+ *
+ * @author  Middleware Services
+ */
+public class DfaPatternSetTest
+{
+
+  /** Expressions of the set. */
+  private static final List<String> REGEXES = Arrays.asList(
+    "\\d{4}",
+    "(?i)acme",
+    "^[a-z]+$",
+    "(19|20)\\d\\d",
+    "qwerty|asdf",
+    "(.)\\.\\.",
+    "!$");
+
+  /** Inputs to match the set against. */
+  private static final String[] INPUTS = {
+    "",
+    "password",
+    "ACME2019",
+    "xx1999yy",
+    "qwerty!",
+    "a..b",
+    "Passw0rd!",
+    "asdf1234acme",
+  };
+
+
+  /** @throws  Exception  On test failure. */
+  @Test(groups = {"passtest"})
+  public void compareWithPatterns()
+    throws Exception
+  {
+    final DfaPatternSet set = DfaPatternSet.compile(REGEXES);
+    AssertJUnit.assertEquals(REGEXES.size(), set.size());
+    for (String input : INPUTS) {
+      final List<Integer> expected = new ArrayList<>();
+      for (int i = 0; i < REGEXES.size(); i++) {
+        final Matcher m = Pattern.compile(REGEXES.get(i)).matcher(input);
+        final MatchResult result = set.findMatch(input, i);
+        if (m.find()) {
+          expected.add(i);
+          AssertJUnit.assertEquals(input, m.start(), result.start());
+          AssertJUnit.assertEquals(input, m.group(), result.group());
+        } else {
+          AssertJUnit.assertNull(input, result);
+        }
+      }
+
+      final List<Integer> actual = new ArrayList<>();
+      for (int i : set.find(input)) {
+        actual.add(i);
+      }
+      AssertJUnit.assertEquals(input, expected, actual);
+    }
+  }
+
+
+  /** @throws  Exception  On test failure. */
+  @Test(groups = {"passtest"})
+  public void caseInsensitive()
+    throws Exception
+  {
+    final DfaPatternSet set = DfaPatternSet.compile(
+      Arrays.asList("acme", "corp"),
+      Pattern.CASE_INSENSITIVE);
+    AssertJUnit.assertTrue(
+      Arrays.equals(new int[] {0, 1}, set.find("AcmeCORP")));
+    AssertJUnit.assertTrue(Arrays.equals(new int[0], set.find("ac-me")));
+  }
+
+
+  /** @throws  Exception  On test failure. */
+  @Test(groups = {"passtest"})
+  public void invalidArguments()
+    throws Exception
+  {
+    try {
+      DfaPatternSet.compile(new ArrayList<String>());
+      AssertJUnit.fail("Should have thrown IllegalArgumentException");
+    } catch (Exception e) {
+      AssertJUnit.assertEquals(IllegalArgumentException.class, e.getClass());
+    }
+    try {
+      DfaPatternSet.compile(REGEXES).findMatch("acme", REGEXES.size());
+      AssertJUnit.fail("Should have thrown IndexOutOfBoundsException");
+    } catch (Exception e) {
+      AssertJUnit.assertEquals(IndexOutOfBoundsException.class, e.getClass());
+    }
+  }
+}
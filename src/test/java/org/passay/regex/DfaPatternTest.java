@@ -0,0 +1,251 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.regex;
+
+import java.util.Random;
+import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.testng.AssertJUnit;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link DfaPattern}.
+ *
+ * @author  Middleware Services
+ */
+public class DfaPatternTest
+{
+
+  /** Inputs to match every pattern against. */
+  private static final String[] INPUTS = {
+    "",
+    "abc",
+    "xabcx",
+    "aab",
+    "ABC",
+    "aBc",
+    "12a345",
+    "a\nc",
+    "a\n",
+    "ab\r\n",
+    "abab c",
+    "foo@bar",
+    "ababcx",
+    "abcabdabc",
+    "PassWord1",
+    "qwertyuiop",
+    "\u00e9t\u00e9",
+    ".b.b",
+    "x12123",
+    "\u01c5\u00aaB",
+  };
+
+
+  /**
+   * @return  Test data.
+   *
+   * @throws  Exception  On test data generation failure.
+   */
+  @DataProvider(name = "patterns")
+  public Object[][] patterns()
+    throws Exception
+  {
+    return
+      new Object[][] {
+        {"abc", 0},
+        {"a|b", 0},
+        {"(a|ab)(c|bcd)(d*)", 0},
+        {"^abc$", 0},
+        {"a$", 0},
+        {"^$", 0},
+        {"\\Aab\\z", 0},
+        {"a+b", 0},
+        {"[a-c]{2,3}", 0},
+        {"\\d{3}", 0},
+        {"(?i)AbC", 0},
+        {"abc", Pattern.CASE_INSENSITIVE},
+        {"a.c", 0},
+        {"a.c", Pattern.DOTALL},
+        {"(?s)a.b", 0},
+        {"[^a]+", 0},
+        {"\\w+@\\w+", 0},
+        {"(ab)*c", 0},
+        {"a{2}b{0,2}", 0},
+        {"\\p{Upper}\\p{Lower}", 0},
+        {"\\p{L}+", 0},
+        {"\\Qa.b\\E", 0},
+        {"\\Q.b\\E?", 0},
+        {"\\Q.b\\E{2}", 0},
+        {"x\\Q\\E+", 0},
+        {"\\Q12\\E{2}3?", 0},
+        {"[\\Q.]\\E]+b", 0},
+        {"\\Q\\", 0},
+        {"(?i)\\p{Upper}\\p{Lower}", 0},
+        {"(?i)[^\\p{Lower}]+", 0},
+        {"(?i)\\P{Upper}", 0},
+        {"(?i)\\p{Lu}+", 0},
+        {"(?i)[\\P{Ll}]+", 0},
+        {"(abc|abd)+", 0},
+        {"\\x41|\\u0062|\\0141", 0},
+        {"(?:foo|bar)@?", 0},
+        {"(?<name>x)?y*", 0},
+        {"(?i)pass(word)?\\d", 0},
+        {"[qwerty]{4,}", 0},
+        {"a*?b", 0},
+      };
+  }
+
+
+  /**
+   * @return  Test data.
+   *
+   * @throws  Exception  On test data generation failure.
+   */
+  @DataProvider(name = "unsupported")
+  public Object[][] unsupported()
+    throws Exception
+  {
+    return
+      new Object[][] {
+        {"(a)\\1"},
+        {"(?<n>a)\\k<n>"},
+        {"(?=a)b"},
+        {"(?<!a)b"},
+        {"(?>a)"},
+        {"a++"},
+        {"\\bword"},
+        {"(?m)^a"},
+        {"[a-z&&[^e]]"},
+        {"a{1001}"},
+        {"[a-"},
+        {"(a"},
+        {"*a"},
+      };
+  }
+
+
+  /**
+   * @param  regex  to compile
+   * @param  flags  to compile with
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"passtest"}, dataProvider = "patterns")
+  public void compareWithPattern(final String regex, final int flags)
+    throws Exception
+  {
+    final Pattern pattern = Pattern.compile(regex, flags);
+    final DfaPattern dfaPattern = DfaPattern.compile(regex, flags);
+    for (String input : INPUTS) {
+      final String message = regex + " on " + input;
+      final Matcher m = pattern.matcher(input);
+      final boolean found = m.find();
+      AssertJUnit.assertEquals(message, found, dfaPattern.find(input));
+      AssertJUnit.assertEquals(
+        message,
+        pattern.matcher(input).matches(),
+        dfaPattern.matches(input));
+
+      final MatchResult result = dfaPattern.findMatch(input);
+      if (found) {
+        AssertJUnit.assertNotNull(message, result);
+        AssertJUnit.assertEquals(message, m.start(), result.start());
+        AssertJUnit.assertTrue(message, result.end() >= m.end());
+        AssertJUnit.assertEquals(
+          message,
+          input.substring(result.start(), result.end()),
+          result.group());
+        AssertJUnit.assertTrue(
+          message,
+          pattern.matcher(input).region(result.start(), result.end())
+            .useAnchoringBounds(false).useTransparentBounds(true).matches());
+      } else {
+        AssertJUnit.assertNull(message, result);
+      }
+    }
+  }
+
+
+  /**
+   * @param  regex  to compile
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test(
+    groups = {"passtest"},
+    dataProvider = "unsupported",
+    expectedExceptions = PatternSyntaxException.class)
+  public void rejectUnsupported(final String regex)
+    throws Exception
+  {
+    DfaPattern.compile(regex);
+  }
+
+
+  /** @throws  Exception  On test failure. */
+  @Test(groups = {"passtest"})
+  public void leftmostLongest()
+    throws Exception
+  {
+    final MatchResult result = DfaPattern.compile("a|ab|abc").findMatch(
+      "xxabcd");
+    AssertJUnit.assertEquals(2, result.start());
+    AssertJUnit.assertEquals(5, result.end());
+    AssertJUnit.assertEquals("abc", result.group(0));
+    AssertJUnit.assertEquals(0, result.groupCount());
+  }
+
+
+  /** @throws  Exception  On test failure. */
+  @Test(groups = {"passtest"})
+  public void unsupportedFlags()
+    throws Exception
+  {
+    try {
+      DfaPattern.compile("a", Pattern.MULTILINE);
+      AssertJUnit.fail("Should have thrown IllegalArgumentException");
+    } catch (Exception e) {
+      AssertJUnit.assertEquals(IllegalArgumentException.class, e.getClass());
+    }
+  }
+
+
+  /** @throws  Exception  On test failure. */
+  @Test(groups = {"passtest"}, timeOut = 10000)
+  public void catastrophicBacktracking()
+    throws Exception
+  {
+    final StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 100000; i++) {
+      sb.append('a');
+    }
+    sb.append('!');
+
+    AssertJUnit.assertFalse(DfaPattern.compile("(a+)+$").matches(sb));
+    AssertJUnit.assertFalse(DfaPattern.compile("^(a|aa)*$").find(sb));
+    AssertJUnit.assertNull(DfaPattern.compile("(\\w+\\s?)*!x").findMatch(sb));
+  }
+
+
+  /** @throws  Exception  On test failure. */
+  @Test(groups = {"passtest"}, timeOut = 30000)
+  public void largeAutomaton()
+    throws Exception
+  {
+    // forward automaton has more states than are cached
+    final DfaPattern dfaPattern = DfaPattern.compile("a[ab]{15}c");
+    final Random random = new Random(1);
+    final StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 50000; i++) {
+      sb.append(random.nextBoolean() ? 'a' : 'b');
+    }
+    AssertJUnit.assertFalse(dfaPattern.find(sb));
+    sb.append("ab").append(sb, 0, 14).append('c');
+    AssertJUnit.assertTrue(dfaPattern.find(sb));
+    AssertJUnit.assertEquals(
+      sb.length() - 17,
+      dfaPattern.findMatch(sb).start());
+  }
+}